@@ -0,0 +1,38 @@
+plugins {
+    java
+}
+
+repositories {
+    mavenCentral()
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(8))
+    }
+}
+
+val jmhVersion = "1.36"
+
+dependencies {
+    implementation(project(":lib"))
+    implementation("com.couchbase.client:java-client:3.3.4")
+    implementation("org.openjdk.jmh:jmh-core:$jmhVersion")
+
+    annotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
+}
+
+// Runs the benchmarks, reporting throughput and allocation rate:
+//   gradle :benchmarks:jmh
+// Extra JMH options can be given with -PjmhArgs, e.g. -PjmhArgs="-f 1 -wi 2 -i 3 ExpressionBenchmark"
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks with the GC profiler."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args("-prof", "gc")
+    val extraArgs = project.findProperty("jmhArgs") as String?
+    if (extraArgs != null) {
+        args(extraArgs.split(" ").filter { it.isNotBlank() })
+    }
+}
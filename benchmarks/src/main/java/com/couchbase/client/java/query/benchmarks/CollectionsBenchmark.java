@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.java.query.benchmarks;
+
+import com.couchbase.client.java.query.dsl.Expression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.couchbase.client.java.query.Select.select;
+import static com.couchbase.client.java.query.dsl.Expression.s;
+import static com.couchbase.client.java.query.dsl.Expression.x;
+import static com.couchbase.client.java.query.dsl.functions.Collections.anyIn;
+
+/**
+ * Building and rendering nested <code>ANY ... IN ... SATISFIES ... END</code> comprehensions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CollectionsBenchmark {
+
+    @Param({"2", "8", "32"})
+    public int nesting;
+
+    @Benchmark
+    public String nestedAnyIn() {
+        Expression condition = x("v" + nesting + ".name").eq(s("leaf"));
+        for (int i = nesting; i > 0; i--) {
+            String parent = i == 1 ? "doc" : "v" + (i - 1);
+            condition = anyIn("v" + i, x(parent + ".children")).satisfies(condition.and(x("v" + i + ".active")));
+        }
+        return select("*").from("default").as("doc").where(condition).toString();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query.benchmarks;
+
+import com.couchbase.client.java.query.dsl.Expression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.couchbase.client.java.query.dsl.Expression.x;
+
+/**
+ * Building and rendering long chains of {@link Expression} operators.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpressionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int depth;
+
+    private List<Expression> predicates;
+
+    @Setup
+    public void setup() {
+        predicates = new ArrayList<Expression>(depth);
+        for (int i = 0; i < depth; i++) {
+            predicates.add(x("field" + i).eq(i));
+        }
+    }
+
+    @Benchmark
+    public String andChain() {
+        Expression chain = predicates.get(0);
+        for (int i = 1; i < depth; i++) {
+            chain = chain.and(predicates.get(i));
+        }
+        return chain.toString();
+    }
+
+    @Benchmark
+    public String naryAnd() {
+        return Expression.and(predicates).toString();
+    }
+
+    @Benchmark
+    public String arithmeticChain() {
+        Expression chain = x("price");
+        for (int i = 1; i < depth; i++) {
+            chain = chain.add(i).multiply(x("rate")).subtract(1);
+        }
+        return chain.gt(100).toString();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.java.query.benchmarks;
+
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.query.dsl.path.InsertValuesPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.couchbase.client.java.query.Insert.insertInto;
+
+/**
+ * Building and rendering INSERT statements with many rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    public int rows;
+
+    private String[] ids;
+    private JsonObject[] documents;
+
+    @Setup
+    public void setup() {
+        ids = new String[rows];
+        documents = new JsonObject[rows];
+        for (int i = 0; i < rows; i++) {
+            ids[i] = "user::" + i;
+            documents[i] = JsonObject.create()
+                .put("type", "user")
+                .put("name", "User " + i)
+                .put("age", i % 90)
+                .put("tags", JsonArray.from("a", "b", "c"));
+        }
+    }
+
+    @Benchmark
+    public String insertValues() {
+        InsertValuesPath insert = insertInto("default").values(ids[0], documents[0]);
+        for (int i = 1; i < rows; i++) {
+            insert = insert.values(ids[i], documents[i]);
+        }
+        return insert.toString();
+    }
+}
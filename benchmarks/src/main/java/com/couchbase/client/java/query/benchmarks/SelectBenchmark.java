@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query.benchmarks;
+
+import com.couchbase.client.java.query.ParameterizedStatement;
+import com.couchbase.client.java.query.dsl.Expression;
+import com.couchbase.client.java.query.dsl.Sort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.couchbase.client.java.query.Select.select;
+import static com.couchbase.client.java.query.Select.selectDistinct;
+import static com.couchbase.client.java.query.dsl.Expression.i;
+import static com.couchbase.client.java.query.dsl.Expression.s;
+import static com.couchbase.client.java.query.dsl.Expression.sub;
+import static com.couchbase.client.java.query.dsl.Expression.x;
+import static com.couchbase.client.java.query.dsl.functions.AggregateFunctions.count;
+import static com.couchbase.client.java.query.dsl.functions.AggregateFunctions.sum;
+import static com.couchbase.client.java.query.dsl.functions.ArrayFunctions.arrayLength;
+import static com.couchbase.client.java.query.dsl.functions.Collections.anyIn;
+import static com.couchbase.client.java.query.dsl.functions.DateFunctions.DatePartExt.year;
+import static com.couchbase.client.java.query.dsl.functions.DateFunctions.datePartStr;
+import static com.couchbase.client.java.query.dsl.functions.MetaFunctions.meta;
+import static com.couchbase.client.java.query.dsl.functions.NumberFunctions.round;
+import static com.couchbase.client.java.query.dsl.functions.StringFunctions.lower;
+
+/**
+ * Building and rendering SELECT statements: wide projections, and statements resembling the
+ * ones of the online tutorial (see SelectDslSmokeTest).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SelectBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int width;
+
+    private String[] fields;
+
+    @Setup
+    public void setup() {
+        fields = new String[width];
+        for (int i = 0; i < width; i++) {
+            fields[i] = "field" + i;
+        }
+    }
+
+    @Benchmark
+    public String wideSelect() {
+        Expression[] projection = new Expression[width];
+        for (int i = 0; i < width; i++) {
+            projection[i] = i(fields[i]).as("f" + i);
+        }
+        return select(projection).from(i("default")).where(x("type").eq(s("user"))).toString();
+    }
+
+    @Benchmark
+    public void tutorialStatements(Blackhole blackhole) {
+        blackhole.consume(select("*").from("tutorial").where(x("fname").eq(s("Ian"))).toString());
+
+        blackhole.consume(select(x("fname"), x("age"), round(x("age/7")).as("age_dog_years"))
+            .from("tutorial")
+            .where(x("fname").eq(s("Dave")))
+            .toString());
+
+        blackhole.consume(select("fname", "email", "children")
+            .from("tutorial")
+            .where(arrayLength("children").gt(x("0")).and(x("email")).like(s("%@gmail.com")))
+            .toString());
+
+        blackhole.consume(select(x("fname").concat(s(" ")).concat(x("lname")).as("full_name"), x("email"))
+            .from("tutorial")
+            .where(x("email").like(s("%@yahoo.com"))
+                .or(anyIn("child", x("tutorial.children")).satisfies(x("child.age").gt(10)))
+                .or(x("fname").eq(s("Harry"))))
+            .toString());
+
+        blackhole.consume(select(x("t.relation"), count("*").as("count"), sum(x("t.age")).as("total"))
+            .from(i("tutorial").as("t"))
+            .groupBy(x("t.relation"))
+            .having(count("*").gt(1))
+            .orderBy(Sort.desc("count"))
+            .limit(10)
+            .offset(5)
+            .toString());
+
+        blackhole.consume(selectDistinct(meta("o").get("id"), lower(x("o.status")), datePartStr(x("o.date"), year))
+            .from(i("orders").as("o"))
+            .where(x("o.customer").in(sub(select("id").from("customers").where(x("vip").eq(true)))))
+            .toString());
+    }
+
+    @Benchmark
+    public String parameterizedStatement() {
+        return ParameterizedStatement.positional(
+            select("*").from("tutorial").where(x("fname").eq(s("Ian")).and(x("age").gt(21)))).statement();
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.java.json.JacksonTransformers;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.query.dsl.Expression;
+import com.couchbase.client.java.query.dsl.element.Keyword;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.couchbase.client.java.query.dsl.Expression.i;
+import static com.couchbase.client.java.query.dsl.Expression.x;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Turns a large number of documents into as many <code>INSERT</code> (or <code>UPSERT</code>)
+ * statements as needed.
+ * <p>
+ * Contrary to chaining {@code Insert.insertInto(bucket).values(...)}, rows are rendered straight
+ * into the text of the current statement as they are read, and a new statement is started whenever
+ * the current one reaches the maximum number of rows or bytes:
+ * <pre>
+ * BulkInsert.insertInto("travel-sample")
+ *     .maxRows(500)
+ *     .statements(documents.entrySet())
+ *     .forEach(statement -&gt; statement.execute(cluster));
+ * </pre>
+ * Statements are produced lazily, so the rows can come from a stream that does not fit in memory.
+ * The rendered statements are identical to the ones built with {@link Insert} and {@link Upsert}.
+ */
+public class BulkInsert {
+  public static final int DEFAULT_MAX_ROWS = 1000;
+  public static final int DEFAULT_MAX_BYTES = 1024 * 1024;
+
+  private static final String ROW_SEPARATOR = " , ";
+
+  private final Keyword verb;
+  private final Expression keyspace;
+  private int maxRows = DEFAULT_MAX_ROWS;
+  private int maxBytes = DEFAULT_MAX_BYTES;
+
+  private BulkInsert(Keyword verb, Expression keyspace) {
+    this.verb = verb;
+    this.keyspace = requireNonNull(keyspace);
+  }
+
+  public static BulkInsert insertInto(String bucket) {
+    return insertInto(i(bucket));
+  }
+
+  public static BulkInsert insertInto(Expression bucket) {
+    return new BulkInsert(Keyword.INSERT_INTO, bucket);
+  }
+
+  public static BulkInsert insertIntoCurrentBucket() {
+    return insertInto(x(Statement.CURRENT_BUCKET_IDENTIFIER));
+  }
+
+  public static BulkInsert upsertInto(String bucket) {
+    return upsertInto(i(bucket));
+  }
+
+  public static BulkInsert upsertInto(Expression bucket) {
+    return new BulkInsert(Keyword.UPSERT_INTO, bucket);
+  }
+
+  public static BulkInsert upsertIntoCurrentBucket() {
+    return upsertInto(x(Statement.CURRENT_BUCKET_IDENTIFIER));
+  }
+
+  /**
+   * Sets the maximum number of rows in a single statement. Defaults to {@value #DEFAULT_MAX_ROWS}.
+   */
+  public BulkInsert maxRows(int maxRows) {
+    if (maxRows < 1) {
+      throw new IllegalArgumentException("maxRows must be positive, got " + maxRows);
+    }
+    this.maxRows = maxRows;
+    return this;
+  }
+
+  /**
+   * Sets the maximum size of a single statement, in bytes once encoded in UTF-8.
+   * Defaults to {@value #DEFAULT_MAX_BYTES}.
+   * <p>
+   * A row too large to fit in a statement on its own is still rendered, alone in its statement.
+   */
+  public BulkInsert maxBytes(int maxBytes) {
+    if (maxBytes < 1) {
+      throw new IllegalArgumentException("maxBytes must be positive, got " + maxBytes);
+    }
+    this.maxBytes = maxBytes;
+    return this;
+  }
+
+  /**
+   * Returns the statements inserting the given rows, each row being a document ID and its content.
+   */
+  public Stream<Statement> statements(Iterable<? extends Map.Entry<String, JsonObject>> rows) {
+    return stream(new Chunker(rows.iterator(), maxRows, maxBytes));
+  }
+
+  /**
+   * Returns the statements inserting the given rows, each row being a document ID and its content.
+   * <p>
+   * Closing the returned stream closes the given one.
+   */
+  public Stream<Statement> statements(Stream<? extends Map.Entry<String, JsonObject>> rows) {
+    return stream(new Chunker(rows.iterator(), maxRows, maxBytes)).onClose(rows::close);
+  }
+
+  private static Stream<Statement> stream(Iterator<Statement> statements) {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(statements,
+        Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  private final class Chunker implements Iterator<Statement> {
+    private final Iterator<? extends Map.Entry<String, JsonObject>> rows;
+    private final int maxRows;
+    private final int maxBytes;
+    private final String header;
+    private final int headerBytes;
+    private final Writer json = new WriterAdapter();
+    private N1qlWriter out;
+    private int capacity;
+    private Map.Entry<String, JsonObject> pending;
+
+    private Chunker(Iterator<? extends Map.Entry<String, JsonObject>> rows, int maxRows, int maxBytes) {
+      this.rows = rows;
+      this.maxRows = maxRows;
+      this.maxBytes = maxBytes;
+
+      N1qlWriter out = new N1qlWriter();
+      out.append(verb).append(keyspace).append(' ').append(Keyword.VALUES);
+      this.header = out.toString();
+      this.headerBytes = out.utf8Length(0);
+      this.capacity = header.length() * 2;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return pending != null || rows.hasNext();
+    }
+
+    @Override
+    public Statement next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      // sized like the previous statement, since most statements are full ones of similar rows
+      out = new N1qlWriter(capacity);
+      out.append(header);
+      int bytes = headerBytes;
+      int count = 0;
+
+      if (pending != null) {
+        int start = out.length();
+        writeRow(pending);
+        bytes += out.utf8Length(start);
+        pending = null;
+        count++;
+      }
+
+      while (count < maxRows && rows.hasNext()) {
+        int start = out.length();
+        if (count > 0) {
+          out.append(ROW_SEPARATOR);
+        }
+        Map.Entry<String, JsonObject> row = rows.next();
+        writeRow(row);
+
+        int rowBytes = out.utf8Length(start);
+        if (count > 0 && bytes + rowBytes > maxBytes) {
+          // the row does not fit anymore: it starts the next statement, rendered again there
+          pending = row;
+          out.truncate(start);
+          break;
+        }
+        bytes += rowBytes;
+        count++;
+      }
+      capacity = out.length();
+      String statement = out.toString();
+      out = null;
+      return new RenderedStatement(statement);
+    }
+
+    /**
+     * Writes a row like {@link Insert} does, the content being encoded straight into the statement.
+     */
+    private void writeRow(Map.Entry<String, JsonObject> row) {
+      out.append('(').appendLiteral(row.getKey()).append(", ");
+      try {
+        JacksonTransformers.MAPPER.writeValue(json, row.getValue());
+      } catch (IOException e) {
+        throw new IllegalArgumentException("Cannot encode the content of document " + row.getKey(), e);
+      }
+      out.append(')');
+    }
+
+    /**
+     * Appends what is written to the statement being rendered.
+     */
+    private final class WriterAdapter extends Writer {
+      @Override
+      public void write(char[] buffer, int offset, int length) {
+        out.append(CharBuffer.wrap(buffer, offset, length));
+      }
+
+      @Override
+      public void write(String text, int offset, int length) {
+        out.append(text, offset, offset + length);
+      }
+
+      @Override
+      public void flush() {
+      }
+
+      @Override
+      public void close() {
+      }
+    }
+  }
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.query.dsl.Expression;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter.LiteralMode;
+import com.couchbase.client.java.query.dsl.path.MergeUpdatePath;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.couchbase.client.java.query.dsl.Expression.i;
+import static com.couchbase.client.java.query.dsl.Expression.s;
+import static com.couchbase.client.java.query.dsl.Expression.x;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Turns a large number of documents into as few <code>MERGE ... USING [...]</code> statements as
+ * needed, so the query service applies them as a set instead of one KV operation per document.
+ * <p>
+ * Each document becomes an element <code>{"id": key, "doc": content}</code> of the
+ * <code>USING</code> array, aliased as {@code src} (see {@link #as(String)}) and matched with
+ * <code>ON KEY src.id</code>. What to do with each element is given by the caller, with the
+ * regular Merge DSL:
+ * <pre>
+ * BulkMerge.mergeInto("travel-sample", merge -&gt; merge
+ *         .whenMatchedThenUpdate().set("name", x("src.doc.name")).set("updated", x("src.doc.updated"))
+ *         .whenNotMatchedThenInsert(x("src.doc")))
+ *     .statements(documents)
+ *     .forEach(statement -&gt; statement.execute(cluster));
+ * </pre>
+ * The statement around the array is rendered once, and every chunk of documents is written
+ * straight into its own statement. Alternatively, {@link #parameterizedStatements(Iterable)} binds
+ * the array as a query parameter, so all chunks share the same prepared plan.
+ * <p>
+ * Statements are produced lazily, so the documents can come from a stream that does not fit in memory.
+ */
+public class BulkMerge {
+  public static final int DEFAULT_MAX_ROWS = 1000;
+  public static final int DEFAULT_MAX_BYTES = 1024 * 1024;
+  public static final String DEFAULT_ALIAS = "src";
+
+  private static final String ROW_SEPARATOR = ", ";
+
+  private final Expression keyspace;
+  private final Function<MergeUpdatePath, Statement> actions;
+  private String alias = DEFAULT_ALIAS;
+  private int maxRows = DEFAULT_MAX_ROWS;
+  private int maxBytes = DEFAULT_MAX_BYTES;
+
+  private BulkMerge(Expression keyspace, Function<MergeUpdatePath, Statement> actions) {
+    this.keyspace = requireNonNull(keyspace);
+    this.actions = requireNonNull(actions);
+  }
+
+  /**
+   * @param actions completes the statement after <code>ON KEY src.id</code>, with the
+   *     <code>WHEN MATCHED</code> and <code>WHEN NOT MATCHED</code> clauses.
+   */
+  public static BulkMerge mergeInto(String bucket, Function<MergeUpdatePath, Statement> actions) {
+    return mergeInto(i(bucket), actions);
+  }
+
+  public static BulkMerge mergeInto(Expression bucket, Function<MergeUpdatePath, Statement> actions) {
+    return new BulkMerge(bucket, actions);
+  }
+
+  public static BulkMerge mergeIntoCurrentBucket(Function<MergeUpdatePath, Statement> actions) {
+    return mergeInto(x(Statement.CURRENT_BUCKET_IDENTIFIER), actions);
+  }
+
+  /**
+   * Sets the alias of the elements of the <code>USING</code> array. Defaults to {@value #DEFAULT_ALIAS}.
+   */
+  public BulkMerge as(String alias) {
+    this.alias = requireNonNull(alias);
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of documents in a single statement. Defaults to {@value #DEFAULT_MAX_ROWS}.
+   */
+  public BulkMerge maxRows(int maxRows) {
+    if (maxRows < 1) {
+      throw new IllegalArgumentException("maxRows must be positive, got " + maxRows);
+    }
+    this.maxRows = maxRows;
+    return this;
+  }
+
+  /**
+   * Sets the maximum size of a single statement, or of its array parameter, in bytes once encoded
+   * in UTF-8. Defaults to {@value #DEFAULT_MAX_BYTES}.
+   * <p>
+   * A document too large to fit in a statement on its own is still sent, alone in its statement.
+   */
+  public BulkMerge maxBytes(int maxBytes) {
+    if (maxBytes < 1) {
+      throw new IllegalArgumentException("maxBytes must be positive, got " + maxBytes);
+    }
+    this.maxBytes = maxBytes;
+    return this;
+  }
+
+  /**
+   * Returns the statements merging the given documents, keyed by document ID.
+   */
+  public Stream<Statement> statements(Map<String, JsonObject> documents) {
+    return statements(documents.entrySet());
+  }
+
+  /**
+   * Returns the statements merging the given documents, each one being a document ID and its content.
+   */
+  public Stream<Statement> statements(Iterable<? extends Map.Entry<String, JsonObject>> documents) {
+    return stream(inline(documents.iterator()));
+  }
+
+  /**
+   * Returns the statements merging the given documents, each one being a document ID and its content.
+   * <p>
+   * Closing the returned stream closes the given one.
+   */
+  public Stream<Statement> statements(Stream<? extends Map.Entry<String, JsonObject>> documents) {
+    return stream(inline(documents.iterator())).onClose(documents::close);
+  }
+
+  /**
+   * Same as {@link #statements(Map)}, binding the <code>USING</code> array as a query parameter.
+   */
+  public Stream<ParameterizedStatement> parameterizedStatements(Map<String, JsonObject> documents) {
+    return parameterizedStatements(documents.entrySet());
+  }
+
+  /**
+   * Same as {@link #statements(Iterable)}, binding the <code>USING</code> array as a query parameter.
+   */
+  public Stream<ParameterizedStatement> parameterizedStatements(
+      Iterable<? extends Map.Entry<String, JsonObject>> documents) {
+    return stream(parameterized(documents.iterator()));
+  }
+
+  /**
+   * Same as {@link #statements(Stream)}, binding the <code>USING</code> array as a query parameter.
+   */
+  public Stream<ParameterizedStatement> parameterizedStatements(
+      Stream<? extends Map.Entry<String, JsonObject>> documents) {
+    return stream(parameterized(documents.iterator())).onClose(documents::close);
+  }
+
+  /**
+   * Renders the statement around the array into the given writer, the array being the given marker.
+   */
+  private TemplateWriter template(TemplateWriter out, Expression marker) {
+    out.append(actions.apply(Merge.mergeInto(keyspace).using(marker.as(alias)).onKey(alias + ".id")));
+    if (out.rowsPosition < 0) {
+      throw new IllegalArgumentException("The statement returned by the actions must continue the given path");
+    }
+    return out;
+  }
+
+  private Iterator<Statement> inline(Iterator<? extends Map.Entry<String, JsonObject>> documents) {
+    // a new instance, which only the marker of the template can be
+    String marker = new String("rows");
+    TemplateWriter out = template(new TemplateWriter(marker, LiteralMode.INLINE), s(marker));
+    String template = out.toString();
+    String prefix = template.substring(0, out.rowsPosition) + "[";
+    String suffix = "]" + template.substring(out.rowsPosition);
+    int overhead = utf8Length(prefix) + utf8Length(suffix);
+
+    return new Chunker<Statement>(documents, overhead, ROW_SEPARATOR.length()) {
+      @Override
+      Statement statement(List<Row> rows, int bytes) {
+        N1qlWriter out = new N1qlWriter(bytes);
+        out.append(prefix);
+        for (int i = 0; i < rows.size(); i++) {
+          if (i > 0) {
+            out.append(ROW_SEPARATOR);
+          }
+          Row row = rows.get(i);
+          out.append("{\"id\":\"").append(row.key).append("\",\"doc\":").append(row.json).append('}');
+        }
+        out.append(suffix);
+        return new RenderedStatement(out.toString());
+      }
+    };
+  }
+
+  private Iterator<ParameterizedStatement> parameterized(Iterator<? extends Map.Entry<String, JsonObject>> documents) {
+    JsonArray marker = JsonArray.create();
+    TemplateWriter out = template(new TemplateWriter(marker, LiteralMode.POSITIONAL), x(marker));
+    ParameterizedStatement template = ParameterizedStatement.positional(out);
+    int rowsIndex = out.rowsIndex;
+
+    return new Chunker<ParameterizedStatement>(documents, 2, 1) {
+      @Override
+      ParameterizedStatement statement(List<Row> rows, int bytes) {
+        JsonArray array = JsonArray.create();
+        for (Row row : rows) {
+          array.add(JsonObject.create().put("id", row.id).put("doc", row.document));
+        }
+        return template.withPositionalParameter(rowsIndex, array);
+      }
+    };
+  }
+
+  private static int utf8Length(String text) {
+    return text.getBytes(StandardCharsets.UTF_8).length;
+  }
+
+  private static <T> Stream<T> stream(Iterator<T> iterator) {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+        Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  /**
+   * Renders the statement around the array, recording where the array goes when the marker
+   * standing for it is written: its position in the text, or the index of its parameter.
+   */
+  private static final class TemplateWriter extends N1qlWriter {
+    private final Object marker;
+    private int rowsPosition = -1;
+    private int rowsIndex = -1;
+
+    private TemplateWriter(Object marker, LiteralMode literalMode) {
+      super(literalMode);
+      this.marker = marker;
+    }
+
+    @Override
+    public N1qlWriter appendLiteral(Object value) {
+      if (value != marker) {
+        return super.appendLiteral(value);
+      }
+      rowsPosition = length();
+      if (literalMode() == LiteralMode.INLINE) {
+        return this;
+      }
+      rowsIndex = parameters().size();
+      return super.appendLiteral(value);
+    }
+
+    /**
+     * The marker may be part of a statement rendered by the actions, which would be copied as text.
+     */
+    @Override
+    public boolean reusesRenderedText() {
+      return false;
+    }
+  }
+
+  private static final class Row {
+    private final String id;
+    private final JsonObject document;
+    private final String key;
+    private final String json;
+    private final int bytes;
+
+    private Row(Map.Entry<String, JsonObject> document) {
+      this.id = requireNonNull(document.getKey(), "id");
+      this.document = requireNonNull(document.getValue(), "document");
+      byte[] key = JsonStringEncoder.getInstance().quoteAsUTF8(id);
+      this.key = new String(key, StandardCharsets.UTF_8);
+      this.json = this.document.toString();
+      // {"id":"","doc":} around the key and the content
+      this.bytes = key.length + utf8Length(json) + 16;
+    }
+  }
+
+  /**
+   * Groups the documents into chunks bounded by {@link #maxRows} and {@link #maxBytes}.
+   */
+  private abstract class Chunker<T> implements Iterator<T> {
+    private final Iterator<? extends Map.Entry<String, JsonObject>> documents;
+    private final int overhead;
+    private final int separator;
+    private Row pending;
+
+    private Chunker(Iterator<? extends Map.Entry<String, JsonObject>> documents, int overhead, int separator) {
+      this.documents = documents;
+      this.overhead = overhead;
+      this.separator = separator;
+    }
+
+    abstract T statement(List<Row> rows, int bytes);
+
+    @Override
+    public boolean hasNext() {
+      return pending != null || documents.hasNext();
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      List<Row> rows = new ArrayList<>();
+      int bytes = overhead;
+      while (rows.size() < maxRows && (pending != null || documents.hasNext())) {
+        Row row = pending != null ? pending : new Row(documents.next());
+        pending = null;
+        int rowBytes = row.bytes + (rows.isEmpty() ? 0 : separator);
+        if (!rows.isEmpty() && bytes + rowBytes > maxBytes) {
+          pending = row;
+          break;
+        }
+        rows.add(row);
+        bytes += rowBytes;
+      }
+      return statement(rows, bytes);
+    }
+  }
+}
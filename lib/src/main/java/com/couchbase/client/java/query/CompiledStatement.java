@@ -0,0 +1,195 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.java.Collection;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
+import com.couchbase.client.java.query.dsl.path.AbstractPath;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A statement rendered once, ready to be bound to any keyspace.
+ * <p>
+ * The positions of the {@link Statement#CURRENT_BUCKET_IDENTIFIER} placeholders are recorded while
+ * the statement is rendered, so binding it to a keyspace is a single copy into a buffer of the
+ * exact size, without searching the statement. Placeholders within raw N1QL, like
+ * <code>x("#CURRENT_BUCKET#.id")</code>, are found as that text is written, see
+ * {@link N1qlWriter#appendText(String)}: literal values are never searched. The bound statements
+ * of the most recently used keyspaces are cached, which suits running the same statement against
+ * many collections:
+ * <pre>
+ * CompiledStatement statement = CompiledStatement.compile(select("*").fromCurrentBucket().where(filter));
+ * cluster.query(statement.bind(tenant.collection()), options);
+ * </pre>
+ * Statements running in a scope (see {@link Statement#execute(com.couchbase.client.java.Scope)})
+ * are bound to the default collection of the bucket of the scope this way.
+ * <p>
+ * This class is thread safe.
+ */
+public final class CompiledStatement implements Statement {
+  public static final int DEFAULT_CACHE_SIZE = 1024;
+
+  private final String statement;
+  private final int[] positions;
+  private final Map<String, String> bound;
+
+  private CompiledStatement(String statement, int[] positions, int cacheSize) {
+    this.statement = statement;
+    this.positions = positions;
+    this.bound = new BoundStatements(cacheSize);
+  }
+
+  /**
+   * Renders the given statement, or returns it if it is already compiled.
+   */
+  public static CompiledStatement compile(Statement statement) {
+    if (statement instanceof CompiledStatement) {
+      return (CompiledStatement) statement;
+    }
+    return compile(statement, DEFAULT_CACHE_SIZE);
+  }
+
+  /**
+   * Renders the given statement.
+   *
+   * @param cacheSize the maximum number of keyspaces whose bound statement is cached.
+   */
+  public static CompiledStatement compile(Statement statement, int cacheSize) {
+    if (cacheSize < 0) {
+      throw new IllegalArgumentException("cacheSize must not be negative, got " + cacheSize);
+    }
+    if (statement instanceof AbstractPath) {
+      // reuse the text the statement caches instead of copying it
+      AbstractPath path = (AbstractPath) statement;
+      return new CompiledStatement(path.toString(), path.currentBucketPositions(), cacheSize);
+    }
+    N1qlWriter out = new N1qlWriter();
+    out.append(statement);
+    return new CompiledStatement(out.toString(), out.currentBucketPositions(), cacheSize);
+  }
+
+  /**
+   * Returns the statement rendered earlier with the given placeholder positions, caching none of
+   * its bound statements.
+   */
+  static CompiledStatement of(String statement, int[] positions) {
+    return new CompiledStatement(statement, positions, 0);
+  }
+
+  /**
+   * Returns true if the statement refers to the current bucket, and must be bound to a keyspace.
+   */
+  public boolean hasCurrentBucket() {
+    return positions.length > 0;
+  }
+
+  /**
+   * Returns the statement with the current bucket replaced by the given keyspace, which is
+   * inserted as is: see {@link #keyspace(String...)} to escape it.
+   */
+  public String bind(String keyspace) {
+    requireNonNull(keyspace);
+    if (positions.length == 0) {
+      return statement;
+    }
+    synchronized (bound) {
+      String cached = bound.get(keyspace);
+      if (cached != null) {
+        return cached;
+      }
+    }
+
+    int placeholder = CURRENT_BUCKET_IDENTIFIER.length();
+    char[] chars = new char[statement.length() + positions.length * (keyspace.length() - placeholder)];
+    int from = 0;
+    int to = 0;
+    for (int position : positions) {
+      statement.getChars(from, position, chars, to);
+      to += position - from;
+      keyspace.getChars(0, keyspace.length(), chars, to);
+      to += keyspace.length();
+      from = position + placeholder;
+    }
+    statement.getChars(from, statement.length(), chars, to);
+    String result = new String(chars);
+
+    synchronized (bound) {
+      bound.put(keyspace, result);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the statement bound to the given bucket, like <code>`travel-sample`</code>.
+   */
+  public String bindBucket(String bucketName) {
+    return bind(keyspace(bucketName));
+  }
+
+  /**
+   * Returns the statement bound to the given collection, like
+   * <code>`travel-sample`.`inventory`.`airline`</code>.
+   */
+  public String bind(Collection collection) {
+    return bind(keyspace(collection.bucketName(), collection.scopeName(), collection.name()));
+  }
+
+  /**
+   * Returns the keyspace made of the given names, each one escaped with backquotes.
+   */
+  public static String keyspace(String... names) {
+    StringBuilder keyspace = new StringBuilder();
+    for (String name : names) {
+      if (keyspace.length() > 0) {
+        keyspace.append('.');
+      }
+      keyspace.append('`').append(name).append('`');
+    }
+    return keyspace.toString();
+  }
+
+  /**
+   * Returns the statement as rendered, with its {@link Statement#CURRENT_BUCKET_IDENTIFIER} placeholders.
+   */
+  @Override
+  public String toString() {
+    return statement;
+  }
+
+  /**
+   * The bound statements by keyspace, evicting the least recently used ones beyond the cache size.
+   */
+  private static final class BoundStatements extends LinkedHashMap<String, String> {
+    private static final long serialVersionUID = 1L;
+
+    private final int cacheSize;
+
+    private BoundStatements(int cacheSize) {
+      super(16, 0.75f, true);
+      this.cacheSize = cacheSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+      return size() > cacheSize;
+    }
+  }
+}
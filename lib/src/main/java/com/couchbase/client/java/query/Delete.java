@@ -17,6 +17,8 @@ package com.couchbase.client.java.query;
 
 import com.couchbase.client.java.query.dsl.Expression;
 import com.couchbase.client.java.query.dsl.element.Element;
+import com.couchbase.client.java.query.dsl.element.Keyword;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
 import com.couchbase.client.java.query.dsl.path.AbstractPath;
 import com.couchbase.client.java.query.dsl.path.DefaultDeleteUsePath;
 import com.couchbase.client.java.query.dsl.path.DeleteUsePath;
@@ -42,11 +44,10 @@ public class Delete {
 
   private static class DeletePath extends AbstractPath {
     public DeletePath(final Expression bucket) {
-      super(null);
-      element(new Element() {
+      super(null, new Element() {
         @Override
-        public String export() {
-          return "DELETE FROM " + bucket.toString();
+        public void export(N1qlWriter out) {
+          out.append(Keyword.DELETE_FROM).append(bucket);
         }
       });
     }
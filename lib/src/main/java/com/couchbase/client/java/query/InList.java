@@ -0,0 +1,268 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.Scope;
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.query.dsl.Expression;
+
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static com.couchbase.client.java.query.dsl.Expression.s;
+import static com.couchbase.client.java.query.dsl.Expression.x;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A large list of values for an <code>IN</code> (or <code>NOT IN</code>) predicate, and the
+ * strategy to send it to the query service.
+ * <p>
+ * {@code Expression.in(JsonArray)} inlines the whole list in the statement, which gets very large
+ * and yields a different plan for every list. Instead, the statement is built from a template
+ * receiving the expression to put after <code>IN</code>, and rendered with its literals lifted
+ * into positional parameters (see {@link ParameterizedStatement}):
+ * <pre>
+ * List&lt;JsonObject&gt; rows = InList.of(ids).query(cluster, InList.Strategy.FAN_OUT,
+ *     list -&gt; select("*").from("users").where(x("id").in(list)), JsonObject.class);
+ * </pre>
+ * Duplicate values are removed, since they make no difference to <code>IN</code>.
+ * <p>
+ * Run in a scope, {@link Statement#CURRENT_BUCKET_IDENTIFIER} is replaced with the default
+ * collection of the bucket of the scope, as {@link Statement#execute(Scope)} does.
+ */
+public class InList {
+  public static final int DEFAULT_CHUNK_SIZE = 1000;
+  public static final int DEFAULT_PARALLELISM = 4;
+
+  /**
+   * How the list is sent to the query service.
+   */
+  public enum Strategy {
+    /**
+     * The whole list is bound as a single array parameter: the statement is small and has the
+     * same shape whatever the size of the list.
+     */
+    ARRAY_PARAMETER,
+    /**
+     * Same as {@link #ARRAY_PARAMETER}, the array being padded to the next power of two by repeating
+     * its last value, so lists of similar sizes are sent as arrays of the same size.
+     */
+    BUCKETED,
+    /**
+     * The list is split into chunks, each one bound as an array parameter of its own statement.
+     * Statements run concurrently and their rows are concatenated, in the order of the chunks.
+     * <p>
+     * Only suitable for templates where each row matches a single chunk: a plain <code>IN</code>
+     * filter, without <code>NOT IN</code>, aggregates, <code>ORDER BY</code> or <code>LIMIT</code>.
+     */
+    FAN_OUT
+  }
+
+  private final List<Object> values;
+  private int chunkSize = DEFAULT_CHUNK_SIZE;
+  private int parallelism = DEFAULT_PARALLELISM;
+
+  private InList(Collection<?> values) {
+    this.values = Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(values)));
+  }
+
+  public static InList of(JsonArray values) {
+    List<Object> list = new ArrayList<>(values.size());
+    values.forEach(list::add);
+    return new InList(list);
+  }
+
+  public static InList of(Collection<?> values) {
+    return new InList(requireNonNull(values));
+  }
+
+  /**
+   * Sets the maximum number of values per statement with {@link Strategy#FAN_OUT}.
+   * Defaults to {@value #DEFAULT_CHUNK_SIZE}.
+   */
+  public InList chunkSize(int chunkSize) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("chunkSize must be positive, got " + chunkSize);
+    }
+    this.chunkSize = chunkSize;
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of statements running at the same time with {@link Strategy#FAN_OUT}.
+   * Defaults to {@value #DEFAULT_PARALLELISM}.
+   */
+  public InList parallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be positive, got " + parallelism);
+    }
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /**
+   * Returns the distinct values of the list.
+   */
+  public List<Object> values() {
+    return values;
+  }
+
+  /**
+   * Returns the statements to run for the given strategy: a single one, except with
+   * {@link Strategy#FAN_OUT} which returns one statement per chunk (and none for an empty list).
+   *
+   * @param template builds the statement from the expression to put after <code>IN</code>.
+   */
+  public List<ParameterizedStatement> statements(Strategy strategy, Function<Expression, Statement> template) {
+    switch (strategy) {
+      case ARRAY_PARAMETER:
+        return Collections.singletonList(render(template, x(JsonArray.from(values))));
+      case BUCKETED:
+        return Collections.singletonList(render(template, x(bucketed())));
+      case FAN_OUT:
+        List<ParameterizedStatement> statements = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += chunkSize) {
+          List<Object> chunk = values.subList(from, Math.min(values.size(), from + chunkSize));
+          statements.add(render(template, x(JsonArray.from(chunk))));
+        }
+        return statements;
+      default:
+        throw new IllegalArgumentException("Unknown strategy " + strategy);
+    }
+  }
+
+  private static ParameterizedStatement render(Function<Expression, Statement> template, Expression list) {
+    return ParameterizedStatement.positional(template.apply(list));
+  }
+
+  /**
+   * Returns the array of the values, padded to the next power of two.
+   */
+  private JsonArray bucketed() {
+    JsonArray array = JsonArray.from(values);
+    if (values.isEmpty()) {
+      return array;
+    }
+    int size = Integer.highestOneBit(values.size());
+    if (size < values.size()) {
+      size <<= 1;
+    }
+    Object last = values.get(values.size() - 1);
+    for (int i = values.size(); i < size; i++) {
+      array.add(last);
+    }
+    return array;
+  }
+
+  /**
+   * Returns the literal expression of a JSON value.
+   */
+  static Expression literal(Object value) {
+    if (value == null) {
+      return x("NULL");
+    } else if (value instanceof String) {
+      return s((String) value);
+    } else if (value instanceof Number) {
+      return x((Number) value);
+    } else if (value instanceof Boolean) {
+      return x((boolean) (Boolean) value);
+    } else if (value instanceof JsonObject) {
+      return x((JsonObject) value);
+    } else if (value instanceof JsonArray) {
+      return x((JsonArray) value);
+    }
+    throw new IllegalArgumentException("Unsupported value in IN list: " + value.getClass().getName());
+  }
+
+  /**
+   * Runs the statements of the given strategy on the cluster and returns all their rows.
+   *
+   * @param template builds the statement from the expression to put after <code>IN</code>.
+   */
+  public <T> List<T> query(Cluster cluster, Strategy strategy, Function<Expression, Statement> template,
+                           Class<T> rowType) {
+    return query(cluster, strategy, template, rowType, options -> {
+    });
+  }
+
+  /**
+   * Same as {@link #query(Cluster, Strategy, Function, Class)}, letting the caller customize the
+   * options of every statement after the parameters are set.
+   */
+  public <T> List<T> query(Cluster cluster, Strategy strategy, Function<Expression, Statement> template,
+                           Class<T> rowType, Consumer<QueryOptions> configurator) {
+    return query(QueryExecution.buffered(cluster.reactive()::query, cluster.environment()), null,
+        strategy, template, rowType, configurator);
+  }
+
+  /**
+   * Runs the statements of the given strategy in the scope and returns all their rows.
+   *
+   * @param template builds the statement from the expression to put after <code>IN</code>.
+   */
+  public <T> List<T> query(Scope scope, Strategy strategy, Function<Expression, Statement> template,
+                           Class<T> rowType) {
+    return query(scope, strategy, template, rowType, options -> {
+    });
+  }
+
+  /**
+   * Same as {@link #query(Scope, Strategy, Function, Class)}, letting the caller customize the
+   * options of every statement after the parameters are set.
+   */
+  public <T> List<T> query(Scope scope, Strategy strategy, Function<Expression, Statement> template,
+                           Class<T> rowType, Consumer<QueryOptions> configurator) {
+    return query(QueryExecution.buffered(scope.reactive()::query, scope.environment()), scope.bucketName(),
+        strategy, template, rowType, configurator);
+  }
+
+  /**
+   * Runs the statements with the given function, {@link Statement#CURRENT_BUCKET_IDENTIFIER} being
+   * bound to the given bucket.
+   */
+  <T> List<T> query(BiFunction<String, QueryOptions, Mono<QueryResult>> query, String bucketName,
+                    Strategy strategy, Function<Expression, Statement> template,
+                    Class<T> rowType, Consumer<QueryOptions> configurator) {
+    List<T> rows = new ArrayList<>();
+    try (ParallelQueries.Results results = ParallelQueries.results(query, bucketName,
+        statements(strategy, template).iterator(), parallelism, configurator)) {
+      while (results.hasNext()) {
+        rows.addAll(results.next().rowsAs(rowType));
+      }
+    }
+    return rows;
+  }
+
+  @Override
+  public String toString() {
+    return "InList{" +
+        "size=" + values.size() +
+        ", chunkSize=" + chunkSize +
+        ", parallelism=" + parallelism +
+        '}';
+  }
+}
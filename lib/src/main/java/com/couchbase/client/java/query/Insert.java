@@ -17,6 +17,8 @@ package com.couchbase.client.java.query;
 
 import com.couchbase.client.java.query.dsl.Expression;
 import com.couchbase.client.java.query.dsl.element.Element;
+import com.couchbase.client.java.query.dsl.element.Keyword;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
 import com.couchbase.client.java.query.dsl.path.AbstractPath;
 import com.couchbase.client.java.query.dsl.path.DefaultInitialInsertPath;
 import com.couchbase.client.java.query.dsl.path.InitialInsertPath;
@@ -42,11 +44,10 @@ public class Insert {
 
   private static class InsertPath extends AbstractPath {
     public InsertPath(final Expression bucket) {
-      super(null);
-      element(new Element() {
+      super(null, new Element() {
         @Override
-        public String export() {
-          return "INSERT INTO " + bucket.toString();
+        public void export(N1qlWriter out) {
+          out.append(Keyword.INSERT_INTO).append(bucket);
         }
       });
     }
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.Scope;
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.query.dsl.Expression;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.couchbase.client.java.query.dsl.Expression.x;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runs a <code>USE KEYS</code> statement over a large number of keys, as many smaller statements
+ * running concurrently.
+ * <p>
+ * The statement is built from a template receiving the expression to use as keys. Keys are read
+ * lazily and split into chunks bounded in number and size; each chunk is bound as the single
+ * array parameter of its own statement, so all statements share the same prepared plan:
+ * <pre>
+ * long deleted = KeysExecutor.of(keys -&gt; Delete.deleteFrom("travel-sample").useKeys(keys))
+ *     .parallelism(8)
+ *     .mutationCount(cluster, purgedIds);
+ *
+ * KeysExecutor.of(keys -&gt; select("*").from("travel-sample").useKeys(keys))
+ *     .rows(cluster, ids, JsonObject.class)
+ *     .forEach(this::export);
+ * </pre>
+ * At most {@link #parallelism(int)} statements are running at any time, and the next ones are only
+ * started as results are consumed. Results are handed back in the order of the keys. Streams
+ * abandoned before their end should be closed, which cancels the statements still running.
+ * <p>
+ * Run in a scope, {@link Statement#CURRENT_BUCKET_IDENTIFIER} is replaced with the default
+ * collection of the bucket of the scope, as {@link Statement#execute(Scope)} does. Run on the
+ * cluster, statements referring to it fail with an {@link IllegalStateException}.
+ */
+public class KeysExecutor {
+  public static final int DEFAULT_MAX_KEYS = 1000;
+  public static final int DEFAULT_MAX_BYTES = 256 * 1024;
+  public static final int DEFAULT_PARALLELISM = 4;
+
+  private final Function<Expression, Statement> template;
+  private int maxKeys = DEFAULT_MAX_KEYS;
+  private int maxBytes = DEFAULT_MAX_BYTES;
+  private int parallelism = DEFAULT_PARALLELISM;
+  private Consumer<QueryOptions> configurator = options -> {
+  };
+
+  private KeysExecutor(Function<Expression, Statement> template) {
+    this.template = requireNonNull(template);
+  }
+
+  /**
+   * @param template builds the statement from the expression to use as keys, like
+   *     {@code keys -> Delete.deleteFrom(bucket).useKeys(keys)}.
+   */
+  public static KeysExecutor of(Function<Expression, Statement> template) {
+    return new KeysExecutor(template);
+  }
+
+  /**
+   * Sets the maximum number of keys in a single statement. Defaults to {@value #DEFAULT_MAX_KEYS}.
+   */
+  public KeysExecutor maxKeys(int maxKeys) {
+    if (maxKeys < 1) {
+      throw new IllegalArgumentException("maxKeys must be positive, got " + maxKeys);
+    }
+    this.maxKeys = maxKeys;
+    return this;
+  }
+
+  /**
+   * Sets the maximum size of the keys of a single statement, in bytes once encoded as a JSON array.
+   * Defaults to {@value #DEFAULT_MAX_BYTES}.
+   * <p>
+   * A key too large to fit on its own is still sent, alone in its statement.
+   */
+  public KeysExecutor maxBytes(int maxBytes) {
+    if (maxBytes < 1) {
+      throw new IllegalArgumentException("maxBytes must be positive, got " + maxBytes);
+    }
+    this.maxBytes = maxBytes;
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of statements running at the same time.
+   * Defaults to {@value #DEFAULT_PARALLELISM}.
+   */
+  public KeysExecutor parallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be positive, got " + parallelism);
+    }
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /**
+   * Customizes the options of every statement, after the parameters are set.
+   */
+  public KeysExecutor options(Consumer<QueryOptions> configurator) {
+    this.configurator = requireNonNull(configurator);
+    return this;
+  }
+
+  /**
+   * Returns the statements for the given keys, one per chunk, built as they are read.
+   */
+  public Stream<ParameterizedStatement> statements(Iterable<String> keys) {
+    return stream(new Chunker(keys.iterator(), maxKeys, maxBytes));
+  }
+
+  /**
+   * Runs the statements for the given keys on the cluster, and returns their results. Closing the
+   * returned stream cancels the statements still running.
+   */
+  public Stream<QueryResult> results(Cluster cluster, Iterable<String> keys) {
+    return results(QueryExecution.buffered(cluster.reactive()::query, cluster.environment()), null, keys);
+  }
+
+  /**
+   * Runs the statements for the given keys in the scope, and returns their results. Closing the
+   * returned stream cancels the statements still running.
+   */
+  public Stream<QueryResult> results(Scope scope, Iterable<String> keys) {
+    return results(QueryExecution.buffered(scope.reactive()::query, scope.environment()), scope.bucketName(),
+        keys);
+  }
+
+  /**
+   * Runs the statements for the given keys on the cluster, and returns their rows. Closing the
+   * returned stream cancels the statements still running.
+   */
+  public <T> Stream<T> rows(Cluster cluster, Iterable<String> keys, Class<T> rowType) {
+    return results(cluster, keys).flatMap(result -> result.rowsAs(rowType).stream());
+  }
+
+  /**
+   * Runs the statements for the given keys in the scope, and returns their rows. Closing the
+   * returned stream cancels the statements still running.
+   */
+  public <T> Stream<T> rows(Scope scope, Iterable<String> keys, Class<T> rowType) {
+    return results(scope, keys).flatMap(result -> result.rowsAs(rowType).stream());
+  }
+
+  /**
+   * Runs the statements for the given keys on the cluster, and returns the total number of
+   * documents they mutated.
+   */
+  public long mutationCount(Cluster cluster, Iterable<String> keys) {
+    try (Stream<QueryResult> results = results(cluster, keys)) {
+      return results.mapToLong(KeysExecutor::mutationCount).sum();
+    }
+  }
+
+  /**
+   * Runs the statements for the given keys in the scope, and returns the total number of
+   * documents they mutated.
+   */
+  public long mutationCount(Scope scope, Iterable<String> keys) {
+    try (Stream<QueryResult> results = results(scope, keys)) {
+      return results.mapToLong(KeysExecutor::mutationCount).sum();
+    }
+  }
+
+  /**
+   * Returns the number of documents mutated by a statement run by this executor.
+   */
+  public static long mutationCount(QueryResult result) {
+    return result.metaData().metrics().map(QueryMetrics::mutationCount).orElse(0L);
+  }
+
+  /**
+   * Runs the statements with the given function, {@link Statement#CURRENT_BUCKET_IDENTIFIER} being
+   * bound to the given bucket.
+   */
+  Stream<QueryResult> results(BiFunction<String, QueryOptions, Mono<QueryResult>> query,
+                              String bucketName, Iterable<String> keys) {
+    Consumer<QueryOptions> configurator = this.configurator;
+    ParallelQueries.Results results = ParallelQueries.results(query, bucketName,
+        new Chunker(keys.iterator(), maxKeys, maxBytes), parallelism,
+        options -> configurator.accept(options.metrics(true)));
+    return stream(results).onClose(results::close);
+  }
+
+  private static <T> Stream<T> stream(Iterator<T> iterator) {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+        Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  private final class Chunker implements Iterator<ParameterizedStatement> {
+    private final Iterator<String> keys;
+    private final int maxKeys;
+    private final int maxBytes;
+    private String pending;
+
+    private Chunker(Iterator<String> keys, int maxKeys, int maxBytes) {
+      this.keys = keys;
+      this.maxKeys = maxKeys;
+      this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return pending != null || keys.hasNext();
+    }
+
+    @Override
+    public ParameterizedStatement next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      JsonArray chunk = JsonArray.create();
+      int bytes = 2;
+      while (chunk.size() < maxKeys && (pending != null || keys.hasNext())) {
+        String key = pending != null ? pending : requireNonNull(keys.next(), "key");
+        pending = null;
+        // quotes, escaped characters and the separating comma
+        int keyBytes = JsonStringEncoder.getInstance().quoteAsUTF8(key).length + 3;
+        if (!chunk.isEmpty() && bytes + keyBytes > maxBytes) {
+          pending = key;
+          break;
+        }
+        chunk.add(key);
+        bytes += keyBytes;
+      }
+      return ParameterizedStatement.positional(template.apply(x(chunk)));
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "KeysExecutor{" +
+        "maxKeys=" + maxKeys +
+        ", maxBytes=" + maxBytes +
+        ", parallelism=" + parallelism +
+        '}';
+  }
+}
@@ -0,0 +1,393 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.Scope;
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.query.dsl.Expression;
+import com.couchbase.client.java.query.dsl.Sort;
+import com.couchbase.client.java.query.dsl.path.OrderByPath;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.couchbase.client.java.query.dsl.Expression.TRUE;
+import static com.couchbase.client.java.query.dsl.Expression.and;
+import static com.couchbase.client.java.query.dsl.Expression.or;
+import static com.couchbase.client.java.query.dsl.Expression.par;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Pages through the rows of a select by seeking past the last row of the previous page, instead of
+ * skipping rows with <code>OFFSET</code>: with an index on the sort keys, every page costs the same
+ * as the first one.
+ * <p>
+ * The select is built from a template receiving the seek predicate, which must be AND-combined
+ * with its filter. It is then ordered by the sort keys and limited to the page size:
+ * <pre>
+ * KeysetPager.of(seek -&gt; select("name", "META().id AS id").from("users")
+ *         .where(x("type").eq(s("user")).and(seek)))
+ *     .key(Sort.asc("name"), "name")
+ *     .key(Sort.asc("META().id"), "id")
+ *     .pageSize(100)
+ *     .prefetch(true)
+ *     .rows(cluster)
+ *     .forEach(this::export);
+ * </pre>
+ * For the keys <code>(k1, k2)</code> and the last row <code>(v1, v2)</code>, the seek predicate is
+ * <code>k1 &gt;= v1 AND (k1 &gt; v1 OR (k1 = v1 AND k2 &gt; v2))</code>, comparisons being reversed
+ * for descending keys: the leading bound gives the index a range to scan. The first page is
+ * queried with a TRUE predicate. Values are bound as positional parameters, so all pages share
+ * the same prepared plan.
+ * <p>
+ * Every key is read back from its field in the rows, and the last key should be unique (like the
+ * document ID) so no row is skipped or repeated. A key must never be null or missing, and must have
+ * the same JSON type in all the rows: the seek predicate only compares values of the type of the
+ * last row, so the rows whose key is NULL, MISSING or of another type would be silently skipped.
+ * {@link #pages} and {@link #rows} check this on every row they receive, and fail with an
+ * {@link IllegalStateException} instead. Filter such rows out in the template, for instance with
+ * <code>IS VALUED</code> or a type function like <code>IS_STRING</code>, to page through the
+ * others.
+ * <p>
+ * Run in a scope, {@link Statement#CURRENT_BUCKET_IDENTIFIER} is replaced with the default
+ * collection of the bucket of the scope, as {@link Statement#execute(Scope)} does.
+ */
+public class KeysetPager {
+  public static final int DEFAULT_PAGE_SIZE = 100;
+
+  private final Function<Expression, OrderByPath> template;
+  private final List<Sort> sorts = new ArrayList<>();
+  private final List<String> fields = new ArrayList<>();
+  private int pageSize = DEFAULT_PAGE_SIZE;
+  private boolean prefetch;
+  private Consumer<QueryOptions> configurator = options -> {
+  };
+
+  private KeysetPager(Function<Expression, OrderByPath> template) {
+    this.template = requireNonNull(template);
+  }
+
+  /**
+   * @param template builds the select from the seek predicate, like
+   *     {@code seek -> select("*").from(bucket).where(filter.and(seek))}.
+   */
+  public static KeysetPager of(Function<Expression, OrderByPath> template) {
+    return new KeysetPager(template);
+  }
+
+  /**
+   * Adds a sort key, read back from the given field of the rows.
+   */
+  public KeysetPager key(Sort sort, String field) {
+    sorts.add(requireNonNull(sort));
+    fields.add(requireNonNull(field));
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of rows of a page. Defaults to {@value #DEFAULT_PAGE_SIZE}.
+   */
+  public KeysetPager pageSize(int pageSize) {
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("pageSize must be positive, got " + pageSize);
+    }
+    this.pageSize = pageSize;
+    return this;
+  }
+
+  /**
+   * Sets whether the next page is queried as soon as a page is received, while it is being
+   * consumed. Defaults to false.
+   * <p>
+   * Streams of pages or rows left before their end, for instance with {@code limit(n)} or
+   * {@code findFirst()}, should then be closed, which cancels the page being prefetched.
+   */
+  public KeysetPager prefetch(boolean prefetch) {
+    this.prefetch = prefetch;
+    return this;
+  }
+
+  /**
+   * Customizes the options of every statement, after the parameters are set.
+   */
+  public KeysetPager options(Consumer<QueryOptions> configurator) {
+    this.configurator = requireNonNull(configurator);
+    return this;
+  }
+
+  /**
+   * Returns the statement of the page following the given keys, or of the first page if null.
+   *
+   * @param after the keys of the last row of the previous page, in the order of the sort keys.
+   */
+  public ParameterizedStatement statement(JsonArray after) {
+    if (sorts.isEmpty()) {
+      throw new IllegalStateException("No sort key was given");
+    }
+    Expression seek = after == null ? TRUE() : seek(after);
+    return ParameterizedStatement.positional(template.apply(seek)
+        .orderBy(sorts.toArray(new Sort[0]))
+        .limit(pageSize));
+  }
+
+  /**
+   * Returns the seek predicate selecting the rows after the given keys.
+   */
+  Expression seek(JsonArray after) {
+    if (after.size() != sorts.size()) {
+      throw new IllegalArgumentException("Expected " + sorts.size() + " keys, got " + after.size());
+    }
+    List<Expression> alternatives = new ArrayList<>(sorts.size());
+    for (int i = 0; i < sorts.size(); i++) {
+      List<Expression> terms = new ArrayList<>(i + 1);
+      for (int j = 0; j < i; j++) {
+        terms.add(sorts.get(j).expression().eq(InList.literal(after.get(j))));
+      }
+      terms.add(compare(i, after, false));
+      alternatives.add(terms.size() == 1 ? terms.get(0) : par(and(terms)));
+    }
+    if (alternatives.size() == 1) {
+      return alternatives.get(0);
+    }
+    return compare(0, after, true).and(par(or(alternatives)));
+  }
+
+  private Expression compare(int index, JsonArray after, boolean inclusive) {
+    Expression key = sorts.get(index).expression();
+    Expression value = InList.literal(after.get(index));
+    if (sorts.get(index).ordering() == Sort.Order.DESC) {
+      return inclusive ? key.lte(value) : key.lt(value);
+    }
+    return inclusive ? key.gte(value) : key.gt(value);
+  }
+
+  /**
+   * Returns the keys of the given row, to query the page following it.
+   */
+  public JsonArray keys(JsonObject row) {
+    JsonArray keys = JsonArray.create();
+    for (String field : fields) {
+      Object value = row.get(field);
+      if (value == null) {
+        throw new IllegalStateException("Sort key " + field + " is null or missing in row " + row);
+      }
+      keys.add(value);
+    }
+    return keys;
+  }
+
+  /**
+   * Checks that the keys of the given rows are valued and of the types of the given ranks, which are
+   * set from the first row if not set yet.
+   *
+   * @param ranks the ranks in the N1QL collation order of the types of the keys, zero if not set.
+   */
+  void checkKeys(List<JsonObject> rows, int[] ranks) {
+    for (JsonObject row : rows) {
+      for (int i = 0; i < fields.size(); i++) {
+        Object value = row.get(fields.get(i));
+        if (value == null) {
+          throw new IllegalStateException("Sort key " + fields.get(i) + " is null or missing in row " + row);
+        }
+        int rank = PartitionedScan.rank(value);
+        if (ranks[i] == 0) {
+          ranks[i] = rank;
+        } else if (ranks[i] != rank) {
+          throw new IllegalStateException("Sort key " + fields.get(i) + " is a " + value.getClass().getSimpleName()
+              + " in row " + row + ", unlike in the previous rows");
+        }
+      }
+    }
+  }
+
+  /**
+   * Queries the page following the given keys on the cluster, or the first page if null.
+   */
+  public List<JsonObject> page(Cluster cluster, JsonArray after) {
+    return query(QueryExecution.buffered(cluster.reactive()::query, cluster.environment()), null, after)
+        .block()
+        .rowsAsObject();
+  }
+
+  /**
+   * Queries the page following the given keys in the scope, or the first page if null.
+   */
+  public List<JsonObject> page(Scope scope, JsonArray after) {
+    return query(QueryExecution.buffered(scope.reactive()::query, scope.environment()), scope.bucketName(), after)
+        .block()
+        .rowsAsObject();
+  }
+
+  /**
+   * Queries all the pages on the cluster, one after the other as they are consumed. Closing the
+   * returned stream cancels the page being prefetched, if any.
+   */
+  public Stream<List<JsonObject>> pages(Cluster cluster) {
+    return pages(QueryExecution.buffered(cluster.reactive()::query, cluster.environment()), null);
+  }
+
+  /**
+   * Queries all the pages in the scope, one after the other as they are consumed. Closing the
+   * returned stream cancels the page being prefetched, if any.
+   */
+  public Stream<List<JsonObject>> pages(Scope scope) {
+    return pages(QueryExecution.buffered(scope.reactive()::query, scope.environment()), scope.bucketName());
+  }
+
+  /**
+   * Queries all the pages with the given function, {@link Statement#CURRENT_BUCKET_IDENTIFIER}
+   * being bound to the given bucket.
+   */
+  Stream<List<JsonObject>> pages(BiFunction<String, QueryOptions, Mono<QueryResult>> query,
+                                 String bucketName) {
+    Pages pages = new Pages(query, bucketName);
+    return stream(pages).onClose(pages::close);
+  }
+
+  /**
+   * Queries all the rows on the cluster, page by page as they are consumed. Closing the returned
+   * stream cancels the page being prefetched, if any.
+   */
+  public Stream<JsonObject> rows(Cluster cluster) {
+    return pages(cluster).flatMap(List::stream);
+  }
+
+  /**
+   * Queries all the rows in the scope, page by page as they are consumed. Closing the returned
+   * stream cancels the page being prefetched, if any.
+   */
+  public Stream<JsonObject> rows(Scope scope) {
+    return pages(scope).flatMap(List::stream);
+  }
+
+  private Mono<QueryResult> query(
+      BiFunction<String, QueryOptions, Mono<QueryResult>> query, String bucketName, JsonArray after) {
+    ParameterizedStatement statement = statement(after);
+    String bound = statement.statement(bucketName);
+    QueryOptions options = statement.queryOptions();
+    configurator.accept(options);
+    return query.apply(bound, options);
+  }
+
+  private static List<JsonObject> join(CompletableFuture<QueryResult> result) {
+    try {
+      return result.join().rowsAsObject();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+    }
+  }
+
+  private static <T> Stream<T> stream(Iterator<T> iterator) {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+        Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  /**
+   * Queries the pages one after the other, stopping after the first page which is not full.
+   */
+  private final class Pages implements Iterator<List<JsonObject>> {
+    private final BiFunction<String, QueryOptions, Mono<QueryResult>> query;
+    private final String bucketName;
+    private final int[] ranks = new int[fields.size()];
+    private CompletableFuture<QueryResult> running;
+    private Disposable request;
+    private List<JsonObject> page;
+    private JsonArray after;
+    private boolean done;
+
+    private Pages(BiFunction<String, QueryOptions, Mono<QueryResult>> query, String bucketName) {
+      this.query = query;
+      this.bucketName = bucketName;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (page == null && !done) {
+        if (running == null) {
+          start();
+        }
+        List<JsonObject> rows = join(running);
+        running = null;
+        request = null;
+        checkKeys(rows, ranks);
+        if (rows.size() < pageSize) {
+          done = true;
+        } else {
+          after = keys(rows.get(rows.size() - 1));
+          if (prefetch) {
+            start();
+          }
+        }
+        page = rows.isEmpty() ? null : rows;
+      }
+      return page != null;
+    }
+
+    @Override
+    public List<JsonObject> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      List<JsonObject> next = page;
+      page = null;
+      return next;
+    }
+
+    private void start() {
+      CompletableFuture<QueryResult> result = new CompletableFuture<>();
+      request = query(query, bucketName, after).subscribe(result::complete, result::completeExceptionally);
+      running = result;
+    }
+
+    /**
+     * Cancels the page being prefetched, if any, and queries no more pages.
+     */
+    private void close() {
+      done = true;
+      page = null;
+      if (request != null) {
+        request.dispose();
+      }
+      running = null;
+      request = null;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "KeysetPager{" +
+        "keys=" + fields +
+        ", pageSize=" + pageSize +
+        ", prefetch=" + prefetch +
+        '}';
+  }
+}
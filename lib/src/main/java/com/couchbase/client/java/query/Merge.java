@@ -18,6 +18,8 @@ package com.couchbase.client.java.query;
 
 import com.couchbase.client.java.query.dsl.Expression;
 import com.couchbase.client.java.query.dsl.element.Element;
+import com.couchbase.client.java.query.dsl.element.Keyword;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
 import com.couchbase.client.java.query.dsl.path.AbstractPath;
 import com.couchbase.client.java.query.dsl.path.DefaultMergeSourcePath;
 import com.couchbase.client.java.query.dsl.path.MergeSourcePath;
@@ -44,11 +46,10 @@ public class Merge {
 
   private static class MergePath extends AbstractPath {
     public MergePath(final Expression bucket) {
-      super(null);
-      element(new Element() {
+      super(null, new Element() {
         @Override
-        public String export() {
-          return "MERGE INTO " + bucket.toString();
+        public void export(N1qlWriter out) {
+          out.append(Keyword.MERGE_INTO).append(bucket);
         }
       });
     }
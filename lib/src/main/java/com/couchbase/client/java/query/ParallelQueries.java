@@ -0,0 +1,144 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Runs statements concurrently, a bounded number at a time, handing their results back in the
+ * order of the statements.
+ */
+final class ParallelQueries {
+
+  private ParallelQueries() {
+  }
+
+  /**
+   * Returns the results of the given statements, as they complete and in order. At most
+   * {@code parallelism} statements are running at any time; the next ones are only started
+   * as results are consumed.
+   * <p>
+   * If a statement fails, the statements still running are cancelled and the failure is thrown
+   * when its result is reached. Closing the returned results cancels them as well, so callers
+   * giving up before the last result must close them. Cancelling a statement disposes of its
+   * subscription, which cancels its request in the SDK, or closes the stream of its rows if they
+   * are being received.
+   *
+   * @param query runs a statement when subscribed, like
+   *     {@code QueryExecution.buffered(cluster.reactive()::query, cluster.environment())}.
+   * @param bucketName the bucket {@link Statement#CURRENT_BUCKET_IDENTIFIER} is bound to, like the
+   *     bucket of the scope running the statements, or null if there is none.
+   * @param configurator customizes the options of every statement, after the parameters are set.
+   */
+  static Results results(BiFunction<String, QueryOptions, Mono<QueryResult>> query,
+                         String bucketName, Iterator<ParameterizedStatement> statements, int parallelism,
+                         Consumer<QueryOptions> configurator) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be positive, got " + parallelism);
+    }
+    return new Results(query, bucketName, statements, parallelism, configurator);
+  }
+
+  /**
+   * The results of statements run concurrently, see {@link #results}.
+   */
+  static final class Results implements Iterator<QueryResult>, AutoCloseable {
+    private final BiFunction<String, QueryOptions, Mono<QueryResult>> query;
+    private final String bucketName;
+    private final Iterator<ParameterizedStatement> statements;
+    private final int parallelism;
+    private final Consumer<QueryOptions> configurator;
+    private final Deque<Running> running = new ArrayDeque<>();
+    private boolean closed;
+
+    private Results(BiFunction<String, QueryOptions, Mono<QueryResult>> query, String bucketName,
+                    Iterator<ParameterizedStatement> statements, int parallelism,
+                    Consumer<QueryOptions> configurator) {
+      this.query = query;
+      this.bucketName = bucketName;
+      this.statements = statements;
+      this.parallelism = parallelism;
+      this.configurator = configurator;
+    }
+
+    private void fill() {
+      while (!closed && running.size() < parallelism && statements.hasNext()) {
+        ParameterizedStatement statement = statements.next();
+        String bound = statement.statement(bucketName);
+        QueryOptions options = statement.queryOptions();
+        configurator.accept(options);
+        CompletableFuture<QueryResult> result = new CompletableFuture<>();
+        Disposable request = query.apply(bound, options).subscribe(result::complete, result::completeExceptionally);
+        running.add(new Running(result, request));
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      fill();
+      return !running.isEmpty();
+    }
+
+    @Override
+    public QueryResult next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Running next = running.poll();
+      fill();
+      try {
+        return next.result.join();
+      } catch (CompletionException e) {
+        close();
+        throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+      }
+    }
+
+    /**
+     * Cancels the statements still running, and starts no more of them.
+     */
+    @Override
+    public void close() {
+      closed = true;
+      running.forEach(statement -> statement.request.dispose());
+      running.clear();
+    }
+  }
+
+  /**
+   * A statement started, and the subscription running it.
+   */
+  private static final class Running {
+    private final CompletableFuture<QueryResult> result;
+    private final Disposable request;
+
+    private Running(CompletableFuture<QueryResult> result, Disposable request) {
+      this.result = result;
+      this.request = request;
+    }
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter.LiteralMode;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The text of a {@link Statement} whose literal values were lifted out into query parameters.
+ * <p>
+ * Statements that only differ by their literals (strings, numbers, JSON objects and arrays) render
+ * to the same text, so the query service can reuse a single prepared plan for all of them:
+ * <pre>
+ * ParameterizedStatement p = ParameterizedStatement.positional(
+ *     select("*").from("users").where(x("id").eq(s(userId))));
+ * // p.statement() is "SELECT * FROM users WHERE id = $1"
+ * cluster.query(p.statement(), p.queryOptions());
+ * </pre>
+ * Booleans, NULL, MISSING, identifiers and raw expressions created with {@code x(String)}
+ * stay in the text.
+ */
+public class ParameterizedStatement {
+  private final String statement;
+  private final JsonArray positionalParameters;
+  private final JsonObject namedParameters;
+  /**
+   * The positions of the {@link Statement#CURRENT_BUCKET_IDENTIFIER} placeholders in the text.
+   */
+  private final int[] currentBucketPositions;
+
+  private ParameterizedStatement(String statement, int[] currentBucketPositions, JsonArray positionalParameters,
+                                 JsonObject namedParameters) {
+    this.statement = statement;
+    this.currentBucketPositions = currentBucketPositions;
+    this.positionalParameters = positionalParameters;
+    this.namedParameters = namedParameters;
+  }
+
+  /**
+   * Renders the statement, replacing literals with positional parameters <code>$1</code>, <code>$2</code>...
+   */
+  public static ParameterizedStatement positional(Statement statement) {
+    return positional(render(statement, LiteralMode.POSITIONAL));
+  }
+
+  /**
+   * Returns the statement rendered into the given writer, in {@link LiteralMode#POSITIONAL} mode.
+   */
+  static ParameterizedStatement positional(N1qlWriter out) {
+    JsonArray parameters = JsonArray.create();
+    for (Object value : out.parameters()) {
+      parameters.add(value);
+    }
+    return new ParameterizedStatement(out.toString(), out.currentBucketPositions(), parameters, null);
+  }
+
+  /**
+   * Renders the statement, replacing literals with named parameters <code>$p1</code>, <code>$p2</code>...
+   */
+  public static ParameterizedStatement named(Statement statement) {
+    N1qlWriter out = render(statement, LiteralMode.NAMED);
+    List<Object> values = out.parameters();
+    JsonObject parameters = JsonObject.create();
+    for (int i = 0; i < values.size(); i++) {
+      parameters.put(N1qlWriter.parameterName(i), values.get(i));
+    }
+    return new ParameterizedStatement(out.toString(), out.currentBucketPositions(), null, parameters);
+  }
+
+  private static N1qlWriter render(Statement statement, LiteralMode literalMode) {
+    N1qlWriter out = new N1qlWriter(literalMode);
+    out.append(requireNonNull(statement));
+    return out;
+  }
+
+  /**
+   * Returns the statement text, with parameter placeholders instead of literals.
+   */
+  public String statement() {
+    return statement;
+  }
+
+  /**
+   * Returns the statement text with {@link Statement#CURRENT_BUCKET_IDENTIFIER} bound to the given
+   * bucket, as {@link QueryExecution#render(Statement, String)} does. The placeholders were recorded
+   * while rendering, so the text is not searched again.
+   *
+   * @param bucketName the current bucket, or null if there is none.
+   * @throws IllegalStateException if the statement refers to the current bucket and there is none.
+   */
+  String statement(String bucketName) {
+    return QueryExecution.render(CompiledStatement.of(statement, currentBucketPositions), bucketName);
+  }
+
+  /**
+   * Returns the values of the positional parameters, or null if the parameters are named.
+   */
+  public JsonArray positionalParameters() {
+    return positionalParameters;
+  }
+
+  /**
+   * Returns the values of the named parameters, or null if the parameters are positional.
+   */
+  public JsonObject namedParameters() {
+    return namedParameters;
+  }
+
+  /**
+   * Returns a copy of this positional statement, with the parameter at the given index (0 for
+   * <code>$1</code>) replaced. Lets a statement be rendered once and run with different values.
+   */
+  ParameterizedStatement withPositionalParameter(int index, Object value) {
+    if (positionalParameters == null) {
+      throw new IllegalStateException("The parameters are named");
+    }
+    JsonArray parameters = JsonArray.create();
+    for (int i = 0; i < positionalParameters.size(); i++) {
+      parameters.add(i == index ? value : positionalParameters.get(i));
+    }
+    return new ParameterizedStatement(statement, currentBucketPositions, parameters, null);
+  }
+
+  /**
+   * Returns new query options carrying the parameters, with {@code adhoc(false)} so the
+   * statement is prepared once and its plan reused.
+   */
+  public QueryOptions queryOptions() {
+    return applyTo(QueryOptions.queryOptions());
+  }
+
+  /**
+   * Sets the parameters on the given query options, along with {@code adhoc(false)}.
+   *
+   * @return the same query options, for chaining.
+   */
+  public QueryOptions applyTo(QueryOptions options) {
+    if (namedParameters != null) {
+      options.parameters(namedParameters);
+    } else {
+      options.parameters(positionalParameters);
+    }
+    return options.adhoc(false);
+  }
+
+  @Override
+  public String toString() {
+    return statement;
+  }
+}
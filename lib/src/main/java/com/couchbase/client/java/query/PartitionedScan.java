@@ -0,0 +1,577 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.Scope;
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.query.dsl.Expression;
+import com.couchbase.client.java.query.dsl.Sort;
+
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static com.couchbase.client.java.query.dsl.Expression.function;
+import static com.couchbase.client.java.query.dsl.Expression.i;
+import static com.couchbase.client.java.query.dsl.functions.MetaFunctions.meta;
+import static com.couchbase.client.java.query.dsl.functions.StringFunctions.lower;
+import static com.couchbase.client.java.query.dsl.functions.StringFunctions.substr;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Splits one select into several ones over disjoint partitions of the document IDs, runs them
+ * concurrently and merges their rows, so a large scan is spread over all the query nodes.
+ * <p>
+ * The select is built from a template receiving the partition predicate, which must be
+ * AND-combined with its filter. Partitions are either ranges of <code>META().id</code>
+ * ({@link #ranges(String...)}) or buckets of its last character ({@link #suffixBuckets(int)}):
+ * <pre>
+ * List&lt;JsonObject&gt; totals = PartitionedScan.of(partition -&gt; select(x("country"),
+ *         countAll().as("n"), sum("price").as("total"), min("price").as("lo"), count("price").as("c"))
+ *         .from("orders").where(x("status").eq(s("paid")).and(partition)).groupBy(x("country")))
+ *     .suffixBuckets(8)
+ *     .groupBy("country")
+ *     .count("n").sum("total").min("lo").avg("avg", "total", "c")
+ *     .orderBy(Sort.desc("total"), "total")
+ *     .limit(10)
+ *     .rows(cluster);
+ * </pre>
+ * Rows are merged as follows:
+ * <ul>
+ *   <li>When aggregates are declared, rows with the same {@link #groupBy(String...)} fields are
+ *   merged into one: counts and sums are added up, minimums and maximums are compared, and
+ *   averages are computed from a sum and a count. The rows are then sorted and limited.</li>
+ *   <li>Otherwise, the rows of each partition are expected to be sorted by the template, and are
+ *   merged in order; then the limit is applied. Without sort keys, partitions are concatenated.</li>
+ * </ul>
+ * The template can repeat the <code>ORDER BY</code> and <code>LIMIT</code> of a plain select so
+ * each partition returns less rows, but not for an aggregate one, whose groups span partitions.
+ * For the same reason, an aggregate template must not have a <code>HAVING</code> clause: it would
+ * filter the partial groups of each partition, not the merged ones. Filter the merged rows instead.
+ * Values are compared in the N1QL collation order: null, booleans, numbers, strings, arrays and
+ * objects.
+ */
+public class PartitionedScan {
+  public static final int DEFAULT_PARALLELISM = 4;
+
+  /**
+   * The characters the suffix buckets are made of: the last character of most document IDs,
+   * compared in lower case.
+   */
+  static final String SUFFIX_ALPHABET = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+  /**
+   * How a field of the partial rows is merged.
+   */
+  public enum Aggregate {
+    COUNT,
+    SUM,
+    MIN,
+    MAX
+  }
+
+  private final Function<Expression, Statement> template;
+  private String alias;
+  private String[] boundaries;
+  private int buckets;
+  private int parallelism = DEFAULT_PARALLELISM;
+  private final List<String> groupBy = new ArrayList<>();
+  private final Map<String, Aggregate> aggregates = new LinkedHashMap<>();
+  private final Map<String, String[]> averages = new LinkedHashMap<>();
+  private final List<Sort> sorts = new ArrayList<>();
+  private final List<String> sortFields = new ArrayList<>();
+  private int limit = -1;
+  private Consumer<QueryOptions> configurator = options -> {
+  };
+
+  private PartitionedScan(Function<Expression, Statement> template) {
+    this.template = requireNonNull(template);
+  }
+
+  /**
+   * @param template builds the select from the partition predicate, like
+   *     {@code partition -> select("*").from(bucket).where(filter.and(partition))}.
+   */
+  public static PartitionedScan of(Function<Expression, Statement> template) {
+    return new PartitionedScan(template);
+  }
+
+  /**
+   * Sets the alias of the keyspace whose document IDs are partitioned, when the select has several.
+   */
+  public PartitionedScan alias(String alias) {
+    this.alias = requireNonNull(alias);
+    return this;
+  }
+
+  /**
+   * Partitions the document IDs into ranges split at the given IDs, in ascending order:
+   * {@code n} boundaries make {@code n + 1} partitions.
+   */
+  public PartitionedScan ranges(String... boundaries) {
+    for (int i = 1; i < boundaries.length; i++) {
+      if (boundaries[i - 1].compareTo(boundaries[i]) >= 0) {
+        throw new IllegalArgumentException("Boundaries must be in ascending order, got "
+            + Arrays.toString(boundaries));
+      }
+    }
+    this.boundaries = boundaries.clone();
+    this.buckets = 0;
+    return this;
+  }
+
+  /**
+   * Partitions the document IDs into the given number of buckets, by their last character. IDs
+   * ending with a character outside of {@value #SUFFIX_ALPHABET} go to the last bucket.
+   * <p>
+   * This is not a hash of the IDs: partitions are only balanced when their last characters are
+   * evenly spread, like for UUIDs or sequence numbers. Otherwise, use {@link #ranges(String...)}.
+   */
+  public PartitionedScan suffixBuckets(int buckets) {
+    if (buckets < 1 || buckets > SUFFIX_ALPHABET.length()) {
+      throw new IllegalArgumentException("buckets must be between 1 and " + SUFFIX_ALPHABET.length()
+          + ", got " + buckets);
+    }
+    this.buckets = buckets;
+    this.boundaries = null;
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of statements running at the same time.
+   * Defaults to {@value #DEFAULT_PARALLELISM}.
+   */
+  public PartitionedScan parallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be positive, got " + parallelism);
+    }
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  /**
+   * Sets the fields identifying a group of an aggregate select, matching its <code>GROUP BY</code>.
+   * The select must not have a <code>HAVING</code> clause, which would filter partial groups.
+   */
+  public PartitionedScan groupBy(String... fields) {
+    groupBy.addAll(Arrays.asList(fields));
+    return this;
+  }
+
+  /**
+   * Declares a field holding a <code>COUNT</code>, added up across partitions. Partial values which
+   * are not numbers are ignored, and the field is null if none is.
+   */
+  public PartitionedScan count(String field) {
+    return aggregate(field, Aggregate.COUNT);
+  }
+
+  /**
+   * Declares a field holding a <code>SUM</code>, added up across partitions. Partial values which
+   * are not numbers are ignored, like <code>SUM</code> does, and the field is null if none is.
+   */
+  public PartitionedScan sum(String field) {
+    return aggregate(field, Aggregate.SUM);
+  }
+
+  /**
+   * Declares a field holding a <code>MIN</code>, the lowest one across partitions.
+   */
+  public PartitionedScan min(String field) {
+    return aggregate(field, Aggregate.MIN);
+  }
+
+  /**
+   * Declares a field holding a <code>MAX</code>, the highest one across partitions.
+   */
+  public PartitionedScan max(String field) {
+    return aggregate(field, Aggregate.MAX);
+  }
+
+  public PartitionedScan aggregate(String field, Aggregate aggregate) {
+    aggregates.put(requireNonNull(field), requireNonNull(aggregate));
+    return this;
+  }
+
+  /**
+   * Declares an average, set in the given field once the partitions are merged, from the fields
+   * holding the <code>SUM</code> and <code>COUNT</code> of the same expression. An <code>AVG</code>
+   * cannot be merged by itself.
+   */
+  public PartitionedScan avg(String field, String sumField, String countField) {
+    sum(sumField);
+    count(countField);
+    averages.put(requireNonNull(field), new String[] {sumField, countField});
+    return this;
+  }
+
+  /**
+   * Adds a sort key of the merged rows, read from the given field.
+   */
+  public PartitionedScan orderBy(Sort sort, String field) {
+    sorts.add(requireNonNull(sort));
+    sortFields.add(requireNonNull(field));
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of merged rows.
+   */
+  public PartitionedScan limit(int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("limit must not be negative, got " + limit);
+    }
+    this.limit = limit;
+    return this;
+  }
+
+  /**
+   * Customizes the options of every statement, after the parameters are set.
+   */
+  public PartitionedScan options(Consumer<QueryOptions> configurator) {
+    this.configurator = requireNonNull(configurator);
+    return this;
+  }
+
+  /**
+   * Returns the predicates selecting each partition.
+   */
+  public List<Expression> partitions() {
+    Expression id = (alias == null ? function("META") : meta(i(alias))).get("id");
+    List<Expression> partitions = new ArrayList<>();
+    if (boundaries != null) {
+      for (int n = 0; n <= boundaries.length; n++) {
+        if (n == 0) {
+          partitions.add(boundaries.length == 0 ? Expression.TRUE() : id.lt(InList.literal(boundaries[0])));
+        } else if (n == boundaries.length) {
+          partitions.add(id.gte(InList.literal(boundaries[n - 1])));
+        } else {
+          partitions.add(id.gte(InList.literal(boundaries[n - 1])).and(id.lt(InList.literal(boundaries[n]))));
+        }
+      }
+    } else if (buckets > 0) {
+      Expression last = lower(substr(id, -1, 1));
+      JsonArray others = JsonArray.create();
+      for (int n = 0; n < buckets - 1; n++) {
+        JsonArray characters = JsonArray.create();
+        for (int c = n; c < SUFFIX_ALPHABET.length(); c += buckets) {
+          characters.add(String.valueOf(SUFFIX_ALPHABET.charAt(c)));
+          others.add(String.valueOf(SUFFIX_ALPHABET.charAt(c)));
+        }
+        partitions.add(last.in(characters));
+      }
+      partitions.add(buckets == 1 ? Expression.TRUE() : last.notIn(others));
+    } else {
+      throw new IllegalStateException("No partitioning was given");
+    }
+    return partitions;
+  }
+
+  /**
+   * Returns the statements of each partition.
+   */
+  public List<ParameterizedStatement> statements() {
+    List<ParameterizedStatement> statements = new ArrayList<>();
+    for (Expression partition : partitions()) {
+      statements.add(ParameterizedStatement.positional(template.apply(partition)));
+    }
+    return statements;
+  }
+
+  /**
+   * Runs the statements of each partition on the cluster, and returns their merged rows.
+   */
+  public List<JsonObject> rows(Cluster cluster) {
+    return rows(QueryExecution.buffered(cluster.reactive()::query, cluster.environment()), null);
+  }
+
+  /**
+   * Runs the statements of each partition in the scope, and returns their merged rows.
+   * {@link Statement#CURRENT_BUCKET_IDENTIFIER} is replaced with the default collection of the
+   * bucket of the scope, as {@link Statement#execute(Scope)} does.
+   */
+  public List<JsonObject> rows(Scope scope) {
+    return rows(QueryExecution.buffered(scope.reactive()::query, scope.environment()), scope.bucketName());
+  }
+
+  /**
+   * Runs the statements with the given function, {@link Statement#CURRENT_BUCKET_IDENTIFIER} being
+   * bound to the given bucket.
+   */
+  List<JsonObject> rows(BiFunction<String, QueryOptions, Mono<QueryResult>> query, String bucketName) {
+    List<List<JsonObject>> partitions = new ArrayList<>();
+    try (ParallelQueries.Results results = ParallelQueries.results(query, bucketName, statements().iterator(), parallelism,
+        configurator)) {
+      while (results.hasNext()) {
+        partitions.add(results.next().rowsAsObject());
+      }
+    }
+    return merge(partitions);
+  }
+
+  /**
+   * Merges the rows of each partition.
+   */
+  List<JsonObject> merge(List<List<JsonObject>> partitions) {
+    List<JsonObject> rows;
+    if (!aggregates.isEmpty()) {
+      rows = aggregate(partitions);
+      rows.sort(comparator());
+    } else if (!sorts.isEmpty()) {
+      rows = mergeSorted(partitions);
+    } else {
+      rows = new ArrayList<>();
+      partitions.forEach(rows::addAll);
+    }
+    return limit >= 0 && rows.size() > limit ? new ArrayList<>(rows.subList(0, limit)) : rows;
+  }
+
+  private List<JsonObject> aggregate(List<List<JsonObject>> partitions) {
+    Map<JsonArray, JsonObject> groups = new LinkedHashMap<>();
+    for (List<JsonObject> partition : partitions) {
+      for (JsonObject row : partition) {
+        JsonArray key = JsonArray.create();
+        for (String field : groupBy) {
+          key.add(row.get(field));
+        }
+        JsonObject merged = groups.get(key);
+        if (merged == null) {
+          merged = JsonObject.from(row.toMap());
+          groups.put(key, merged);
+          for (Map.Entry<String, Aggregate> aggregate : aggregates.entrySet()) {
+            String field = aggregate.getKey();
+            if (merged.containsKey(field)) {
+              merged.put(field, merge(aggregate.getValue(), null, merged.get(field)));
+            }
+          }
+        } else {
+          for (Map.Entry<String, Aggregate> aggregate : aggregates.entrySet()) {
+            String field = aggregate.getKey();
+            merged.put(field, merge(aggregate.getValue(), merged.get(field), row.get(field)));
+          }
+        }
+      }
+    }
+
+    List<JsonObject> rows = new ArrayList<>(groups.values());
+    for (JsonObject row : rows) {
+      for (Map.Entry<String, String[]> average : averages.entrySet()) {
+        Object sum = row.get(average.getValue()[0]);
+        Object count = row.get(average.getValue()[1]);
+        boolean empty = !(sum instanceof Number) || !(count instanceof Number) || ((Number) count).longValue() == 0;
+        row.put(average.getKey(), empty ? null : ((Number) sum).doubleValue() / ((Number) count).doubleValue());
+      }
+    }
+    return rows;
+  }
+
+  private static Object merge(Aggregate aggregate, Object left, Object right) {
+    if (aggregate == Aggregate.COUNT || aggregate == Aggregate.SUM) {
+      return add(left, right);
+    } else if (left == null) {
+      return right;
+    } else if (right == null) {
+      return left;
+    }
+    switch (aggregate) {
+      case MIN:
+        return collate(left, right) <= 0 ? left : right;
+      case MAX:
+        return collate(left, right) >= 0 ? left : right;
+      default:
+        throw new IllegalArgumentException("Unknown aggregate " + aggregate);
+    }
+  }
+
+  /**
+   * Adds up two partial counts or sums, ignoring the ones which are not numbers.
+   */
+  private static Number add(Object left, Object right) {
+    if (!(left instanceof Number)) {
+      return right instanceof Number ? (Number) right : null;
+    } else if (!(right instanceof Number)) {
+      return (Number) left;
+    }
+    Number a = (Number) left;
+    Number b = (Number) right;
+    if (isIntegral(a) && isIntegral(b)) {
+      return a.longValue() + b.longValue();
+    }
+    return a.doubleValue() + b.doubleValue();
+  }
+
+  /**
+   * Merges partitions whose rows are already sorted, keeping the first rows across all of them.
+   */
+  private List<JsonObject> mergeSorted(List<List<JsonObject>> partitions) {
+    Comparator<JsonObject> comparator = comparator();
+    PriorityQueue<Cursor> heads = new PriorityQueue<>(Math.max(1, partitions.size()),
+        (a, b) -> {
+          int result = comparator.compare(a.head(), b.head());
+          return result != 0 ? result : Integer.compare(a.partition, b.partition);
+        });
+    int total = 0;
+    for (int n = 0; n < partitions.size(); n++) {
+      List<JsonObject> rows = partitions.get(n);
+      total += rows.size();
+      if (!rows.isEmpty()) {
+        heads.add(new Cursor(n, rows));
+      }
+    }
+
+    int size = limit >= 0 ? Math.min(limit, total) : total;
+    List<JsonObject> merged = new ArrayList<>(size);
+    while (merged.size() < size) {
+      Cursor cursor = heads.poll();
+      merged.add(cursor.head());
+      if (++cursor.index < cursor.rows.size()) {
+        heads.add(cursor);
+      }
+    }
+    return merged;
+  }
+
+  private Comparator<JsonObject> comparator() {
+    return (a, b) -> {
+      for (int n = 0; n < sorts.size(); n++) {
+        String field = sortFields.get(n);
+        int result = collate(a.get(field), b.get(field));
+        if (result != 0) {
+          return sorts.get(n).ordering() == Sort.Order.DESC ? -result : result;
+        }
+      }
+      return 0;
+    };
+  }
+
+  private static boolean isIntegral(Number number) {
+    return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+  }
+
+  /**
+   * Compares two JSON values in the N1QL collation order. Objects are compared by their number of
+   * fields, then by their field names in sorted order, then by the values of those fields.
+   */
+  static int collate(Object left, Object right) {
+    int rank = Integer.compare(rank(left), rank(right));
+    if (rank != 0 || left == null) {
+      return rank;
+    }
+    if (left instanceof Boolean) {
+      return Boolean.compare((Boolean) left, (Boolean) right);
+    } else if (left instanceof Number) {
+      Number a = (Number) left;
+      Number b = (Number) right;
+      if (isIntegral(a) && isIntegral(b)) {
+        return Long.compare(a.longValue(), b.longValue());
+      }
+      return Double.compare(a.doubleValue(), b.doubleValue());
+    } else if (left instanceof String) {
+      return ((String) left).compareTo((String) right);
+    } else if (left instanceof JsonArray) {
+      JsonArray a = (JsonArray) left;
+      JsonArray b = (JsonArray) right;
+      for (int n = 0; n < Math.min(a.size(), b.size()); n++) {
+        int result = collate(a.get(n), b.get(n));
+        if (result != 0) {
+          return result;
+        }
+      }
+      return Integer.compare(a.size(), b.size());
+    }
+    JsonObject a = (JsonObject) left;
+    JsonObject b = (JsonObject) right;
+    int size = Integer.compare(a.size(), b.size());
+    if (size != 0) {
+      return size;
+    }
+    List<String> aNames = new ArrayList<>(a.getNames());
+    List<String> bNames = new ArrayList<>(b.getNames());
+    Collections.sort(aNames);
+    Collections.sort(bNames);
+    for (int n = 0; n < aNames.size(); n++) {
+      int result = aNames.get(n).compareTo(bNames.get(n));
+      if (result != 0) {
+        return result;
+      }
+    }
+    for (String name : aNames) {
+      int result = collate(a.get(name), b.get(name));
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Returns the rank of the type of a JSON value in the N1QL collation order.
+   */
+  static int rank(Object value) {
+    if (value == null) {
+      return 0;
+    } else if (value instanceof Boolean) {
+      return 1;
+    } else if (value instanceof Number) {
+      return 2;
+    } else if (value instanceof String) {
+      return 3;
+    } else if (value instanceof JsonArray) {
+      return 4;
+    } else if (value instanceof JsonObject) {
+      return 5;
+    }
+    throw new IllegalArgumentException("Not a JSON value: " + value.getClass().getName());
+  }
+
+  private static final class Cursor {
+    private final int partition;
+    private final List<JsonObject> rows;
+    private int index;
+
+    private Cursor(int partition, List<JsonObject> rows) {
+      this.partition = partition;
+      this.rows = rows;
+    }
+
+    private JsonObject head() {
+      return rows.get(index);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "PartitionedScan{" +
+        "partitions=" + (boundaries != null ? boundaries.length + 1 : buckets) +
+        ", parallelism=" + parallelism +
+        ", aggregates=" + aggregates +
+        ", limit=" + limit +
+        '}';
+  }
+}
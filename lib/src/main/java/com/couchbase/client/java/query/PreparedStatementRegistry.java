@@ -0,0 +1,248 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.Scope;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Decides which statements are worth running as prepared statements.
+ * <p>
+ * Every statement going through the registry is rendered with its literals lifted out into
+ * positional parameters (see {@link ParameterizedStatement}), so statements that only differ
+ * by their values share the same shape. The registry counts how many times each shape is run,
+ * and once a shape reaches the hot threshold it is run with {@code adhoc(false)}, letting the
+ * query service reuse its plan. Cold shapes are run as regular ad hoc queries.
+ * <p>
+ * Only the most recently used shapes are tracked; the least recently used ones are evicted
+ * once the capacity is reached.
+ * <p>
+ * This class is thread safe and is meant to be shared by the whole application.
+ */
+public class PreparedStatementRegistry {
+  public static final int DEFAULT_CAPACITY = 1024;
+  public static final int DEFAULT_HOT_THRESHOLD = 2;
+
+  private final int capacity;
+  private final int hotThreshold;
+  private final Map<String, Shape> shapes;
+
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+
+  public PreparedStatementRegistry() {
+    this(DEFAULT_CAPACITY, DEFAULT_HOT_THRESHOLD);
+  }
+
+  /**
+   * @param capacity the maximum number of shapes to track.
+   * @param hotThreshold the number of runs after which a shape is run as a prepared statement.
+   */
+  public PreparedStatementRegistry(int capacity, int hotThreshold) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive, got " + capacity);
+    }
+    if (hotThreshold < 1) {
+      throw new IllegalArgumentException("hotThreshold must be positive, got " + hotThreshold);
+    }
+    this.capacity = capacity;
+    this.hotThreshold = hotThreshold;
+    this.shapes = new Shapes();
+  }
+
+  /**
+   * Runs the statement on the given cluster.
+   */
+  public QueryResult query(Cluster cluster, Statement statement) {
+    return query(cluster, statement, options -> {
+    });
+  }
+
+  /**
+   * Runs the statement on the given cluster, letting the caller customize the query options
+   * after the registry has set the parameters and {@code adhoc} flag.
+   */
+  public QueryResult query(Cluster cluster, Statement statement, Consumer<QueryOptions> configurator) {
+    ParameterizedStatement parameterized = ParameterizedStatement.positional(statement);
+    String rendered = render(parameterized, null);
+    return cluster.query(rendered, queryOptions(parameterized, configurator));
+  }
+
+  /**
+   * Runs the statement in the given scope.
+   */
+  public QueryResult query(Scope scope, Statement statement) {
+    return query(scope, statement, options -> {
+    });
+  }
+
+  /**
+   * Runs the statement in the given scope, letting the caller customize the query options
+   * after the registry has set the parameters and {@code adhoc} flag. As with
+   * {@link Statement#execute(Scope)}, {@link Statement#CURRENT_BUCKET_IDENTIFIER} is replaced
+   * with the default collection of the bucket of the scope.
+   */
+  public QueryResult query(Scope scope, Statement statement, Consumer<QueryOptions> configurator) {
+    ParameterizedStatement parameterized = ParameterizedStatement.positional(statement);
+    String rendered = render(parameterized, scope.bucketName());
+    return scope.query(rendered, queryOptions(parameterized, configurator));
+  }
+
+  /**
+   * Returns the text of the parameterized statement, bound to the given bucket as it would be by
+   * {@link Statement#execute(Scope)}.
+   *
+   * @param bucketName the current bucket, or null if there is none.
+   * @throws IllegalStateException if the statement refers to the current bucket and there is none.
+   */
+  static String render(ParameterizedStatement parameterized, String bucketName) {
+    return QueryExecution.render(new RenderedStatement(parameterized.statement()), bucketName);
+  }
+
+  /**
+   * Records a run of the given statement's shape, and returns the options it should be run with.
+   * <p>
+   * This is what the {@code query} methods use; it is exposed for callers running the
+   * statement through another API, like {@code Cluster.async()} or {@code Cluster.reactive()}.
+   */
+  public QueryOptions queryOptions(ParameterizedStatement parameterized, Consumer<QueryOptions> configurator) {
+    QueryOptions options = QueryOptions.queryOptions();
+    if (!parameterized.positionalParameters().isEmpty()) {
+      options.parameters(parameterized.positionalParameters());
+    }
+    options.adhoc(!record(parameterized.statement()));
+    configurator.accept(options);
+    return options;
+  }
+
+  /**
+   * Counts a run of the given shape.
+   *
+   * @return true if the shape is hot.
+   */
+  private synchronized boolean record(String shape) {
+    Shape entry = shapes.get(shape);
+    if (entry == null) {
+      missCount++;
+      entry = new Shape();
+      shapes.put(shape, entry);
+    } else {
+      hitCount++;
+    }
+    entry.runs++;
+    return entry.runs >= hotThreshold;
+  }
+
+  /**
+   * Returns how many times the shape of the given statement was run, or 0 if it is not tracked.
+   */
+  public long runs(Statement statement) {
+    String shape = ParameterizedStatement.positional(requireNonNull(statement)).statement();
+    synchronized (this) {
+      Shape entry = shapes.get(shape);
+      return entry == null ? 0 : entry.runs;
+    }
+  }
+
+  /**
+   * Returns true if the shape of the given statement is currently run as a prepared statement.
+   */
+  public boolean isHot(Statement statement) {
+    return runs(statement) >= hotThreshold;
+  }
+
+  /**
+   * Returns the number of shapes currently tracked.
+   */
+  public synchronized int size() {
+    return shapes.size();
+  }
+
+  /**
+   * Returns how many runs were for an already tracked shape.
+   */
+  public synchronized long hitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns how many runs were for a shape not tracked yet.
+   */
+  public synchronized long missCount() {
+    return missCount;
+  }
+
+  /**
+   * Returns how many shapes were evicted to stay within capacity.
+   */
+  public synchronized long evictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Forgets all shapes and resets the counts.
+   */
+  public synchronized void clear() {
+    shapes.clear();
+    hitCount = 0;
+    missCount = 0;
+    evictionCount = 0;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "PreparedStatementRegistry{" +
+        "size=" + shapes.size() +
+        ", capacity=" + capacity +
+        ", hotThreshold=" + hotThreshold +
+        ", hitCount=" + hitCount +
+        ", missCount=" + missCount +
+        ", evictionCount=" + evictionCount +
+        '}';
+  }
+
+  private static class Shape {
+    private long runs;
+  }
+
+  /**
+   * The tracked shapes, evicting the least recently used ones beyond the capacity.
+   */
+  private final class Shapes extends LinkedHashMap<String, Shape> {
+    private static final long serialVersionUID = 1L;
+
+    private Shapes() {
+      super(16, 0.75f, true);
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Shape> eldest) {
+      if (size() > capacity) {
+        evictionCount++;
+        return true;
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.core.msg.query.QueryChunkRow;
+import com.couchbase.client.java.codec.JsonSerializer;
+import com.couchbase.client.java.env.ClusterEnvironment;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * Runs statements through the asynchronous and reactive APIs of the SDK, see the
+ * {@code executeAsync} and {@code executeReactive} methods of {@link Statement}.
+ */
+final class QueryExecution {
+  private QueryExecution() {
+  }
+
+  /**
+   * Renders the statement, replacing {@link Statement#CURRENT_BUCKET_IDENTIFIER} with the
+   * {@link #currentBucket(String) keyspace} of the given bucket.
+   * <p>
+   * Nothing is kept once the statement is rendered: statements built with the DSL cache their own
+   * text and placeholder positions, so running one again costs a single copy binding the bucket.
+   * A {@link CompiledStatement} also caches its bound statements, for the statements run the most.
+   *
+   * @param bucketName the current bucket, or null if there is none.
+   * @throws IllegalStateException if the statement refers to the current bucket and there is none.
+   */
+  static String render(Statement statement, String bucketName) {
+    CompiledStatement compiled = statement instanceof CompiledStatement
+        ? (CompiledStatement) statement
+        : CompiledStatement.compile(statement, 0);
+    if (!compiled.hasCurrentBucket()) {
+      return compiled.toString();
+    }
+    if (bucketName == null) {
+      throw new IllegalStateException("The statement refers to the current bucket, run it in a scope: " + compiled);
+    }
+    return compiled.bind(currentBucket(bucketName));
+  }
+
+  /**
+   * Returns the keyspace {@link Statement#CURRENT_BUCKET_IDENTIFIER} stands for in a scope of the
+   * given bucket: the default collection of the bucket, which is what SDK 2 queried. It is fully
+   * qualified, since a query running in a scope resolves a single name as a collection of the scope.
+   */
+  static String currentBucket(String bucketName) {
+    return CompiledStatement.keyspace(bucketName, "_default", "_default");
+  }
+
+  /**
+   * Runs the statement, then decodes its rows in the common pool rather than on the I/O thread
+   * completing the query.
+   */
+  static <T> CompletableFuture<List<T>> rowsAsync(
+      BiFunction<String, QueryOptions, CompletableFuture<QueryResult>> query, Statement statement,
+      String bucketName, QueryOptions options, Class<T> rowType) {
+    return execute(query, statement, bucketName, options).thenApplyAsync(result -> result.rowsAs(rowType));
+  }
+
+  static CompletableFuture<QueryResult> execute(
+      BiFunction<String, QueryOptions, CompletableFuture<QueryResult>> query, Statement statement,
+      String bucketName, QueryOptions options) {
+    String rendered;
+    try {
+      rendered = render(statement, bucketName);
+    } catch (RuntimeException e) {
+      CompletableFuture<QueryResult> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+    return query.apply(rendered, options);
+  }
+
+  static Mono<ReactiveQueryResult> executeReactive(
+      BiFunction<String, QueryOptions, Mono<ReactiveQueryResult>> query, Statement statement,
+      String bucketName, QueryOptions options) {
+    return Mono.defer(() -> query.apply(render(statement, bucketName), options));
+  }
+
+  /**
+   * Runs the statement and streams its rows. Rows are received as raw bytes and decoded on the
+   * parallel scheduler, rather than on the I/O thread; demand is propagated to the query service,
+   * so only a bounded number of rows is buffered whatever the size of the result.
+   * <p>
+   * The options are passed on untouched: rows are requested as {@code byte[]}, which the
+   * serializers of the SDK hand over as they were received.
+   */
+  static <T> Flux<T> rowsReactive(BiFunction<String, QueryOptions, Mono<ReactiveQueryResult>> query,
+                                  Statement statement, String bucketName, ClusterEnvironment environment,
+                                  QueryOptions options, Class<T> rowType) {
+    return Flux.defer(() -> {
+      JsonSerializer serializer = serializer(options, environment);
+      return query.apply(render(statement, bucketName), options)
+          .flatMapMany(result -> result.rowsAs(byte[].class))
+          .publishOn(Schedulers.parallel())
+          .map(row -> serializer.deserialize(rowType, row));
+    });
+  }
+
+  /**
+   * Returns a function running a statement through the given reactive API, like
+   * {@code cluster.reactive()::query}, and buffering its rows into a {@link QueryResult} like the
+   * asynchronous API does. Unlike cancelling the future of the asynchronous API, cancelling the
+   * subscription cancels the request, or closes the stream of rows once it is received.
+   */
+  static BiFunction<String, QueryOptions, Mono<QueryResult>> buffered(
+      BiFunction<String, QueryOptions, Mono<ReactiveQueryResult>> query, ClusterEnvironment environment) {
+    return (statement, options) -> {
+      JsonSerializer serializer = serializer(options, environment);
+      return query.apply(statement, options).flatMap(result -> result.rowsAs(byte[].class)
+          .map(QueryChunkRow::new)
+          .collectList()
+          .flatMap(rows -> result.metaData().map(metaData -> new BufferedQueryResult(rows, metaData, serializer))));
+    };
+  }
+
+  private static JsonSerializer serializer(QueryOptions options, ClusterEnvironment environment) {
+    JsonSerializer configured = options.build().serializer();
+    return configured != null ? configured : environment.jsonSerializer();
+  }
+
+  /**
+   * The rows of a query buffered from its reactive result, along with its metadata.
+   */
+  private static final class BufferedQueryResult extends QueryResult {
+    private final int size;
+    private final QueryMetaData metaData;
+
+    private BufferedQueryResult(List<QueryChunkRow> rows, QueryMetaData metaData, JsonSerializer serializer) {
+      super(null, rows, null, serializer);
+      this.size = rows.size();
+      this.metaData = metaData;
+    }
+
+    @Override
+    public QueryMetaData metaData() {
+      return metaData;
+    }
+
+    @Override
+    public String toString() {
+      return "BufferedQueryResult{" +
+          "rows=" + size +
+          ", metaData=" + metaData +
+          '}';
+    }
+  }
+}
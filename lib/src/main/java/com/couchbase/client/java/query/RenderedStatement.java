@@ -0,0 +1,43 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+/**
+ * A statement whose text was rendered beforehand, by one of the bulk builders.
+ */
+final class RenderedStatement implements Statement {
+  private final String statement;
+
+  RenderedStatement(String statement) {
+    this.statement = statement;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof RenderedStatement && statement.equals(((RenderedStatement) o).statement);
+  }
+
+  @Override
+  public int hashCode() {
+    return statement.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return statement;
+  }
+}
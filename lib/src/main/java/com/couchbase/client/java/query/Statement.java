@@ -15,6 +15,174 @@
  */
 package com.couchbase.client.java.query;
 
+import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.ReactiveScope;
+import com.couchbase.client.java.Scope;
+import com.couchbase.client.java.query.dsl.element.FingerprintWriter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface Statement {
   String CURRENT_BUCKET_IDENTIFIER = "#CURRENT_BUCKET#";
+
+  /**
+   * Returns the fingerprint of the shape of this statement: statements only differing by their
+   * literal values or whitespace share the same fingerprint. See {@link FingerprintWriter}.
+   */
+  default long fingerprint() {
+    return fingerprint(false);
+  }
+
+  /**
+   * Returns the fingerprint of the shape of this statement, see {@link #fingerprint()}.
+   *
+   * @param normalizeCommutative true to ignore the order of the operands of AND and OR.
+   */
+  default long fingerprint(boolean normalizeCommutative) {
+    FingerprintWriter out = new FingerprintWriter(normalizeCommutative);
+    out.append(this);
+    return out.fingerprint();
+  }
+
+  /**
+   * Runs this statement on the given cluster.
+   */
+  default QueryResult execute(Cluster cluster) {
+    return execute(cluster, QueryOptions.queryOptions());
+  }
+
+  /**
+   * Runs this statement on the given cluster, with the given options.
+   *
+   * @throws IllegalStateException if the statement refers to {@link #CURRENT_BUCKET_IDENTIFIER}.
+   */
+  default QueryResult execute(Cluster cluster, QueryOptions options) {
+    return cluster.query(QueryExecution.render(this, null), options);
+  }
+
+  /**
+   * Runs this statement in the given scope.
+   */
+  default QueryResult execute(Scope scope) {
+    return execute(scope, QueryOptions.queryOptions());
+  }
+
+  /**
+   * Runs this statement in the given scope, with the given options. The
+   * {@link #CURRENT_BUCKET_IDENTIFIER} is replaced with the default collection of the bucket of
+   * the scope, fully qualified.
+   */
+  default QueryResult execute(Scope scope, QueryOptions options) {
+    return scope.query(QueryExecution.render(this, scope.bucketName()), options);
+  }
+
+  /**
+   * Runs this statement on the given cluster, without blocking.
+   */
+  default CompletableFuture<QueryResult> executeAsync(Cluster cluster) {
+    return executeAsync(cluster, QueryOptions.queryOptions());
+  }
+
+  /**
+   * Runs this statement on the given cluster with the given options, without blocking.
+   */
+  default CompletableFuture<QueryResult> executeAsync(Cluster cluster, QueryOptions options) {
+    return QueryExecution.execute(cluster.async()::query, this, null, options);
+  }
+
+  /**
+   * Runs this statement on the given cluster with the given options, without blocking, and
+   * decodes its rows outside of the I/O threads.
+   */
+  default <T> CompletableFuture<List<T>> executeAsync(Cluster cluster, QueryOptions options, Class<T> rowType) {
+    return QueryExecution.rowsAsync(cluster.async()::query, this, null, options, rowType);
+  }
+
+  /**
+   * Runs this statement in the given scope, without blocking.
+   */
+  default CompletableFuture<QueryResult> executeAsync(Scope scope) {
+    return executeAsync(scope, QueryOptions.queryOptions());
+  }
+
+  /**
+   * Runs this statement in the given scope with the given options, without blocking. The
+   * {@link #CURRENT_BUCKET_IDENTIFIER} is replaced with the default collection of the bucket of
+   * the scope, fully qualified.
+   */
+  default CompletableFuture<QueryResult> executeAsync(Scope scope, QueryOptions options) {
+    return QueryExecution.execute(scope.async()::query, this, scope.bucketName(), options);
+  }
+
+  /**
+   * Runs this statement in the given scope with the given options, without blocking, and
+   * decodes its rows outside of the I/O threads.
+   */
+  default <T> CompletableFuture<List<T>> executeAsync(Scope scope, QueryOptions options, Class<T> rowType) {
+    return QueryExecution.rowsAsync(scope.async()::query, this, scope.bucketName(), options, rowType);
+  }
+
+  /**
+   * Runs this statement in the given scope, when the returned {@link Mono} is subscribed.
+   */
+  default Mono<ReactiveQueryResult> executeReactive(ReactiveScope scope) {
+    return executeReactive(scope, QueryOptions.queryOptions());
+  }
+
+  /**
+   * Runs this statement in the given scope with the given options, when the returned
+   * {@link Mono} is subscribed. The {@link #CURRENT_BUCKET_IDENTIFIER} is replaced with the
+   * default collection of the bucket of the scope, fully qualified.
+   */
+  default Mono<ReactiveQueryResult> executeReactive(ReactiveScope scope, QueryOptions options) {
+    return QueryExecution.executeReactive(scope::query, this, scope.bucketName(), options);
+  }
+
+  /**
+   * Runs this statement on the given cluster and streams its rows, see
+   * {@link #executeReactive(ReactiveScope, QueryOptions, Class)}.
+   */
+  default <T> Flux<T> executeReactive(Cluster cluster, QueryOptions options, Class<T> rowType) {
+    return QueryExecution.rowsReactive(cluster.reactive()::query, this, null, cluster.environment(),
+        options, rowType);
+  }
+
+  /**
+   * Runs this statement in the given scope and streams its rows, see
+   * {@link #executeReactive(ReactiveScope, QueryOptions, Class)}.
+   */
+  default <T> Flux<T> executeReactive(Scope scope, QueryOptions options, Class<T> rowType) {
+    return executeReactive(scope.reactive(), options, rowType);
+  }
+
+  /**
+   * Runs this statement in the given scope when the returned {@link Flux} is subscribed, and
+   * streams its rows as they are requested, so large results are never held in memory at once.
+   * <p>
+   * Rows are decoded on the parallel scheduler rather than on the I/O threads, with the serializer
+   * of the options, or of the environment if there is none.
+   */
+  default <T> Flux<T> executeReactive(ReactiveScope scope, QueryOptions options, Class<T> rowType) {
+    return QueryExecution.rowsReactive(scope::query, this, scope.bucketName(), scope.environment(),
+        options, rowType);
+  }
+
+  /**
+   * Runs this statement on the given cluster through a {@link PreparedStatementRegistry}, which
+   * parameterizes it and prepares it once its shape is used often enough.
+   */
+  default QueryResult execute(Cluster cluster, PreparedStatementRegistry registry) {
+    return registry.query(cluster, this);
+  }
+
+  /**
+   * Runs this statement in the given scope through a {@link PreparedStatementRegistry}, which
+   * parameterizes it and prepares it once its shape is used often enough.
+   */
+  default QueryResult execute(Scope scope, PreparedStatementRegistry registry) {
+    return registry.query(scope, this);
+  }
 }
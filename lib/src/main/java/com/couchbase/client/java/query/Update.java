@@ -17,6 +17,8 @@ package com.couchbase.client.java.query;
 
 import com.couchbase.client.java.query.dsl.Expression;
 import com.couchbase.client.java.query.dsl.element.Element;
+import com.couchbase.client.java.query.dsl.element.Keyword;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
 import com.couchbase.client.java.query.dsl.path.AbstractPath;
 import com.couchbase.client.java.query.dsl.path.DefaultUpdateUsePath;
 import com.couchbase.client.java.query.dsl.path.UpdateUsePath;
@@ -42,11 +44,10 @@ public class Update {
 
   private static class UpdatePath extends AbstractPath {
     public UpdatePath(final Expression bucket) {
-      super(null);
-      element(new Element() {
+      super(null, new Element() {
         @Override
-        public String export() {
-          return "UPDATE " + bucket.toString();
+        public void export(N1qlWriter out) {
+          out.append(Keyword.UPDATE).append(bucket);
         }
       });
     }
@@ -15,6 +15,9 @@
  */
 package com.couchbase.client.java.query.dsl;
 
+import com.couchbase.client.java.query.dsl.element.Element;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
+
 import static com.couchbase.client.java.query.dsl.Expression.x;
 
 /**
@@ -22,7 +25,7 @@ import static com.couchbase.client.java.query.dsl.Expression.x;
  *
  * @author Michael Nitschinger
  */
-public class Alias {
+public class Alias implements Element {
 
     private final String alias;
     private final Expression original;
@@ -40,8 +43,13 @@ public class Alias {
         return new Alias(alias, x(original));
     }
 
+    @Override
+    public void export(N1qlWriter out) {
+        out.append(alias).append(" = ").append(original);
+    }
+
     @Override
     public String toString() {
-        return alias + " = " + original.toString();
+        return export();
     }
 }
@@ -18,25 +18,46 @@ package com.couchbase.client.java.query.dsl;
 import com.couchbase.client.java.json.JsonArray;
 import com.couchbase.client.java.json.JsonObject;
 import com.couchbase.client.java.query.Statement;
+import com.couchbase.client.java.query.dsl.element.FingerprintWriter;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter.LiteralMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
 
 /**
  * Represents a N1QL Expression.
  *
+ * Expressions are immutable trees of nodes (tokens, literals, identifiers, operators, function calls
+ * and paths). Combining expressions only links nodes together, the N1QL text is produced once, on
+ * demand, by {@link #render(N1qlWriter)} or {@link #toString()}. The text returned by {@link #toString()}
+ * is cached, so expressions can be rendered repeatedly or used as map keys at no extra cost.
+ *
+ * Equality follows the rendered text rather than the tree: expressions rendering to the same N1QL
+ * are equal however they were built, so {@code x("a").eq(1)} equals the raw token {@code x("a = 1")}.
+ *
  * @author Michael Nitschinger
  * @since 2.0.0
  */
-public class Expression {
+public abstract class Expression {
 
-    private static final Expression NULL_INSTANCE = new Expression("NULL");
-    private static final Expression TRUE_INSTANCE = new Expression("TRUE");
-    private static final Expression FALSE_INSTANCE = new Expression("FALSE");
-    private static final Expression MISSING_INSTANCE = new Expression("MISSING");
-    private static final Expression EMPTY_INSTANCE = new Expression("");
+    private static final Expression NULL_INSTANCE = new Token("NULL");
+    private static final Expression TRUE_INSTANCE = new Token("TRUE");
+    private static final Expression FALSE_INSTANCE = new Token("FALSE");
+    private static final Expression MISSING_INSTANCE = new Token("MISSING");
+    private static final Expression EMPTY_INSTANCE = new Token("");
 
-    private final Object value;
+    private volatile String rendered;
+    /**
+     * The positions of the placeholders in {@link #rendered}, written before it.
+     */
+    private volatile int[] renderedPositions;
 
-    private Expression(final Object value) {
-        this.value = value;
+    Expression() {
     }
 
     /**
@@ -49,7 +70,7 @@ public class Expression {
      * @return a new {@link Expression} representing the value.
      */
     public static Expression x(final String value) {
-        return new Expression(value);
+        return new Token(value);
     }
 
     /**
@@ -62,7 +83,7 @@ public class Expression {
      * @return a new {@link Expression} representing the value.
      */
     public static Expression x(final int value) {
-        return new Expression(value);
+        return new Literal(value);
     }
 
     /**
@@ -75,7 +96,7 @@ public class Expression {
      * @return a new {@link Expression} representing the value.
      */
     public static Expression x(final long value) {
-        return new Expression(value);
+        return new Literal(value);
     }
 
     /**
@@ -101,7 +122,7 @@ public class Expression {
      * @return a new {@link Expression} representing the value.
      */
     public static Expression x(final double value) {
-        return new Expression(value);
+        return new Literal(value);
     }
 
     /**
@@ -114,7 +135,7 @@ public class Expression {
      * @return a new {@link Expression} representing the value.
      */
     public static Expression x(final float value) {
-        return new Expression(value);
+        return new Literal(value);
     }
 
     /**
@@ -127,7 +148,7 @@ public class Expression {
      * @return a new {@link Expression} representing the value.
      */
     public static Expression x(final JsonArray value) {
-        return new Expression(value);
+        return new Literal(value);
     }
 
     /**
@@ -140,7 +161,7 @@ public class Expression {
      * @return a new {@link Expression} representing the value.
      */
     public static Expression x(final JsonObject value) {
-        return new Expression(value);
+        return new Literal(value);
     }
 
     /**
@@ -150,7 +171,7 @@ public class Expression {
      * @return the statement, converted as is into an expression.
      */
     public static Expression x(final Statement statement) {
-        return x(statement.toString());
+        return new SubStatement(statement, false);
     }
 
     /**
@@ -160,7 +181,7 @@ public class Expression {
      * @return the number converted into an expression.
      */
     public static Expression x(final Number number) {
-        return x(String.valueOf(number));
+        return new Literal(number);
     }
 
     /**
@@ -170,7 +191,7 @@ public class Expression {
      * @return the statement, converted into an expression wrapped in parenthesis.
      */
     public static Expression sub(final Statement statement) {
-        return x("(" + statement.toString() + ")");
+        return new SubStatement(statement, true);
     }
 
     /**
@@ -180,7 +201,7 @@ public class Expression {
      * @return the expression, wrapped in parenthesis.
      */
     public static Expression par(final Expression expression) {
-        return infix(expression.toString(), "(", ")");
+        return new Parenthesized(expression);
     }
 
     /**
@@ -194,17 +215,16 @@ public class Expression {
         if (pathComponents == null || pathComponents.length == 0) {
             return EMPTY_INSTANCE;
         }
-        StringBuilder path = new StringBuilder();
-        for (Object p : pathComponents) {
-            path.append('.');
+        Expression[] components = new Expression[pathComponents.length];
+        for (int i = 0; i < pathComponents.length; i++) {
+            Object p = pathComponents[i];
             if (p instanceof Expression) {
-                path.append(((Expression) p).toString());
+                components[i] = (Expression) p;
             } else {
-                path.append(String.valueOf(p));
+                components[i] = new Token(String.valueOf(p));
             }
         }
-        path.deleteCharAt(0);
-        return x(path.toString());
+        return new Path(components);
     }
 
     /**
@@ -217,7 +237,14 @@ public class Expression {
      * @return an {@link Expression} representing the escaped identifier.
      */
     public static Expression i(final String... identifiers) {
-        return new Expression(wrapWith('`', identifiers));
+        if (identifiers.length == 1) {
+            return new Identifier(identifiers[0]);
+        }
+        Expression[] escaped = new Expression[identifiers.length];
+        for (int i = 0; i < identifiers.length; i++) {
+            escaped[i] = new Identifier(identifiers[i]);
+        }
+        return new Join(", ", escaped);
     }
 
     /**
@@ -227,7 +254,157 @@ public class Expression {
      * @return an {@link Expression} representing the quoted strings.
      */
     public static Expression s(final String... strings) {
-        return new Expression(wrapWith('"', strings));
+        if (strings.length == 1) {
+            return new Literal(strings[0]);
+        }
+        Expression[] quoted = new Expression[strings.length];
+        for (int i = 0; i < strings.length; i++) {
+            quoted[i] = new Literal(strings[i]);
+        }
+        return new Join(", ", quoted);
+    }
+
+    /**
+     * Creates an expression calling the N1QL function of the given name, like <code>NAME(arg1, arg2)</code>.
+     *
+     * Neither the name nor the arguments are checked for validity.
+     *
+     * @param name the name of the function.
+     * @param arguments the arguments of the function call, if any.
+     * @return an {@link Expression} representing the function call.
+     */
+    public static Expression function(final String name, final Expression... arguments) {
+        return new FunctionCall(name, arguments);
+    }
+
+    /**
+     * Joins the given expressions, as is, with the given delimiter between each of them.
+     *
+     * This is a building block for constructs that have no dedicated method, like
+     * <code>join(" ", x("DISTINCT"), x("name"))</code>.
+     *
+     * @param delimiter the delimiter to put between expressions.
+     * @param expressions the expressions to join.
+     * @return an {@link Expression} representing the joined expressions.
+     */
+    public static Expression join(final String delimiter, final Expression... expressions) {
+        return new Join(delimiter, expressions);
+    }
+
+    /**
+     * AND-combines all the given expressions at once: <code>a AND b AND c</code>.
+     *
+     * Contrary to chaining {@link #and(Expression)}, this is meant for large lists of predicates.
+     * Combining no expression at all results in TRUE.
+     *
+     * @param terms the expressions to combine.
+     * @return a combined expression.
+     */
+    public static Expression and(final Expression... terms) {
+        return and(Arrays.asList(terms), false);
+    }
+
+    /**
+     * AND-combines all the given expressions at once: <code>a AND b AND c</code>.
+     *
+     * Combining no expression at all results in TRUE.
+     *
+     * @param terms the expressions to combine.
+     * @return a combined expression.
+     */
+    public static Expression and(final Collection<? extends Expression> terms) {
+        return and(terms, false);
+    }
+
+    /**
+     * AND-combines all the given expressions at once, optionally wrapping each of them in parenthesis:
+     * <code>( a ) AND ( b OR c )</code>.
+     *
+     * Combining no expression at all results in TRUE.
+     *
+     * @param terms the expressions to combine.
+     * @param parenthesize true to wrap each expression in parenthesis.
+     * @return a combined expression.
+     */
+    public static Expression and(final Collection<? extends Expression> terms, final boolean parenthesize) {
+        return junction("AND", TRUE_INSTANCE, terms, parenthesize);
+    }
+
+    /**
+     * OR-combines all the given expressions at once: <code>a OR b OR c</code>.
+     *
+     * Contrary to chaining {@link #or(Expression)}, this is meant for large lists of predicates.
+     * Combining no expression at all results in FALSE.
+     *
+     * @param terms the expressions to combine.
+     * @return a combined expression.
+     */
+    public static Expression or(final Expression... terms) {
+        return or(Arrays.asList(terms), false);
+    }
+
+    /**
+     * OR-combines all the given expressions at once: <code>a OR b OR c</code>.
+     *
+     * Combining no expression at all results in FALSE.
+     *
+     * @param terms the expressions to combine.
+     * @return a combined expression.
+     */
+    public static Expression or(final Collection<? extends Expression> terms) {
+        return or(terms, false);
+    }
+
+    /**
+     * OR-combines all the given expressions at once, optionally wrapping each of them in parenthesis:
+     * <code>( a AND b ) OR ( c )</code>.
+     *
+     * Combining no expression at all results in FALSE.
+     *
+     * @param terms the expressions to combine.
+     * @param parenthesize true to wrap each expression in parenthesis.
+     * @return a combined expression.
+     */
+    public static Expression or(final Collection<? extends Expression> terms, final boolean parenthesize) {
+        return junction("OR", FALSE_INSTANCE, terms, parenthesize);
+    }
+
+    /**
+     * A {@link Collector} AND-combining the expressions of a stream, see {@link #and(Collection)}.
+     *
+     * @return the collector.
+     */
+    public static Collector<Expression, ?, Expression> toAnd() {
+        return toAnd(false);
+    }
+
+    /**
+     * A {@link Collector} AND-combining the expressions of a stream, see {@link #and(Collection, boolean)}.
+     *
+     * @param parenthesize true to wrap each expression in parenthesis.
+     * @return the collector.
+     */
+    public static Collector<Expression, ?, Expression> toAnd(final boolean parenthesize) {
+        return Collectors.collectingAndThen(Collectors.<Expression>toList(), terms -> and(terms, parenthesize));
+    }
+
+    /**
+     * A {@link Collector} OR-combining the expressions of a stream, see {@link #or(Collection)}.
+     *
+     * @return the collector.
+     */
+    public static Collector<Expression, ?, Expression> toOr() {
+        return toOr(false);
+    }
+
+    /**
+     * A {@link Collector} OR-combining the expressions of a stream, see {@link #or(Collection, boolean)}.
+     *
+     * @param parenthesize true to wrap each expression in parenthesis.
+     * @return the collector.
+     */
+    public static Collector<Expression, ?, Expression> toOr(final boolean parenthesize) {
+        return Collectors.collectingAndThen(Collectors.<Expression>toList(), terms -> or(terms, parenthesize));
     }
 
     /**
@@ -272,7 +449,7 @@ public class Expression {
      * @return the negated expression.
      */
     public Expression not() {
-        return prefix("NOT", toString());
+        return prefix("NOT", this);
     }
 
     /**
@@ -282,7 +459,7 @@ public class Expression {
      * @return a combined expression.
      */
     public Expression and(Expression right) {
-        return infix("AND", toString(), right.toString());
+        return infix("AND", this, right);
     }
 
     /**
@@ -372,7 +549,7 @@ public class Expression {
      * @return a combined expression.
      */
     public Expression or(Expression right) {
-        return infix("OR", toString(), right.toString());
+        return infix("OR", this, right);
     }
 
     /**
@@ -462,7 +639,7 @@ public class Expression {
      * @return the combined expressions.
      */
     public Expression eq(Expression right) {
-        return infix("=", toString(), right.toString());
+        return infix("=", this, right);
     }
 
     /**
@@ -552,7 +729,7 @@ public class Expression {
      * @return the combined expressions.
      */
     public Expression ne(Expression right) {
-        return infix("!=", toString(), right.toString());
+        return infix("!=", this, right);
     }
 
     /**
@@ -632,7 +809,7 @@ public class Expression {
      * @return the combined expressions.
      */
     public Expression gt(Expression right) {
-        return infix(">", toString(), right.toString());
+        return infix(">", this, right);
     }
 
     /**
@@ -722,7 +899,7 @@ public class Expression {
      * @return the combined expressions.
      */
     public Expression lt(Expression right) {
-        return infix("<", toString(), right.toString());
+        return infix("<", this, right);
     }
 
     /**
@@ -812,7 +989,7 @@ public class Expression {
      * @return the combined expressions.
      */
     public Expression gte(Expression right) {
-        return infix(">=", toString(), right.toString());
+        return infix(">=", this, right);
     }
 
     /**
@@ -902,7 +1079,7 @@ public class Expression {
      * @return the combined expressions.
      */
     public Expression concat(Expression right) {
-        return infix("||", toString(), right.toString());
+        return infix("||", this, right);
     }
 
     /**
@@ -992,7 +1169,7 @@ public class Expression {
      * @return the combined expressions.
      */
     public Expression lte(Expression right) {
-        return infix("<=", toString(), right.toString());
+        return infix("<=", this, right);
     }
 
     /**
@@ -1081,7 +1258,7 @@ public class Expression {
      * @return the postfixed expression.
      */
     public Expression isValued() {
-        return postfix("IS VALUED", toString());
+        return postfix("IS VALUED", this);
     }
 
     /**
@@ -1090,7 +1267,7 @@ public class Expression {
      * @return the postfixed expression.
      */
     public Expression isNotValued() {
-        return postfix("IS NOT VALUED", toString());
+        return postfix("IS NOT VALUED", this);
     }
 
     /**
@@ -1099,7 +1276,7 @@ public class Expression {
      * @return the postfixed expression.
      */
     public Expression isNull() {
-        return postfix("IS NULL", toString());
+        return postfix("IS NULL", this);
     }
 
     /**
@@ -1108,7 +1285,7 @@ public class Expression {
      * @return the postfixed expression.
      */
     public Expression isNotNull() {
-        return postfix("IS NOT NULL", toString());
+        return postfix("IS NOT NULL", this);
     }
 
     /**
@@ -1117,7 +1294,7 @@ public class Expression {
      * @return the postfixed expression.
      */
     public Expression isMissing() {
-        return postfix("IS MISSING", toString());
+        return postfix("IS MISSING", this);
     }
 
     /**
@@ -1126,7 +1303,7 @@ public class Expression {
      * @return the postfixed expression.
      */
     public Expression isNotMissing() {
-        return postfix("IS NOT MISSING", toString());
+        return postfix("IS NOT MISSING", this);
     }
 
     /**
@@ -1136,7 +1313,7 @@ public class Expression {
      * @return a new expression with the clause applied.
      */
     public Expression between(Expression right) {
-        return infix("BETWEEN", toString(), right.toString());
+        return infix("BETWEEN", this, right);
     }
 
     /**
@@ -1226,7 +1403,7 @@ public class Expression {
      * @return a new expression with the clause applied.
      */
     public Expression notBetween(Expression right) {
-        return infix("NOT BETWEEN", toString(), right.toString());
+        return infix("NOT BETWEEN", this, right);
     }
 
     /**
@@ -1316,7 +1493,7 @@ public class Expression {
      * @return a new expression with the clause applied.
      */
     public Expression like(Expression right) {
-        return infix("LIKE", toString(), right.toString());
+        return infix("LIKE", this, right);
     }
 
     /**
@@ -1406,7 +1583,7 @@ public class Expression {
      * @return a new expression with the clause applied.
      */
     public Expression notLike(Expression right) {
-        return infix("NOT LIKE", toString(), right.toString());
+        return infix("NOT LIKE", this, right);
     }
 
     /**
@@ -1495,7 +1672,7 @@ public class Expression {
      * @return a new expression with the clause applied.
      */
     public Expression exists() {
-        return prefix("EXISTS", toString());
+        return prefix("EXISTS", this);
     }
 
     /**
@@ -1505,7 +1682,7 @@ public class Expression {
      * @return a new expression with the clause applied.
      */
     public Expression in(Expression right) {
-        return infix("IN", toString(), right.toString());
+        return infix("IN", this, right);
     }
 
     /**
@@ -1595,7 +1772,7 @@ public class Expression {
      * @return a new expression with the clause applied.
      */
     public Expression notIn(Expression right) {
-        return infix("NOT IN", toString(), right.toString());
+        return infix("NOT IN", this, right);
     }
 
     /**
@@ -1695,7 +1872,7 @@ public class Expression {
      * @return a new expression with the clause applied.
      */
     public Expression as(Expression alias) {
-        return infix("AS", toString(), alias.toString());
+        return infix("AS", this, alias);
     }
 
     //============ SIMPLE ARITHMETICS ============
@@ -1707,7 +1884,7 @@ public class Expression {
      * @return the addition expression.
      */
     public Expression add(Expression expression) {
-        return infix("+", toString(), expression.toString());
+        return infix("+", this, expression);
     }
 
     /**
@@ -1717,7 +1894,7 @@ public class Expression {
      * @return the addition expression.
      */
     public Expression add(Number b) {
-        return add(x(String.valueOf(b)));
+        return add(x(b));
     }
 
     /**
@@ -1737,7 +1914,7 @@ public class Expression {
      * @return the subtraction expression.
      */
     public Expression subtract(Expression expression) {
-        return infix("-", toString(), expression.toString());
+        return infix("-", this, expression);
     }
 
     /**
@@ -1747,7 +1924,7 @@ public class Expression {
      * @return the subtraction expression.
      */
     public Expression subtract(Number b) {
-        return subtract(x(String.valueOf(b)));
+        return subtract(x(b));
     }
 
     /**
@@ -1767,7 +1944,7 @@ public class Expression {
      * @return the multiplication expression.
      */
     public Expression multiply(Expression expression) {
-        return infix("*", toString(), expression.toString());
+        return infix("*", this, expression);
     }
 
     /**
@@ -1777,7 +1954,7 @@ public class Expression {
      * @return the multiplication expression.
      */
     public Expression multiply(Number b) {
-        return multiply(x(String.valueOf(b)));
+        return multiply(x(b));
     }
 
     /**
@@ -1797,7 +1974,7 @@ public class Expression {
      * @return the division expression.
      */
     public Expression divide(Expression expression) {
-        return infix("/", toString(), expression.toString());
+        return infix("/", this, expression);
     }
 
     /**
@@ -1807,7 +1984,7 @@ public class Expression {
      * @return the division expression.
      */
     public Expression divide(Number b) {
-        return divide(x(String.valueOf(b)));
+        return divide(x(b));
     }
 
     /**
@@ -1827,7 +2004,7 @@ public class Expression {
      * @return the getter expression
      */
     public Expression get(String expression) {
-        return new Expression(path(toString(), x(expression)));
+        return get(x(expression));
     }
 
     /**
@@ -1837,66 +2014,484 @@ public class Expression {
      * @return the getter expression
      */
     public Expression get(Expression expression) {
-        return get(expression.toString());
+        return new Path(new Expression[] { this, expression });
     }
 
     //===== HELPERS =====
 
     /**
-     * Helper method to prefix a string.
+     * Helper method to prefix an expression.
      *
      * @param prefix the prefix.
      * @param right the right side of the expression.
      * @return a prefixed expression.
      */
-    private static Expression prefix(String prefix, String right) {
-        return new Expression(prefix + " " + right);
+    private static Expression prefix(String prefix, Expression right) {
+        return new Unary(prefix, right, false);
     }
 
     /**
-     * Helper method to infix a string.
+     * Helper method to infix two expressions.
      *
      * @param infix the infix.
      * @param left the left side of the expression.
      * @param right the right side of the expression.
      * @return a infixed expression.
      */
-    private static Expression infix(String infix, String left, String right) {
-        return new Expression(left + " " + infix + " " + right);
+    private static Expression infix(String infix, Expression left, Expression right) {
+        return new Binary(infix, left, right);
     }
 
     /**
-     * Helper method to postfix a string.
+     * Helper method to postfix an expression.
      *
      * @param postfix the postfix.
      * @param left the left side of the expression.
-     * @return a prefixed expression.
+     * @return a postfixed expression.
      */
-    private static Expression postfix(String postfix, String left) {
-        return new Expression(left + " " + postfix);
+    private static Expression postfix(String postfix, Expression left) {
+        return new Unary(postfix, left, true);
     }
 
     /**
-     * Helper method to wrap varargs with the given character.
+     * Helper method to combine many expressions with the same logical operator.
      *
-     * @param wrapper the wrapper character.
-     * @param input the input fields to wrap.
-     * @return a concatenated string with characters wrapped.
+     * @param operator the operator.
+     * @param identity the result when there is nothing to combine.
+     * @param terms the expressions to combine.
+     * @param parenthesize true to wrap each expression in parenthesis.
+     * @return a combined expression.
      */
-    private static String wrapWith(char wrapper, String... input) {
-        StringBuilder escaped = new StringBuilder();
-        for (String i : input) {
-            escaped.append(", ");
-            escaped.append(wrapper).append(i).append(wrapper);
+    private static Expression junction(String operator, Expression identity, Collection<? extends Expression> terms,
+        boolean parenthesize) {
+        if (terms.isEmpty()) {
+            return identity;
         }
-        if (escaped.length() > 2) {
-            escaped.delete(0, 2);
+        Expression[] operands = new Expression[terms.size()];
+        int i = 0;
+        for (Expression term : terms) {
+            operands[i++] = parenthesize ? par(term) : term;
+        }
+        return operands.length == 1 ? operands[0] : new Junction(operator, operands);
+    }
+
+    /**
+     * Appends the N1QL representation of this expression to the given writer.
+     *
+     * Once {@link #toString()} has been called, the cached text is copied as is, unless the writer
+     * lifts literals into parameters (see {@link N1qlWriter#reusesRenderedText()}).
+     *
+     * @param out the writer to render into.
+     */
+    public final void render(N1qlWriter out) {
+        String text = rendered;
+        if (text != null && out.reusesRenderedText()) {
+            out.appendRendered(text, renderedPositions);
+        } else {
+            write(out);
         }
-        return escaped.toString();
     }
 
+    /**
+     * Writes this node to the given writer.
+     */
+    abstract void write(N1qlWriter out);
+
+    /**
+     * Returns an equivalent expression without the redundancy generated expressions tend to have:
+     * <ul>
+     * <li>TRUE and FALSE terms of AND and OR (<code>TRUE AND a = 1</code> becomes <code>a = 1</code>,
+     * <code>a AND FALSE</code> becomes <code>FALSE</code>), as well as duplicate terms,</li>
+     * <li>nested parenthesis, and parenthesis around a single term,</li>
+     * <li><code>NOT NOT a</code>, <code>NOT TRUE</code> and <code>NOT FALSE</code>,</li>
+     * <li><code>a IN [b]</code>, which becomes <code>a = b</code>,</li>
+     * <li>arithmetic between two numbers.</li>
+     * </ul>
+     * Parts whose meaning relies on operator precedence, like an unparenthesized
+     * <code>a.or(b).and(c)</code>, are left untouched. A term of AND, OR or NOT is only left on its
+     * own if it is known to be a boolean, like a comparison: <code>TRUE AND price</code> is kept
+     * since <code>price</code> alone may be a number. This expression is not modified.
+     *
+     * @return the simplified expression, or this one if nothing could be simplified.
+     */
+    public Expression simplify() {
+        return ExpressionSimplifier.simplify(this);
+    }
+
+    /**
+     * Returns the fingerprint of the shape of this expression, see {@link FingerprintWriter}.
+     */
+    public long fingerprint() {
+        return fingerprint(false);
+    }
+
+    /**
+     * Returns the fingerprint of the shape of this expression, see {@link FingerprintWriter}.
+     *
+     * @param normalizeCommutative true to ignore the order of the operands of AND and OR.
+     */
+    public long fingerprint(boolean normalizeCommutative) {
+        FingerprintWriter out = new FingerprintWriter(normalizeCommutative);
+        write(out);
+        return out.fingerprint();
+    }
+
+    /**
+     * Returns the number of characters of the N1QL representation of this expression.
+     */
+    public int length() {
+        return toString().length();
+    }
+
+    /**
+     * Returns the N1QL representation of this expression. It is computed once and cached, since
+     * expressions are immutable.
+     */
     @Override
     public String toString() {
-        return value.toString();
+        String text = rendered;
+        if (text == null) {
+            N1qlWriter out = new N1qlWriter();
+            write(out);
+            text = out.toString();
+            renderedPositions = out.currentBucketPositions();
+            rendered = text;
+        }
+        return text;
+    }
+
+    /**
+     * Two expressions are equal if they render to the same N1QL.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Expression && toString().equals(o.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+
+    //===== NODES =====
+
+    /**
+     * A raw piece of N1QL, rendered as is.
+     */
+    static final class Token extends Expression {
+        final String text;
+
+        Token(String text) {
+            this.text = text;
+        }
+
+        @Override
+        void write(N1qlWriter out) {
+            out.appendText(text);
+        }
+    }
+
+    /**
+     * A constant value: a string (rendered between double quotes), a number or a JSON value.
+     */
+    static final class Literal extends Expression {
+        final Object value;
+        private volatile String json;
+
+        Literal(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        void write(N1qlWriter out) {
+            if (out.literalMode() == LiteralMode.INLINE && (value instanceof JsonObject || value instanceof JsonArray)) {
+                out.append(json());
+            } else {
+                out.appendLiteral(value);
+            }
+        }
+
+        private String json() {
+            String text = json;
+            if (text == null) {
+                text = value.toString();
+                json = text;
+            }
+            return text;
+        }
+    }
+
+    /**
+     * An identifier, escaped with backquotes.
+     */
+    static final class Identifier extends Expression {
+        final String name;
+
+        Identifier(String name) {
+            this.name = name;
+        }
+
+        @Override
+        void write(N1qlWriter out) {
+            out.append('`').append(name).append('`');
+        }
+    }
+
+    /**
+     * An operator applied to a single operand, either before (NOT, EXISTS) or after it (IS NULL...).
+     */
+    static final class Unary extends Expression {
+        final String operator;
+        final Expression operand;
+        final boolean postfix;
+
+        Unary(String operator, Expression operand, boolean postfix) {
+            this.operator = operator;
+            this.operand = operand;
+            this.postfix = postfix;
+        }
+
+        @Override
+        void write(N1qlWriter out) {
+            if (postfix) {
+                out.append(operand).append(' ').append(operator);
+            } else {
+                out.append(operator).append(' ').append(operand);
+            }
+        }
+    }
+
+    /**
+     * An infix operator between two operands.
+     */
+    static final class Binary extends Expression {
+        final String operator;
+        final Expression left;
+        final Expression right;
+
+        Binary(String operator, Expression left, Expression right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        void write(N1qlWriter out) {
+            if (out instanceof FingerprintWriter && ((FingerprintWriter) out).normalizesCommutative()
+                && writeCommutative((FingerprintWriter) out)) {
+                return;
+            }
+
+            // chains like a.and(b).and(c) nest on the left, walk them iteratively
+            int depth = 1;
+            Expression leftmost = left;
+            while (leftmost instanceof Binary) {
+                depth++;
+                leftmost = ((Binary) leftmost).left;
+            }
+            Binary[] chain = new Binary[depth];
+            Binary current = this;
+            for (int i = depth - 1; i >= 0; i--) {
+                chain[i] = current;
+                if (i > 0) {
+                    current = (Binary) current.left;
+                }
+            }
+
+            leftmost.render(out);
+            for (Binary binary : chain) {
+                out.append(' ').append(binary.operator).append(' ');
+                binary.right.render(out);
+            }
+        }
+
+        /**
+         * Fingerprints the run of this AND or OR operator down the chain in any order, unless
+         * reordering could change its meaning.
+         *
+         * @return false if nothing was written.
+         */
+        private boolean writeCommutative(FingerprintWriter out) {
+            if (!isCommutative(operator)) {
+                return false;
+            }
+            List<Expression> operands = new ArrayList<Expression>();
+            Expression current = this;
+            while (current instanceof Binary && operator.equals(((Binary) current).operator)) {
+                operands.add(((Binary) current).right);
+                current = ((Binary) current).left;
+            }
+            operands.add(current);
+            for (Expression operand : operands) {
+                if (mixesPrecedence(operator, operand)) {
+                    return false;
+                }
+            }
+            Expression.writeCommutative(out, operator, operands);
+            return true;
+        }
+    }
+
+    /**
+     * Returns true if the given operand of an AND or OR renders as another unparenthesized AND or OR,
+     * in which case the meaning of the whole relies on operator precedence and its operands cannot
+     * be reordered.
+     */
+    private static boolean mixesPrecedence(String operator, Expression operand) {
+        String other = operand instanceof Binary ? ((Binary) operand).operator
+            : operand instanceof Junction ? ((Junction) operand).operator : null;
+        return isCommutative(other) && !operator.equals(other);
+    }
+
+    private static boolean isCommutative(String operator) {
+        return "AND".equals(operator) || "OR".equals(operator);
+    }
+
+    /**
+     * Fingerprints the operands of an AND or OR independently of their order.
+     */
+    private static void writeCommutative(FingerprintWriter out, String operator, List<Expression> operands) {
+        long[] fingerprints = new long[operands.size()];
+        for (int i = 0; i < fingerprints.length; i++) {
+            out.beginOperand();
+            operands.get(i).render(out);
+            fingerprints[i] = out.endOperand();
+        }
+        Arrays.sort(fingerprints);
+        out.append(operator).append('(');
+        for (long fingerprint : fingerprints) {
+            out.appendFingerprint(fingerprint);
+        }
+        out.append(')');
+    }
+
+    /**
+     * The same logical operator between any number of operands.
+     */
+    static final class Junction extends Expression {
+        final String operator;
+        final Expression[] operands;
+
+        Junction(String operator, Expression[] operands) {
+            this.operator = operator;
+            this.operands = operands;
+        }
+
+        @Override
+        void write(N1qlWriter out) {
+            if (out instanceof FingerprintWriter && ((FingerprintWriter) out).normalizesCommutative()
+                && isCommutative(operator) && !hasMixedPrecedence()) {
+                writeCommutative((FingerprintWriter) out, operator, Arrays.asList(operands));
+                return;
+            }
+            for (int i = 0; i < operands.length; i++) {
+                if (i > 0) {
+                    out.append(' ').append(operator).append(' ');
+                }
+                operands[i].render(out);
+            }
+        }
+
+        private boolean hasMixedPrecedence() {
+            for (Expression operand : operands) {
+                if (mixesPrecedence(operator, operand)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A call to a N1QL function.
+     */
+    static final class FunctionCall extends Expression {
+        final String name;
+        final Expression[] arguments;
+
+        FunctionCall(String name, Expression[] arguments) {
+            this.name = name;
+            this.arguments = arguments;
+        }
+
+        @Override
+        void write(N1qlWriter out) {
+            out.append(name).append('(').appendAll(arguments, ", ").append(')');
+        }
+    }
+
+    /**
+     * A path ("a.b.c") made of several components.
+     */
+    static final class Path extends Expression {
+        final Expression[] components;
+
+        Path(Expression[] components) {
+            this.components = components;
+        }
+
+        @Override
+        void write(N1qlWriter out) {
+            out.appendAll(components, ".");
+        }
+    }
+
+    /**
+     * Several expressions separated by a delimiter.
+     */
+    static final class Join extends Expression {
+        final String delimiter;
+        final Expression[] expressions;
+
+        Join(String delimiter, Expression[] expressions) {
+            this.delimiter = delimiter;
+            this.expressions = expressions;
+        }
+
+        @Override
+        void write(N1qlWriter out) {
+            out.appendAll(expressions, delimiter);
+        }
+    }
+
+    /**
+     * An expression wrapped in parenthesis.
+     */
+    static final class Parenthesized extends Expression {
+        final Expression expression;
+
+        Parenthesized(Expression expression) {
+            this.expression = expression;
+        }
+
+        @Override
+        void write(N1qlWriter out) {
+            out.append("( ").append(expression).append(" )");
+        }
+    }
+
+    /**
+     * A {@link Statement} used as an expression, optionally wrapped in parenthesis.
+     */
+    static final class SubStatement extends Expression {
+        final Statement statement;
+        final boolean parenthesized;
+
+        SubStatement(Statement statement, boolean parenthesized) {
+            this.statement = statement;
+            this.parenthesized = parenthesized;
+        }
+
+        @Override
+        void write(N1qlWriter out) {
+            if (parenthesized) {
+                out.append('(').append(statement).append(')');
+            } else {
+                out.append(statement);
+            }
+        }
     }
 }
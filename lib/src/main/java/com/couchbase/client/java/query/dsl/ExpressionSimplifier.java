@@ -0,0 +1,401 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query.dsl;
+
+import com.couchbase.client.java.json.JsonArray;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Removes the redundancy of generated expressions, see {@link Expression#simplify()}.
+ *
+ * Expressions are rendered without adding any parenthesis, so an unparenthesized
+ * <code>a.or(b).and(c)</code> reads as <code>a OR (b AND c)</code> once rendered. A node is
+ * only replaced where its rendered text is delimited (at the top, between parenthesis, as a
+ * function argument or as an operand of AND and OR), which keeps the rendered statement
+ * equivalent to the original one.
+ *
+ * AND, OR and NOT always evaluate to a boolean (or NULL or MISSING), but their operands may not:
+ * <code>TRUE AND x</code> is not <code>x</code> when <code>x</code> is a number. An operand is
+ * only left on its own when it is known to be a boolean, like a comparison.
+ */
+final class ExpressionSimplifier {
+
+    private static final Pattern SIMPLE_TOKEN = Pattern.compile("[\\w$`.]+");
+
+    /**
+     * Where a node is rendered, which tells how freely it can be replaced.
+     */
+    private enum Context {
+        /** The whole expression, or between parenthesis or commas. */
+        BOUNDED,
+        /** An operand of AND or OR. */
+        LOGICAL,
+        /** An operand of a comparison, which binds looser than arithmetic. */
+        COMPARISON,
+        /** Anywhere else. */
+        OTHER
+    }
+
+    private ExpressionSimplifier() {
+    }
+
+    static Expression simplify(Expression expression) {
+        return simplify(expression, Context.BOUNDED);
+    }
+
+    private static Expression simplify(Expression expression, Context context) {
+        if (expression instanceof Expression.Parenthesized) {
+            return simplifyParenthesized((Expression.Parenthesized) expression, context);
+        } else if (expression instanceof Expression.Unary) {
+            return simplifyUnary((Expression.Unary) expression, context);
+        } else if (expression instanceof Expression.Binary) {
+            Expression.Binary binary = (Expression.Binary) expression;
+            if (isLogical(binary.operator)) {
+                return context == Context.BOUNDED ? simplifyLogical(binary, binary.operator) : binary;
+            }
+            return simplifyBinary(binary, context);
+        } else if (expression instanceof Expression.Junction) {
+            Expression.Junction junction = (Expression.Junction) expression;
+            return context == Context.BOUNDED ? simplifyLogical(junction, junction.operator) : junction;
+        } else if (expression instanceof Expression.FunctionCall) {
+            Expression.FunctionCall call = (Expression.FunctionCall) expression;
+            Expression[] arguments = simplifyAll(call.arguments);
+            return arguments == call.arguments ? call : new Expression.FunctionCall(call.name, arguments);
+        }
+        return expression;
+    }
+
+    /**
+     * <code>( ( a ) )</code> becomes <code>( a )</code>, and parenthesis around a single term are removed,
+     * as well as parenthesis around a comparison or a NOT where they are delimited anyway.
+     */
+    private static Expression simplifyParenthesized(Expression.Parenthesized parenthesized, Context context) {
+        Expression inner = simplify(parenthesized.expression, Context.BOUNDED);
+        if (isAtomic(inner)) {
+            return inner;
+        }
+        boolean delimited = context == Context.BOUNDED || context == Context.LOGICAL;
+        if (delimited && isSelfContained(inner)) {
+            return inner;
+        }
+        return inner == parenthesized.expression ? parenthesized : new Expression.Parenthesized(inner);
+    }
+
+    /**
+     * <code>NOT NOT a</code> becomes <code>a</code> for a boolean <code>a</code>, <code>NOT TRUE</code>
+     * becomes <code>FALSE</code>.
+     */
+    private static Expression simplifyUnary(Expression.Unary unary, Context context) {
+        Expression operand = simplify(unary.operand, Context.OTHER);
+        boolean delimited = context == Context.BOUNDED || context == Context.LOGICAL;
+        if (delimited && !unary.postfix && "NOT".equals(unary.operator)) {
+            if (isConstant(operand, "TRUE")) {
+                return Expression.FALSE();
+            } else if (isConstant(operand, "FALSE")) {
+                return Expression.TRUE();
+            }
+            Expression negated = operand instanceof Expression.Parenthesized
+                ? ((Expression.Parenthesized) operand).expression : operand;
+            if (negated instanceof Expression.Unary) {
+                Expression.Unary inner = (Expression.Unary) negated;
+                if (!inner.postfix && "NOT".equals(inner.operator) && isAtomic(inner.operand)
+                    && isBoolean(inner.operand)) {
+                    return inner.operand;
+                }
+            }
+        }
+        return operand == unary.operand ? unary : new Expression.Unary(unary.operator, operand, unary.postfix);
+    }
+
+    /**
+     * Folds arithmetic on two numbers, and turns <code>a IN [b]</code> into <code>a = b</code>.
+     */
+    private static Expression simplifyBinary(Expression.Binary binary, Context context) {
+        Context operandContext = isComparison(binary.operator) ? Context.COMPARISON : Context.OTHER;
+        Expression left = simplify(binary.left, operandContext);
+        Expression right = simplify(binary.right, operandContext);
+
+        if (context != Context.OTHER && isNumber(left) && isNumber(right)) {
+            Expression folded = fold(binary.operator, (Number) ((Expression.Literal) left).value,
+                (Number) ((Expression.Literal) right).value);
+            if (folded != null) {
+                return folded;
+            }
+        }
+        if ((context == Context.BOUNDED || context == Context.LOGICAL)
+            && ("IN".equals(binary.operator) || "NOT IN".equals(binary.operator))) {
+            Object single = singleValue(right);
+            if (single != null) {
+                return new Expression.Binary("IN".equals(binary.operator) ? "=" : "!=", left,
+                    new Expression.Literal(single));
+            }
+        }
+        if (left == binary.left && right == binary.right) {
+            return binary;
+        }
+        return new Expression.Binary(binary.operator, left, right);
+    }
+
+    /**
+     * Simplifies a whole run of AND (or OR): nested runs of the same operator are flattened,
+     * neutral terms and duplicates are removed, and an absorbing term replaces the whole run. A
+     * single remaining term which may not be a boolean keeps a neutral term converting it to one.
+     */
+    private static Expression simplifyLogical(Expression run, String operator) {
+        List<Expression> operands = new ArrayList<Expression>();
+        Deque<Expression> pending = new ArrayDeque<Expression>();
+        pending.push(run);
+        while (!pending.isEmpty()) {
+            Expression current = pending.pop();
+            if (current instanceof Expression.Binary && operator.equals(((Expression.Binary) current).operator)) {
+                pending.push(((Expression.Binary) current).right);
+                pending.push(((Expression.Binary) current).left);
+            } else if (current instanceof Expression.Junction
+                && operator.equals(((Expression.Junction) current).operator)) {
+                Expression[] terms = ((Expression.Junction) current).operands;
+                for (int i = terms.length - 1; i >= 0; i--) {
+                    pending.push(terms[i]);
+                }
+            } else if (isLogicalRun(current)) {
+                // "a OR b AND c" relies on operator precedence, leave it as written
+                return run;
+            } else {
+                operands.add(current);
+            }
+        }
+
+        String neutral = "AND".equals(operator) ? "TRUE" : "FALSE";
+        String absorbing = "AND".equals(operator) ? "FALSE" : "TRUE";
+        List<Expression> terms = new ArrayList<Expression>(operands.size());
+        Set<Expression> seen = new HashSet<Expression>();
+        boolean changed = false;
+        for (Expression operand : operands) {
+            Expression term = simplify(operand, Context.LOGICAL);
+            if (isConstant(term, absorbing)) {
+                return term;
+            }
+            if (isConstant(term, neutral) || !seen.add(term)) {
+                changed = true;
+                continue;
+            }
+            changed |= term != operand;
+            terms.add(term);
+        }
+
+        if (!changed) {
+            return run;
+        } else if (terms.isEmpty()) {
+            return "AND".equals(operator) ? Expression.TRUE() : Expression.FALSE();
+        } else if (terms.size() == 1) {
+            Expression term = terms.get(0);
+            if (isBoolean(term)) {
+                return term;
+            }
+            return new Expression.Junction(operator, new Expression[] {
+                "AND".equals(operator) ? Expression.TRUE() : Expression.FALSE(), term});
+        }
+        return new Expression.Junction(operator, terms.toArray(new Expression[0]));
+    }
+
+    private static Expression[] simplifyAll(Expression[] expressions) {
+        Expression[] simplified = null;
+        for (int i = 0; i < expressions.length; i++) {
+            Expression expression = simplify(expressions[i], Context.BOUNDED);
+            if (expression != expressions[i] && simplified == null) {
+                simplified = Arrays.copyOf(expressions, expressions.length);
+            }
+            if (simplified != null) {
+                simplified[i] = expression;
+            }
+        }
+        return simplified == null ? expressions : simplified;
+    }
+
+    private static Expression fold(String operator, Number left, Number right) {
+        if (isIntegral(left) && isIntegral(right)) {
+            long a = left.longValue();
+            long b = right.longValue();
+            try {
+                switch (operator) {
+                    case "+": return Expression.x(Math.addExact(a, b));
+                    case "-": return Expression.x(Math.subtractExact(a, b));
+                    case "*": return Expression.x(Math.multiplyExact(a, b));
+                    case "/":
+                        if (b == 0) {
+                            return null;
+                        }
+                        // N1QL numbers are not integers, 7 / 2 is 3.5
+                        return a % b == 0 ? Expression.x(a / b) : Expression.x((double) a / b);
+                    default: return null;
+                }
+            } catch (ArithmeticException e) {
+                return null;
+            }
+        }
+
+        double a = left.doubleValue();
+        double b = right.doubleValue();
+        double result;
+        switch (operator) {
+            case "+": result = a + b; break;
+            case "-": result = a - b; break;
+            case "*": result = a * b; break;
+            case "/": result = b == 0 ? Double.NaN : a / b; break;
+            default: return null;
+        }
+        return Double.isNaN(result) || Double.isInfinite(result) ? null : Expression.x(result);
+    }
+
+    /**
+     * Returns the only value of a one element JSON array literal that can be rendered as a literal
+     * on its own, or null.
+     */
+    private static Object singleValue(Expression expression) {
+        if (!(expression instanceof Expression.Literal) || !(((Expression.Literal) expression).value instanceof JsonArray)) {
+            return null;
+        }
+        JsonArray array = (JsonArray) ((Expression.Literal) expression).value;
+        if (array.size() != 1) {
+            return null;
+        }
+        Object value = array.get(0);
+        if (value instanceof String) {
+            // JSON strings are escaped, plain string literals are not
+            for (char c : ((String) value).toCharArray()) {
+                if (c == '"' || c == '\\' || c < ' ') {
+                    return null;
+                }
+            }
+            return value;
+        }
+        return value instanceof Integer || value instanceof Long || value instanceof Double
+            || value instanceof Boolean ? value : null;
+    }
+
+    /**
+     * Returns true if the expression renders as a single term, that never needs parenthesis.
+     */
+    private static boolean isAtomic(Expression expression) {
+        if (expression instanceof Expression.Token) {
+            return SIMPLE_TOKEN.matcher(((Expression.Token) expression).text).matches();
+        } else if (expression instanceof Expression.SubStatement) {
+            return ((Expression.SubStatement) expression).parenthesized;
+        } else if (expression instanceof Expression.Literal) {
+            return !(((Expression.Literal) expression).value instanceof Number)
+                || ((Number) ((Expression.Literal) expression).value).doubleValue() >= 0;
+        }
+        return expression instanceof Expression.Identifier
+            || expression instanceof Expression.FunctionCall
+            || expression instanceof Expression.Parenthesized;
+    }
+
+    /**
+     * Returns true if the expression contains no AND or OR outside of parenthesis, and no raw
+     * piece of N1QL that could: it can then be rendered as an operand of AND and OR as is.
+     */
+    private static boolean isSelfContained(Expression expression) {
+        if (expression instanceof Expression.Unary) {
+            return isSelfContained(((Expression.Unary) expression).operand);
+        } else if (expression instanceof Expression.Binary) {
+            Expression.Binary binary = (Expression.Binary) expression;
+            return !isLogical(binary.operator) && isSelfContained(binary.left) && isSelfContained(binary.right);
+        }
+        return isAtomic(expression);
+    }
+
+    /**
+     * Returns true if the expression is known to evaluate to a boolean (or NULL or MISSING), like a
+     * comparison or a logical operation.
+     */
+    private static boolean isBoolean(Expression expression) {
+        if (expression instanceof Expression.Parenthesized) {
+            return isBoolean(((Expression.Parenthesized) expression).expression);
+        } else if (expression instanceof Expression.Unary) {
+            Expression.Unary unary = (Expression.Unary) expression;
+            return unary.postfix ? unary.operator.startsWith("IS ")
+                : "NOT".equals(unary.operator) || "EXISTS".equals(unary.operator);
+        } else if (expression instanceof Expression.Binary) {
+            String operator = ((Expression.Binary) expression).operator;
+            return isLogical(operator) || isComparison(operator) || isPredicate(operator);
+        }
+        return expression instanceof Expression.Junction
+            || isConstant(expression, "TRUE") || isConstant(expression, "FALSE");
+    }
+
+    private static boolean isPredicate(String operator) {
+        switch (operator) {
+            case "IN":
+            case "NOT IN":
+            case "LIKE":
+            case "NOT LIKE":
+            case "BETWEEN":
+            case "NOT BETWEEN":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isConstant(Expression expression, String constant) {
+        return expression instanceof Expression.Token && constant.equalsIgnoreCase(((Expression.Token) expression).text);
+    }
+
+    private static boolean isNumber(Expression expression) {
+        if (!(expression instanceof Expression.Literal)) {
+            return false;
+        }
+        Object value = ((Expression.Literal) expression).value;
+        return isIntegral(value) || value instanceof Double;
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Long;
+    }
+
+    private static boolean isLogical(String operator) {
+        return "AND".equals(operator) || "OR".equals(operator);
+    }
+
+    private static boolean isLogicalRun(Expression expression) {
+        return expression instanceof Expression.Junction
+            || expression instanceof Expression.Binary && isLogical(((Expression.Binary) expression).operator);
+    }
+
+    private static boolean isComparison(String operator) {
+        switch (operator) {
+            case "=":
+            case "==":
+            case "!=":
+            case "<>":
+            case "<":
+            case "<=":
+            case ">":
+            case ">=":
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -15,6 +15,9 @@
  */
 package com.couchbase.client.java.query.dsl;
 
+import com.couchbase.client.java.query.dsl.element.Element;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
+
 import static com.couchbase.client.java.query.dsl.Expression.x;
 
 /**
@@ -22,7 +25,7 @@ import static com.couchbase.client.java.query.dsl.Expression.x;
  *
  * @author Michael Nitschinger
  */
-public class Sort {
+public class Sort implements Element {
 
     private final Expression expression;
     private final Order ordering;
@@ -62,15 +65,33 @@ public class Sort {
         return asc(x(expression));
     }
 
+    /**
+     * Returns the expression to sort on.
+     */
+    public Expression expression() {
+        return expression;
+    }
+
+    /**
+     * Returns the order of the sort, or null if none is specified.
+     */
+    public Order ordering() {
+        return ordering;
+    }
+
     @Override
-    public String toString() {
+    public void export(N1qlWriter out) {
+        out.append(expression);
         if (ordering != null) {
-            return expression.toString() + " " + ordering;
-        } else {
-            return expression.toString();
+            out.append(' ').append(ordering.name());
         }
     }
 
+    @Override
+    public String toString() {
+        return export();
+    }
+
     public static enum Order  {
         ASC,
         DESC
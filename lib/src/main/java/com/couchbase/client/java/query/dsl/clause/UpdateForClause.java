@@ -20,6 +20,7 @@ import com.couchbase.client.java.query.dsl.Expression;
 
 import java.util.ArrayList;
 
+import static com.couchbase.client.java.query.dsl.Expression.join;
 import static com.couchbase.client.java.query.dsl.Expression.x;
 
 /**
@@ -69,8 +70,7 @@ public class UpdateForClause {
      * @return the clause, for chaining. See {@link #when(Expression)} and {@link #end()} to complete the clause.
      */
     public UpdateForClause in(String variable, String path) {
-        Expression in = x(variable + " IN " + path);
-        vars.add(in);
+        vars.add(join(" IN ", x(variable), x(path)));
         return this;
     }
 
@@ -82,7 +82,7 @@ public class UpdateForClause {
      * @return the clause, for chaining. See {@link #when(Expression)} and {@link #end()} to complete the clause.
      */
     public UpdateForClause within(String variable, String path) {
-        vars.add(x(variable + " WITHIN " + path));
+        vars.add(join(" WITHIN ", x(variable), x(path)));
         return this;
     }
 
@@ -95,16 +95,11 @@ public class UpdateForClause {
      * @see #end() if you don't need a condition.
      */
     public Expression when(Expression condition) {
-        StringBuilder updateFor = new StringBuilder("FOR ");
-        for (Expression var : vars) {
-            updateFor.append(var.toString()).append(", ");
-        }
-        updateFor.delete(updateFor.length() - 2, updateFor.length());
+        Expression variables = join(", ", vars.toArray(new Expression[vars.size()]));
         if (condition != null) {
-            updateFor.append(" WHEN ").append(condition.toString());
+            return join(" ", x("FOR"), variables, x("WHEN"), condition, x("END"));
         }
-        updateFor.append(" END");
-        return x(updateFor.toString());
+        return join(" ", x("FOR"), variables, x("END"));
     }
 
     /**
@@ -29,7 +29,7 @@ public class AsElement implements Element {
     }
 
     @Override
-    public String export() {
-        return "AS " + as;
+    public void export(N1qlWriter out) {
+        out.append(Keyword.AS).append(as);
     }
 }
@@ -39,7 +39,7 @@ public class BuildIndexElement implements Element {
     }
 
     @Override
-    public String export() {
-        return "BUILD INDEX ON " + fullKeyspace;
+    public void export(N1qlWriter out) {
+        out.append("BUILD INDEX ON ").append(fullKeyspace);
     }
 }
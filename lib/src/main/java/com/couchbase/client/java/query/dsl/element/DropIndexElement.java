@@ -41,10 +41,11 @@ public class DropIndexElement implements Element {
     }
 
     @Override
-    public String export() {
+    public void export(N1qlWriter out) {
         if (indexName == null) {
-            return "DROP PRIMARY INDEX ON " + fullKeyspace;
+            out.append("DROP PRIMARY INDEX ON ").append(fullKeyspace);
+        } else {
+            out.append("DROP INDEX ").append(fullKeyspace).append('.').append(indexName);
         }
-        return "DROP INDEX " + fullKeyspace + "." + indexName;
     }
 }
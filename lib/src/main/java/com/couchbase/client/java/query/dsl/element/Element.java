@@ -29,6 +29,23 @@ public interface Element {
 
     public static final String ESCAPE_CHAR = "`";
 
-    String export();
+    /**
+     * Appends the N1QL representation of this element to the given writer.
+     *
+     * @param out the writer the whole statement is rendered into.
+     */
+    void export(N1qlWriter out);
+
+    /**
+     * Returns the N1QL representation of this element.
+     *
+     * Rendering a statement goes through {@link #export(N1qlWriter)}, this method is only kept for
+     * compatibility and allocates a new buffer on every call.
+     */
+    default String export() {
+        N1qlWriter out = new N1qlWriter();
+        export(out);
+        return out.toString();
+    }
 
 }
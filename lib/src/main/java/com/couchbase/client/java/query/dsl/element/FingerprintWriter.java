@@ -0,0 +1,197 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query.dsl.element;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A {@link N1qlWriter} hashing the statement as it is rendered, instead of buffering it.
+ * <p>
+ * The resulting fingerprint identifies the shape of the statement: literals are written in
+ * {@link LiteralMode#NORMALIZED} mode, and whitespace is ignored except where it separates two
+ * words. Optionally, the operands of AND and OR are hashed independently of their order, so that
+ * <code>a = 1 AND b = 2</code> and <code>b = 3 AND a = 4</code> share the same fingerprint.
+ * <p>
+ * The hash is a 64-bit FNV-1a. Positions returned by {@link #length()} count the characters
+ * hashed so far; trimming is a no-op since leading and trailing whitespace is never hashed, and
+ * {@link #truncate(int)} is not supported.
+ */
+public class FingerprintWriter extends N1qlWriter {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private final boolean normalizeCommutative;
+    private final Deque<State> operands = new ArrayDeque<State>();
+    private State state = new State();
+    private int length;
+
+    public FingerprintWriter() {
+        this(false);
+    }
+
+    /**
+     * @param normalizeCommutative true to ignore the order of the operands of AND and OR.
+     */
+    public FingerprintWriter(boolean normalizeCommutative) {
+        super(null, LiteralMode.NORMALIZED);
+        this.normalizeCommutative = normalizeCommutative;
+    }
+
+    /**
+     * Returns true if the order of the operands of AND and OR is ignored.
+     */
+    public boolean normalizesCommutative() {
+        return normalizeCommutative;
+    }
+
+    @Override
+    public FingerprintWriter append(CharSequence text) {
+        if (text == null) {
+            return append("null");
+        }
+        return append(text, 0, text.length());
+    }
+
+    @Override
+    public FingerprintWriter append(CharSequence text, int start, int end) {
+        if (text == null) {
+            return append("null", start, end);
+        }
+        for (int i = start; i < end; i++) {
+            append(text.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public FingerprintWriter append(char c) {
+        length++;
+        State state = this.state;
+        if (c <= ' ') {
+            state.pendingSpace = true;
+            return this;
+        }
+        if (state.pendingSpace && isWordPart(state.last) && isWordPart(c)) {
+            state.hash = (state.hash ^ ' ') * PRIME;
+        }
+        state.pendingSpace = false;
+        state.last = c;
+        state.hash = (state.hash ^ c) * PRIME;
+        return this;
+    }
+
+    private static boolean isWordPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '`' || c == '"' || c == '\'';
+    }
+
+    @Override
+    public FingerprintWriter append(int value) {
+        return append(Integer.toString(value));
+    }
+
+    @Override
+    public FingerprintWriter append(long value) {
+        return append(Long.toString(value));
+    }
+
+    @Override
+    public FingerprintWriter append(Keyword keyword) {
+        return append(keyword.text());
+    }
+
+    /**
+     * Starts hashing an operand on its own, until the matching {@link #endOperand()}.
+     */
+    public void beginOperand() {
+        operands.push(state);
+        state = new State();
+    }
+
+    /**
+     * Ends the operand started by the last {@link #beginOperand()} and returns its fingerprint,
+     * to be hashed back with {@link #appendFingerprint(long)}.
+     */
+    public long endOperand() {
+        if (operands.isEmpty()) {
+            throw new IllegalStateException("No operand was started");
+        }
+        long hash = state.hash;
+        state = operands.pop();
+        return hash;
+    }
+
+    /**
+     * Hashes the fingerprint of an operand.
+     */
+    public FingerprintWriter appendFingerprint(long fingerprint) {
+        State state = this.state;
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            state.hash = (state.hash ^ (fingerprint >>> shift & 0xFF)) * PRIME;
+        }
+        state.pendingSpace = false;
+        state.last = ')';
+        return this;
+    }
+
+    @Override
+    public void trim(int start) {
+    }
+
+    /**
+     * Returns the number of characters hashed so far.
+     */
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public void truncate(int start) {
+        throw new UnsupportedOperationException("A fingerprint cannot be truncated");
+    }
+
+    @Override
+    public int utf8Length(int start) {
+        throw new UnsupportedOperationException("A fingerprint has no length in bytes");
+    }
+
+    /**
+     * Returns the fingerprint of everything written so far.
+     */
+    public long fingerprint() {
+        if (!operands.isEmpty()) {
+            throw new IllegalStateException("An operand is still being written");
+        }
+        return state.hash;
+    }
+
+    /**
+     * Returns the fingerprint as 16 hexadecimal digits.
+     */
+    @Override
+    public String toString() {
+        return String.format("%016x", fingerprint());
+    }
+
+    private static final class State {
+        private long hash = OFFSET_BASIS;
+        private char last;
+        private boolean pendingSpace;
+    }
+}
@@ -29,7 +29,7 @@ public class FromElement implements Element {
     }
 
     @Override
-    public String export() {
-        return "FROM " + from;
+    public void export(N1qlWriter out) {
+        out.append(Keyword.FROM).appendText(from);
     }
 }
@@ -30,15 +30,7 @@ public class GroupByElement implements Element {
     }
 
     @Override
-    public String export() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("GROUP BY ");
-        for (int i = 0; i < expressions.length; i++) {
-            sb.append(expressions[i].toString());
-            if (i < expressions.length-1) {
-                sb.append(", ");
-            }
-        }
-        return sb.toString();
+    public void export(N1qlWriter out) {
+        out.append(Keyword.GROUP_BY).appendAll(expressions, ", ");
     }
 }
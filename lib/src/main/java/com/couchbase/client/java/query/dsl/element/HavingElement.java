@@ -28,8 +28,8 @@ public class HavingElement implements Element {
   }
 
   @Override
-  public String export() {
-    return "HAVING " + expression.toString();
+  public void export(N1qlWriter out) {
+    out.append(Keyword.HAVING).append(expression);
   }
 
 }
@@ -36,17 +36,10 @@ public class HintIndexElement implements Element {
     }
 
     @Override
-    public String export() {
+    public void export(N1qlWriter out) {
         if (indexReferences == null || indexReferences.length < 1) {
-            return "";
+            return;
         }
-        StringBuilder n1ql = new StringBuilder("USE INDEX (");
-        for (IndexReference indexReference : indexReferences) {
-            n1ql.append(indexReference.toString()).append(',');
-        }
-        n1ql.deleteCharAt(n1ql.length() - 1);
-        n1ql.append(')');
-
-        return n1ql.toString();
+        out.append(Keyword.USE_INDEX).appendAll(indexReferences, ",").append(')');
     }
 }
@@ -45,13 +45,13 @@ public class IndexElement implements Element {
     }
 
     @Override
-    public String export() {
+    public void export(N1qlWriter out) {
         if (primary && name == null) {
-            return "CREATE PRIMARY INDEX";
+            out.append("CREATE PRIMARY INDEX");
         } else if (primary) {
-            return "CREATE PRIMARY INDEX `" + name + "`";
+            out.append("CREATE PRIMARY INDEX `").append(name).append('`');
         } else {
-            return "CREATE INDEX `" + name + "`";
+            out.append("CREATE INDEX `").append(name).append('`');
         }
     }
 }
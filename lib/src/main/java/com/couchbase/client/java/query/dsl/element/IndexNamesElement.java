@@ -37,12 +37,11 @@ public class IndexNamesElement implements Element {
     }
 
     @Override
-    public String export() {
-        StringBuilder sb = new StringBuilder("(`").append(indexName).append('`');
+    public void export(N1qlWriter out) {
+        out.append("(`").append(indexName).append('`');
         for (String otherName : otherNames) {
-            sb.append(", `").append(otherName).append('`');
+            out.append(", `").append(otherName).append('`');
         }
-        sb.append(')');
-        return sb.toString();
+        out.append(')');
     }
 }
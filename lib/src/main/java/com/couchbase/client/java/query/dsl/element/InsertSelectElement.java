@@ -35,9 +35,12 @@ public class InsertSelectElement implements Element {
   }
 
   @Override
-  public String export() {
-    String value = this.value == null ? "" : ", VALUE " + this.value.toString();
-    return "(KEY "+ key + value + ") " + select.toString();
+  public void export(N1qlWriter out) {
+    out.append("(KEY ").append(key);
+    if (value != null) {
+      out.append(", VALUE ").append(value);
+    }
+    out.append(") ").append(select);
   }
 
 }
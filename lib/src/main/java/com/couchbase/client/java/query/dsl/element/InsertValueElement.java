@@ -34,8 +34,8 @@ public class InsertValueElement implements Element {
   }
 
   @Override
-  public String export() {
-    return position.repr + "(" + id.toString() + ", " + value.toString() + ")";
+  public void export(N1qlWriter out) {
+    out.append(position.repr).append('(').append(id).append(", ").append(value).append(')');
   }
 
   public enum InsertPosition {
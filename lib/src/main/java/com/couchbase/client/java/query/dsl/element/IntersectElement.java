@@ -23,37 +23,36 @@ import com.couchbase.client.java.query.Statement;
 public class IntersectElement implements Element {
     private final boolean all;
     private final String with;
+    private final Statement withStatement;
 
     public IntersectElement(final boolean all) {
         this.all = all;
         this.with = null;
+        this.withStatement = null;
     }
 
     public IntersectElement(final boolean all, final String with) {
         this.all = all;
         this.with = with;
+        this.withStatement = null;
     }
 
     public IntersectElement(final boolean all, final Statement with) {
         this.all = all;
-        this.with = with.toString();
+        this.with = null;
+        this.withStatement = with;
     }
 
     @Override
-    public String export() {
-        final StringBuilder sb = new StringBuilder();
-
-        sb.append("INTERSECT");
-
+    public void export(N1qlWriter out) {
+        out.append(Keyword.INTERSECT);
         if (all) {
-            sb.append(" ALL");
+            out.append(Keyword.ALL);
         }
-
-        if (!StringUtil.isNullOrEmpty(with)) {
-            sb.append(" ");
-            sb.append(with);
+        if (withStatement != null) {
+            out.append(' ').append(withStatement);
+        } else if (!StringUtil.isNullOrEmpty(with)) {
+            out.append(' ').appendText(with);
         }
-
-        return sb.toString();
     }
 }
@@ -32,12 +32,10 @@ public class JoinElement implements Element {
     }
 
     @Override
-    public String export() {
-        StringBuilder sb = new StringBuilder();
+    public void export(N1qlWriter out) {
         if (joinType != JoinType.DEFAULT) {
-            sb.append(joinType.value()).append(" ");
+            out.append(joinType.value()).append(' ');
         }
-        sb.append("JOIN ").append(from);
-        return sb.toString();
+        out.append(Keyword.JOIN).appendText(from);
     }
 }
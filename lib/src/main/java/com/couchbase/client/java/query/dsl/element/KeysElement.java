@@ -33,8 +33,8 @@ public class KeysElement implements Element {
     }
 
     @Override
-    public String export() {
-        return clauseType.n1ql + expression.toString();
+    public void export(N1qlWriter out) {
+        out.append(clauseType.n1ql).append(expression);
     }
 
     public static enum ClauseType {
@@ -43,13 +43,13 @@ public class KeysElement implements Element {
         // and not carrying any semantic, so it hasn't been represented here.
 
         /** the clause type for setting keys to use in a join / nest / unnest clause **/
-        JOIN_ON("ON KEYS "),
+        JOIN_ON(Keyword.ON_KEYS),
         /** the clause type for selecting by primary key in a from clause **/
-        USE_KEYSPACE("USE KEYS ");
+        USE_KEYSPACE(Keyword.USE_KEYS);
 
-        private final String n1ql;
+        private final Keyword n1ql;
 
-        ClauseType(String n1ql) {
+        ClauseType(Keyword n1ql) {
             this.n1ql = n1ql;
         }
 
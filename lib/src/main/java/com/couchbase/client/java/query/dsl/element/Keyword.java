@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query.dsl.element;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The fixed tokens written by the {@link Element}s, including the space that follows them if any.
+ * <p>
+ * Each keyword is encoded in UTF-8 once, so that a {@link N1qlUtf8Writer} can copy its bytes
+ * instead of encoding the same characters for every statement. Keywords are plain ASCII and
+ * never need to be escaped in JSON.
+ */
+public enum Keyword {
+
+    SELECT("SELECT "),
+    FROM("FROM "),
+    WHERE("WHERE "),
+    USE_KEYS("USE KEYS "),
+    ON_KEYS("ON KEYS "),
+    ON("ON "),
+    JOIN("JOIN "),
+    NEST("NEST "),
+    UNNEST("UNNEST "),
+    LET("LET "),
+    LETTING("LETTING "),
+    GROUP_BY("GROUP BY "),
+    HAVING("HAVING "),
+    ORDER_BY("ORDER BY "),
+    LIMIT("LIMIT "),
+    OFFSET("OFFSET "),
+    AS("AS "),
+    UNION("UNION"),
+    INTERSECT("INTERSECT"),
+    EXCEPT("EXCEPT"),
+    ALL(" ALL"),
+    USE_INDEX("USE INDEX ("),
+    USE_NL("USE NL"),
+    INSERT_INTO("INSERT INTO "),
+    UPSERT_INTO("UPSERT INTO "),
+    UPDATE("UPDATE "),
+    DELETE_FROM("DELETE FROM "),
+    MERGE_INTO("MERGE INTO "),
+    VALUES("VALUES "),
+    RETURNING("RETURNING ");
+
+    private final String text;
+    private final byte[] utf8;
+
+    Keyword(String text) {
+        this.text = text;
+        this.utf8 = text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the keyword as written in a statement.
+     */
+    public String text() {
+        return text;
+    }
+
+    /**
+     * Returns the number of bytes of the keyword.
+     */
+    public int length() {
+        return utf8.length;
+    }
+
+    /**
+     * Copies the UTF-8 bytes of the keyword into the given array.
+     */
+    void copyTo(byte[] destination, int offset) {
+        System.arraycopy(utf8, 0, destination, offset, utf8.length);
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
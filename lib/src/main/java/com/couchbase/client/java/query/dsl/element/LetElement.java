@@ -30,15 +30,7 @@ public class LetElement implements Element {
     }
 
     @Override
-    public String export() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("LET ");
-        for (int i = 0; i < aliases.length; i++) {
-            sb.append(aliases[i].toString());
-            if (i < aliases.length-1) {
-                sb.append(", ");
-            }
-        }
-        return sb.toString();
+    public void export(N1qlWriter out) {
+        out.append(Keyword.LET).appendAll(aliases, ", ");
     }
 }
@@ -29,7 +29,7 @@ public class LimitElement implements Element {
     }
 
     @Override
-    public String export() {
-        return "LIMIT " + limit;
+    public void export(N1qlWriter out) {
+        out.append(Keyword.LIMIT).append(limit);
     }
 }
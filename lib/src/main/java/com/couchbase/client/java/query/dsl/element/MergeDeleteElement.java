@@ -23,7 +23,7 @@ package com.couchbase.client.java.query.dsl.element;
 public class MergeDeleteElement implements Element {
 
   @Override
-  public String export() {
-    return "WHEN MATCHED THEN DELETE";
+  public void export(N1qlWriter out) {
+    out.append("WHEN MATCHED THEN DELETE");
   }
 }
@@ -34,7 +34,7 @@ public class MergeInsertElement implements Element {
   }
 
   @Override
-  public String export() {
-    return "WHEN NOT MATCHED THEN INSERT " + expression.toString();
+  public void export(N1qlWriter out) {
+    out.append("WHEN NOT MATCHED THEN INSERT ").append(expression);
   }
 }
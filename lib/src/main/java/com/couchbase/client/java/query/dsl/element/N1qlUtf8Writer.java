@@ -0,0 +1,295 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query.dsl.element;
+
+import com.couchbase.client.java.query.Statement;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A {@link N1qlWriter} encoding the statement in UTF-8 as it is rendered, instead of buffering
+ * characters.
+ * <p>
+ * The bytes can then be written as the content of a JSON string, typically the
+ * <code>statement</code> field of a query request body, with {@link #writeJsonTo(OutputStream)},
+ * {@link #writeJsonTo(ByteBuffer)} or {@link #toJsonBytes()}: characters that must be escaped in
+ * JSON are escaped while copying, so the statement never exists as a {@link String}.
+ * <pre>
+ * N1qlUtf8Writer statement = N1qlUtf8Writer.render(select("*").from("travel-sample"));
+ * body.write("{\"statement\":\"".getBytes(UTF_8));
+ * statement.writeJsonTo(body);
+ * body.write("\"}".getBytes(UTF_8));
+ * </pre>
+ * Positions returned by {@link #length()} and used by {@link #trim(int)} and {@link #truncate(int)}
+ * are byte offsets in the UTF-8 encoding of the statement.
+ */
+public class N1qlUtf8Writer extends N1qlWriter {
+
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    /** The JSON escape of each byte that needs one, indexed by the byte; null for other bytes. */
+    private static final byte[][] ESCAPES = new byte['\\' + 1][];
+
+    static {
+        for (int b = 0; b < 0x20; b++) {
+            char escape = shortEscape(b);
+            ESCAPES[b] = escape != 0
+                ? new byte[] {'\\', (byte) escape}
+                : new byte[] {'\\', 'u', '0', '0', HEX[b >> 4], HEX[b & 0xF]};
+        }
+        ESCAPES['"'] = new byte[] {'\\', '"'};
+        ESCAPES['\\'] = new byte[] {'\\', '\\'};
+    }
+
+    private byte[] bytes;
+    private int position;
+
+    public N1qlUtf8Writer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public N1qlUtf8Writer(int capacity) {
+        this(capacity, LiteralMode.INLINE);
+    }
+
+    public N1qlUtf8Writer(LiteralMode literalMode) {
+        this(DEFAULT_CAPACITY, literalMode);
+    }
+
+    public N1qlUtf8Writer(int capacity, LiteralMode literalMode) {
+        super(null, literalMode);
+        this.bytes = new byte[Math.max(capacity, 16)];
+    }
+
+    /**
+     * Renders the given statement, with its literals inlined.
+     */
+    public static N1qlUtf8Writer render(Statement statement) {
+        N1qlUtf8Writer out = new N1qlUtf8Writer();
+        out.append(statement);
+        return out;
+    }
+
+    @Override
+    public N1qlUtf8Writer append(CharSequence text) {
+        if (text == null) {
+            return append("null");
+        }
+        return append(text, 0, text.length());
+    }
+
+    @Override
+    public N1qlUtf8Writer append(CharSequence text, int start, int end) {
+        if (text == null) {
+            return append("null", start, end);
+        }
+        ensureCapacity(end - start);
+        byte[] bytes = this.bytes;
+        int position = this.position;
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i++);
+            if (c < 0x80) {
+                bytes[position++] = (byte) c;
+                continue;
+            }
+            this.position = position;
+            ensureCapacity(3 * (end - i) + 4);
+            bytes = this.bytes;
+            if (c < 0x800) {
+                bytes[position++] = (byte) (0xC0 | c >> 6);
+                bytes[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i < end && Character.isLowSurrogate(text.charAt(i))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(i++));
+                bytes[position++] = (byte) (0xF0 | codePoint >> 18);
+                bytes[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                bytes[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                bytes[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                bytes[position++] = '?';
+            } else {
+                bytes[position++] = (byte) (0xE0 | c >> 12);
+                bytes[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                bytes[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        this.position = position;
+        return this;
+    }
+
+    @Override
+    public N1qlUtf8Writer append(char c) {
+        if (c < 0x80) {
+            ensureCapacity(1);
+            bytes[position++] = (byte) c;
+            return this;
+        }
+        return append(String.valueOf(c));
+    }
+
+    @Override
+    public N1qlUtf8Writer append(int value) {
+        return append(Integer.toString(value));
+    }
+
+    @Override
+    public N1qlUtf8Writer append(long value) {
+        return append(Long.toString(value));
+    }
+
+    @Override
+    public N1qlUtf8Writer append(Keyword keyword) {
+        ensureCapacity(keyword.length());
+        keyword.copyTo(bytes, position);
+        position += keyword.length();
+        return this;
+    }
+
+    @Override
+    public void trim(int start) {
+        // multi-byte sequences only contain bytes >= 0x80, so whitespace is always a single byte
+        int end = position;
+        while (end > start && (bytes[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        int first = start;
+        while (first < end && (bytes[first] & 0xFF) <= ' ') {
+            first++;
+        }
+        if (first > start) {
+            System.arraycopy(bytes, first, bytes, start, end - first);
+            removed(start, first);
+        }
+        position = end - (first - start);
+    }
+
+    /**
+     * Returns the number of bytes written so far.
+     */
+    @Override
+    public int length() {
+        return position;
+    }
+
+    @Override
+    public void truncate(int start) {
+        position = start;
+        removed(start, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int utf8Length(int start) {
+        return position - start;
+    }
+
+    /**
+     * Returns a copy of the UTF-8 encoded statement.
+     */
+    public byte[] toUtf8Bytes() {
+        return Arrays.copyOf(bytes, position);
+    }
+
+    /**
+     * Returns the number of bytes of the statement once escaped as the content of a JSON string.
+     */
+    public int jsonLength() {
+        int length = position;
+        for (int i = 0; i < position; i++) {
+            int b = bytes[i] & 0xFF;
+            if (b < ESCAPES.length && ESCAPES[b] != null) {
+                length += ESCAPES[b].length - 1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Returns the statement escaped as the content of a JSON string, without the surrounding quotes.
+     */
+    public byte[] toJsonBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(jsonLength());
+        writeJsonTo(buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Writes the statement escaped as the content of a JSON string, without the surrounding quotes.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer has less than {@link #jsonLength()}
+     *         bytes remaining.
+     */
+    public void writeJsonTo(ByteBuffer buffer) {
+        int from = 0;
+        for (int i = 0; i < position; i++) {
+            int b = bytes[i] & 0xFF;
+            if (b >= ESCAPES.length || ESCAPES[b] == null) {
+                continue;
+            }
+            buffer.put(bytes, from, i - from);
+            buffer.put(ESCAPES[b]);
+            from = i + 1;
+        }
+        buffer.put(bytes, from, position - from);
+    }
+
+    /**
+     * Writes the statement escaped as the content of a JSON string, without the surrounding quotes.
+     */
+    public void writeJsonTo(OutputStream out) throws IOException {
+        int from = 0;
+        for (int i = 0; i < position; i++) {
+            int b = bytes[i] & 0xFF;
+            if (b >= ESCAPES.length || ESCAPES[b] == null) {
+                continue;
+            }
+            out.write(bytes, from, i - from);
+            out.write(ESCAPES[b]);
+            from = i + 1;
+        }
+        out.write(bytes, from, position - from);
+    }
+
+    private static char shortEscape(int b) {
+        switch (b) {
+            case '\b': return 'b';
+            case '\f': return 'f';
+            case '\n': return 'n';
+            case '\r': return 'r';
+            case '\t': return 't';
+            default: return 0;
+        }
+    }
+
+    private void ensureCapacity(int additional) {
+        int required = position + additional;
+        if (required > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(required, bytes.length * 2));
+        }
+    }
+
+    /**
+     * Returns the statement decoded back to a {@link String}.
+     */
+    @Override
+    public String toString() {
+        return new String(bytes, 0, position, StandardCharsets.UTF_8);
+    }
+}
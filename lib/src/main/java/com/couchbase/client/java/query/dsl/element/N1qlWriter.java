@@ -0,0 +1,395 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query.dsl.element;
+
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.query.Statement;
+import com.couchbase.client.java.query.dsl.Expression;
+import com.couchbase.client.java.query.dsl.path.AbstractPath;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The buffer a N1QL statement is rendered into.
+ * <p>
+ * A whole statement shares a single writer: each {@link Element} appends its own keywords
+ * and expressions to it, and nested statements are rendered into the same buffer instead of
+ * being converted to an intermediate {@link String} first.
+ * <p>
+ * Depending on its {@link LiteralMode}, the writer either inlines literal values in the text or
+ * replaces them with query parameters, collected in order in {@link #parameters()}.
+ * <p>
+ * This writer buffers characters; see {@link N1qlUtf8Writer} to render straight into UTF-8 bytes.
+ */
+public class N1qlWriter implements Appendable {
+
+    private static final int DEFAULT_CAPACITY = 128;
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final StringBuilder buffer;
+    private final LiteralMode literalMode;
+    private final List<Object> parameters;
+    private int[] currentBucketPositions = NO_POSITIONS;
+    private int currentBucketCount;
+
+    public N1qlWriter() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public N1qlWriter(int capacity) {
+        this(capacity, LiteralMode.INLINE);
+    }
+
+    public N1qlWriter(LiteralMode literalMode) {
+        this(DEFAULT_CAPACITY, literalMode);
+    }
+
+    public N1qlWriter(int capacity, LiteralMode literalMode) {
+        this(new StringBuilder(capacity), literalMode);
+    }
+
+    /**
+     * Creates a writer around the given buffer, which subclasses not writing into a
+     * {@link StringBuilder} leave null.
+     */
+    N1qlWriter(StringBuilder buffer, LiteralMode literalMode) {
+        this.buffer = buffer;
+        this.literalMode = literalMode;
+        this.parameters = literalMode == LiteralMode.POSITIONAL || literalMode == LiteralMode.NAMED
+            ? new ArrayList<Object>() : Collections.emptyList();
+    }
+
+    @Override
+    public N1qlWriter append(CharSequence text) {
+        buffer.append(text);
+        return this;
+    }
+
+    @Override
+    public N1qlWriter append(CharSequence text, int start, int end) {
+        buffer.append(text, start, end);
+        return this;
+    }
+
+    @Override
+    public N1qlWriter append(char c) {
+        buffer.append(c);
+        return this;
+    }
+
+    public N1qlWriter append(int value) {
+        buffer.append(value);
+        return this;
+    }
+
+    public N1qlWriter append(long value) {
+        buffer.append(value);
+        return this;
+    }
+
+    /**
+     * Appends a fixed token.
+     */
+    public N1qlWriter append(Keyword keyword) {
+        buffer.append(keyword.text());
+        return this;
+    }
+
+    /**
+     * Appends a literal value: a {@link String}, a {@link Number}, a JSON object or array.
+     *
+     * Strings are written between double quotes. Unless the writer inlines literals, values that
+     * can be sent as query parameters are replaced by the next parameter placeholder instead, or
+     * all values by <code>?</code> in {@link LiteralMode#NORMALIZED} mode.
+     */
+    public N1qlWriter appendLiteral(Object value) {
+        if (literalMode == LiteralMode.NORMALIZED) {
+            append('?');
+        } else if (literalMode != LiteralMode.INLINE && isParameter(value)) {
+            parameters.add(value);
+            append('$');
+            if (literalMode == LiteralMode.NAMED) {
+                append(parameterName(parameters.size() - 1));
+            } else {
+                append(parameters.size());
+            }
+        } else if (value instanceof String) {
+            append('"').append((String) value).append('"');
+        } else {
+            append(String.valueOf(value));
+        }
+        return this;
+    }
+
+    private static boolean isParameter(Object value) {
+        return value instanceof String || value instanceof Integer || value instanceof Long
+            || value instanceof Double || value instanceof Float || value instanceof BigInteger
+            || value instanceof BigDecimal || value instanceof JsonObject || value instanceof JsonArray;
+    }
+
+    /**
+     * Appends the {@link Statement#CURRENT_BUCKET_IDENTIFIER} placeholder, recording its position
+     * so it can later be replaced without searching the statement for it.
+     */
+    public N1qlWriter appendCurrentBucket() {
+        int position = length();
+        append(Statement.CURRENT_BUCKET_IDENTIFIER);
+        if (currentBucketCount == currentBucketPositions.length) {
+            currentBucketPositions = Arrays.copyOf(currentBucketPositions, Math.max(4, currentBucketCount * 2));
+        }
+        currentBucketPositions[currentBucketCount++] = position;
+        return this;
+    }
+
+    /**
+     * Appends raw N1QL given by the caller, recording the position of each
+     * {@link Statement#CURRENT_BUCKET_IDENTIFIER} placeholder it contains like
+     * {@link #appendCurrentBucket()} does. Only the given text is searched.
+     */
+    public N1qlWriter appendText(String text) {
+        int from = 0;
+        for (int found = text.indexOf(Statement.CURRENT_BUCKET_IDENTIFIER); found >= 0;
+             found = text.indexOf(Statement.CURRENT_BUCKET_IDENTIFIER, from)) {
+            append(text, from, found);
+            appendCurrentBucket();
+            from = found + Statement.CURRENT_BUCKET_IDENTIFIER.length();
+        }
+        append(text, from, text.length());
+        return this;
+    }
+
+    /**
+     * Appends text rendered earlier by another writer, the given offsets being the positions of its
+     * {@link Statement#CURRENT_BUCKET_IDENTIFIER} placeholders within the text, as returned by
+     * {@link #currentBucketPositions()}. The placeholders are recorded again, at their new position.
+     */
+    public N1qlWriter appendRendered(String text, int[] currentBucketOffsets) {
+        int from = 0;
+        for (int offset : currentBucketOffsets) {
+            append(text, from, offset);
+            appendCurrentBucket();
+            from = offset + Statement.CURRENT_BUCKET_IDENTIFIER.length();
+        }
+        append(text, from, text.length());
+        return this;
+    }
+
+    /**
+     * Returns the positions, as returned by {@link #length()}, of the placeholders written by
+     * {@link #appendCurrentBucket()}, in order.
+     */
+    public int[] currentBucketPositions() {
+        return Arrays.copyOf(currentBucketPositions, currentBucketCount);
+    }
+
+    /**
+     * Updates the recorded positions once everything between the given positions was removed:
+     * placeholders within are forgotten, and the ones after are moved back.
+     */
+    void removed(int start, int end) {
+        int kept = 0;
+        for (int i = 0; i < currentBucketCount; i++) {
+            int position = currentBucketPositions[i];
+            if (position < start) {
+                currentBucketPositions[kept++] = position;
+            } else if (position >= end) {
+                currentBucketPositions[kept++] = position - (end - start);
+            }
+        }
+        currentBucketCount = kept;
+    }
+
+    /**
+     * Appends an {@link Expression}.
+     */
+    public N1qlWriter append(Expression expression) {
+        expression.render(this);
+        return this;
+    }
+
+    /**
+     * Appends a (sub-){@link Statement}. Statements built with the DSL are rendered directly
+     * into this writer, others are appended as {@link #appendText(String) raw text}.
+     */
+    public N1qlWriter append(Statement statement) {
+        if (statement instanceof AbstractPath) {
+            ((AbstractPath) statement).render(this);
+        } else {
+            appendText(statement.toString());
+        }
+        return this;
+    }
+
+    /**
+     * Appends the given expressions, separated by the given delimiter.
+     */
+    public N1qlWriter appendAll(Expression[] expressions, String delimiter) {
+        for (int i = 0; i < expressions.length; i++) {
+            if (i > 0) {
+                append(delimiter);
+            }
+            append(expressions[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Appends the given elements, separated by the given delimiter.
+     */
+    public N1qlWriter appendAll(Element[] elements, String delimiter) {
+        for (int i = 0; i < elements.length; i++) {
+            if (i > 0) {
+                append(delimiter);
+            }
+            elements[i].export(this);
+        }
+        return this;
+    }
+
+    /**
+     * Appends the string representation of the given values, separated by the given delimiter.
+     */
+    public N1qlWriter appendAll(Object[] values, String delimiter) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                append(delimiter);
+            }
+            append(String.valueOf(values[i]));
+        }
+        return this;
+    }
+
+    /**
+     * Removes leading and trailing whitespace (as defined by {@link String#trim()}) from
+     * everything that was written since the given position.
+     *
+     * @param start the position, as returned by {@link #length()}, to trim from.
+     */
+    public void trim(int start) {
+        int end = buffer.length();
+        while (end > start && buffer.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        buffer.setLength(end);
+        int first = start;
+        while (first < end && buffer.charAt(first) <= ' ') {
+            first++;
+        }
+        if (first > start) {
+            buffer.delete(start, first);
+            removed(start, first);
+        }
+    }
+
+    /**
+     * Returns the number of characters written so far.
+     */
+    public int length() {
+        return buffer.length();
+    }
+
+    /**
+     * Removes everything that was written since the given position.
+     *
+     * @param start the position, as returned by {@link #length()}, to remove from.
+     */
+    public void truncate(int start) {
+        buffer.setLength(start);
+        removed(start, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the number of bytes needed to encode in UTF-8 everything that was written since the
+     * given position.
+     *
+     * @param start the position, as returned by {@link #length()}, to count from.
+     */
+    public int utf8Length(int start) {
+        int bytes = 0;
+        for (int i = start, end = buffer.length(); i < end; i++) {
+            char c = buffer.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(buffer.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns how literal values are written.
+     */
+    public LiteralMode literalMode() {
+        return literalMode;
+    }
+
+    /**
+     * Returns whether statements and expressions rendered before are appended as their cached text,
+     * instead of writing each of their elements again. The cached text only holds inline literals.
+     * Writers that need to see every literal, through {@link #appendLiteral(Object)}, return false.
+     */
+    public boolean reusesRenderedText() {
+        return literalMode == LiteralMode.INLINE;
+    }
+
+    /**
+     * Returns the values that were replaced by parameters so far, in order. The value at index i is
+     * the parameter <code>$(i + 1)</code> in positional mode, or <code>$</code>{@link #parameterName(int)}
+     * in named mode.
+     */
+    public List<Object> parameters() {
+        return Collections.unmodifiableList(parameters);
+    }
+
+    /**
+     * Returns the name (without the leading <code>$</code>) of the named parameter at the given index.
+     */
+    public static String parameterName(int index) {
+        return "p" + (index + 1);
+    }
+
+    @Override
+    public String toString() {
+        return buffer.toString();
+    }
+
+    /**
+     * How literal values are written by a {@link N1qlWriter}.
+     */
+    public enum LiteralMode {
+        /** Literals are written as is in the statement. */
+        INLINE,
+        /** Literals are replaced with positional parameters: <code>$1</code>, <code>$2</code>... */
+        POSITIONAL,
+        /** Literals are replaced with named parameters: <code>$p1</code>, <code>$p2</code>... */
+        NAMED,
+        /** Literals are all replaced with <code>?</code>, leaving only the shape of the statement. */
+        NORMALIZED
+    }
+}
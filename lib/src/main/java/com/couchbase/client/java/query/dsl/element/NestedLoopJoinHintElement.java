@@ -28,7 +28,7 @@ package com.couchbase.client.java.query.dsl.element;
 public class NestedLoopJoinHintElement implements Element {
 
     @Override
-    public String export() {
-        return "USE NL";
+    public void export(N1qlWriter out) {
+        out.append(Keyword.USE_NL);
     }
 }
@@ -29,7 +29,7 @@ public class OffsetElement implements Element {
     }
 
     @Override
-    public String export() {
-        return "OFFSET " + offset;
+    public void export(N1qlWriter out) {
+        out.append(Keyword.OFFSET).append(offset);
     }
 }
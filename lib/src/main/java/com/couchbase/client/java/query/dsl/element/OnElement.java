@@ -43,21 +43,17 @@ public class OnElement implements Element {
     }
 
     @Override
-    public String export() {
+    public void export(N1qlWriter out) {
+        out.append(Keyword.ON).append(fullKeyspace);
         if (expression == null) {
-            return "ON " + fullKeyspace;
-        } else {
-            if (additionalExpressions == null || additionalExpressions.length == 0) {
-                return "ON " + fullKeyspace + "(" + expression.toString() + ")";
-            } else {
-                StringBuilder on = new StringBuilder("ON ");
-                on.append(fullKeyspace).append('(').append(expression);
-                for (Expression additionalExpression : additionalExpressions) {
-                    on.append(", ").append(additionalExpression.toString());
-                }
-                on.append(')');
-                return on.toString();
+            return;
+        }
+        out.append('(').append(expression);
+        if (additionalExpressions != null) {
+            for (Expression additionalExpression : additionalExpressions) {
+                out.append(", ").append(additionalExpression);
             }
         }
+        out.append(')');
     }
 }
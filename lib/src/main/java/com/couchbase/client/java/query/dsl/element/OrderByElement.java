@@ -30,15 +30,7 @@ public class OrderByElement implements Element {
     }
 
     @Override
-    public String export() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("ORDER BY ");
-        for (int i = 0; i < sorts.length; i++) {
-            sb.append(sorts[i].toString());
-            if (i < sorts.length-1) {
-                sb.append(", ");
-            }
-        }
-        return sb.toString();
+    public void export(N1qlWriter out) {
+        out.append(Keyword.ORDER_BY).appendAll(sorts, ", ");
     }
 }
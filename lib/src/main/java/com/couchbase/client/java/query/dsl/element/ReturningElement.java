@@ -32,8 +32,8 @@ public class ReturningElement implements Element {
   }
 
   @Override
-  public String export() {
-    return "RETURNING " + type.repr + exp.toString();
+  public void export(N1qlWriter out) {
+    out.append(Keyword.RETURNING).append(type.repr).append(exp);
   }
 
   public enum ReturningType {
@@ -34,18 +34,11 @@ public class SelectElement implements Element {
     }
 
     @Override
-    public String export() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("SELECT ");
+    public void export(N1qlWriter out) {
+        out.append(Keyword.SELECT);
         if (selectType != SelectType.DEFAULT) {
-            sb.append(selectType.value()).append(" ");
+            out.append(selectType.value()).append(' ');
         }
-        for (int i=0; i < expressions.length; i++) {
-            sb.append(expressions[i].toString());
-            if (i < expressions.length-1) {
-                sb.append(", ");
-            }
-        }
-        return sb.toString();
+        out.appendAll(expressions, ", ");
     }
 }
@@ -36,9 +36,11 @@ public class SetElement implements Element {
   }
 
   @Override
-  public String export() {
-    String uf = setFor == null ? "" : " " + setFor.toString();
-    return insert.repr + path.toString() + " = " + value.toString() + uf;
+  public void export(N1qlWriter out) {
+    out.append(insert.repr).append(path).append(" = ").append(value);
+    if (setFor != null) {
+      out.append(' ').append(setFor);
+    }
   }
 
   public enum SetPosition {
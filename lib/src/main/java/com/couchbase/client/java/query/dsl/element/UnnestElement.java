@@ -32,12 +32,10 @@ public class UnnestElement implements Element {
     }
 
     @Override
-    public String export() {
-        StringBuilder sb = new StringBuilder();
+    public void export(N1qlWriter out) {
         if (joinType != JoinType.DEFAULT) {
-            sb.append(joinType.value()).append(" ");
+            out.append(joinType.value()).append(' ');
         }
-        sb.append("UNNEST ").append(path);
-        return sb.toString();
+        out.append(Keyword.UNNEST).appendText(path);
     }
 }
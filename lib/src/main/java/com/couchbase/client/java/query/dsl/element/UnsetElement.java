@@ -34,9 +34,11 @@ public class UnsetElement implements Element {
   }
 
   @Override
-  public String export() {
-    String uf = unsetFor == null ? "" : " " + unsetFor.toString();
-    return insert.repr + path.toString() + uf;
+  public void export(N1qlWriter out) {
+    out.append(insert.repr).append(path);
+    if (unsetFor != null) {
+      out.append(' ').append(unsetFor);
+    }
   }
 
   public enum UnsetPosition {
@@ -35,7 +35,7 @@ public class UsingElement implements Element {
     }
 
     @Override
-    public String export() {
-        return "USING " + type.name();
+    public void export(N1qlWriter out) {
+        out.append("USING ").append(type.name());
     }
 }
@@ -30,7 +30,7 @@ public class WhereElement implements Element {
     }
 
     @Override
-    public String export() {
-        return "WHERE " + expression.toString();
+    public void export(N1qlWriter out) {
+        out.append(Keyword.WHERE).append(expression);
     }
 }
@@ -40,7 +40,7 @@ public class WithIndexOptionElement implements Element {
     }
 
     @Override
-    public String export() {
-        return "WITH " + options.toString();
+    public void export(N1qlWriter out) {
+        out.append("WITH ").append(options.toString());
     }
 }
@@ -19,6 +19,8 @@ package com.couchbase.client.java.query.dsl.functions;
 
 import com.couchbase.client.java.query.dsl.Expression;
 
+import static com.couchbase.client.java.query.dsl.Expression.function;
+import static com.couchbase.client.java.query.dsl.Expression.join;
 import static com.couchbase.client.java.query.dsl.Expression.x;
 
 /**
@@ -45,7 +47,7 @@ public class AggregateFunctions {
      * Returned expression results in a array of the non-MISSING values in the group, including NULLs.
      */
     public static Expression arrayAgg(Expression expression) {
-        return x("ARRAY_AGG(" + expression.toString() + ")");
+        return function("ARRAY_AGG", expression);
     }
 
     /**
@@ -60,7 +62,7 @@ public class AggregateFunctions {
      * Returned expression results in the arithmetic mean (average) of all the distinct number values in the group.
      */
     public static Expression avg(Expression expression) {
-        return x("AVG(" + expression.toString() + ")");
+        return function("AVG", expression);
     }
 
     /**
@@ -74,7 +76,7 @@ public class AggregateFunctions {
      * Returned expression results in count of all the non-NULL and non-MISSING values in the group.
      */
     public static Expression count(Expression expression) {
-        return x("COUNT(" + expression.toString() + ")");
+        return function("COUNT", expression);
     }
 
     /**
@@ -88,14 +90,14 @@ public class AggregateFunctions {
      * Returned expression results in a count of all the input rows for the group, regardless of value (including NULL).
      */
     public static Expression countAll() {
-        return x("COUNT(*)");
+        return function("COUNT", x("*"));
     }
 
     /**
      * Returned expression results in the maximum non-NULL, non-MISSING value in the group in N1QL collation order.
      */
     public static Expression max(Expression expression) {
-        return x("MAX(" + expression.toString() + ")");
+        return function("MAX", expression);
     }
 
     /**
@@ -109,7 +111,7 @@ public class AggregateFunctions {
      * Returned expression results in the minimum non-NULL, non-MISSING value in the group in N1QL collation order.
      */
     public static Expression min(Expression expression) {
-        return x("MIN(" + expression.toString() + ")");
+        return function("MIN", expression);
     }
 
     /**
@@ -123,7 +125,7 @@ public class AggregateFunctions {
      * Returned expression results in the sum of all the number values in the group.
      */
     public static Expression sum(Expression expression) {
-        return x("SUM(" + expression.toString() + ")");
+        return function("SUM", expression);
     }
 
     public static Expression sum(String expression) {
@@ -134,14 +136,14 @@ public class AggregateFunctions {
      * prefixes an expression with DISTINCT, useful for example for distinct count "COUNT(DISTINCT expression)".
      */
     public static Expression distinct(Expression expression) {
-        return x("DISTINCT " + expression.toString());
+        return join(" ", x("DISTINCT"), expression);
     }
 
     /**
      * prefixes an expression with DISTINCT, useful for example for distinct count "COUNT(DISTINCT expression)".
      */
     public static Expression distinct(String expression) {
-        return x("DISTINCT " + expression);
+        return distinct(x(expression));
     }
 
 
@@ -20,6 +20,7 @@ package com.couchbase.client.java.query.dsl.functions;
 import com.couchbase.client.java.json.JsonArray;
 import com.couchbase.client.java.query.dsl.Expression;
 
+import static com.couchbase.client.java.query.dsl.Expression.function;
 import static com.couchbase.client.java.query.dsl.Expression.s;
 import static com.couchbase.client.java.query.dsl.Expression.x;
 
@@ -42,7 +43,7 @@ public class ArrayFunctions {
      * Returned expression results in new array with value appended.
      */
     public static Expression arrayAppend(Expression expression, Expression value) {
-        return x("ARRAY_APPEND(" + expression.toString() + ", " + value.toString() + ")");
+        return function("ARRAY_APPEND", expression, value);
     }
 
     /**
@@ -64,7 +65,7 @@ public class ArrayFunctions {
      * or NULL if there are no such values.
      */
     public static Expression arrayAvg(Expression expression) {
-        return x("ARRAY_AVG(" + expression.toString() + ")");
+        return function("ARRAY_AVG", expression);
     }
 
     /**
@@ -87,7 +88,7 @@ public class ArrayFunctions {
      * Returned expression results in new array with the concatenation of the input arrays.
      */
     public static Expression arrayConcat(Expression expression1, Expression expression2) {
-        return x("ARRAY_CONCAT(" + expression1.toString() + ", " + expression2.toString() + ")");
+        return function("ARRAY_CONCAT", expression1, expression2);
     }
 
     /**
@@ -108,7 +109,7 @@ public class ArrayFunctions {
      * Returned expression results in true if the array contains value.
      */
     public static Expression arrayContains(Expression expression, Expression value) {
-        return x("ARRAY_CONTAINS(" + expression.toString() + ", " + value.toString() + ")");
+        return function("ARRAY_CONTAINS", expression, value);
     }
 
     /**
@@ -129,7 +130,7 @@ public class ArrayFunctions {
      * Returned expression results in count of all the non-NULL values in the array, or zero if there are no such values.
      */
     public static Expression arrayCount(Expression expression) {
-        return x("ARRAY_COUNT(" + expression.toString() + ")");
+        return function("ARRAY_COUNT", expression);
     }
 
     /**
@@ -150,7 +151,7 @@ public class ArrayFunctions {
      * Returned expression results in new array with distinct elements of input array.
      */
     public static Expression arrayDistinct(Expression expression) {
-        return x("ARRAY_DISTINCT(" + expression.toString() + ")");
+        return function("ARRAY_DISTINCT", expression);
     }
 
     /**
@@ -171,7 +172,7 @@ public class ArrayFunctions {
      * Returned expression results in the first non-NULL value in the array, or NULL.
      */
     public static Expression arrayIfNull(Expression expression) {
-        return x("ARRAY_IFNULL(" + expression.toString() + ")");
+        return function("ARRAY_IFNULL", expression);
     }
 
     /**
@@ -192,7 +193,7 @@ public class ArrayFunctions {
      * Returned expression results in the number of elements in the array.
      */
     public static Expression arrayLength(Expression expression) {
-        return x("ARRAY_LENGTH(" + expression.toString() + ")");
+        return function("ARRAY_LENGTH", expression);
     }
 
     /**
@@ -213,7 +214,7 @@ public class ArrayFunctions {
      * Returned expression results in the largest non-NULL, non-MISSING array element, in N1QL collation order.
      */
     public static Expression arrayMax(Expression expression) {
-        return x("ARRAY_MAX(" + expression.toString() + ")");
+        return function("ARRAY_MAX", expression);
     }
 
     /**
@@ -234,7 +235,7 @@ public class ArrayFunctions {
      * Returned expression results in the smallest non-NULL, non-MISSING array element, in N1QL collation order.
      */
     public static Expression arrayMin(Expression expression) {
-        return x("ARRAY_MIN(" + expression.toString() + ")");
+        return function("ARRAY_MIN", expression);
     }
 
     /**
@@ -256,7 +257,7 @@ public class ArrayFunctions {
      * Array position is zero-based, i.e. the first position is 0.
      */
     public static Expression arrayPosition(Expression expression, Expression value) {
-        return x("ARRAY_POSITION(" + expression.toString() + ", " + value.toString() + ")");
+        return function("ARRAY_POSITION", expression, value);
     }
 
     /**
@@ -279,7 +280,7 @@ public class ArrayFunctions {
      * Returned expression results in the new array with value pre-pended.
      */
     public static Expression arrayPrepend(Expression expression, Expression value) {
-        return x("ARRAY_PREPEND(" + value.toString() + ", " + expression.toString() + ")");
+        return function("ARRAY_PREPEND", value, expression);
     }
 
     /**
@@ -301,7 +302,7 @@ public class ArrayFunctions {
      * otherwise the unmodified input array.
      */
     public static Expression arrayPut(Expression expression, Expression value) {
-        return x("ARRAY_PUT(" + expression.toString() + ", " + value.toString() + ")");
+        return function("ARRAY_PUT", expression, value);
     }
 
     /**
@@ -326,7 +327,7 @@ public class ArrayFunctions {
      * decrements until the smallest number greater than end.
      */
     public static Expression arrayRange(long start, long end, long step) {
-        return x("ARRAY_RANGE(" + start + ", " + end + ", " + step + ")");
+        return function("ARRAY_RANGE", x(start), x(end), x(step));
     }
 
     /**
@@ -334,14 +335,14 @@ public class ArrayFunctions {
      * Successive numbers are incremented by 1.
      */
     public static Expression arrayRange(long start, long end) {
-        return x("ARRAY_RANGE(" + start + ", " + end + ")");
+        return function("ARRAY_RANGE", x(start), x(end));
     }
 
     /**
      * Returned expression results in new array with all occurrences of value removed.
      */
     public static Expression arrayRemove(Expression expression, Expression value) {
-        return x("ARRAY_REMOVE(" + expression.toString() + ", " + value.toString() + ")");
+        return function("ARRAY_REMOVE", expression, value);
     }
 
     /**
@@ -362,7 +363,7 @@ public class ArrayFunctions {
      * Returned expression results in new array with value repeated n times.
      */
     public static Expression arrayRepeat(Expression value, long n) {
-        return x("ARRAY_REPEAT(" + value.toString() + ", " + n + ")");
+        return function("ARRAY_REPEAT", value, x(n));
     }
 
     /**
@@ -391,7 +392,7 @@ public class ArrayFunctions {
      */
 
     public static Expression arrayReplace(Expression expression, Expression value1, Expression value2) {
-        return x("ARRAY_REPLACE(" + expression.toString() + ", " + value1 + ", " + value2 + ")");
+        return function("ARRAY_REPLACE", expression, value1, value2);
     }
 
     /**
@@ -414,7 +415,7 @@ public class ArrayFunctions {
      * Returned expression results in new array with at most n occurrences of value1 replaced with value2.
      */
     public static Expression arrayReplace(Expression expression, Expression value1, Expression value2, long n) {
-        return x("ARRAY_REPLACE(" + expression.toString() + ", " + value1 + ", " + value2 + ", " + n + ")");
+        return function("ARRAY_REPLACE", expression, value1, value2, x(n));
     }
 
     /**
@@ -435,7 +436,7 @@ public class ArrayFunctions {
      * Returned expression results in new array with all elements in reverse order.
      */
     public static Expression arrayReverse(Expression expression) {
-        return x("ARRAY_REVERSE(" + expression.toString() + ")");
+        return function("ARRAY_REVERSE", expression);
     }
 
     /**
@@ -456,7 +457,7 @@ public class ArrayFunctions {
      * Returned expression results in new array with elements sorted in N1QL collation order.
      */
     public static Expression arraySort(Expression expression) {
-        return x("ARRAY_SORT(" + expression.toString() + ")");
+        return function("ARRAY_SORT", expression);
     }
 
     /**
@@ -478,7 +479,7 @@ public class ArrayFunctions {
      * or zero if there are no such values.
      */
     public static Expression arraySum(Expression expression) {
-        return x("ARRAY_SUM(" + expression.toString() + ")");
+        return function("ARRAY_SUM", expression);
     }
 
     /**
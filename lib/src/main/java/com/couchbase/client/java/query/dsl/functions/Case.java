@@ -22,6 +22,7 @@ import com.couchbase.client.java.query.dsl.Expression;
 import java.util.ArrayList;
 import java.util.List;
 
+import static com.couchbase.client.java.query.dsl.Expression.join;
 import static com.couchbase.client.java.query.dsl.Expression.x;
 
 /**
@@ -128,24 +129,23 @@ public class Case {
 
         @Override
         public Expression end() {
-            StringBuilder result = new StringBuilder("CASE ");
+            List<Expression> parts = new ArrayList<Expression>(4 * count + 4);
+            parts.add(x("CASE"));
             if (caseExpression != null) {
-                result.append(caseExpression.toString()).append(' ');
+                parts.add(caseExpression);
             }
             for (int i = 0; i < count; i++) {
-                result.append("WHEN ")
-                    .append(whens.get(i))
-                    .append(" THEN ")
-                    .append(thens.get(i))
-                    .append(' ');
+                parts.add(x("WHEN"));
+                parts.add(whens.get(i));
+                parts.add(x("THEN"));
+                parts.add(thens.get(i));
             }
-            result.delete(result.length() - 1, result.length());
             if (elseResult != null) {
-                result.append(" ELSE ")
-                        .append(elseResult.toString());
+                parts.add(x("ELSE"));
+                parts.add(elseResult);
             }
-            result.append(" END");
-            return x(result.toString());
+            parts.add(x("END"));
+            return join(" ", parts.toArray(new Expression[parts.size()]));
         }
     }
 }
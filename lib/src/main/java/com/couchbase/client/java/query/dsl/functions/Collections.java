@@ -22,6 +22,7 @@ import com.couchbase.client.java.query.dsl.Expression;
 import java.util.ArrayList;
 import java.util.List;
 
+import static com.couchbase.client.java.query.dsl.Expression.join;
 import static com.couchbase.client.java.query.dsl.Expression.x;
 
 /**
@@ -54,7 +55,7 @@ public class Collections {
          * Add an in-expression to the clause (a variable name and its associated expression)
          */
         protected CollectionBuilder in(String variable, Expression expression) {
-            variables.add(x(variable + " IN " + expression.toString()));
+            variables.add(join(" IN ", x(variable), expression));
             return this;
         }
 
@@ -62,7 +63,7 @@ public class Collections {
          * Add a within-expression to the clause (a variable name and its associated expression)
          */
         protected CollectionBuilder within(String variable, Expression expression) {
-            variables.add(x(variable + " WITHIN " + expression.toString()));
+            variables.add(join(" WITHIN ", x(variable), expression));
             return this;
         }
 
@@ -74,19 +75,11 @@ public class Collections {
         }
 
         protected final Expression end(String conditionKeyword, Expression condition) {
-            StringBuilder sb = new StringBuilder(prefix.toString()).append(' ');
-            for (Expression variable : variables) {
-                sb.append(variable).append(", ");
-            }
-            if (!variables.isEmpty()) {
-                sb.delete(sb.length() - 2, sb.length());
-            }
+            Expression ranges = join(", ", variables.toArray(new Expression[variables.size()]));
             if (condition != null && conditionKeyword != null) {
-                sb.append(' ').append(conditionKeyword.trim()).append(' ');
-                sb.append(condition.toString());
+                return join(" ", prefix, ranges, x(conditionKeyword.trim()), condition, x("END"));
             }
-            sb.append(" END");
-            return x(sb.toString());
+            return join(" ", prefix, ranges, x("END"));
         }
 
     }
@@ -224,7 +217,7 @@ public class Collections {
      * For elements, IN ranges in the direct elements of its array expression, WITHIN also ranges in its descendants.
      */
     public static WhenBuilder arrayIn(Expression arrayExpression, String variable, Expression expression) {
-        return new WhenBuilder(x("ARRAY " + arrayExpression.toString() + " FOR"),
+        return new WhenBuilder(join(" ", x("ARRAY"), arrayExpression, x("FOR")),
                 variable, expression, true);
     }
 
@@ -237,7 +230,7 @@ public class Collections {
      * For elements, IN ranges in the direct elements of its array expression, WITHIN also ranges in its descendants.
      */
     public static WhenBuilder arrayWithin(Expression arrayExpression, String variable, Expression expression) {
-        return new WhenBuilder(x("ARRAY " + arrayExpression.toString() + " FOR"),
+        return new WhenBuilder(join(" ", x("ARRAY"), arrayExpression, x("FOR")),
                 variable, expression, false);
     }
 
@@ -250,7 +243,7 @@ public class Collections {
      * For each variable, IN ranges in the direct elements of its array expression, WITHIN also ranges in its descendants.
      */
     public static WhenBuilder firstIn(Expression arrayExpression, String variable, Expression expression) {
-        return new WhenBuilder(x("FIRST " + arrayExpression.toString() + " FOR"),
+        return new WhenBuilder(join(" ", x("FIRST"), arrayExpression, x("FOR")),
                 variable, expression, true);
     }
 
@@ -263,7 +256,7 @@ public class Collections {
      * For each variable, IN ranges in the direct elements of its array expression, WITHIN also ranges in its descendants.
      */
     public static WhenBuilder firstWithin(Expression arrayExpression, String variable, Expression expression) {
-        return new WhenBuilder(x("FIRST " + arrayExpression.toString() + " FOR"),
+        return new WhenBuilder(join(" ", x("FIRST"), arrayExpression, x("FOR")),
                 variable, expression, false);
     }
 
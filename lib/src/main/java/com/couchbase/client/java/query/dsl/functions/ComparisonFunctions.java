@@ -19,7 +19,6 @@ package com.couchbase.client.java.query.dsl.functions;
 
 import com.couchbase.client.java.query.dsl.Expression;
 
-import static com.couchbase.client.java.query.dsl.Expression.x;
 
 /**
  * DSL for N1QL functions in the Comparison category.
@@ -39,20 +38,7 @@ public class ComparisonFunctions {
      * of the same type, otherwise NULL. At least two expressions are necessary.
      */
     public static Expression greatest(Expression e1, Expression e2, Expression... otherExpressions) {
-        StringBuilder greatest = new StringBuilder("GREATEST(");
-        greatest.append(e1.toString()).append(", ").append(e2.toString());
-        if (otherExpressions == null) {
-            return x(greatest.append(')').toString());
-        }
-
-        for (Expression otherExpression : otherExpressions) {
-            if (otherExpression == null) {
-                otherExpression = Expression.NULL();
-            }
-            greatest.append(", ").append(otherExpression.toString());
-        }
-        greatest.append(')');
-        return x(greatest.toString());
+        return ConditionalFunctions.build("GREATEST", e1, e2, otherExpressions);
     }
 
     /**
@@ -60,19 +46,6 @@ public class ComparisonFunctions {
      * if the values are of the same type, otherwise NULL. At least two expressions are necessary.
      */
     public static Expression least(Expression e1, Expression e2, Expression... otherExpressions) {
-        StringBuilder least = new StringBuilder("LEAST(");
-        least.append(e1.toString()).append(", ").append(e2.toString());
-        if (otherExpressions == null) {
-            return x(least.append(')').toString());
-        }
-
-        for (Expression otherExpression : otherExpressions) {
-            if (otherExpression == null) {
-                otherExpression = Expression.NULL();
-            }
-            least.append(", ").append(otherExpression.toString());
-        }
-        least.append(')');
-        return x(least.toString());
+        return ConditionalFunctions.build("LEAST", e1, e2, otherExpressions);
     }
 }
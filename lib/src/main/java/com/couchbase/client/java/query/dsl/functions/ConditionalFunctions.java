@@ -19,7 +19,7 @@ package com.couchbase.client.java.query.dsl.functions;
 
 import com.couchbase.client.java.query.dsl.Expression;
 
-import static com.couchbase.client.java.query.dsl.Expression.x;
+import static com.couchbase.client.java.query.dsl.Expression.function;
 
 /**
  * DSL for N1QL Conditional functions (for unknowns and numbers).
@@ -38,18 +38,15 @@ public class ConditionalFunctions {
 
     protected static Expression build(String operator, Expression expression1, Expression expression2,
             Expression... others) {
-        StringBuilder result = new StringBuilder(operator);
-        result.append('(').append(expression1.toString()).append(", ").append(expression2.toString());
-        if (others != null) {
-            for (Expression other : others) {
-                if (other == null) {
-                    other = Expression.NULL();
-                }
-                result.append(", ").append(other.toString());
-            }
+        int count = others == null ? 2 : others.length + 2;
+        Expression[] arguments = new Expression[count];
+        arguments[0] = expression1;
+        arguments[1] = expression2;
+        for (int i = 2; i < count; i++) {
+            Expression other = others[i - 2];
+            arguments[i] = other == null ? Expression.NULL() : other;
         }
-        result.append(')');
-        return x(result.toString());
+        return function(operator, arguments);
     }
 
     //===== FOR UNKNOWNS =====
@@ -81,7 +78,7 @@ public class ConditionalFunctions {
      * Returns MISSING or NULL if either input is MISSING or NULL..
      */
     public static Expression missingIf(Expression expression1, Expression expression2) {
-        return x("MISSINGIF(" + expression1.toString() + ", " + expression2.toString() + ")");
+        return function("MISSINGIF", expression1, expression2);
     }
 
     /**
@@ -89,7 +86,7 @@ public class ConditionalFunctions {
      * Returns MISSING or NULL if either input is MISSING or NULL..
      */
     public static Expression nullIf(Expression expression1, Expression expression2) {
-        return x("NULLIF(" + expression1.toString() + ", " + expression2.toString() + ")");
+        return function("NULLIF", expression1, expression2);
     }
 
     //===== FOR NUMBERS =====
@@ -122,7 +119,7 @@ public class ConditionalFunctions {
      * Returns MISSING or NULL if either input is MISSING or NULL.
      */
     public static Expression nanIf(Expression expression1, Expression expression2) {
-        return x("NANIF(" + expression1.toString() + ", " + expression2.toString() + ")");
+        return function("NANIF", expression1, expression2);
     }
 
     /**
@@ -130,7 +127,7 @@ public class ConditionalFunctions {
      * Returns MISSING or NULL if either input is MISSING or NULL.
      */
     public static Expression negInfIf(Expression expression1, Expression expression2) {
-        return x("NEGINFIF(" + expression1.toString() + ", " + expression2.toString() + ")");
+        return function("NEGINFIF", expression1, expression2);
     }
 
     /**
@@ -138,6 +135,6 @@ public class ConditionalFunctions {
      * Returns MISSING or NULL if either input is MISSING or NULL.
      */
     public static Expression posInfIf(Expression expression1, Expression expression2) {
-        return x("POSINFIF(" + expression1.toString() + ", " + expression2.toString() + ")");
+        return function("POSINFIF", expression1, expression2);
     }
 }
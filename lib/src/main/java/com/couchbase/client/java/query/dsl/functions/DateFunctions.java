@@ -19,6 +19,8 @@ package com.couchbase.client.java.query.dsl.functions;
 
 import com.couchbase.client.java.query.dsl.Expression;
 
+import static com.couchbase.client.java.query.dsl.Expression.function;
+import static com.couchbase.client.java.query.dsl.Expression.s;
 import static com.couchbase.client.java.query.dsl.Expression.x;
 
 /**
@@ -37,7 +39,7 @@ public class DateFunctions {
      * Varies during a query.
      */
     public static Expression clockMillis() {
-        return x("CLOCK_MILLIS()");
+        return function("CLOCK_MILLIS");
     }
 
     /**
@@ -60,9 +62,9 @@ public class DateFunctions {
      */
     public static Expression clockStr(String format) {
         if (format == null || format.isEmpty()) {
-            return x("CLOCK_STR()");
+            return function("CLOCK_STR");
         }
-        return x("CLOCK_STR(\"" + format + "\")");
+        return function("CLOCK_STR", s(format));
     }
 
     /**
@@ -71,7 +73,7 @@ public class DateFunctions {
      * returning the result.
      */
     public static Expression dateAddMillis(Expression expression, int n, DatePart part) {
-        return x("DATE_ADD_MILLIS(" + expression.toString() + ", " + n + ", \"" + part + "\")");
+        return function("DATE_ADD_MILLIS", expression, x(n), s(part.toString()));
     }
 
     /**
@@ -88,7 +90,7 @@ public class DateFunctions {
      * which is then added (or subtracted) to the date string in a supported format, returning the result.
      */
     public static Expression dateAddStr(Expression expression, int n, DatePart part) {
-        return x("DATE_ADD_STR(" + expression.toString() + ", " + n + ", \"" + part + "\")");
+        return function("DATE_ADD_STR", expression, x(n), s(part.toString()));
     }
 
     /**
@@ -104,8 +106,7 @@ public class DateFunctions {
      * Returns the elapsed time between two UNIX timestamps as an integer whose unit is part.
      */
     public static Expression dateDiffMillis(Expression expression1, Expression expression2, DatePart part) {
-        return x("DATE_DIFF_MILLIS(" + expression1.toString() + ", " + expression2.toString()
-                + ", \"" + part.toString() + "\")");
+        return function("DATE_DIFF_MILLIS", expression1, expression2, s(part.toString()));
     }
 
     /**
@@ -121,8 +122,7 @@ public class DateFunctions {
      * Returns the elapsed time between two date strings in a supported format, as an integer whose unit is part.
      */
     public static Expression dateDiffStr(Expression expression1, Expression expression2, DatePart part) {
-        return x("DATE_DIFF_STR(" + expression1.toString() + ", " + expression2.toString()
-                + ", \"" + part.toString() + "\")");
+        return function("DATE_DIFF_STR", expression1, expression2, s(part.toString()));
     }
 
     /**
@@ -138,7 +138,7 @@ public class DateFunctions {
      * The date expression is a number representing UNIX milliseconds, and part is a {@link DatePartExt}.
      */
     public static Expression datePartMillis(Expression expression, DatePartExt part) {
-        return x("DATE_PART_MILLIS(" + expression.toString() + ", \"" + part.toString() + "\")");
+        return function("DATE_PART_MILLIS", expression, s(part.toString()));
     }
 
     /**
@@ -154,7 +154,7 @@ public class DateFunctions {
      * The date expression is a string in a supported format, and part is one of the supported date part strings.
      */
     public static Expression datePartStr(Expression expression, DatePartExt part) {
-        return x("DATE_PART_STR(" + expression.toString() + ", \"" + part.toString() + "\")");
+        return function("DATE_PART_STR", expression, s(part.toString()));
     }
 
     /**
@@ -170,7 +170,7 @@ public class DateFunctions {
      * is the least significant.
      */
     public static Expression dateTruncMillis(Expression expression, DatePart part) {
-        return x("DATE_TRUNC_MILLIS(" + expression.toString() + ", \"" + part.toString() + "\")");
+        return function("DATE_TRUNC_MILLIS", expression, s(part.toString()));
     }
 
     /**
@@ -186,7 +186,7 @@ public class DateFunctions {
      * so that the given date part is the least significant.
      */
     public static Expression dateTruncStr(Expression expression, DatePart part) {
-        return x("DATE_TRUNC_STR(" + expression.toString() + ", \"" + part.toString() + "\")");
+        return function("DATE_TRUNC_STR", expression, s(part.toString()));
     }
 
     /**
@@ -201,7 +201,7 @@ public class DateFunctions {
      * Returned expression results in date that has been converted in a supported format to UNIX milliseconds.
      */
     public static Expression millis(Expression expression) {
-        return x("MILLIS(" + expression.toString() + ")");
+        return function("MILLIS", expression);
     }
 
     /**
@@ -215,7 +215,7 @@ public class DateFunctions {
      * Returned expression results in date that has been converted in a supported format to UNIX milliseconds.
      */
     public static Expression strToMillis(Expression expression) {
-        return x("STR_TO_MILLIS(" + expression.toString() + ")");
+        return function("STR_TO_MILLIS", expression);
     }
 
     /**
@@ -231,9 +231,9 @@ public class DateFunctions {
      */
     public static Expression millisToStr(Expression expression, String format) {
         if (format == null || format.isEmpty()) {
-            return x("MILLIS_TO_STR(" + expression.toString() + ")");
+            return function("MILLIS_TO_STR", expression);
         }
-        return x("MILLIS_TO_STR(" + expression.toString() + ", \"" + format + "\")");
+        return function("MILLIS_TO_STR", expression, s(format));
     }
 
     /**
@@ -250,9 +250,9 @@ public class DateFunctions {
      */
     public static Expression millisToUtc(Expression expression, String format) {
         if (format == null || format.isEmpty()) {
-            return x("MILLIS_TO_UTC(" + expression.toString() + ")");
+            return function("MILLIS_TO_UTC", expression);
         }
-        return x("MILLIS_TO_UTC(" + expression.toString() + ", \"" + format + "\")");
+        return function("MILLIS_TO_UTC", expression, s(format));
     }
 
     /**
@@ -268,10 +268,9 @@ public class DateFunctions {
      */
     public static Expression millisToZone(Expression expression, String timeZoneName, String format) {
         if (format == null || format.isEmpty()) {
-            return x("MILLIS_TO_ZONE(" + expression.toString() + ", \"" + timeZoneName + "\")");
+            return function("MILLIS_TO_ZONE", expression, s(timeZoneName));
         }
-        return x("MILLIS_TO_ZONE(" + expression.toString() + ", \"" + timeZoneName + "\"" +
-                ", \"" + format + "\")");
+        return function("MILLIS_TO_ZONE", expression, s(timeZoneName), s(format));
     }
 
     /**
@@ -285,7 +284,7 @@ public class DateFunctions {
      * Returned expression results in statement time stamp as UNIX milliseconds; does not vary during a query.
      */
     public static Expression nowMillis() {
-        return x("NOW_MILLIS()");
+        return function("NOW_MILLIS");
     }
 
     /**
@@ -294,16 +293,16 @@ public class DateFunctions {
      */
     public static Expression nowStr(String format) {
         if (format == null || format.isEmpty()) {
-            return x("NOW_STR()");
+            return function("NOW_STR");
         }
-        return x("NOW_STR(\"" + format + "\")");
+        return function("NOW_STR", s(format));
     }
 
     /**
      * Returned expression results in a conversion of the ISO 8601 time stamp to UTC.
      */
     public static Expression strToUtc(Expression expression) {
-        return x("STR_TO_UTC(" + expression.toString() + ")");
+        return function("STR_TO_UTC", expression);
     }
 
     /**
@@ -316,7 +315,7 @@ public class DateFunctions {
      * Returned expression results in a conversion of the supported time stamp string to the named time zone.
      */
     public static Expression strToZoneName(Expression expression, String zoneName) {
-        return x("STR_TO_ZONE_NAME(" + expression.toString() + ", \"" + zoneName + "\")");
+        return function("STR_TO_ZONE_NAME", expression, s(zoneName));
     }
 
     /**
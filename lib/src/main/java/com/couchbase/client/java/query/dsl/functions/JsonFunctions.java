@@ -21,6 +21,8 @@ import com.couchbase.client.java.json.JacksonTransformers;
 import com.couchbase.client.java.json.JsonObject;
 import com.couchbase.client.java.query.dsl.Expression;
 
+import static com.couchbase.client.java.query.dsl.Expression.function;
+import static com.couchbase.client.java.query.dsl.Expression.s;
 import static com.couchbase.client.java.query.dsl.Expression.x;
 
 /**
@@ -40,7 +42,7 @@ public class JsonFunctions {
      * into a N1QL value. The empty string results in MISSING.
      */
     public static Expression decodeJson(Expression expression) {
-        return x("DECODE_JSON(" + expression.toString() + ")");
+        return function("DECODE_JSON", expression);
     }
 
     /**
@@ -49,7 +51,7 @@ public class JsonFunctions {
      */
     public static Expression decodeJson(JsonObject json) {
         char[] encoded = JsonStringEncoder.getInstance().quoteAsString(json.toString());
-        return x("DECODE_JSON(\"" + new String(encoded) + "\")");
+        return function("DECODE_JSON", s(new String(encoded)));
     }
 
     /**
@@ -72,7 +74,7 @@ public class JsonFunctions {
      * Returned expression marshals the N1QL value into a JSON-encoded string. MISSING becomes the empty string.
      */
     public static Expression encodeJson(Expression expression) {
-        return x("ENCODE_JSON(" + expression.toString() + ")");
+        return function("ENCODE_JSON", expression);
     }
 
     /**
@@ -88,7 +90,7 @@ public class JsonFunctions {
      * Returns 0 for MISSING.
      */
     public static Expression encodedSize(Expression expression) {
-        return x("ENCODED_SIZE(" + expression.toString() + ")");
+        return function("ENCODED_SIZE", expression);
     }
 
     /**
@@ -112,7 +114,7 @@ public class JsonFunctions {
      *  - Any other value: NULL.
      */
     public static Expression polyLength(Expression expression) {
-        return x("POLY_LENGTH(" + expression.toString() + ")");
+        return function("POLY_LENGTH", expression);
     }
 
     /**
@@ -19,6 +19,7 @@ package com.couchbase.client.java.query.dsl.functions;
 
 import com.couchbase.client.java.query.dsl.Expression;
 
+import static com.couchbase.client.java.query.dsl.Expression.function;
 import static com.couchbase.client.java.query.dsl.Expression.x;
 
 /**
@@ -38,7 +39,7 @@ public class MetaFunctions {
      * @return metadata for the document expression
      */
     public static Expression meta(Expression expression) {
-        return x("META(" + expression.toString() + ")");
+        return function("META", expression);
     }
 
     /**
@@ -52,7 +53,7 @@ public class MetaFunctions {
      * @return Base64 encoding of the expression, on the server side
      */
     public static Expression base64(Expression expression) {
-        return x("BASE64(" + expression + ")");
+        return function("BASE64", expression);
     }
 
     /**
@@ -66,6 +67,6 @@ public class MetaFunctions {
      * @return a version 4 Universally Unique Identifier(UUID), generated on the server side
      */
     public static Expression uuid() {
-        return x("UUID()");
+        return function("UUID");
     }
 }
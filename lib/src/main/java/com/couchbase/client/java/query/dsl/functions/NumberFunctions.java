@@ -19,6 +19,7 @@ package com.couchbase.client.java.query.dsl.functions;
 
 import com.couchbase.client.java.query.dsl.Expression;
 
+import static com.couchbase.client.java.query.dsl.Expression.function;
 import static com.couchbase.client.java.query.dsl.Expression.x;
 
 /**
@@ -39,7 +40,7 @@ public class NumberFunctions {
      * Returned expression results in the absolute value of the number.
      */
     public static Expression abs(Expression expression) {
-        return x("ABS(" + expression.toString() + ")");
+        return function("ABS", expression);
     }
 
     /**
@@ -53,7 +54,7 @@ public class NumberFunctions {
      * Returned expression results in the arccosine in radians.
      */
     public static Expression acos(Expression expression) {
-        return x("ACOS(" + expression.toString() + ")");
+        return function("ACOS", expression);
     }
 
     /**
@@ -67,7 +68,7 @@ public class NumberFunctions {
      * Returned expression results in the arcsine in radians.
      */
     public static Expression asin(Expression expression) {
-        return x("ASIN(" + expression.toString() + ")");
+        return function("ASIN", expression);
     }
 
     /**
@@ -81,7 +82,7 @@ public class NumberFunctions {
      * Returned expression results in the arctangent in radians.
      */
     public static Expression atan(Expression expression) {
-        return x("ATAN(" + expression.toString() + ")");
+        return function("ATAN", expression);
     }
 
     /**
@@ -95,7 +96,7 @@ public class NumberFunctions {
      * Returned expression results in the arctangent of expression2/expression1.
      */
     public static Expression atan(Expression expression1, Expression expression2) {
-        return x("ATAN(" + expression1.toString() + ", " + expression2.toString() + ")");
+        return function("ATAN", expression1, expression2);
     }
 
     /**
@@ -109,7 +110,7 @@ public class NumberFunctions {
      * Returned expression results in the smallest integer not less than the number.
      */
     public static Expression ceil(Expression expression) {
-        return x("CEIL(" + expression.toString() + ")");
+        return function("CEIL", expression);
     }
 
     /**
@@ -123,7 +124,7 @@ public class NumberFunctions {
      * Returned expression results in the cosine.
      */
     public static Expression cos(Expression expression) {
-        return x("COS(" + expression.toString() + ")");
+        return function("COS", expression);
     }
 
     /**
@@ -137,7 +138,7 @@ public class NumberFunctions {
      * Returned expression results in the conversion of radians to degrees.
      */
     public static Expression degrees(Expression expression) {
-        return x("DEGREES(" + expression.toString() + ")");
+        return function("DEGREES", expression);
     }
 
     /**
@@ -151,14 +152,14 @@ public class NumberFunctions {
      * Returned expression results in the base of natural logarithms.
      */
     public static Expression e() {
-        return x("E()");
+        return function("E");
     }
 
     /**
      * Returned expression results in the exponential of expression.
      */
     public static Expression exp(Expression expression) {
-        return x("EXP(" + expression.toString() + ")");
+        return function("EXP", expression);
     }
 
     /**
@@ -172,7 +173,7 @@ public class NumberFunctions {
      * Returned expression results in the log base e.
      */
     public static Expression ln(Expression expression) {
-        return x("LN(" + expression.toString() + ")");
+        return function("LN", expression);
     }
 
     /**
@@ -186,7 +187,7 @@ public class NumberFunctions {
      * Returned expression results in the log base 10.
      */
     public static Expression log(Expression expression) {
-        return x("LOG(" + expression.toString() + ")");
+        return function("LOG", expression);
     }
 
     /**
@@ -200,7 +201,7 @@ public class NumberFunctions {
      * Returned expression results in the largest integer not greater than the number.
      */
     public static Expression floor(Expression expression) {
-        return x("FLOOR(" + expression.toString() + ")");
+        return function("FLOOR", expression);
     }
 
     /**
@@ -214,14 +215,14 @@ public class NumberFunctions {
      * Returned expression results in Pi.
      */
     public static Expression pi() {
-        return x("PI()");
+        return function("PI");
     }
 
     /**
      * Returned expression results in expression1 to the power of expression2.
      */
     public static Expression power(Expression expression1, Expression expression2) {
-        return x("POWER(" + expression1.toString() + ", " + expression2.toString() + ")");
+        return function("POWER", expression1, expression2);
     }
 
     /**
@@ -235,7 +236,7 @@ public class NumberFunctions {
      * Returned expression results in the conversion of degrees to radians.
      */
     public static Expression radians(Expression expression) {
-        return x("RADIANS(" + expression.toString() + ")");
+        return function("RADIANS", expression);
     }
 
     /**
@@ -249,7 +250,7 @@ public class NumberFunctions {
      * Returned expression results in a pseudo-random number with optional seed.
      */
     public static Expression random(Expression seed) {
-        return x("RANDOM(" + seed.toString() + ")");
+        return function("RANDOM", seed);
     }
 
     /**
@@ -263,14 +264,14 @@ public class NumberFunctions {
      * Returned expression results in a pseudo-random number with default seed.
      */
     public static Expression random() {
-        return x("RANDOM()");
+        return function("RANDOM");
     }
 
     /**
      * Returned expression results in the value rounded to 0 digits to the right of the decimal point.
      */
     public static Expression round(Expression expression) {
-        return x("ROUND(" + expression.toString() + ")");
+        return function("ROUND", expression);
     }
 
     /**
@@ -278,7 +279,7 @@ public class NumberFunctions {
      * of the decimal point (left if digits is negative).
      */
     public static Expression round(Expression expression, int digits) {
-        return x("ROUND(" + expression.toString() + ", " + digits + ")");
+        return function("ROUND", expression, x(digits));
     }
 
     /**
@@ -301,7 +302,7 @@ public class NumberFunctions {
      * represented as -1, 0, or 1 for negative, zero, or positive numbers respectively.
      */
     public static Expression sign(Expression expression) {
-        return x("SIGN(" + expression.toString() + ")");
+        return function("SIGN", expression);
     }
 
     /**
@@ -316,7 +317,7 @@ public class NumberFunctions {
      * Returned expression results in the sine.
      */
     public static Expression sin(Expression expression) {
-        return x("SIN(" + expression.toString() + ")");
+        return function("SIN", expression);
     }
 
     /**
@@ -330,7 +331,7 @@ public class NumberFunctions {
      * Returned expression results in the square root.
      */
     public static Expression squareRoot(Expression expression) {
-        return x("SQRT(" + expression.toString() + ")");
+        return function("SQRT", expression);
     }
 
     /**
@@ -344,7 +345,7 @@ public class NumberFunctions {
      * Returned expression results in the tangent.
      */
     public static Expression tan(Expression expression) {
-        return x("TAN(" + expression.toString() + ")");
+        return function("TAN", expression);
     }
 
     /**
@@ -359,7 +360,7 @@ public class NumberFunctions {
      * to the right of the decimal point (left if digits is negative).
      */
     public static Expression trunc(Expression expression, int digits) {
-        return x("TRUNC(" + expression.toString() + ", " + digits + ")");
+        return function("TRUNC", expression, x(digits));
     }
 
     /**
@@ -374,7 +375,7 @@ public class NumberFunctions {
      * Returned expression results in a truncation of the number to 0 digits to the right of the decimal point.
      */
     public static Expression trunc(Expression expression) {
-        return x("TRUNC(" + expression.toString() + ")");
+        return function("TRUNC", expression);
     }
 
     /**
@@ -20,6 +20,7 @@ package com.couchbase.client.java.query.dsl.functions;
 import com.couchbase.client.java.json.JsonObject;
 import com.couchbase.client.java.query.dsl.Expression;
 
+import static com.couchbase.client.java.query.dsl.Expression.function;
 import static com.couchbase.client.java.query.dsl.Expression.x;
 
 /**
@@ -38,7 +39,7 @@ public class ObjectFunctions {
      * Returned expression results in the number of name-value pairs in the object.
      */
     public static Expression objectLength(Expression expression) {
-        return x("OBJECT_LENGTH(" + expression.toString() + ")");
+        return function("OBJECT_LENGTH", expression);
     }
 
     /**
@@ -59,7 +60,7 @@ public class ObjectFunctions {
      * Returned expression results in an array containing the attribute names of the object, in N1QL collation order.
      */
     public static Expression objectNames(Expression expression) {
-        return x("OBJECT_NAMES(" + expression.toString() + ")");
+        return function("OBJECT_NAMES", expression);
     }
 
     /**
@@ -81,7 +82,7 @@ public class ObjectFunctions {
      * in N1QL collation order of the names.
      */
     public static Expression objectPairs(Expression expression) {
-        return x("OBJECT_PAIRS(" + expression.toString() + ")");
+        return function("OBJECT_PAIRS", expression);
     }
 
     /**
@@ -105,7 +106,7 @@ public class ObjectFunctions {
      * in N1QL collation order of the corresponding names.
      */
     public static Expression objectValues(Expression expression) {
-        return x("OBJECT_VALUES(" + expression.toString() + ")");
+        return function("OBJECT_VALUES", expression);
     }
 
     /**
@@ -19,6 +19,8 @@ package com.couchbase.client.java.query.dsl.functions;
 
 import com.couchbase.client.java.query.dsl.Expression;
 
+import static com.couchbase.client.java.query.dsl.Expression.function;
+import static com.couchbase.client.java.query.dsl.Expression.s;
 import static com.couchbase.client.java.query.dsl.Expression.x;
 
 /**
@@ -40,7 +42,7 @@ public class PatternMatchingFunctions {
      * Returned expression results in True if the string value contains the regular expression pattern.
      */
     public static Expression regexpContains(Expression expression, String pattern) {
-        return x("REGEXP_CONTAINS(" + expression.toString() + ", \"" + pattern + "\")");
+        return function("REGEXP_CONTAINS", expression, s(pattern));
     }
 
     /**
@@ -54,7 +56,7 @@ public class PatternMatchingFunctions {
      * Returned expression results in True if the string value matches the regular expression pattern
      */
     public static Expression regexpLike(Expression expression, String pattern) {
-        return x("REGEXP_LIKE(" + expression.toString() + ", \"" + pattern + "\")");
+        return function("REGEXP_LIKE", expression, s(pattern));
     }
 
     /**
@@ -68,7 +70,7 @@ public class PatternMatchingFunctions {
      * Returned expression results in the first position of the regular expression pattern within the string, or -1.
      */
     public static Expression regexpPosition(Expression expression, String pattern) {
-        return x("REGEXP_POSITION(" + expression.toString() + ", \"" + pattern + "\")");
+        return function("REGEXP_POSITION", expression, s(pattern));
     }
 
     /**
@@ -83,7 +85,7 @@ public class PatternMatchingFunctions {
      * At most n replacements are performed.
      */
     public static Expression regexpReplace(Expression expression, String pattern, String repl, int n) {
-        return x("REGEXP_REPLACE(" + expression.toString() + ", \"" + pattern + "\", \"" + repl + "\", " + n + ")");
+        return function("REGEXP_REPLACE", expression, s(pattern), s(repl), x(n));
     }
 
     /**
@@ -98,7 +100,7 @@ public class PatternMatchingFunctions {
      * Returned expression results in a new string with all occurrences of pattern replaced with repl.
      */
     public static Expression regexpReplace(Expression expression, String pattern, String repl) {
-        return x("REGEXP_REPLACE(" + expression.toString() + ", \"" + pattern + "\", \"" + repl + "\")");
+        return function("REGEXP_REPLACE", expression, s(pattern), s(repl));
     }
 
     /**
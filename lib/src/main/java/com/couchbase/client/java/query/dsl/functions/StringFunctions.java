@@ -19,6 +19,8 @@ package com.couchbase.client.java.query.dsl.functions;
 
 import com.couchbase.client.java.query.dsl.Expression;
 
+import static com.couchbase.client.java.query.dsl.Expression.function;
+import static com.couchbase.client.java.query.dsl.Expression.s;
 import static com.couchbase.client.java.query.dsl.Expression.x;
 
 /**
@@ -39,7 +41,7 @@ public class StringFunctions {
      * Returned expression results in True if the string expression contains the substring.
      */
     public static Expression contains(Expression expression, String substring) {
-        return x("CONTAINS(" + expression.toString() + ", \"" + substring + "\")");
+        return function("CONTAINS", expression, s(substring));
     }
 
     /**
@@ -54,7 +56,7 @@ public class StringFunctions {
      * of each word is uppercase and every other letter is lowercase.
      */
     public static Expression initCap(Expression expression) {
-        return x("INITCAP(" + expression.toString() + ")");
+        return function("INITCAP", expression);
     }
 
     /**
@@ -70,7 +72,7 @@ public class StringFunctions {
      * of each word is uppercase and every other letter is lowercase.
      */
     public static Expression title(Expression expression) {
-        return x("TITLE(" + expression.toString() + ")");
+        return function("TITLE", expression);
     }
 
     /**
@@ -85,7 +87,7 @@ public class StringFunctions {
      * Returned expression results in the length of the string expression.
      */
     public static Expression length(Expression expression) {
-        return x("LENGTH(" + expression.toString() + ")");
+        return function("LENGTH", expression);
     }
 
     /**
@@ -99,7 +101,7 @@ public class StringFunctions {
      * Returned expression results in the given string expression in lowercase
      */
     public static Expression lower(Expression expression) {
-        return x("LOWER(" + expression.toString() + ")");
+        return function("LOWER", expression);
     }
 
     /**
@@ -113,7 +115,7 @@ public class StringFunctions {
      * Returned expression results in the string with all leading white spaces removed.
      */
     public static Expression ltrim(Expression expression) {
-        return x("LTRIM(" + expression.toString() + ")");
+        return function("LTRIM", expression);
     }
 
     /**
@@ -127,7 +129,7 @@ public class StringFunctions {
      * Returned expression results in the string with all leading chars removed (any char in the characters string).
      */
     public static Expression ltrim(Expression expression, String characters) {
-        return x("LTRIM(" + expression.toString() + ", \"" + characters + "\")");
+        return function("LTRIM", expression, s(characters));
     }
 
     /**
@@ -142,7 +144,7 @@ public class StringFunctions {
      * The position is zero-based, i.e., the first position is 0.
      */
     public static Expression position(Expression expression, String substring) {
-        return x("POSITION(" + expression.toString() + ", \"" + substring + "\")");
+        return function("POSITION", expression, s(substring));
     }
 
     /**
@@ -157,7 +159,7 @@ public class StringFunctions {
      * Returned expression results in the string formed by repeating expression n times.
      */
     public static Expression repeat(Expression expression, int n) {
-        return x("REPEAT(" + expression.toString() + ", " + n + ")");
+        return function("REPEAT", expression, x(n));
     }
 
     /**
@@ -172,7 +174,7 @@ public class StringFunctions {
      * Returned expression results in a string with all occurrences of substr replaced with repl.
      */
     public static Expression replace(Expression expression, String substring, String repl) {
-        return x("REPLACE(" + expression.toString() + ", \"" + substring + "\", \"" + repl + "\")");
+        return function("REPLACE", expression, s(substring), s(repl));
     }
 
     /**
@@ -186,7 +188,7 @@ public class StringFunctions {
      * Returned expression results in a string with at most n occurrences of substr replaced with repl.
      */
     public static Expression replace(Expression expression, String substring, String repl, int n) {
-        return x("REPLACE(" + expression.toString() + ", \"" + substring + "\", \"" + repl + "\", " + n + ")");
+        return function("REPLACE", expression, s(substring), s(repl), x(n));
     }
 
     /**
@@ -200,7 +202,7 @@ public class StringFunctions {
      * Returned expression results in the string with all trailing white spaces removed.
      */
     public static Expression rtrim(Expression expression) {
-        return x("RTRIM(" + expression.toString() + ")");
+        return function("RTRIM", expression);
     }
 
     /**
@@ -214,7 +216,7 @@ public class StringFunctions {
      * Returned expression results in the string with all trailing chars removed (any char in the characters string).
      */
     public static Expression rtrim(Expression expression, String characters) {
-        return x("RTRIM(" + expression.toString() + ", \"" + characters + "\")");
+        return function("RTRIM", expression, s(characters));
     }
 
     /**
@@ -229,7 +231,7 @@ public class StringFunctions {
      * separated by any combination of white space characters.
      */
     public static Expression split(Expression expression) {
-        return x("SPLIT(" + expression.toString() + ")");
+        return function("SPLIT", expression);
     }
 
     /**
@@ -244,7 +246,7 @@ public class StringFunctions {
      * Returned expression results in a split of the string into an array of substrings separated by sep.
      */
     public static Expression split(Expression expression, String sep) {
-        return x("SPLIT(" + expression.toString() + ", \"" + sep + "\")");
+        return function("SPLIT", expression, s(sep));
     }
 
     /**
@@ -261,7 +263,7 @@ public class StringFunctions {
      * If position is negative, it is counted from the end of the string; -1 is the last position in the string.
      */
     public static Expression substr(Expression expression, int position, int length) {
-        return x("SUBSTR(" + expression.toString() + ", " + position + ", " + length + ")");
+        return function("SUBSTR", expression, x(position), x(length));
     }
 
     /**
@@ -271,7 +273,7 @@ public class StringFunctions {
      * If position is negative, it is counted from the end of the string; -1 is the last position in the string.
      */
     public static Expression substr(String expression, int position, int length) {
-        return x("SUBSTR(" + expression.toString() + ", " + position + ", " + length + ")");
+        return function("SUBSTR", x(expression), x(position), x(length));
     }
 
     /**
@@ -281,7 +283,7 @@ public class StringFunctions {
      * If position is negative, it is counted from the end of the string; -1 is the last position in the string.
      */
     public static Expression substr(Expression expression, int position) {
-        return x("SUBSTR(" + expression.toString() + ", " + position + ")");
+        return function("SUBSTR", expression, x(position));
     }
 
     /**
@@ -291,7 +293,7 @@ public class StringFunctions {
      * If position is negative, it is counted from the end of the string; -1 is the last position in the string.
      */
     public static Expression substr(String expression, int position) {
-        return x("SUBSTR(" + expression.toString() + ", " + position + ")");
+        return function("SUBSTR", x(expression), x(position));
     }
 
 //            TRIM(expression [, characters ])
@@ -299,7 +301,7 @@ public class StringFunctions {
      * Returned expression results in the string with all leading and trailing white spaces removed.
      */
     public static Expression trim(Expression expression) {
-        return x("TRIM(" + expression.toString() + ")");
+        return function("TRIM", expression);
     }
 
     /**
@@ -314,7 +316,7 @@ public class StringFunctions {
      * (any char in the characters string).
      */
     public static Expression trim(Expression expression, String characters) {
-        return x("TRIM(" + expression.toString() + ", \"" + characters + "\")");
+        return function("TRIM", expression, s(characters));
     }
 
     /**
@@ -329,7 +331,7 @@ public class StringFunctions {
      * Returned expression results in uppercase of the string expression.
      */
     public static Expression upper(Expression expression) {
-        return x("UPPER(" + expression.toString() + ")");
+        return function("UPPER", expression);
     }
 
     /**
@@ -19,6 +19,7 @@ package com.couchbase.client.java.query.dsl.functions;
 
 import com.couchbase.client.java.query.dsl.Expression;
 
+import static com.couchbase.client.java.query.dsl.Expression.function;
 import static com.couchbase.client.java.query.dsl.Expression.x;
 
 /**
@@ -39,7 +40,7 @@ public class TypeFunctions {
      * Returned expression results in True if expression is an array, otherwise returns MISSING, NULL or false.
      */
     public static Expression isArray(Expression expression) {
-        return x("ISARRAY(" + expression.toString() + ")");
+        return function("ISARRAY", expression);
     }
 
     /**
@@ -54,7 +55,7 @@ public class TypeFunctions {
      * otherwise returns MISSING, NULL or false.
      */
     public static Expression isAtom(Expression expression) {
-        return x("ISATOM(" + expression.toString() + ")");
+        return function("ISATOM", expression);
     }
 
     /**
@@ -69,7 +70,7 @@ public class TypeFunctions {
      * Returned expression results in True if expression is a Boolean, otherwise returns MISSING, NULL or false.
      */
     public static Expression isBoolean(Expression expression) {
-        return x("ISBOOLEAN(" + expression.toString() + ")");
+        return function("ISBOOLEAN", expression);
     }
 
     /**
@@ -83,7 +84,7 @@ public class TypeFunctions {
      * Returned expression results in True if expression is a number, otherwise returns MISSING, NULL or false.
      */
     public static Expression isNumber(Expression expression) {
-        return x("ISNUMBER(" + expression.toString() + ")");
+        return function("ISNUMBER", expression);
     }
 
     /**
@@ -97,7 +98,7 @@ public class TypeFunctions {
      * Returned expression results in True if expression is an object, otherwise returns MISSING, NULL or false.
      */
     public static Expression isObject(Expression expression) {
-        return x("ISOBJECT(" + expression.toString() + ")");
+        return function("ISOBJECT", expression);
     }
 
     /**
@@ -111,7 +112,7 @@ public class TypeFunctions {
      * Returned expression results in True if expression is a string, otherwise returns MISSING, NULL or false.
      */
     public static Expression isString(Expression expression) {
-        return x("ISSTRING(" + expression.toString() + ")");
+        return function("ISSTRING", expression);
     }
 
     /**
@@ -134,7 +135,7 @@ public class TypeFunctions {
      *  - "binary"
      */
     public static Expression type(Expression expression) {
-        return x("TYPE(" + expression.toString() + ")");
+        return function("TYPE", expression);
     }
 
     /**
@@ -166,7 +167,7 @@ public class TypeFunctions {
      *  - TOATOM(expression)
      */
     public static Expression toArray(Expression expression) {
-        return x("TOARRAY(" + expression.toString() + ")");
+        return function("TOARRAY", expression);
     }
 
     /**
@@ -192,7 +193,7 @@ public class TypeFunctions {
      * - All other values are NULL.
      */
     public static Expression toAtom(Expression expression) {
-        return x("TOATOM(" + expression.toString() + ")");
+        return function("TOATOM", expression);
     }
 
     /**
@@ -219,7 +220,7 @@ public class TypeFunctions {
      * - All other values are true.
      */
     public static Expression toBoolean(Expression expression) {
-        return x("TOBOOLEAN(" + expression.toString() + ")");
+        return function("TOBOOLEAN", expression);
     }
 
     /**
@@ -249,7 +250,7 @@ public class TypeFunctions {
      * - All other values are NULL.
      */
     public static Expression toNumber(Expression expression) {
-        return x("TONUMBER(" + expression.toString() + ")");
+        return function("TONUMBER", expression);
     }
 
     /**
@@ -276,7 +277,7 @@ public class TypeFunctions {
      * - All other values are the empty object.
      */
     public static Expression toObject(Expression expression) {
-        return x("TOOBJECT(" + expression.toString() + ")");
+        return function("TOOBJECT", expression);
     }
 
     /**
@@ -303,7 +304,7 @@ public class TypeFunctions {
      * - All other values are NULL.
      */
     public static Expression toString(Expression expression) {
-        return x("TOSTRING(" + expression.toString() + ")");
+        return function("TOSTRING", expression);
     }
 
     /**
@@ -15,40 +15,153 @@
  */
 package com.couchbase.client.java.query.dsl.path;
 
+import com.couchbase.client.java.query.Statement;
 import com.couchbase.client.java.query.dsl.element.Element;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
 
 /**
- * .
+ * A node of a statement being built.
+ *
+ * Paths are immutable: each node only points to its parent, and adding an {@link Element} creates
+ * a new node instead of modifying this one. A partially built statement can therefore be shared
+ * (between threads too) and extended in several directions, every branch reusing the same parent
+ * nodes. The rendered text is cached the first time {@link #toString()} is called.
+ *
+ * Equality follows the rendered text too: statements rendering to the same N1QL are equal however
+ * they were built, for instance with expressions or with raw N1QL strings. A path is never equal to
+ * an {@link com.couchbase.client.java.query.dsl.Expression}, even one with the same text.
  *
  * @author Michael Nitschinger
  */
 public abstract class AbstractPath implements Path {
 
-    private Element element;
-    private AbstractPath parent;
+    private final Element element;
+    private final AbstractPath parent;
+    private volatile String rendered;
+    /**
+     * The positions of the placeholders in {@link #rendered}, written before it.
+     */
+    private volatile int[] renderedPositions;
 
+    /**
+     * Creates a path continuing the given parent, with no element of its own yet.
+     */
     protected AbstractPath(AbstractPath parent) {
+        this(parent, null);
+    }
+
+    /**
+     * Creates a path holding the given element after the given parent.
+     */
+    protected AbstractPath(AbstractPath parent, Element element) {
         this.parent = parent;
+        this.element = element;
     }
 
-    private String render() {
-        StringBuilder sb = new StringBuilder();
-        if (parent != null) {
-            sb.append(parent.render()).append(" ");
+    /**
+     * Renders the statement this path ends into the given writer.
+     *
+     * The path is walked from its root in a single pass, every element appending directly to the
+     * shared writer. Leading and trailing whitespace is trimmed, as in {@link #toString()}.
+     *
+     * @param out the writer to render into.
+     */
+    public void render(N1qlWriter out) {
+        String text = rendered;
+        if (text != null && out.reusesRenderedText()) {
+            out.appendRendered(text, renderedPositions);
+            return;
+        }
+
+        int depth = 0;
+        for (AbstractPath p = this; p != null; p = p.parent) {
+            depth++;
         }
-        if (element != null) {
-            sb.append(element.export());
+        AbstractPath[] chain = new AbstractPath[depth];
+        AbstractPath current = this;
+        for (int i = depth - 1; i >= 0; i--) {
+            chain[i] = current;
+            current = current.parent;
         }
-        return sb.toString();
+
+        int start = out.length();
+        for (int i = 0; i < depth; i++) {
+            if (i > 0) {
+                out.append(' ');
+            }
+            if (chain[i].element != null) {
+                chain[i].element.export(out);
+            }
+        }
+        out.trim(start);
     }
 
-    protected void element(Element element) {
-        this.element = element;
+    /**
+     * Returns a new path made of this path's parent followed by the given element, to be used as the
+     * parent of the next path. This path is left untouched.
+     */
+    protected AbstractPath element(Element element) {
+        return new ElementPath(parent, element);
+    }
+
+    /**
+     * Same as {@link #element(Element)}, for an element ending the statement.
+     */
+    protected Statement statement(Element element) {
+        return new ElementPath(parent, element);
+    }
+
+    /**
+     * Returns the number of characters of the rendered statement.
+     */
+    public int length() {
+        return toString().length();
     }
 
+    /**
+     * Returns the rendered statement. It is computed once and cached, since paths are immutable.
+     */
     @Override
     public String toString() {
-        return render().trim();
+        String text = rendered;
+        if (text == null) {
+            N1qlWriter out = new N1qlWriter();
+            render(out);
+            text = out.toString();
+            renderedPositions = out.currentBucketPositions();
+            rendered = text;
+        }
+        return text;
+    }
+
+    /**
+     * Returns the positions of the {@link Statement#CURRENT_BUCKET_IDENTIFIER} placeholders within
+     * {@link #toString()}, in order. They are recorded when the statement is rendered.
+     */
+    public int[] currentBucketPositions() {
+        toString();
+        return renderedPositions.clone();
     }
 
+    /**
+     * Two statements are equal if they render to the same N1QL.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof AbstractPath && toString().equals(o.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+
+    private static final class ElementPath extends AbstractPath implements Statement {
+        private ElementPath(AbstractPath parent, Element element) {
+            super(parent, element);
+        }
+    }
 }
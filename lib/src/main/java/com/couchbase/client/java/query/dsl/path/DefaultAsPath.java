@@ -30,8 +30,7 @@ public class DefaultAsPath extends DefaultHintPath implements AsPath {
 
     @Override
     public HintPath as(String alias) {
-        element(new AsElement(alias));
-        return new DefaultHintPath(this);
+        return new DefaultHintPath(element(new AsElement(alias)));
     }
 
 }
@@ -31,8 +31,7 @@ public class DefaultDeleteUsePath extends DefaultMutateWherePath implements Dele
 
   @Override
   public MutateWherePath useKeys(Expression expression) {
-    element(new KeysElement(KeysElement.ClauseType.USE_KEYSPACE, expression));
-    return new DefaultMutateWherePath(this);
+    return new DefaultMutateWherePath(element(new KeysElement(KeysElement.ClauseType.USE_KEYSPACE, expression)));
   }
 
   @Override
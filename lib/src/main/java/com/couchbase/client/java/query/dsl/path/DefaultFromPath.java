@@ -32,19 +32,16 @@ public class DefaultFromPath extends DefaultLetPath implements FromPath {
 
     @Override
     public AsPath from(String from) {
-        element(new FromElement(from));
-        return new DefaultAsPath(this);
+        return new DefaultAsPath(element(new FromElement(from)));
     }
 
     @Override
     public AsPath from(Expression from) {
-        element(new FromElement(from.toString()));
-        return new DefaultAsPath(this);
+        return new DefaultAsPath(element(new FromElement(from.toString())));
     }
 
     @Override
     public AsPath fromCurrentBucket() {
-        element(new FromElement(Statement.CURRENT_BUCKET_IDENTIFIER));
-        return new DefaultAsPath(this);
+        return new DefaultAsPath(element(new FromElement(Statement.CURRENT_BUCKET_IDENTIFIER)));
     }
 }
@@ -37,8 +37,7 @@ public class DefaultGroupByPath extends DefaultSelectResultPath implements Group
 
     @Override
     public LettingPath groupBy(Expression... expressions) {
-        element(new GroupByElement(expressions));
-        return new DefaultLettingPath(this);
+        return new DefaultLettingPath(element(new GroupByElement(expressions)));
     }
 
     @Override
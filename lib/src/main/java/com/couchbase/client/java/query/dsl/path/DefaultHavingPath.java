@@ -31,8 +31,7 @@ public class DefaultHavingPath extends DefaultSelectResultPath implements Having
 
     @Override
     public SelectResultPath having(Expression condition) {
-        element(new HavingElement(condition));
-        return new DefaultSelectResultPath(this);
+        return new DefaultSelectResultPath(element(new HavingElement(condition)));
     }
 
 }
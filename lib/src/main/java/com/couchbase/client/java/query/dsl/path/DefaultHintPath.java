@@ -36,8 +36,7 @@ public class DefaultHintPath extends DefaultKeysPath implements HintPath {
 
     @Override
     public KeysPath useIndex(IndexReference... indexes) {
-        element(new HintIndexElement(indexes));
-        return new DefaultKeysPath(this);
+        return new DefaultKeysPath(element(new HintIndexElement(indexes)));
     }
 
     @Override
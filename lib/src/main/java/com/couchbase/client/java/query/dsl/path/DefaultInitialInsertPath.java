@@ -35,142 +35,118 @@ public class DefaultInitialInsertPath extends DefaultReturningPath implements In
 
   @Override
   public InsertValuesPath values(String id, JsonObject value) {
-    element(new InsertValueElement(POS, s(id), x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, s(id), x(value))));
   }
 
   @Override
   public InsertValuesPath values(String id, Expression value) {
-    element(new InsertValueElement(POS, s(id), value));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, s(id), value)));
   }
 
   @Override
   public InsertValuesPath values(String id, JsonArray value) {
-    element(new InsertValueElement(POS, s(id), x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, s(id), x(value))));
   }
 
   @Override
   public InsertValuesPath values(String id, String value) {
-    element(new InsertValueElement(POS, s(id), s(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, s(id), s(value))));
   }
 
   @Override
   public InsertValuesPath values(String id, int value) {
-    element(new InsertValueElement(POS, s(id), x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, s(id), x(value))));
   }
 
   @Override
   public InsertValuesPath values(String id, long value) {
-    element(new InsertValueElement(POS, s(id), x(value)));
-    return new DefaultInsertValuesPath(this);  }
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, s(id), x(value))));  }
 
   @Override
   public InsertValuesPath values(String id, double value) {
-    element(new InsertValueElement(POS, s(id), x(value)));
-    return new DefaultInsertValuesPath(this);  }
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, s(id), x(value))));  }
 
   @Override
   public InsertValuesPath values(String id, float value) {
-    element(new InsertValueElement(POS, s(id), x(value)));
-    return new DefaultInsertValuesPath(this);  }
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, s(id), x(value))));  }
 
   @Override
   public InsertValuesPath values(String id, boolean value) {
-    element(new InsertValueElement(POS, s(id), x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, s(id), x(value))));
   }
 
   @Override
   public InsertValuesPath values(Expression id, Expression value) {
-    element(new InsertValueElement(POS, id, value));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, id, value)));
   }
 
   @Override
   public InsertValuesPath values(Expression id, JsonObject value) {
-    element(new InsertValueElement(POS, id, x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, id, x(value))));
   }
 
   @Override
   public InsertValuesPath values(Expression id, JsonArray value) {
-    element(new InsertValueElement(POS, id, x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, id, x(value))));
   }
 
   @Override
   public InsertValuesPath values(Expression id, String value) {
-    element(new InsertValueElement(POS, id, s(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, id, s(value))));
   }
 
   @Override
   public InsertValuesPath values(Expression id, int value) {
-    element(new InsertValueElement(POS, id, x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, id, x(value))));
   }
 
   @Override
   public InsertValuesPath values(Expression id, long value) {
-    element(new InsertValueElement(POS, id, x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, id, x(value))));
   }
 
   @Override
   public InsertValuesPath values(Expression id, double value) {
-    element(new InsertValueElement(POS, id, x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, id, x(value))));
   }
 
   @Override
   public InsertValuesPath values(Expression id, float value) {
-    element(new InsertValueElement(POS, id, x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, id, x(value))));
   }
 
   @Override
   public InsertValuesPath values(Expression id, boolean value) {
-    element(new InsertValueElement(POS, id, x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, id, x(value))));
   }
 
   @Override
   public ReturningPath select(Expression key, Statement select) {
-    element(new InsertSelectElement(key, null, select));
-    return new DefaultReturningPath(this);
+    return new DefaultReturningPath(element(new InsertSelectElement(key, null, select)));
   }
 
   @Override
   public ReturningPath select(Expression key, Expression value, Statement select) {
-    element(new InsertSelectElement(key, value, select));
-    return new DefaultReturningPath(this);
+    return new DefaultReturningPath(element(new InsertSelectElement(key, value, select)));
   }
 
   @Override
   public ReturningPath select(Expression key, String value, Statement select) {
-    element(new InsertSelectElement(key, s(value), select));
-    return new DefaultReturningPath(this);
+    return new DefaultReturningPath(element(new InsertSelectElement(key, s(value), select)));
   }
 
   @Override
   public ReturningPath select(String key, Statement select) {
-    element(new InsertSelectElement(x(key), null, select));
-    return new DefaultReturningPath(this);
+    return new DefaultReturningPath(element(new InsertSelectElement(x(key), null, select)));
   }
 
   @Override
   public ReturningPath select(String key, String value, Statement select) {
-    element(new InsertSelectElement(x(key), s(value), select));
-    return new DefaultReturningPath(this);
+    return new DefaultReturningPath(element(new InsertSelectElement(x(key), s(value), select)));
   }
 
   @Override
   public ReturningPath select(String key, Expression value, Statement select) {
-    element(new InsertSelectElement(x(key), value, select));
-    return new DefaultReturningPath(this);
+    return new DefaultReturningPath(element(new InsertSelectElement(x(key), value, select)));
   }
 }
@@ -28,25 +28,22 @@ public class DefaultInitialUpdateUnsetPath extends DefaultMutateWherePath implem
 
   @Override
   public UpdateUnsetPath unset(String path) {
-    element(new UnsetElement(UnsetElement.UnsetPosition.INITIAL, x(path), null));
-    return new DefaultUpdateUnsetPath(this);
+    return new DefaultUpdateUnsetPath(element(new UnsetElement(UnsetElement.UnsetPosition.INITIAL, x(path), null)));
   }
 
   @Override
   public UpdateUnsetPath unset(String path, Expression updateFor) {
-    element(new UnsetElement(UnsetElement.UnsetPosition.INITIAL, x(path), updateFor));
-    return new DefaultUpdateUnsetPath(this);
+    return new DefaultUpdateUnsetPath(element(
+        new UnsetElement(UnsetElement.UnsetPosition.INITIAL, x(path), updateFor)));
   }
 
   @Override
   public UpdateUnsetPath unset(Expression path) {
-    element(new UnsetElement(UnsetElement.UnsetPosition.INITIAL, path, null));
-    return new DefaultUpdateUnsetPath(this);
+    return new DefaultUpdateUnsetPath(element(new UnsetElement(UnsetElement.UnsetPosition.INITIAL, path, null)));
   }
 
   @Override
   public UpdateUnsetPath unset(Expression path, Expression updateFor) {
-    element(new UnsetElement(UnsetElement.UnsetPosition.INITIAL, path, updateFor));
-    return new DefaultUpdateUnsetPath(this);
+    return new DefaultUpdateUnsetPath(element(new UnsetElement(UnsetElement.UnsetPosition.INITIAL, path, updateFor)));
   }
 }
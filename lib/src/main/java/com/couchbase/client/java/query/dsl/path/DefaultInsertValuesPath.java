@@ -33,106 +33,88 @@ public class DefaultInsertValuesPath extends DefaultReturningPath implements Ins
 
   @Override
   public InsertValuesPath values(String id, JsonObject value) {
-    element(new InsertValueElement(POS, s(id), x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, s(id), x(value))));
   }
 
   @Override
   public InsertValuesPath values(String id, Expression value) {
-    element(new InsertValueElement(POS, s(id), value));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, s(id), value)));
   }
 
   @Override
   public InsertValuesPath values(String id, JsonArray value) {
-    element(new InsertValueElement(POS, s(id), x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, s(id), x(value))));
   }
 
   @Override
   public InsertValuesPath values(String id, String value) {
-    element(new InsertValueElement(POS, s(id), s(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, s(id), s(value))));
   }
 
   @Override
   public InsertValuesPath values(String id, int value) {
-    element(new InsertValueElement(POS, s(id), x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, s(id), x(value))));
   }
 
   @Override
   public InsertValuesPath values(String id, long value) {
-    element(new InsertValueElement(POS, s(id), x(value)));
-    return new DefaultInsertValuesPath(this);  }
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, s(id), x(value))));  }
 
   @Override
   public InsertValuesPath values(String id, double value) {
-    element(new InsertValueElement(POS, s(id), x(value)));
-    return new DefaultInsertValuesPath(this);  }
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, s(id), x(value))));  }
 
   @Override
   public InsertValuesPath values(String id, float value) {
-    element(new InsertValueElement(POS, s(id), x(value)));
-    return new DefaultInsertValuesPath(this);  }
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, s(id), x(value))));  }
 
   @Override
   public InsertValuesPath values(String id, boolean value) {
-    element(new InsertValueElement(POS, s(id), x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, s(id), x(value))));
   }
 
   @Override
   public InsertValuesPath values(Expression id, Expression value) {
-    element(new InsertValueElement(POS, id, value));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, id, value)));
   }
 
   @Override
   public InsertValuesPath values(Expression id, JsonObject value) {
-    element(new InsertValueElement(POS, id, x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, id, x(value))));
   }
 
   @Override
   public InsertValuesPath values(Expression id, JsonArray value) {
-    element(new InsertValueElement(POS, id, x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, id, x(value))));
   }
 
   @Override
   public InsertValuesPath values(Expression id, String value) {
-    element(new InsertValueElement(POS, id, s(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, id, s(value))));
   }
 
   @Override
   public InsertValuesPath values(Expression id, int value) {
-    element(new InsertValueElement(POS, id, x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, id, x(value))));
   }
 
   @Override
   public InsertValuesPath values(Expression id, long value) {
-    element(new InsertValueElement(POS, id, x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, id, x(value))));
   }
 
   @Override
   public InsertValuesPath values(Expression id, double value) {
-    element(new InsertValueElement(POS, id, x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, id, x(value))));
   }
 
   @Override
   public InsertValuesPath values(Expression id, float value) {
-    element(new InsertValueElement(POS, id, x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, id, x(value))));
   }
 
   @Override
   public InsertValuesPath values(Expression id, boolean value) {
-    element(new InsertValueElement(POS, id, x(value)));
-    return new DefaultInsertValuesPath(this);
+    return new DefaultInsertValuesPath(element(new InsertValueElement(POS, id, x(value))));
   }
 }
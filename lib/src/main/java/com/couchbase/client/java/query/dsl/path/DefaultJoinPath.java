@@ -31,19 +31,16 @@ public class DefaultJoinPath extends DefaultKeysPath implements JoinPath {
 
     @Override
     public JoinPath as(String alias) {
-        element(new AsElement(alias));
-        return new DefaultJoinPath(this);
+        return new DefaultJoinPath(element(new AsElement(alias)));
     }
 
     @Override
     public KeysPath useHash(HashSide side) {
-        element(new HashJoinHintElement(side));
-        return new DefaultKeysPath(this);
+        return new DefaultKeysPath(element(new HashJoinHintElement(side)));
     }
 
     @Override
     public KeysPath useNestedLoop() {
-        element(new NestedLoopJoinHintElement());
-        return new DefaultKeysPath(this);
+        return new DefaultKeysPath(element(new NestedLoopJoinHintElement()));
     }
 }
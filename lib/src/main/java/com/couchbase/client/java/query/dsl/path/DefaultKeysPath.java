@@ -19,6 +19,7 @@ import com.couchbase.client.java.json.JsonArray;
 import com.couchbase.client.java.query.dsl.Expression;
 import com.couchbase.client.java.query.dsl.element.Element;
 import com.couchbase.client.java.query.dsl.element.KeysElement;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
 
 import static com.couchbase.client.java.query.dsl.Expression.s;
 import static com.couchbase.client.java.query.dsl.Expression.x;
@@ -36,8 +37,7 @@ public class DefaultKeysPath extends DefaultLetPath implements KeysPath {
 
     @Override
     public LetPath onKeys(Expression expression) {
-        element(new KeysElement(KeysElement.ClauseType.JOIN_ON, expression));
-        return new DefaultLetPath(this);
+        return new DefaultLetPath(element(new KeysElement(KeysElement.ClauseType.JOIN_ON, expression)));
     }
 
     @Override
@@ -61,8 +61,7 @@ public class DefaultKeysPath extends DefaultLetPath implements KeysPath {
 
     @Override
     public LetPath useKeys(Expression expression) {
-        element(new KeysElement(KeysElement.ClauseType.USE_KEYSPACE, expression));
-        return new DefaultLetPath(this);
+        return new DefaultLetPath(element(new KeysElement(KeysElement.ClauseType.USE_KEYSPACE, expression)));
     }
 
     @Override
@@ -85,12 +84,11 @@ public class DefaultKeysPath extends DefaultLetPath implements KeysPath {
 
     @Override
     public LetPath on(final Expression expression) {
-        element(new Element() {
+        return new DefaultLetPath(element(new Element() {
             @Override
-            public String export() {
-                return "ON " + expression.toString();
+            public void export(N1qlWriter out) {
+                out.append("ON ").append(expression);
             }
-        });
-        return new DefaultLetPath(this);
+        }));
     }
 }
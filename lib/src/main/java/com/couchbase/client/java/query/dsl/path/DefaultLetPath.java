@@ -35,77 +35,64 @@ public class DefaultLetPath extends DefaultWherePath implements LetPath {
 
     @Override
     public WherePath let(Alias... aliases) {
-        element(new LetElement(aliases));
-        return new DefaultWherePath(this);
+        return new DefaultWherePath(element(new LetElement(aliases)));
     }
 
     @Override
     public JoinPath join(String path) {
-        element(new JoinElement(JoinType.DEFAULT, path));
-        return new DefaultJoinPath(this);
+        return new DefaultJoinPath(element(new JoinElement(JoinType.DEFAULT, path)));
     }
 
     @Override
     public JoinPath innerJoin(String path) {
-        element(new JoinElement(JoinType.INNER, path));
-        return new DefaultJoinPath(this);    }
+        return new DefaultJoinPath(element(new JoinElement(JoinType.INNER, path)));    }
 
     @Override
     public JoinPath leftJoin(String path) {
-        element(new JoinElement(JoinType.LEFT, path));
-        return new DefaultJoinPath(this);    }
+        return new DefaultJoinPath(element(new JoinElement(JoinType.LEFT, path)));    }
 
     @Override
     public JoinPath leftOuterJoin(String path) {
-        element(new JoinElement(JoinType.LEFT_OUTER, path));
-        return new DefaultJoinPath(this);    }
+        return new DefaultJoinPath(element(new JoinElement(JoinType.LEFT_OUTER, path)));    }
 
     @Override
     public NestPath nest(String from) {
-        element(new NestElement(JoinType.DEFAULT, from));
-        return new DefaultNestPath(this);
+        return new DefaultNestPath(element(new NestElement(JoinType.DEFAULT, from)));
     }
 
     @Override
     public NestPath innerNest(String from) {
-        element(new NestElement(JoinType.INNER, from));
-        return new DefaultNestPath(this);
+        return new DefaultNestPath(element(new NestElement(JoinType.INNER, from)));
     }
 
     @Override
     public NestPath leftNest(String from) {
-        element(new NestElement(JoinType.LEFT, from));
-        return new DefaultNestPath(this);
+        return new DefaultNestPath(element(new NestElement(JoinType.LEFT, from)));
     }
 
     @Override
     public NestPath leftOuterNest(String from) {
-        element(new NestElement(JoinType.LEFT_OUTER, from));
-        return new DefaultNestPath(this);
+        return new DefaultNestPath(element(new NestElement(JoinType.LEFT_OUTER, from)));
     }
 
     @Override
     public UnnestPath unnest(String path) {
-        element(new UnnestElement(JoinType.DEFAULT, path));
-        return new DefaultUnnestPath(this);
+        return new DefaultUnnestPath(element(new UnnestElement(JoinType.DEFAULT, path)));
     }
 
     @Override
     public UnnestPath innerUnnest(String path) {
-        element(new UnnestElement(JoinType.INNER, path));
-        return new DefaultUnnestPath(this);
+        return new DefaultUnnestPath(element(new UnnestElement(JoinType.INNER, path)));
     }
 
     @Override
     public UnnestPath leftUnnest(String path) {
-        element(new UnnestElement(JoinType.LEFT, path));
-        return new DefaultUnnestPath(this);
+        return new DefaultUnnestPath(element(new UnnestElement(JoinType.LEFT, path)));
     }
 
     @Override
     public UnnestPath leftOuterUnnest(String path) {
-        element(new UnnestElement(JoinType.LEFT_OUTER, path));
-        return new DefaultUnnestPath(this);
+        return new DefaultUnnestPath(element(new UnnestElement(JoinType.LEFT_OUTER, path)));
     }
 
     //===Expression Overrides===
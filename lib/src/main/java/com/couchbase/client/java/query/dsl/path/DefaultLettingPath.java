@@ -31,7 +31,6 @@ public class DefaultLettingPath extends DefaultHavingPath implements LettingPath
 
     @Override
     public HavingPath letting(Alias... aliases) {
-        element(new LettingElement(aliases));
-        return new DefaultHavingPath(this);
+        return new DefaultHavingPath(element(new LettingElement(aliases)));
     }
 }
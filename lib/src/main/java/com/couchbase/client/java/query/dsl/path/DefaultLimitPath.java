@@ -26,8 +26,7 @@ public class DefaultLimitPath extends DefaultOffsetPath implements LimitPath {
 
     @Override
     public OffsetPath limit(int limit) {
-        element(new LimitElement(limit));
-        return new DefaultOffsetPath(this);
+        return new DefaultOffsetPath(element(new LimitElement(limit)));
     }
 
 }
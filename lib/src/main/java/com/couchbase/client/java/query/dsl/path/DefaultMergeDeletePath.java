@@ -27,7 +27,6 @@ public class DefaultMergeDeletePath extends DefaultMergeInsertPath implements Me
 
   @Override
   public MergeDeleteWherePath whenMatchedThenDelete() {
-    element(new MergeDeleteElement());
-    return new DefaultMergeDeleteWherePath(this);
+    return new DefaultMergeDeleteWherePath(element(new MergeDeleteElement()));
   }
 }
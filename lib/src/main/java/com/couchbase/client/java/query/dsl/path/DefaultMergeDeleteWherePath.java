@@ -33,8 +33,7 @@ public class DefaultMergeDeleteWherePath extends DefaultMergeInsertPath implemen
 
   @Override
   public MergeInsertPath where(Expression expression) {
-    element(new WhereElement(expression));
-    return new DefaultMergeInsertPath(this);
+    return new DefaultMergeInsertPath(element(new WhereElement(expression)));
   }
 
   @Override
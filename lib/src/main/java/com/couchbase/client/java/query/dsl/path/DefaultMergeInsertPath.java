@@ -27,8 +27,7 @@ public class DefaultMergeInsertPath extends DefaultMutateLimitPath implements Me
 
   @Override
   public MergeInsertWherePath whenNotMatchedThenInsert(Expression expression) {
-    element(new MergeInsertElement(expression));
-    return new DefaultMergeInsertWherePath(this);
+    return new DefaultMergeInsertWherePath(element(new MergeInsertElement(expression)));
   }
 
 }
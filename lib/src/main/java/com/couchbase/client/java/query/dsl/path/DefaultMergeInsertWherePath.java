@@ -29,8 +29,7 @@ public class DefaultMergeInsertWherePath extends DefaultMutateLimitPath implemen
 
   @Override
   public MutateLimitPath where(Expression expression) {
-    element(new WhereElement(expression));
-    return new DefaultMutateLimitPath(this);
+    return new DefaultMutateLimitPath(element(new WhereElement(expression)));
   }
 
   @Override
@@ -17,6 +17,7 @@ package com.couchbase.client.java.query.dsl.path;
 
 import com.couchbase.client.java.query.dsl.Expression;
 import com.couchbase.client.java.query.dsl.element.Element;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
 
 import static com.couchbase.client.java.query.dsl.Expression.x;
 
@@ -33,24 +34,22 @@ public class DefaultMergeKeyClausePath extends AbstractPath implements MergeKeyC
 
   @Override
   public MergeUpdatePath onKey(final Expression expression) {
-    element(new Element() {
+    return new DefaultMergeUpdatePath(element(new Element() {
       @Override
-      public String export() {
-        return "ON KEY " + expression.toString();
+      public void export(N1qlWriter out) {
+        out.append("ON KEY ").append(expression);
       }
-    });
-    return new DefaultMergeUpdatePath(this);
+    }));
   }
 
   @Override
   public MergeUpdatePath onPrimaryKey(final Expression expression) {
-    element(new Element() {
+    return new DefaultMergeUpdatePath(element(new Element() {
       @Override
-      public String export() {
-        return "ON PRIMARY KEY " + expression.toString();
+      public void export(N1qlWriter out) {
+        out.append("ON PRIMARY KEY ").append(expression);
       }
-    });
-    return new DefaultMergeUpdatePath(this);
+    }));
   }
 
   @Override
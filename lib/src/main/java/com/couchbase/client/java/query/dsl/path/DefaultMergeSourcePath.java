@@ -17,6 +17,7 @@ package com.couchbase.client.java.query.dsl.path;
 
 import com.couchbase.client.java.query.dsl.Expression;
 import com.couchbase.client.java.query.dsl.element.Element;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
 
 import static com.couchbase.client.java.query.dsl.Expression.x;
 
@@ -33,13 +34,12 @@ public class DefaultMergeSourcePath extends AbstractPath implements MergeSourceP
 
   @Override
   public MergeKeyClausePath using(final Expression source) {
-    element(new Element() {
+    return new DefaultMergeKeyClausePath(element(new Element() {
       @Override
-      public String export() {
-        return "USING " + source.toString();
+      public void export(N1qlWriter out) {
+        out.append("USING ").append(source);
       }
-    });
-    return new DefaultMergeKeyClausePath(this);
+    }));
   }
 
 }
@@ -16,6 +16,7 @@
 package com.couchbase.client.java.query.dsl.path;
 
 import com.couchbase.client.java.query.dsl.element.Element;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
 
 /**
  * .
@@ -30,12 +31,11 @@ public class DefaultMergeUpdatePath extends DefaultMergeDeletePath implements Me
 
   @Override
   public MergeUpdateSetOrUnsetPath whenMatchedThenUpdate() {
-    element(new Element() {
+    return new DefaultMergeUpdateSetOrUnsetPath(element(new Element() {
       @Override
-      public String export() {
-        return "WHEN MATCHED THEN UPDATE";
+      public void export(N1qlWriter out) {
+        out.append("WHEN MATCHED THEN UPDATE");
       }
-    });
-    return new DefaultMergeUpdateSetOrUnsetPath(this);
+    }));
   }
 }
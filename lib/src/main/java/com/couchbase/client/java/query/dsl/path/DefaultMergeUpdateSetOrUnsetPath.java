@@ -49,224 +49,188 @@ public class DefaultMergeUpdateSetOrUnsetPath extends DefaultMergeUpdateWherePat
 
   @Override
   public MergeUpdateUnsetPath unset(Expression path, Expression updateFor) {
-    element(new UnsetElement(UnsetElement.UnsetPosition.INITIAL, path, updateFor));
-    return new DefaultMergeUpdateUnsetPath(this);
+    return new DefaultMergeUpdateUnsetPath(element(
+        new UnsetElement(UnsetElement.UnsetPosition.INITIAL, path, updateFor)));
   }
 
   @Override
   public MergeUpdateSetPath set(String path, Expression value) {
-    element(new SetElement(POS, x(path), value, null));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, x(path), value, null)));
   }
 
   @Override
   public MergeUpdateSetPath set(String path, JsonObject value) {
-    element(new SetElement(POS, x(path), x(value), null));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, x(path), x(value), null)));
   }
 
   @Override
   public MergeUpdateSetPath set(String path, JsonArray value) {
-    element(new SetElement(POS, x(path), x(value), null));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, x(path), x(value), null)));
   }
 
   @Override
   public MergeUpdateSetPath set(String path, String value) {
-    element(new SetElement(POS, x(path), s(value), null));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, x(path), s(value), null)));
   }
 
   @Override
   public MergeUpdateSetPath set(String path, int value) {
-    element(new SetElement(POS, x(path), x(value), null));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, x(path), x(value), null)));
   }
 
   @Override
   public MergeUpdateSetPath set(String path, long value) {
-    element(new SetElement(POS, x(path), x(value), null));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, x(path), x(value), null)));
   }
 
   @Override
   public MergeUpdateSetPath set(String path, double value) {
-    element(new SetElement(POS, x(path), x(value), null));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, x(path), x(value), null)));
   }
 
   @Override
   public MergeUpdateSetPath set(String path, float value) {
-    element(new SetElement(POS, x(path), x(value), null));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, x(path), x(value), null)));
   }
 
   @Override
   public MergeUpdateSetPath set(String path, boolean value) {
-    element(new SetElement(POS, x(path), x(value), null));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, x(path), x(value), null)));
   }
 
   @Override
   public MergeUpdateSetPath set(String path, Expression value, Expression updateFor) {
-    element(new SetElement(POS, x(path), value, updateFor));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, x(path), value, updateFor)));
   }
 
   @Override
   public MergeUpdateSetPath set(String path, JsonObject value, Expression updateFor) {
-    element(new SetElement(POS, x(path), x(value), updateFor));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, x(path), x(value), updateFor)));
   }
 
   @Override
   public MergeUpdateSetPath set(String path, JsonArray value, Expression updateFor) {
-    element(new SetElement(POS, x(path), x(value), updateFor));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, x(path), x(value), updateFor)));
   }
 
   @Override
   public MergeUpdateSetPath set(String path, String value, Expression updateFor) {
-    element(new SetElement(POS, x(path), s(value), updateFor));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, x(path), s(value), updateFor)));
   }
 
   @Override
   public MergeUpdateSetPath set(String path, int value, Expression updateFor) {
-    element(new SetElement(POS, x(path), x(value), updateFor));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, x(path), x(value), updateFor)));
   }
 
   @Override
   public MergeUpdateSetPath set(String path, long value, Expression updateFor) {
-    element(new SetElement(POS, x(path), x(value), updateFor));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, x(path), x(value), updateFor)));
   }
 
   @Override
   public MergeUpdateSetPath set(String path, double value, Expression updateFor) {
-    element(new SetElement(POS, x(path), x(value), updateFor));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, x(path), x(value), updateFor)));
   }
 
   @Override
   public MergeUpdateSetPath set(String path, float value, Expression updateFor) {
-    element(new SetElement(POS, x(path), x(value), updateFor));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, x(path), x(value), updateFor)));
   }
 
   @Override
   public MergeUpdateSetPath set(String path, boolean value, Expression updateFor) {
-    element(new SetElement(POS, x(path), x(value), updateFor));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, x(path), x(value), updateFor)));
   }
 
   @Override
   public MergeUpdateSetPath set(Expression path, Expression value) {
-    element(new SetElement(POS, path, value, null));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, path, value, null)));
   }
 
   @Override
   public MergeUpdateSetPath set(Expression path, JsonObject value) {
-    element(new SetElement(POS, path, x(value), null));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, path, x(value), null)));
   }
 
   @Override
   public MergeUpdateSetPath set(Expression path, JsonArray value) {
-    element(new SetElement(POS, path, x(value), null));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, path, x(value), null)));
   }
 
   @Override
   public MergeUpdateSetPath set(Expression path, String value) {
-    element(new SetElement(POS, path, s(value), null));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, path, s(value), null)));
   }
 
   @Override
   public MergeUpdateSetPath set(Expression path, int value) {
-    element(new SetElement(POS, path, x(value), null));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, path, x(value), null)));
   }
 
   @Override
   public MergeUpdateSetPath set(Expression path, long value) {
-    element(new SetElement(POS, path, x(value), null));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, path, x(value), null)));
   }
 
   @Override
   public MergeUpdateSetPath set(Expression path, double value) {
-    element(new SetElement(POS, path, x(value), null));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, path, x(value), null)));
   }
 
   @Override
   public MergeUpdateSetPath set(Expression path, float value) {
-    element(new SetElement(POS, path, x(value), null));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, path, x(value), null)));
   }
 
   @Override
   public MergeUpdateSetPath set(Expression path, boolean value) {
-    element(new SetElement(POS, path, x(value), null));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, path, x(value), null)));
   }
 
   @Override
   public MergeUpdateSetPath set(Expression path, Expression value, Expression updateFor) {
-    element(new SetElement(POS, path, value, updateFor));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, path, value, updateFor)));
   }
 
   @Override
   public MergeUpdateSetPath set(Expression path, JsonObject value, Expression updateFor) {
-    element(new SetElement(POS, path, x(value), updateFor));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, path, x(value), updateFor)));
   }
 
   @Override
   public MergeUpdateSetPath set(Expression path, JsonArray value, Expression updateFor) {
-    element(new SetElement(POS, path, x(value), updateFor));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, path, x(value), updateFor)));
   }
 
   @Override
   public MergeUpdateSetPath set(Expression path, String value, Expression updateFor) {
-    element(new SetElement(POS, path, s(value), updateFor));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, path, s(value), updateFor)));
   }
 
   @Override
   public MergeUpdateSetPath set(Expression path, int value, Expression updateFor) {
-    element(new SetElement(POS, path, x(value), updateFor));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, path, x(value), updateFor)));
   }
 
   @Override
   public MergeUpdateSetPath set(Expression path, long value, Expression updateFor) {
-    element(new SetElement(POS, path, x(value), updateFor));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, path, x(value), updateFor)));
   }
 
   @Override
   public MergeUpdateSetPath set(Expression path, double value, Expression updateFor) {
-    element(new SetElement(POS, path, x(value), updateFor));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, path, x(value), updateFor)));
   }
 
   @Override
   public MergeUpdateSetPath set(Expression path, float value, Expression updateFor) {
-    element(new SetElement(POS, path, x(value), updateFor));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, path, x(value), updateFor)));
   }
 
   @Override
   public MergeUpdateSetPath set(Expression path, boolean value, Expression updateFor) {
-    element(new SetElement(POS, path, x(value), updateFor));
-    return new DefaultMergeUpdateSetPath(this);
+    return new DefaultMergeUpdateSetPath(element(new SetElement(POS, path, x(value), updateFor)));
   }
 
 }
@@ -43,8 +43,8 @@ public class DefaultMergeUpdateUnsetPath extends DefaultMergeUpdateWherePath imp
 
   @Override
   public MergeUpdateUnsetPath unset(Expression path, Expression updateFor) {
-    element(new UnsetElement(UnsetElement.UnsetPosition.NOT_INITIAL, path, updateFor));
-    return new DefaultMergeUpdateUnsetPath(this);
+    return new DefaultMergeUpdateUnsetPath(element(
+        new UnsetElement(UnsetElement.UnsetPosition.NOT_INITIAL, path, updateFor)));
   }
 
 }
@@ -28,8 +28,7 @@ public class DefaultMergeUpdateWherePath extends DefaultMergeDeletePath implemen
 
   @Override
   public MergeDeletePath where(Expression expression) {
-    element(new WhereElement(expression));
-    return new DefaultMergeDeletePath(this);
+    return new DefaultMergeDeletePath(element(new WhereElement(expression)));
   }
 
   @Override
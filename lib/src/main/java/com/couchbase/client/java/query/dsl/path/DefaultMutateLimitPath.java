@@ -25,7 +25,6 @@ public class DefaultMutateLimitPath extends DefaultReturningPath implements Muta
 
     @Override
     public ReturningPath limit(int limit) {
-        element(new LimitElement(limit));
-        return new DefaultReturningPath(this);
+        return new DefaultReturningPath(element(new LimitElement(limit)));
     }
 }
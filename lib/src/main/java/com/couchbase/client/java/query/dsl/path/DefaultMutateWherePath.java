@@ -28,8 +28,7 @@ public class DefaultMutateWherePath extends DefaultMutateLimitPath implements Mu
 
     @Override
     public MutateLimitPath where(Expression expression) {
-        element(new WhereElement(expression));
-        return new DefaultMutateLimitPath(this);
+        return new DefaultMutateLimitPath(element(new WhereElement(expression)));
     }
 
     @Override
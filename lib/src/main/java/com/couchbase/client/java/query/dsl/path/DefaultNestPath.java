@@ -30,7 +30,6 @@ public class DefaultNestPath extends DefaultKeysPath implements NestPath {
 
     @Override
     public KeysPath as(String alias) {
-        element(new AsElement(alias));
-        return new DefaultKeysPath(this);
+        return new DefaultKeysPath(element(new AsElement(alias)));
     }
 }
@@ -31,8 +31,7 @@ public class DefaultOffsetPath extends AbstractPath implements OffsetPath {
 
     @Override
     public Statement offset(int offset) {
-        element(new OffsetElement(offset));
-        return this;
+        return statement(new OffsetElement(offset));
     }
 
 }
@@ -31,8 +31,7 @@ public class DefaultOrderByPath extends DefaultLimitPath implements OrderByPath
 
     @Override
     public LimitPath orderBy(Sort... orderings) {
-        element(new OrderByElement(orderings));
-        return new DefaultLimitPath(this);
+        return new DefaultLimitPath(element(new OrderByElement(orderings)));
     }
 
 }
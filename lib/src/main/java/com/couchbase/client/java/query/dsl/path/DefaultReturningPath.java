@@ -29,38 +29,32 @@ public class DefaultReturningPath extends AbstractPath implements ReturningPath
 
   @Override
   public Statement returning(String expression) {
-    element(new ReturningElement(ReturningElement.ReturningType.REGULAR, x(expression)));
-    return this;
+    return statement(new ReturningElement(ReturningElement.ReturningType.REGULAR, x(expression)));
   }
 
   @Override
   public Statement returning(Expression expression) {
-    element(new ReturningElement(ReturningElement.ReturningType.REGULAR, expression));
-    return this;
+    return statement(new ReturningElement(ReturningElement.ReturningType.REGULAR, expression));
   }
 
   @Override
   public Statement returningRaw(String expression) {
-    element(new ReturningElement(ReturningElement.ReturningType.RAW, x(expression)));
-    return this;
+    return statement(new ReturningElement(ReturningElement.ReturningType.RAW, x(expression)));
   }
 
   @Override
   public Statement returningRaw(Expression expression) {
-    element(new ReturningElement(ReturningElement.ReturningType.RAW, expression));
-    return this;
+    return statement(new ReturningElement(ReturningElement.ReturningType.RAW, expression));
   }
 
   @Override
   public Statement returningElement(String expression) {
-    element(new ReturningElement(ReturningElement.ReturningType.ELEMENT, x(expression)));
-    return this;
+    return statement(new ReturningElement(ReturningElement.ReturningType.ELEMENT, x(expression)));
   }
 
   @Override
   public Statement returningElement(Expression expression) {
-    element(new ReturningElement(ReturningElement.ReturningType.ELEMENT, expression));
-    return this;
+    return statement(new ReturningElement(ReturningElement.ReturningType.ELEMENT, expression));
   }
 
 }
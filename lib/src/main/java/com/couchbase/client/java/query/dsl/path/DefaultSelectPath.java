@@ -34,32 +34,27 @@ public class DefaultSelectPath extends AbstractPath implements SelectPath {
 
     @Override
     public FromPath select(Expression... expressions) {
-        element(new SelectElement(SelectType.DEFAULT, expressions));
-        return new DefaultFromPath(this);
+        return new DefaultFromPath(element(new SelectElement(SelectType.DEFAULT, expressions)));
     }
 
     @Override
     public FromPath selectAll(Expression... expressions) {
-        element(new SelectElement(SelectType.ALL, expressions));
-        return new DefaultFromPath(this);
+        return new DefaultFromPath(element(new SelectElement(SelectType.ALL, expressions)));
     }
 
     @Override
     public FromPath selectDistinct(Expression... expressions) {
-        element(new SelectElement(SelectType.DISTINCT, expressions));
-        return new DefaultFromPath(this);
+        return new DefaultFromPath(element(new SelectElement(SelectType.DISTINCT, expressions)));
     }
 
     @Override
     public FromPath selectRaw(Expression expression) {
-        element(new SelectElement(SelectType.RAW, expression));
-        return new DefaultFromPath(this);
+        return new DefaultFromPath(element(new SelectElement(SelectType.RAW, expression)));
     }
 
     @Override
     public FromPath selectDistinctRaw(Expression expression) {
-        element(new SelectElement(SelectType.DISTINCT_RAW, expression));
-        return new DefaultFromPath(this);
+        return new DefaultFromPath(element(new SelectElement(SelectType.DISTINCT_RAW, expression)));
     }
 
     @Override
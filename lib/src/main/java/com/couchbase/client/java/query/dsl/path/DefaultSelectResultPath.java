@@ -32,73 +32,61 @@ public class DefaultSelectResultPath extends DefaultOrderByPath implements Selec
 
     @Override
     public SelectPath union() {
-        element(new UnionElement(false));
-        return new DefaultSelectPath(this);
+        return new DefaultSelectPath(element(new UnionElement(false)));
     }
 
     @Override
     public SelectPath unionAll() {
-        element(new UnionElement(true));
-        return new DefaultSelectPath(this);
+        return new DefaultSelectPath(element(new UnionElement(true)));
     }
 
     @Override
     public SelectPath intersect() {
-        element(new IntersectElement(false));
-        return new DefaultSelectPath(this);
+        return new DefaultSelectPath(element(new IntersectElement(false)));
     }
 
     @Override
     public SelectPath intersectAll() {
-        element(new IntersectElement(true));
-        return new DefaultSelectPath(this);
+        return new DefaultSelectPath(element(new IntersectElement(true)));
     }
 
     @Override
     public SelectPath except() {
-        element(new ExceptElement(false));
-        return new DefaultSelectPath(this);
+        return new DefaultSelectPath(element(new ExceptElement(false)));
     }
 
     @Override
     public SelectPath exceptAll() {
-        element(new ExceptElement(true));
-        return new DefaultSelectPath(this);
+        return new DefaultSelectPath(element(new ExceptElement(true)));
     }
 
     @Override
     public SelectResultPath union(final SelectResultPath path) {
-        element(new UnionElement(false, path));
-        return new DefaultSelectResultPath(this);
+        return new DefaultSelectResultPath(element(new UnionElement(false, path)));
     }
 
     @Override
     public SelectResultPath unionAll(final SelectResultPath path) {
-        element(new UnionElement(true, path));
-        return new DefaultSelectResultPath(this);
+        return new DefaultSelectResultPath(element(new UnionElement(true, path)));
     }
 
     @Override
     public SelectResultPath intersect(final SelectResultPath path) {
-        element(new IntersectElement(false, path));
-        return new DefaultSelectResultPath(this);
+        return new DefaultSelectResultPath(element(new IntersectElement(false, path)));
     }
 
     @Override
     public SelectResultPath intersectAll(final SelectResultPath path) {
-        element(new IntersectElement(true, path));
-        return new DefaultSelectResultPath(this);
+        return new DefaultSelectResultPath(element(new IntersectElement(true, path)));
     }
 
     @Override
     public SelectResultPath except(final SelectResultPath path) {
-        element(new ExceptElement(false, path));
-        return new DefaultSelectResultPath(this);
+        return new DefaultSelectResultPath(element(new ExceptElement(false, path)));
     }
 
     @Override
     public SelectResultPath exceptAll(final SelectResultPath path) {
-        element(new ExceptElement(true, path));
-        return new DefaultSelectResultPath(this);
+        return new DefaultSelectResultPath(element(new ExceptElement(true, path)));
     }
 }
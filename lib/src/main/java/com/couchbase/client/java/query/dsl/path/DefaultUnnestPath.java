@@ -30,8 +30,7 @@ public class DefaultUnnestPath extends DefaultLetPath implements UnnestPath {
 
     @Override
     public LetPath as(String alias) {
-        element(new AsElement(alias));
-        return new DefaultLetPath(this);
+        return new DefaultLetPath(element(new AsElement(alias)));
     }
 
 }
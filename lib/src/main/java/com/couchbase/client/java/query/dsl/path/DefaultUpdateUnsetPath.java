@@ -28,25 +28,23 @@ public class DefaultUpdateUnsetPath extends DefaultMutateWherePath implements Up
 
   @Override
   public UpdateUnsetPath unset(String path) {
-    element(new UnsetElement(UnsetElement.UnsetPosition.NOT_INITIAL, x(path), null));
-    return new DefaultUpdateUnsetPath(this);
+    return new DefaultUpdateUnsetPath(element(new UnsetElement(UnsetElement.UnsetPosition.NOT_INITIAL, x(path), null)));
   }
 
   @Override
   public UpdateUnsetPath unset(String path, Expression updateFor) {
-    element(new UnsetElement(UnsetElement.UnsetPosition.NOT_INITIAL, x(path), updateFor));
-    return new DefaultUpdateUnsetPath(this);
+    return new DefaultUpdateUnsetPath(element(
+        new UnsetElement(UnsetElement.UnsetPosition.NOT_INITIAL, x(path), updateFor)));
   }
 
   @Override
   public UpdateUnsetPath unset(Expression path) {
-    element(new UnsetElement(UnsetElement.UnsetPosition.NOT_INITIAL, path, null));
-    return new DefaultUpdateUnsetPath(this);
+    return new DefaultUpdateUnsetPath(element(new UnsetElement(UnsetElement.UnsetPosition.NOT_INITIAL, path, null)));
   }
 
   @Override
   public UpdateUnsetPath unset(Expression path, Expression updateFor) {
-    element(new UnsetElement(UnsetElement.UnsetPosition.NOT_INITIAL, path, updateFor));
-    return new DefaultUpdateUnsetPath(this);
+    return new DefaultUpdateUnsetPath(element(
+        new UnsetElement(UnsetElement.UnsetPosition.NOT_INITIAL, path, updateFor)));
   }
 }
@@ -31,8 +31,7 @@ public class DefaultUpdateUsePath extends DefaultUpdateSetOrUnsetPath implements
 
   @Override
   public UpdateSetOrUnsetPath useKeys(Expression expression) {
-    element(new KeysElement(KeysElement.ClauseType.USE_KEYSPACE, expression));
-    return new DefaultUpdateSetOrUnsetPath(this);
+    return new DefaultUpdateSetOrUnsetPath(element(new KeysElement(KeysElement.ClauseType.USE_KEYSPACE, expression)));
   }
 
   @Override
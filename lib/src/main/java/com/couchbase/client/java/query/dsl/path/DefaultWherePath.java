@@ -33,8 +33,7 @@ public class DefaultWherePath extends DefaultGroupByPath implements WherePath {
 
     @Override
     public GroupByPath where(Expression expression) {
-        element(new WhereElement(expression));
-        return new DefaultGroupByPath(this);
+        return new DefaultGroupByPath(element(new WhereElement(expression)));
     }
 
     @Override
@@ -19,6 +19,7 @@ package com.couchbase.client.java.query.dsl.path;
 
 
 import com.couchbase.client.java.query.dsl.element.Element;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
 
 import java.util.Objects;
 
@@ -39,7 +40,7 @@ public class HashJoinHintElement implements Element {
     }
 
     @Override
-    public String export() {
-        return "USE HASH(" + this.side + ")";
+    public void export(N1qlWriter out) {
+        out.append("USE HASH(").append(side.toString()).append(')');
     }
 }
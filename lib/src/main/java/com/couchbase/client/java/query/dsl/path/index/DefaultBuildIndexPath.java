@@ -36,13 +36,11 @@ public class DefaultBuildIndexPath extends AbstractPath implements BuildIndexPat
 
     @Override
     public IndexNamesPath on(String namespace, String keyspace) {
-        element(new BuildIndexElement(namespace, keyspace));
-        return new DefaultIndexNamesPath(this);
+        return new DefaultIndexNamesPath(element(new BuildIndexElement(namespace, keyspace)));
     }
 
     @Override
     public IndexNamesPath on(String keyspace) {
-        element(new BuildIndexElement(null, keyspace));
-        return new DefaultIndexNamesPath(this);
+        return new DefaultIndexNamesPath(element(new BuildIndexElement(null, keyspace)));
     }
 }
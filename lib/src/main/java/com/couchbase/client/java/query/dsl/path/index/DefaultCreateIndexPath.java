@@ -36,19 +36,16 @@ public class DefaultCreateIndexPath extends AbstractPath implements CreateIndexP
 
     @Override
     public OnPath create(String indexName) {
-        element(new IndexElement(indexName));
-        return new DefaultOnPath(this);
+        return new DefaultOnPath(element(new IndexElement(indexName)));
     }
 
     @Override
     public OnPrimaryPath createPrimary() {
-        element(new IndexElement());
-        return new DefaultOnPrimaryPath(this);
+        return new DefaultOnPrimaryPath(element(new IndexElement()));
     }
 
     @Override
     public OnPrimaryPath createPrimary(String customPrimaryName) {
-        element(new IndexElement(customPrimaryName, true));
-        return new DefaultOnPrimaryPath(this);
+        return new DefaultOnPrimaryPath(element(new IndexElement(customPrimaryName, true)));
     }
 }
@@ -41,8 +41,7 @@ public class DefaultDropPath extends AbstractPath implements DropPath {
 
     @Override
     public UsingPath drop(String namespace, String keyspace, String indexName) {
-        element(new DropIndexElement(namespace, keyspace, indexName));
-        return new DefaultUsingPath(this);
+        return new DefaultUsingPath(element(new DropIndexElement(namespace, keyspace, indexName)));
     }
 
     @Override
@@ -52,7 +51,6 @@ public class DefaultDropPath extends AbstractPath implements DropPath {
 
     @Override
     public UsingPath dropPrimary(String namespace, String keyspace) {
-        element(new DropIndexElement(namespace, keyspace, null));
-        return new DefaultUsingPath(this);
+        return new DefaultUsingPath(element(new DropIndexElement(namespace, keyspace, null)));
     }
 }
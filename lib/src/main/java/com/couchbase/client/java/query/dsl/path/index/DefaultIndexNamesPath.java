@@ -39,8 +39,7 @@ public class DefaultIndexNamesPath extends AbstractPath implements IndexNamesPat
 
     @Override
     public UsingPath indexes(String indexName, String... indexNames) {
-        element(new IndexNamesElement(indexName, indexNames));
-        return new DefaultUsingPath(this);
+        return new DefaultUsingPath(element(new IndexNamesElement(indexName, indexNames)));
     }
 
     @Override
@@ -51,16 +50,13 @@ public class DefaultIndexNamesPath extends AbstractPath implements IndexNamesPat
         String first = indexNames.get(0);
         if (indexNames.size() > 1) {
             String[] others = indexNames.subList(1, indexNames.size()).toArray(new String[indexNames.size() - 1]);
-            element(new IndexNamesElement(first, others));
-        } else {
-            element(new IndexNamesElement(first));
+            return new DefaultUsingPath(element(new IndexNamesElement(first, others)));
         }
-        return new DefaultUsingPath(this);
+        return new DefaultUsingPath(element(new IndexNamesElement(first)));
     }
 
     @Override
     public UsingPath primary() {
-        element(new IndexNamesElement(Index.PRIMARY_NAME));
-        return new DefaultUsingPath(this);
+        return new DefaultUsingPath(element(new IndexNamesElement(Index.PRIMARY_NAME)));
     }
 }
@@ -37,8 +37,7 @@ public class DefaultOnPath extends AbstractPath implements OnPath {
 
     @Override
     public WherePath on(String namespace, String keyspace, Expression expression, Expression... additionalExpressions) {
-        element(new OnElement(namespace, keyspace, expression, additionalExpressions));
-        return new DefaultWherePath(this);
+        return new DefaultWherePath(element(new OnElement(namespace, keyspace, expression, additionalExpressions)));
     }
 
     @Override
@@ -36,8 +36,7 @@ public class DefaultOnPrimaryPath extends AbstractPath implements OnPrimaryPath
 
     @Override
     public UsingWithPath on(String namespace, String keyspace) {
-        element(new OnElement(namespace, keyspace, null, null));
-        return new DefaultUsingWithPath(this);
+        return new DefaultUsingWithPath(element(new OnElement(namespace, keyspace, null, null)));
     }
 
     @Override
@@ -37,7 +37,6 @@ public class DefaultUsingPath extends AbstractPath implements UsingPath {
 
     @Override
     public Statement using(IndexType indexType) {
-        element(new UsingElement(indexType));
-        return this;
+        return statement(new UsingElement(indexType));
     }
 }
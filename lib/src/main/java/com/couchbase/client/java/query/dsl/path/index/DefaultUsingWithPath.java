@@ -36,7 +36,6 @@ public class DefaultUsingWithPath extends DefaultWithPath implements UsingWithPa
 
     @Override
     public WithPath using(IndexType type) {
-        element(new UsingElement(type));
-        return new DefaultWithPath(this);
+        return new DefaultWithPath(element(new UsingElement(type)));
     }
 }
@@ -39,8 +39,7 @@ public class DefaultWherePath extends DefaultUsingWithPath implements WherePath
 
     @Override
     public UsingWithPath where(Expression filterExpression) {
-        element(new WhereElement(filterExpression));
-        return new DefaultUsingWithPath(this);
+        return new DefaultUsingWithPath(element(new WhereElement(filterExpression)));
     }
 
     @Override
@@ -47,8 +47,7 @@ public class DefaultWithPath extends AbstractPath implements WithPath {
         if (nodeNames != null && nodeNames.length > 0) {
             options.put("nodes", JsonArray.from((Object[]) nodeNames));
         }
-        element(new WithIndexOptionElement(options));
-        return this;
+        return statement(new WithIndexOptionElement(options));
     }
 
     @Override
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.subdoc;
+
+import com.couchbase.client.java.Collection;
+import com.couchbase.client.java.kv.LookupInResult;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runs the same lookup against many documents, a bounded number at a time.
+ * <p>
+ * The lookup is described once, with the methods of {@link LookupInBuilder}, and every document
+ * gets its own request through SDK 3's {@link com.couchbase.client.java.ReactiveCollection}. At
+ * most {@link #concurrency(int)} requests are in flight at any time:
+ * <pre>
+ * Map&lt;String, BulkLookupIn.Result&gt; results =
+ *     BulkLookupIn.create(collection, lookup -&gt; lookup.get("name").exists("email"))
+ *         .concurrency(128)
+ *         .executeToMap(ids);
+ * </pre>
+ * A failure only affects the result of its document: it is reported in its {@link Result}
+ * instead of failing the whole bulk. Results come in the order of the IDs.
+ * <p>
+ * This class is not part of the SDK 2 API.
+ *
+ * @deprecated This class is neither supported nor maintained by Couchbase.
+ * Use at your own risk. Please migrate to Couchbase SDK 3's
+ * {@link com.couchbase.client.java.ReactiveCollection#lookupIn(String, java.util.List)}
+ * as soon as possible.
+ */
+@Deprecated
+public class BulkLookupIn {
+  public static final int DEFAULT_CONCURRENCY = 64;
+
+  private final LookupInBuilder template;
+  private final Function<String, Mono<LookupInResult>> lookupIn;
+  private int concurrency = DEFAULT_CONCURRENCY;
+
+  /**
+   * @param lookupIn runs the lookup against the document of the given ID.
+   */
+  BulkLookupIn(LookupInBuilder template, Function<String, Mono<LookupInResult>> lookupIn) {
+    this.template = template;
+    this.lookupIn = lookupIn;
+  }
+
+  /**
+   * @param lookup adds the specs of the lookup to the given builder, like
+   *     {@code lookup -> lookup.get("name").exists("email")}. The ID of the builder is meaningless.
+   */
+  public static BulkLookupIn create(Collection collection, Consumer<LookupInBuilder> lookup) {
+    LookupInBuilder template = LookupInBuilder.create(collection, "");
+    lookup.accept(template);
+    return new BulkLookupIn(template, template::executeReactive);
+  }
+
+  /**
+   * Sets the maximum number of lookups in flight at the same time.
+   * Defaults to {@value #DEFAULT_CONCURRENCY}.
+   */
+  public BulkLookupIn concurrency(int concurrency) {
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("concurrency must be positive, got " + concurrency);
+    }
+    this.concurrency = concurrency;
+    return this;
+  }
+
+  /**
+   * Looks up the given documents when the returned {@link Flux} is subscribed.
+   */
+  public Flux<Result> executeReactive(Publisher<String> ids) {
+    return Flux.from(ids).flatMapSequential(this::lookup, concurrency);
+  }
+
+  /**
+   * Looks up the given documents, as the returned stream is consumed.
+   * <p>
+   * Closing the returned stream cancels the lookups still in flight.
+   */
+  public Stream<Result> execute(Iterable<String> ids) {
+    return executeReactive(Flux.fromIterable(ids)).toStream(concurrency);
+  }
+
+  /**
+   * Looks up the given documents, as the returned stream is consumed.
+   * <p>
+   * Closing the returned stream cancels the lookups still in flight, and closes the given one.
+   */
+  public Stream<Result> execute(Stream<String> ids) {
+    return executeReactive(Flux.fromStream(ids)).toStream(concurrency).onClose(ids::close);
+  }
+
+  /**
+   * Looks up the given documents, and returns their results by ID, in the order of the IDs.
+   */
+  public Map<String, Result> executeToMap(Iterable<String> ids) {
+    return executeReactive(Flux.fromIterable(ids))
+        .collect(LinkedHashMap<String, Result>::new, (results, result) -> results.put(result.id(), result))
+        .block();
+  }
+
+  private Mono<Result> lookup(String id) {
+    requireNonNull(id, "id");
+    return lookupIn.apply(id)
+        .map(result -> new Result(id, result, null))
+        .onErrorResume(error -> Mono.just(new Result(id, null, error)));
+  }
+
+  /**
+   * The outcome of the lookup of a single document: either its {@link LookupInResult}, or the
+   * error it failed with (like a {@code DocumentNotFoundException}).
+   */
+  public static final class Result {
+    private final String id;
+    private final LookupInResult result;
+    private final Throwable error;
+
+    Result(String id, LookupInResult result, Throwable error) {
+      this.id = id;
+      this.result = result;
+      this.error = error;
+    }
+
+    public String id() {
+      return id;
+    }
+
+    public boolean isSuccess() {
+      return error == null;
+    }
+
+    /**
+     * Returns the result of the lookup, or null if it failed.
+     */
+    public LookupInResult result() {
+      return result;
+    }
+
+    /**
+     * Returns the error the lookup failed with, or null if it succeeded.
+     */
+    public Throwable error() {
+      return error;
+    }
+
+    @Override
+    public String toString() {
+      return "Result{" +
+          "id='" + id + '\'' +
+          (error == null ? ", result=" + result : ", error=" + error) +
+          '}';
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "BulkLookupIn{" +
+        "lookup=" + template +
+        ", concurrency=" + concurrency +
+        '}';
+  }
+}
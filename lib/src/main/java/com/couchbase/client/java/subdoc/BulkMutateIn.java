@@ -0,0 +1,188 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.subdoc;
+
+import com.couchbase.client.java.kv.MutateInResult;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runs many mutations concurrently, while keeping the mutations of a same document in order.
+ * <p>
+ * Every job is a {@link MutateInBuilder}, with its own document, specs and options. Jobs are
+ * spread over {@link #concurrency(int)} queues by document ID: each queue runs its jobs one after
+ * the other, and the queues run concurrently. All the jobs of a document go to the same queue, so
+ * they are applied in the order they were given, and a job never races a previous one on the
+ * same document (a CAS read by the caller stays meaningful until its job runs):
+ * <pre>
+ * BulkMutateIn.create()
+ *     .concurrency(256)
+ *     .executeReactive(events.map(event -&gt; MutateInBuilder.create(collection, event.id())
+ *         .counter("views", 1)
+ *         .upsert("lastSeen", event.time())))
+ *     .filter(result -&gt; !result.isSuccess())
+ *     .subscribe(result -&gt; log.warn("Failed to apply {}", result.job(), result.error()));
+ * </pre>
+ * A failed job is reported in its {@link Result}, and the next jobs of its queue still run. Jobs
+ * are only read as queues are ready to run them, so a large or endless source is never buffered
+ * in full. Results come as jobs complete, which is in order for a given document.
+ * <p>
+ * This class is not part of the SDK 2 API.
+ *
+ * @deprecated This class is neither supported nor maintained by Couchbase.
+ * Use at your own risk. Please migrate to Couchbase SDK 3's
+ * {@link com.couchbase.client.java.ReactiveCollection#mutateIn(String, java.util.List)}
+ * as soon as possible.
+ */
+@Deprecated
+public class BulkMutateIn {
+  public static final int DEFAULT_CONCURRENCY = 64;
+
+  private int concurrency = DEFAULT_CONCURRENCY;
+
+  private BulkMutateIn() {
+  }
+
+  public static BulkMutateIn create() {
+    return new BulkMutateIn();
+  }
+
+  /**
+   * Sets the number of queues, which is the maximum number of mutations in flight at the same
+   * time. Defaults to {@value #DEFAULT_CONCURRENCY}.
+   */
+  public BulkMutateIn concurrency(int concurrency) {
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("concurrency must be positive, got " + concurrency);
+    }
+    this.concurrency = concurrency;
+    return this;
+  }
+
+  /**
+   * Runs the given jobs when the returned {@link Flux} is subscribed.
+   */
+  public Flux<Result> executeReactive(Publisher<MutateInBuilder> jobs) {
+    return executeQueued(jobs, MutateInBuilder::getDocumentId, BulkMutateIn::run, concurrency);
+  }
+
+  /**
+   * Runs the given jobs in the given number of queues, by the document ID of each job.
+   */
+  static <T, R> Flux<R> executeQueued(Publisher<T> jobs, Function<T, String> documentId,
+                                      Function<T, Mono<R>> run, int queues) {
+    // as many groups as the concurrency of flatMap, so every queue is always drained
+    return Flux.from(jobs)
+        .groupBy(job -> queue(documentId.apply(job), queues))
+        .flatMap(queue -> queue.concatMap(run), queues);
+  }
+
+  /**
+   * Runs the given jobs, as the returned stream is consumed.
+   * <p>
+   * Closing the returned stream cancels the jobs still in flight.
+   */
+  public Stream<Result> execute(Iterable<MutateInBuilder> jobs) {
+    return executeReactive(Flux.fromIterable(jobs)).toStream(concurrency);
+  }
+
+  /**
+   * Runs the given jobs, as the returned stream is consumed.
+   * <p>
+   * Closing the returned stream cancels the jobs still in flight, and closes the given one.
+   */
+  public Stream<Result> execute(Stream<MutateInBuilder> jobs) {
+    return executeReactive(Flux.fromStream(jobs)).toStream(concurrency).onClose(jobs::close);
+  }
+
+  /**
+   * Returns the queue of the given document.
+   */
+  static int queue(String documentId, int queues) {
+    int hash = documentId.hashCode();
+    return Math.floorMod(hash ^ (hash >>> 16), queues);
+  }
+
+  private static Mono<Result> run(MutateInBuilder job) {
+    requireNonNull(job, "job");
+    return job.executeReactive()
+        .map(result -> new Result(job, result, null))
+        .onErrorResume(error -> Mono.just(new Result(job, null, error)));
+  }
+
+  /**
+   * The outcome of a job: either its {@link MutateInResult}, or the error it failed with.
+   */
+  public static final class Result {
+    private final MutateInBuilder job;
+    private final MutateInResult result;
+    private final Throwable error;
+
+    Result(MutateInBuilder job, MutateInResult result, Throwable error) {
+      this.job = job;
+      this.result = result;
+      this.error = error;
+    }
+
+    public MutateInBuilder job() {
+      return job;
+    }
+
+    public String id() {
+      return job.getDocumentId();
+    }
+
+    public boolean isSuccess() {
+      return error == null;
+    }
+
+    /**
+     * Returns the result of the job, or null if it failed.
+     */
+    public MutateInResult result() {
+      return result;
+    }
+
+    /**
+     * Returns the error the job failed with, or null if it succeeded.
+     */
+    public Throwable error() {
+      return error;
+    }
+
+    @Override
+    public String toString() {
+      return "Result{" +
+          "job=" + job +
+          (error == null ? ", result=" + result : ", error=" + error) +
+          '}';
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "BulkMutateIn{" +
+        "concurrency=" + concurrency +
+        '}';
+  }
+}
@@ -16,16 +16,20 @@
 
 package com.couchbase.client.java.subdoc;
 
+import com.couchbase.client.core.msg.kv.SubdocCommandType;
+import com.couchbase.client.java.AsyncUtils;
 import com.couchbase.client.java.Collection;
 import com.couchbase.client.java.kv.LookupInOptions;
 import com.couchbase.client.java.kv.LookupInResult;
 import com.couchbase.client.java.kv.LookupInSpec;
-import com.couchbase.client.java.kv.LookupInSpecStandard;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -40,6 +44,12 @@ import static java.util.Objects.requireNonNull;
  * It is intended to ease migration from SDK 2 to SDK 3, but is *not* a drop-in replacement.
  * <p>
  * Create a new instance by calling {@link #create(Collection, String)}.
+ * <p>
+ * Unlike SDK 2, a lookup may have more specs than the server accepts in a single request: it is
+ * then split into several requests, sent concurrently, and their fields are returned in the order
+ * of the specs, all read from the same revision of the document. A lookup of more than
+ * {@link #fullDocumentThreshold(int)} paths fetches the whole document instead, unless it reads
+ * extended attributes.
  *
  * @deprecated This class is neither supported nor maintained by Couchbase.
  * Use at your own risk. Please migrate to Couchbase SDK 3's
@@ -48,13 +58,18 @@ import static java.util.Objects.requireNonNull;
  */
 @Deprecated
 public class LookupInBuilder {
+  public static final int DEFAULT_FULL_DOCUMENT_THRESHOLD = 64;
+
   private final com.couchbase.client.java.Collection collection;
   private final String documentId;
 
   private final long defaultTimeout;
   private final TimeUnit defaultTimeUnit = TimeUnit.MILLISECONDS;
   private final LookupInOptions options = LookupInOptions.lookupInOptions();
-  private final List<LookupInSpec> specs = new ArrayList<>();
+  private final List<SubdocLookup> lookups = new ArrayList<>();
+  private final List<LookupInSpec> specs = Collections.unmodifiableList(lookups);
+  private int fullDocumentThreshold = DEFAULT_FULL_DOCUMENT_THRESHOLD;
+  private boolean optimize;
 
   public static LookupInBuilder create(
       com.couchbase.client.java.Collection collection,
@@ -101,15 +116,116 @@ public class LookupInBuilder {
     return this;
   }
 
+  /**
+   * Fetches the whole document and reads the paths from it, rather than splitting the lookup into
+   * several requests, when it has more than the given number of paths and reads no extended
+   * attributes. Defaults to {@value #DEFAULT_FULL_DOCUMENT_THRESHOLD}.
+   * <p>
+   * This method is not part of the SDK 2 API.
+   */
+  public LookupInBuilder fullDocumentThreshold(int paths) {
+    if (paths < 1) {
+      throw new IllegalArgumentException("paths must be positive, got " + paths);
+    }
+    this.fullDocumentThreshold = paths;
+    return this;
+  }
+
+  /**
+   * Whether to send fewer lookups than this builder has, when some of them are redundant:
+   * lookups of a path within a path this builder gets are answered from the fragment of the
+   * get, and other lookups repeating a previous one are sent once. The result still has a field
+   * per lookup of this builder, at the index it was added. Defaults to false.
+   * <p>
+   * This method is not part of the SDK 2 API.
+   */
+  public LookupInBuilder optimize(boolean optimize) {
+    this.optimize = optimize;
+    return this;
+  }
+
   public LookupInResult execute() {
     return execute(defaultTimeout, defaultTimeUnit);
   }
 
   public LookupInResult execute(long timeout, TimeUnit timeUnit) {
     options.timeout(Duration.ofMillis(timeUnit.toMillis(timeout)));
+    if (isPlanned()) {
+      return AsyncUtils.block(executePlanned(documentId, new ArrayList<>(lookups), SubdocOptions.copy(options)));
+    }
     return collection.lookupIn(documentId, specs, options);
   }
 
+  /**
+   * Same as {@link #execute()}, through SDK 3's {@link com.couchbase.client.java.AsyncCollection}:
+   * no thread is blocked while the lookup is in flight. The lookup keeps the specs and options of
+   * this builder when this method is called, even if the builder is changed afterwards.
+   * <p>
+   * This method is not part of the SDK 2 API, which had {@code AsyncBucket.lookupIn(String)} instead.
+   */
+  public CompletableFuture<LookupInResult> executeAsync() {
+    return executeAsync(defaultTimeout, defaultTimeUnit);
+  }
+
+  public CompletableFuture<LookupInResult> executeAsync(long timeout, TimeUnit timeUnit) {
+    options.timeout(Duration.ofMillis(timeUnit.toMillis(timeout)));
+    LookupInOptions options = SubdocOptions.copy(this.options);
+    if (isPlanned()) {
+      return executePlanned(documentId, new ArrayList<>(lookups), options);
+    }
+    return collection.async().lookupIn(documentId, new ArrayList<>(specs), options);
+  }
+
+  /**
+   * Same as {@link #execute()}, through SDK 3's {@link com.couchbase.client.java.ReactiveCollection}:
+   * the lookup is sent when the returned {@link Mono} is subscribed, and no thread is blocked
+   * while it is in flight. The lookup keeps the specs and options of this builder when this method
+   * is called, even if the builder is changed before the subscription.
+   * <p>
+   * This method is not part of the SDK 2 API.
+   */
+  public Mono<LookupInResult> executeReactive() {
+    return executeReactive(defaultTimeout, defaultTimeUnit);
+  }
+
+  public Mono<LookupInResult> executeReactive(long timeout, TimeUnit timeUnit) {
+    options.timeout(Duration.ofMillis(timeUnit.toMillis(timeout)));
+    return executeReactive(documentId);
+  }
+
+  /**
+   * Runs the lookup of this builder against another document, leaving this builder untouched,
+   * see {@link BulkLookupIn}.
+   */
+  Mono<LookupInResult> executeReactive(String documentId) {
+    LookupInOptions options = SubdocOptions.copy(this.options);
+    if (isPlanned()) {
+      List<SubdocLookup> planned = new ArrayList<>(lookups);
+      return Mono.defer(() -> Mono.fromFuture(executePlanned(documentId, planned, options)));
+    }
+    return collection.reactive().lookupIn(documentId, new ArrayList<>(specs), options);
+  }
+
+  /**
+   * Whether the lookups are not sent as they are, in a single request.
+   */
+  private boolean isPlanned() {
+    return optimize || SubdocSplitter.isSplit(lookups, fullDocumentThreshold);
+  }
+
+  private CompletableFuture<LookupInResult> executePlanned(String documentId, List<SubdocLookup> lookups,
+                                                          LookupInOptions options) {
+    SubdocOptimizer.LookupPlan plan = optimize ? SubdocOptimizer.planLookups(lookups) : null;
+    List<SubdocLookup> sent = plan == null ? lookups : plan.sent;
+    CompletableFuture<LookupInResult> result = SubdocSplitter.isSplit(sent, fullDocumentThreshold)
+        ? SubdocSplitter.lookupIn(collection.async(), documentId, sent, options, fullDocumentThreshold)
+        : collection.async().lookupIn(documentId, new ArrayList<>(sent), options);
+    if (plan == null) {
+      return result;
+    }
+    return result.thenApply(r -> plan.apply(r, SubdocSplitter.serializer(collection.async(), options)));
+  }
+
   /**
    * Bridge to SDK 3's {@link LookupInSpec#get(String)}.
    */
@@ -128,8 +244,7 @@ public class LookupInBuilder {
    * Bridge to SDK 3's {@link LookupInSpec#get(String)}.
    */
   public LookupInBuilder get(String path, SubdocOptionsBuilder optionsBuilder) {
-    LookupInSpecStandard op = applyOptions(LookupInSpec.get(path), optionsBuilder);
-    return add(op);
+    return add(SubdocCommandType.GET, path, optionsBuilder);
   }
 
   /**
@@ -148,8 +263,7 @@ public class LookupInBuilder {
   }
 
   public LookupInBuilder exists(String path, SubdocOptionsBuilder optionsBuilder) {
-    LookupInSpec op = applyOptions(LookupInSpec.exists(path), optionsBuilder);
-    return add(op);
+    return add(SubdocCommandType.EXISTS, path, optionsBuilder);
   }
 
   /**
@@ -171,8 +285,7 @@ public class LookupInBuilder {
    * Bridge to SDK 3's {@link LookupInSpec#count(String)}.
    */
   public LookupInBuilder getCount(String path, SubdocOptionsBuilder optionsBuilder) {
-    LookupInSpec op = applyOptions(LookupInSpec.count(path), optionsBuilder);
-    return add(op);
+    return add(SubdocCommandType.COUNT, path, optionsBuilder);
   }
 
   /**
@@ -201,15 +314,8 @@ public class LookupInBuilder {
     return true;
   }
 
-  private static LookupInSpecStandard applyOptions(LookupInSpecStandard op, SubdocOptionsBuilder optionsBuilder) {
-    if (optionsBuilder.xattr()) {
-      op.xattr();
-    }
-    return op;
-  }
-
-  private LookupInBuilder add(LookupInSpec spec) {
-    specs.add(spec);
+  private LookupInBuilder add(SubdocCommandType type, String path, SubdocOptionsBuilder optionsBuilder) {
+    lookups.add(new SubdocLookup(type, path, optionsBuilder.xattr()));
     return this;
   }
 
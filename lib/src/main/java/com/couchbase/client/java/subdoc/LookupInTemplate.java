@@ -0,0 +1,194 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.subdoc;
+
+import com.couchbase.client.core.msg.kv.SubdocCommandType;
+import com.couchbase.client.java.AsyncUtils;
+import com.couchbase.client.java.Collection;
+import com.couchbase.client.java.kv.LookupInOptions;
+import com.couchbase.client.java.kv.LookupInResult;
+import com.couchbase.client.java.kv.LookupInSpec;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A lookup defined once, and run against any document.
+ * <p>
+ * It has the same builder methods as {@link LookupInBuilder}, but no document: the document is
+ * given to each execution. The specs and options of the lookup are created once, and shared by
+ * all executions, so running it only allocates the request itself:
+ * <pre>
+ * LookupInTemplate profile = LookupInTemplate.create(collection)
+ *     .get("name", "email")
+ *     .exists("deletedAt");
+ *
+ * LookupInResult result = profile.execute(userId);
+ * </pre>
+ * A lookup of more specs than the server accepts in a single request is split, like the lookups
+ * of {@link LookupInBuilder}.
+ * <p>
+ * Define the template before sharing it: once defined, it may be executed by many threads at the
+ * same time.
+ * <p>
+ * This class is not part of the SDK 2 API.
+ *
+ * @deprecated This class is neither supported nor maintained by Couchbase.
+ * Use at your own risk. Please migrate to Couchbase SDK 3's
+ * {@link com.couchbase.client.java.Collection#lookupIn(String, List)}
+ * as soon as possible.
+ */
+@Deprecated
+public class LookupInTemplate {
+  private final Collection collection;
+  private final LookupInOptions options = LookupInOptions.lookupInOptions();
+  private final List<SubdocLookup> lookups = new ArrayList<>();
+  private final List<LookupInSpec> specs = Collections.unmodifiableList(lookups);
+  private int fullDocumentThreshold = LookupInBuilder.DEFAULT_FULL_DOCUMENT_THRESHOLD;
+
+  private LookupInTemplate(Collection collection) {
+    this.collection = requireNonNull(collection);
+  }
+
+  public static LookupInTemplate create(Collection collection) {
+    return new LookupInTemplate(collection);
+  }
+
+  /**
+   * Configure the SDK 3 {@link LookupInOptions} shared by all the executions of this template.
+   */
+  public LookupInTemplate configureSdk3Options(Consumer<LookupInOptions> configurator) {
+    configurator.accept(options);
+    return this;
+  }
+
+  /**
+   * Bridge for SDK 3's {@link LookupInOptions#accessDeleted(boolean)}.
+   */
+  public LookupInTemplate accessDeleted(boolean accessDeleted) {
+    options.accessDeleted(accessDeleted);
+    return this;
+  }
+
+  /**
+   * Sets the timeout of each execution. Defaults to the key-value timeout of the cluster environment.
+   */
+  public LookupInTemplate timeout(long timeout, TimeUnit timeUnit) {
+    options.timeout(Duration.ofMillis(timeUnit.toMillis(timeout)));
+    return this;
+  }
+
+  /**
+   * Same as {@link LookupInBuilder#fullDocumentThreshold(int)}.
+   */
+  public LookupInTemplate fullDocumentThreshold(int paths) {
+    if (paths < 1) {
+      throw new IllegalArgumentException("paths must be positive, got " + paths);
+    }
+    this.fullDocumentThreshold = paths;
+    return this;
+  }
+
+  public LookupInTemplate get(String... paths) {
+    return get(Arrays.asList(paths), new SubdocOptionsBuilder());
+  }
+
+  public LookupInTemplate get(String path, SubdocOptionsBuilder optionsBuilder) {
+    return add(SubdocCommandType.GET, path, optionsBuilder);
+  }
+
+  public LookupInTemplate get(Iterable<String> paths, SubdocOptionsBuilder optionsBuilder) {
+    paths.forEach(p -> get(p, optionsBuilder));
+    return this;
+  }
+
+  public LookupInTemplate exists(String... paths) {
+    return exists(Arrays.asList(paths), new SubdocOptionsBuilder());
+  }
+
+  public LookupInTemplate exists(String path, SubdocOptionsBuilder optionsBuilder) {
+    return add(SubdocCommandType.EXISTS, path, optionsBuilder);
+  }
+
+  public LookupInTemplate exists(Iterable<String> paths, SubdocOptionsBuilder optionsBuilder) {
+    paths.forEach(p -> exists(p, optionsBuilder));
+    return this;
+  }
+
+  public LookupInTemplate getCount(String... paths) {
+    return getCount(Arrays.asList(paths), new SubdocOptionsBuilder());
+  }
+
+  public LookupInTemplate getCount(String path, SubdocOptionsBuilder optionsBuilder) {
+    return add(SubdocCommandType.COUNT, path, optionsBuilder);
+  }
+
+  public LookupInTemplate getCount(Iterable<String> paths, SubdocOptionsBuilder optionsBuilder) {
+    paths.forEach(p -> getCount(p, optionsBuilder));
+    return this;
+  }
+
+  private LookupInTemplate add(SubdocCommandType type, String path, SubdocOptionsBuilder optionsBuilder) {
+    lookups.add(new SubdocLookup(type, path, optionsBuilder.xattr()));
+    return this;
+  }
+
+  /**
+   * Runs the lookup against the given document.
+   */
+  public LookupInResult execute(String documentId) {
+    if (SubdocSplitter.isSplit(lookups, fullDocumentThreshold)) {
+      return AsyncUtils.block(executeAsync(documentId));
+    }
+    return collection.lookupIn(documentId, specs, options);
+  }
+
+  /**
+   * Same as {@link #execute(String)}, through SDK 3's {@link com.couchbase.client.java.AsyncCollection}.
+   */
+  public CompletableFuture<LookupInResult> executeAsync(String documentId) {
+    if (SubdocSplitter.isSplit(lookups, fullDocumentThreshold)) {
+      return SubdocSplitter.lookupIn(collection.async(), documentId, lookups, options, fullDocumentThreshold);
+    }
+    return collection.async().lookupIn(documentId, specs, options);
+  }
+
+  /**
+   * Same as {@link #execute(String)}, through SDK 3's {@link com.couchbase.client.java.ReactiveCollection}:
+   * the lookup is sent when the returned {@link Mono} is subscribed.
+   */
+  public Mono<LookupInResult> executeReactive(String documentId) {
+    if (SubdocSplitter.isSplit(lookups, fullDocumentThreshold)) {
+      return Mono.defer(() -> Mono.fromFuture(executeAsync(documentId)));
+    }
+    return collection.reactive().lookupIn(documentId, specs, options);
+  }
+
+  @Override
+  public String toString() {
+    return "lookupIn" + lookups;
+  }
+}
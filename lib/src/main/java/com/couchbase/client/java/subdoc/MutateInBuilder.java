@@ -16,24 +16,17 @@
 
 package com.couchbase.client.java.subdoc;
 
-
+import com.couchbase.client.core.msg.kv.SubdocCommandType;
+import com.couchbase.client.java.AsyncUtils;
 import com.couchbase.client.java.json.JsonObject;
-import com.couchbase.client.java.kv.ArrayAddUnique;
-import com.couchbase.client.java.kv.ArrayAppend;
-import com.couchbase.client.java.kv.ArrayInsert;
-import com.couchbase.client.java.kv.ArrayPrepend;
-import com.couchbase.client.java.kv.Increment;
-import com.couchbase.client.java.kv.Insert;
-import com.couchbase.client.java.kv.MutateInMacro;
 import com.couchbase.client.java.kv.MutateInOptions;
 import com.couchbase.client.java.kv.MutateInResult;
 import com.couchbase.client.java.kv.MutateInSpec;
 import com.couchbase.client.java.kv.MutationResult;
 import com.couchbase.client.java.kv.PersistTo;
-import com.couchbase.client.java.kv.Remove;
 import com.couchbase.client.java.kv.ReplicateTo;
 import com.couchbase.client.java.kv.StoreSemantics;
-import com.couchbase.client.java.kv.Upsert;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -42,10 +35,10 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
-import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.DAYS;
 
@@ -58,6 +51,11 @@ import static java.util.concurrent.TimeUnit.DAYS;
  * It is intended to ease migration from SDK 2 to SDK 3, but is *not* a drop-in replacement.
  * <p>
  * Create a new instance by calling {@link #create(com.couchbase.client.java.Collection, String)}.
+ * <p>
+ * Unlike SDK 2, a mutation may have more specs than the server accepts in a single request: it is
+ * then split into several requests, sent one after the other, each one conditioned on the CAS
+ * returned by the previous one. Such a mutation is not atomic: if a request fails, for example
+ * because the document was changed in between, the previous ones remain applied.
  *
  * @deprecated This class is neither supported nor maintained by Couchbase.
  * Use at your own risk. Please migrate to Couchbase SDK 3's
@@ -75,6 +73,7 @@ public class MutateInBuilder {
   private final MutateInOptions options = MutateInOptions.mutateInOptions();
 
   private final List<MutateInSpec> specs = new ArrayList<>();
+  private boolean optimize;
 
   public static MutateInBuilder create(
       com.couchbase.client.java.Collection collection,
@@ -113,37 +112,143 @@ public class MutateInBuilder {
     return this;
   }
 
+  /**
+   * Whether to send fewer specs than this builder has, when some of them can be merged:
+   * consecutive appends to the same array are sent as one append of all their values. The result
+   * still has a field per spec of this builder, at the index it was added. Defaults to false.
+   * <p>
+   * This method is not part of the SDK 2 API.
+   */
+  public MutateInBuilder optimize(boolean optimize) {
+    this.optimize = optimize;
+    return this;
+  }
+
   public MutateInResult execute(PersistTo persistTo) {
     return execute(persistTo, defaultTimeout, defaultTimeUnit);
   }
 
   public MutateInResult execute(long timeout, TimeUnit timeUnit) {
-    options.timeout(Duration.ofMillis(timeUnit.toMillis(timeout)));
-    return execute();
+    return withTimeout(timeout, timeUnit).execute();
   }
 
   public MutateInResult execute(PersistTo persistTo, ReplicateTo replicateTo, long timeout, TimeUnit timeUnit) {
-    withDurability(persistTo, replicateTo);
-    options.timeout(Duration.ofMillis(timeUnit.toMillis(timeout)));
-    return execute();
+    return withDurability(persistTo, replicateTo).withTimeout(timeout, timeUnit).execute();
   }
 
   public MutateInResult execute(PersistTo persistTo, long timeout, TimeUnit timeUnit) {
-    withDurability(persistTo);
-    options.timeout(Duration.ofMillis(timeUnit.toMillis(timeout)));
-    return execute();
+    return withDurability(persistTo).withTimeout(timeout, timeUnit).execute();
   }
 
   public MutateInResult execute(ReplicateTo replicateTo, long timeout, TimeUnit timeUnit) {
-    withDurability(replicateTo);
-    options.timeout(Duration.ofMillis(timeUnit.toMillis(timeout)));
-    return execute();
+    return withDurability(replicateTo).withTimeout(timeout, timeUnit).execute();
   }
 
   public MutateInResult execute() {
+    if (isPlanned()) {
+      return AsyncUtils.block(executePlanned(new ArrayList<>(specs), SubdocOptions.copy(options)));
+    }
     return collection.mutateIn(documentId, specs, options);
   }
 
+  /**
+   * Same as {@link #execute()}, through SDK 3's {@link com.couchbase.client.java.AsyncCollection}:
+   * no thread is blocked while the mutation is in flight. The mutation keeps the specs and options
+   * of this builder when this method is called, even if the builder is changed afterwards.
+   * <p>
+   * This method is not part of the SDK 2 API, which had {@code AsyncBucket.mutateIn(String)} instead.
+   */
+  public CompletableFuture<MutateInResult> executeAsync() {
+    MutateInOptions options = SubdocOptions.copy(this.options);
+    if (isPlanned()) {
+      return executePlanned(new ArrayList<>(specs), options);
+    }
+    return collection.async().mutateIn(documentId, new ArrayList<>(specs), options);
+  }
+
+  public CompletableFuture<MutateInResult> executeAsync(PersistTo persistTo) {
+    return executeAsync(persistTo, defaultTimeout, defaultTimeUnit);
+  }
+
+  public CompletableFuture<MutateInResult> executeAsync(long timeout, TimeUnit timeUnit) {
+    return withTimeout(timeout, timeUnit).executeAsync();
+  }
+
+  public CompletableFuture<MutateInResult> executeAsync(PersistTo persistTo, ReplicateTo replicateTo,
+                                                        long timeout, TimeUnit timeUnit) {
+    return withDurability(persistTo, replicateTo).withTimeout(timeout, timeUnit).executeAsync();
+  }
+
+  public CompletableFuture<MutateInResult> executeAsync(PersistTo persistTo, long timeout, TimeUnit timeUnit) {
+    return withDurability(persistTo).withTimeout(timeout, timeUnit).executeAsync();
+  }
+
+  public CompletableFuture<MutateInResult> executeAsync(ReplicateTo replicateTo, long timeout, TimeUnit timeUnit) {
+    return withDurability(replicateTo).withTimeout(timeout, timeUnit).executeAsync();
+  }
+
+  /**
+   * Same as {@link #execute()}, through SDK 3's {@link com.couchbase.client.java.ReactiveCollection}:
+   * the mutation is sent when the returned {@link Mono} is subscribed, and no thread is blocked
+   * while it is in flight. The mutation keeps the specs and options of this builder when this
+   * method is called, even if the builder is changed before the subscription.
+   * <p>
+   * This method is not part of the SDK 2 API.
+   */
+  public Mono<MutateInResult> executeReactive() {
+    MutateInOptions options = SubdocOptions.copy(this.options);
+    if (isPlanned()) {
+      List<MutateInSpec> planned = new ArrayList<>(specs);
+      return Mono.defer(() -> Mono.fromFuture(executePlanned(planned, options)));
+    }
+    return collection.reactive().mutateIn(documentId, new ArrayList<>(specs), options);
+  }
+
+  public Mono<MutateInResult> executeReactive(PersistTo persistTo) {
+    return executeReactive(persistTo, defaultTimeout, defaultTimeUnit);
+  }
+
+  public Mono<MutateInResult> executeReactive(long timeout, TimeUnit timeUnit) {
+    return withTimeout(timeout, timeUnit).executeReactive();
+  }
+
+  public Mono<MutateInResult> executeReactive(PersistTo persistTo, ReplicateTo replicateTo,
+                                              long timeout, TimeUnit timeUnit) {
+    return withDurability(persistTo, replicateTo).withTimeout(timeout, timeUnit).executeReactive();
+  }
+
+  public Mono<MutateInResult> executeReactive(PersistTo persistTo, long timeout, TimeUnit timeUnit) {
+    return withDurability(persistTo).withTimeout(timeout, timeUnit).executeReactive();
+  }
+
+  public Mono<MutateInResult> executeReactive(ReplicateTo replicateTo, long timeout, TimeUnit timeUnit) {
+    return withDurability(replicateTo).withTimeout(timeout, timeUnit).executeReactive();
+  }
+
+  /**
+   * Whether the specs are not sent as they are, in a single request.
+   */
+  private boolean isPlanned() {
+    return optimize || SubdocSplitter.isSplit(specs);
+  }
+
+  private CompletableFuture<MutateInResult> executePlanned(List<MutateInSpec> specs, MutateInOptions options) {
+    SubdocOptimizer.MutationPlan plan = optimize ? SubdocOptimizer.planMutations(specs) : null;
+    List<MutateInSpec> sent = plan == null ? specs : plan.sent;
+    CompletableFuture<MutateInResult> result = SubdocSplitter.isSplit(sent)
+        ? SubdocSplitter.mutateIn(collection.async(), documentId, sent, options)
+        : collection.async().mutateIn(documentId, sent, options);
+    if (plan == null) {
+      return result;
+    }
+    return result.thenApply(r -> plan.apply(r, SubdocSplitter.serializer(collection.async(), options)));
+  }
+
+  private MutateInBuilder withTimeout(long timeout, TimeUnit timeUnit) {
+    options.timeout(Duration.ofMillis(timeUnit.toMillis(timeout)));
+    return this;
+  }
+
   /**
    * Bridge to SDK 3's {@link MutateInOptions#expiry(Duration)} or {@link MutateInOptions#expiry(Instant)}
    *
@@ -225,7 +330,7 @@ public class MutateInBuilder {
   }
 
   public <T> MutateInBuilder replace(String path, T fragment) {
-    return add(MutateInSpec.replace(path, fragment));
+    return add(SubdocCommandType.REPLACE, path, fragment, new SubdocOptionsBuilder(), false);
   }
 
   /**
@@ -247,14 +352,7 @@ public class MutateInBuilder {
    * Bridge to SDK 3's {@link MutateInSpec#insert(String, Object)}.
    */
   public <T> MutateInBuilder insert(String path, T fragment, SubdocOptionsBuilder optionsBuilder) {
-    Insert op = MutateInSpec.insert(path, translateMacros(fragment, optionsBuilder));
-    if (optionsBuilder.createPath()) {
-      op.createPath();
-    }
-    if (optionsBuilder.xattr()) {
-      op.xattr();
-    }
-    return add(op);
+    return add(SubdocCommandType.DICT_ADD, path, fragment, optionsBuilder, false);
   }
 
   /**
@@ -283,14 +381,7 @@ public class MutateInBuilder {
    * Bridge to SDK 3's {@link MutateInSpec#upsert(String, Object)}.
    */
   public <T> MutateInBuilder upsert(String path, T fragment, SubdocOptionsBuilder optionsBuilder) {
-    Upsert op = MutateInSpec.upsert(path, translateMacros(fragment, optionsBuilder));
-    if (optionsBuilder.createPath()) {
-      op.createPath();
-    }
-    if (optionsBuilder.xattr()) {
-      op.xattr();
-    }
-    return add(op);
+    return add(SubdocCommandType.DICT_UPSERT, path, fragment, optionsBuilder, false);
   }
 
   /**
@@ -304,11 +395,7 @@ public class MutateInBuilder {
    * Bridge to SDK 3's {@link MutateInSpec#remove(String)}.
    */
   public <T> MutateInBuilder remove(String path, SubdocOptionsBuilder optionsBuilder) {
-    Remove op = MutateInSpec.remove(path);
-    if (optionsBuilder.xattr()) {
-      op.xattr();
-    }
-    return add(op);
+    return add(SubdocCommandType.DELETE, path, null, optionsBuilder, false);
   }
 
   /**
@@ -336,14 +423,7 @@ public class MutateInBuilder {
    * NOTE: SDK 3 also has a {@link MutateInSpec#decrement(String, long)} method, but it's the same as passing a negative number to {@code increment}.
    */
   public MutateInBuilder counter(String path, long delta, SubdocOptionsBuilder optionsBuilder) {
-    Increment op = MutateInSpec.increment(path, delta);
-    if (optionsBuilder.createPath()) {
-      op.createPath();
-    }
-    if (optionsBuilder.xattr()) {
-      op.xattr();
-    }
-    return add(op);
+    return add(SubdocCommandType.COUNTER, path, delta, optionsBuilder, false);
   }
 
   /**
@@ -365,7 +445,7 @@ public class MutateInBuilder {
    * Bridge to SDK 3's {@link MutateInSpec#arrayPrepend(String, List)}.
    */
   public <T> MutateInBuilder arrayPrepend(String path, T value, SubdocOptionsBuilder optionsBuilder) {
-    return arrayPrependAll(path, singletonList(value), optionsBuilder);
+    return add(SubdocCommandType.ARRAY_PUSH_FIRST, path, value, optionsBuilder, false);
   }
 
   /**
@@ -380,14 +460,7 @@ public class MutateInBuilder {
    * Bridge to SDK 3's {@link MutateInSpec#arrayPrepend(String, List)}.
    */
   public <T> MutateInBuilder arrayPrependAll(String path, Collection<T> values, SubdocOptionsBuilder optionsBuilder) {
-    ArrayPrepend op = MutateInSpec.arrayPrepend(path, new ArrayList<>(values));
-    if (optionsBuilder.createPath()) {
-      op.createPath();
-    }
-    if (optionsBuilder.xattr()) {
-      op.xattr();
-    }
-    return add(op);
+    return add(SubdocCommandType.ARRAY_PUSH_FIRST, path, new ArrayList<>(values), optionsBuilder, true);
   }
 
   /**
@@ -402,21 +475,21 @@ public class MutateInBuilder {
    */
   @Deprecated
   public <T> MutateInBuilder arrayAppend(String path, T value, boolean createPath) {
-    return arrayAppendAll(path, singletonList(value), new SubdocOptionsBuilder().createPath(createPath));
+    return arrayAppend(path, value, new SubdocOptionsBuilder().createPath(createPath));
   }
 
   /**
    * Bridge to SDK 3's {@link MutateInSpec#arrayAppend(String, List)}.
    */
   public <T> MutateInBuilder arrayAppend(String path, T value) {
-    return arrayAppendAll(path, singletonList(value), new SubdocOptionsBuilder());
+    return arrayAppend(path, value, new SubdocOptionsBuilder());
   }
 
   /**
    * Bridge to SDK 3's {@link MutateInSpec#arrayAppend(String, List)}.
    */
   public <T> MutateInBuilder arrayAppend(String path, T value, SubdocOptionsBuilder optionsBuilder) {
-    return arrayAppendAll(path, singletonList(value), optionsBuilder);
+    return add(SubdocCommandType.ARRAY_PUSH_LAST, path, value, optionsBuilder, false);
   }
 
   /**
@@ -431,14 +504,7 @@ public class MutateInBuilder {
    * Bridge to SDK 3's {@link MutateInSpec#arrayAppend(String, List)}.
    */
   public <T> MutateInBuilder arrayAppendAll(String path, Collection<T> values, SubdocOptionsBuilder optionsBuilder) {
-    ArrayAppend op = MutateInSpec.arrayAppend(path, new ArrayList<>(values));
-    if (optionsBuilder.createPath()) {
-      op.createPath();
-    }
-    if (optionsBuilder.xattr()) {
-      op.xattr();
-    }
-    return add(op);
+    return add(SubdocCommandType.ARRAY_PUSH_LAST, path, new ArrayList<>(values), optionsBuilder, true);
   }
 
   /**
@@ -459,7 +525,7 @@ public class MutateInBuilder {
    * Bridge to SDK 3's {@link MutateInSpec#arrayInsert(String, List)}.
    */
   public <T> MutateInBuilder arrayInsert(String path, T value, SubdocOptionsBuilder optionsBuilder) {
-    return arrayInsertAll(path, singletonList(value), optionsBuilder);
+    return add(SubdocCommandType.ARRAY_INSERT, path, value, optionsBuilder, false);
   }
 
   /**
@@ -473,14 +539,7 @@ public class MutateInBuilder {
    * Bridge to SDK 3's {@link MutateInSpec#arrayInsert(String, List)}.
    */
   public <T> MutateInBuilder arrayInsertAll(String path, Collection<T> values, SubdocOptionsBuilder optionsBuilder) {
-    ArrayInsert op = MutateInSpec.arrayInsert(path, new ArrayList<>(values));
-    if (optionsBuilder.createPath()) {
-      op.createPath();
-    }
-    if (optionsBuilder.xattr()) {
-      op.xattr();
-    }
-    return add(op);
+    return add(SubdocCommandType.ARRAY_INSERT, path, new ArrayList<>(values), optionsBuilder, true);
   }
 
   /**
@@ -509,14 +568,7 @@ public class MutateInBuilder {
    * Bridge to SDK 3's {@link MutateInSpec#arrayAddUnique(String, Object)}.
    */
   public <T> MutateInBuilder arrayAddUnique(String path, T value, SubdocOptionsBuilder optionsBuilder) {
-    ArrayAddUnique op = MutateInSpec.arrayAddUnique(path, translateMacros(value, optionsBuilder));
-    if (optionsBuilder.createPath()) {
-      op.createPath();
-    }
-    if (optionsBuilder.xattr()) {
-      op.xattr();
-    }
-    return add(op);
+    return add(SubdocCommandType.ARRAY_ADD_UNIQUE, path, value, optionsBuilder, false);
   }
 
   // Visible for testing
@@ -524,27 +576,15 @@ public class MutateInBuilder {
     return options.build();
   }
 
-  private MutateInBuilder add(MutateInSpec spec) {
-    specs.add(spec);
+  /**
+   * Adds a mutation, whose macros like {@code ${Mutation.CAS}} are expanded if the options say so.
+   */
+  private MutateInBuilder add(SubdocCommandType type, String path, Object value, SubdocOptionsBuilder optionsBuilder,
+                              boolean multiValue) {
+    specs.add(new SubdocMutation(type, path, optionsBuilder, multiValue).bind(value));
     return this;
   }
 
-  private static Object translateMacros(Object in, SubdocOptionsBuilder subdocOptionsBuilder) {
-    if (!subdocOptionsBuilder.expandMacros() || !(in instanceof String)) {
-      return in;
-    }
-    switch ((String) in) {
-      case "${Mutation.CAS}":
-        return MutateInMacro.CAS;
-      case "${Mutation.seqno}":
-        return MutateInMacro.SEQ_NO;
-      case "${Mutation.value_crc32c}":
-        return MutateInMacro.VALUE_CRC_32C;
-      default:
-        return in;
-    }
-  }
-
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder("mutateIn(").append(documentId);
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.subdoc;
+
+import com.couchbase.client.core.msg.kv.SubdocCommandType;
+import com.couchbase.client.java.AsyncUtils;
+import com.couchbase.client.java.Collection;
+import com.couchbase.client.java.kv.MutateInOptions;
+import com.couchbase.client.java.kv.MutateInResult;
+import com.couchbase.client.java.kv.MutateInSpec;
+import com.couchbase.client.java.kv.PersistTo;
+import com.couchbase.client.java.kv.ReplicateTo;
+import com.couchbase.client.java.kv.StoreSemantics;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.DAYS;
+
+/**
+ * A mutation defined once, and applied to any document with any values.
+ * <p>
+ * It has the same builder methods as {@link MutateInBuilder}, but without values: the paths, the
+ * types of mutations and their options are defined once, and each execution only gives the
+ * document and the values, in the order of the mutations taking one. The paths and options are
+ * shared by all executions, so applying the mutation only allocates a spec per value, and the
+ * request itself:
+ * <pre>
+ * MutateInTemplate visit = MutateInTemplate.create(collection)
+ *     .counter("visits")
+ *     .upsert("lastVisit")
+ *     .arrayAppend("pages", new SubdocOptionsBuilder().createPath(true));
+ *
+ * visit.execute(userId, 1, now, page);
+ * </pre>
+ * The value of a counter is its delta, and the value of the {@code *All} array mutations is a
+ * collection of values. Removals take no value.
+ * <p>
+ * A mutation of more specs than the server accepts in a single request is split, like the
+ * mutations of {@link MutateInBuilder}, and is not atomic.
+ * <p>
+ * Define the template before sharing it: once defined, it may be executed by many threads at the
+ * same time.
+ * <p>
+ * This class is not part of the SDK 2 API.
+ *
+ * @deprecated This class is neither supported nor maintained by Couchbase.
+ * Use at your own risk. Please migrate to Couchbase SDK 3's
+ * {@link com.couchbase.client.java.Collection#mutateIn(String, List)}
+ * as soon as possible.
+ */
+@Deprecated
+public class MutateInTemplate {
+  private static final int RELATIVE_EXPIRY_CUTOFF_SECONDS = Math.toIntExact(DAYS.toSeconds(30));
+
+  private final Collection collection;
+  private final MutateInOptions options = MutateInOptions.mutateInOptions();
+  private final List<Consumer<MutateInOptions>> configurators = new ArrayList<>();
+  private final List<SubdocMutation> mutations = new ArrayList<>();
+  private int values;
+
+  private MutateInTemplate(Collection collection) {
+    this.collection = requireNonNull(collection);
+  }
+
+  public static MutateInTemplate create(Collection collection) {
+    return new MutateInTemplate(collection);
+  }
+
+  /**
+   * Configure the SDK 3 {@link MutateInOptions} shared by all the executions of this template.
+   */
+  public MutateInTemplate configureSdk3Options(Consumer<MutateInOptions> configurator) {
+    configurator.accept(options);
+    configurators.add(configurator);
+    return this;
+  }
+
+  /**
+   * Same as {@link MutateInBuilder#withExpiry(int)}.
+   */
+  public MutateInTemplate withExpiry(int expiry) {
+    if (expiry <= RELATIVE_EXPIRY_CUTOFF_SECONDS) {
+      return configureSdk3Options(o -> o.expiry(Duration.ofSeconds(expiry)));
+    }
+    return configureSdk3Options(o -> o.expiry(Instant.ofEpochSecond(expiry)));
+  }
+
+  /**
+   * Bridge to SDK 3's {@link MutateInOptions#durability(PersistTo, ReplicateTo)}.
+   */
+  public MutateInTemplate withDurability(PersistTo persistTo, ReplicateTo replicateTo) {
+    requireNonNull(persistTo);
+    requireNonNull(replicateTo);
+    return configureSdk3Options(o -> o.durability(persistTo, replicateTo));
+  }
+
+  /**
+   * Same as {@link MutateInBuilder#upsertDocument(boolean)}.
+   */
+  public MutateInTemplate upsertDocument(boolean upsertDocument) {
+    StoreSemantics semantics = upsertDocument ? StoreSemantics.UPSERT : StoreSemantics.REPLACE;
+    return configureSdk3Options(o -> o.storeSemantics(semantics));
+  }
+
+  /**
+   * Same as {@link MutateInBuilder#insertDocument(boolean)}.
+   */
+  public MutateInTemplate insertDocument(boolean insertDocument) {
+    StoreSemantics semantics = insertDocument ? StoreSemantics.INSERT : StoreSemantics.REPLACE;
+    return configureSdk3Options(o -> o.storeSemantics(semantics));
+  }
+
+  /**
+   * Sets the timeout of each execution. Defaults to the key-value timeout of the cluster environment.
+   */
+  public MutateInTemplate timeout(long timeout, TimeUnit timeUnit) {
+    Duration duration = Duration.ofMillis(timeUnit.toMillis(timeout));
+    return configureSdk3Options(o -> o.timeout(duration));
+  }
+
+  public MutateInTemplate insert(String path) {
+    return insert(path, new SubdocOptionsBuilder());
+  }
+
+  public MutateInTemplate insert(String path, SubdocOptionsBuilder optionsBuilder) {
+    return add(SubdocCommandType.DICT_ADD, path, optionsBuilder, false);
+  }
+
+  public MutateInTemplate upsert(String path) {
+    return upsert(path, new SubdocOptionsBuilder());
+  }
+
+  public MutateInTemplate upsert(String path, SubdocOptionsBuilder optionsBuilder) {
+    return add(SubdocCommandType.DICT_UPSERT, path, optionsBuilder, false);
+  }
+
+  public MutateInTemplate replace(String path) {
+    return replace(path, new SubdocOptionsBuilder());
+  }
+
+  public MutateInTemplate replace(String path, SubdocOptionsBuilder optionsBuilder) {
+    return add(SubdocCommandType.REPLACE, path, optionsBuilder, false);
+  }
+
+  public MutateInTemplate remove(String path) {
+    return remove(path, new SubdocOptionsBuilder());
+  }
+
+  public MutateInTemplate remove(String path, SubdocOptionsBuilder optionsBuilder) {
+    return add(SubdocCommandType.DELETE, path, optionsBuilder, false);
+  }
+
+  public MutateInTemplate counter(String path) {
+    return counter(path, new SubdocOptionsBuilder());
+  }
+
+  public MutateInTemplate counter(String path, SubdocOptionsBuilder optionsBuilder) {
+    return add(SubdocCommandType.COUNTER, path, optionsBuilder, false);
+  }
+
+  public MutateInTemplate arrayPrepend(String path) {
+    return arrayPrepend(path, new SubdocOptionsBuilder());
+  }
+
+  public MutateInTemplate arrayPrepend(String path, SubdocOptionsBuilder optionsBuilder) {
+    return add(SubdocCommandType.ARRAY_PUSH_FIRST, path, optionsBuilder, false);
+  }
+
+  public MutateInTemplate arrayPrependAll(String path) {
+    return arrayPrependAll(path, new SubdocOptionsBuilder());
+  }
+
+  public MutateInTemplate arrayPrependAll(String path, SubdocOptionsBuilder optionsBuilder) {
+    return add(SubdocCommandType.ARRAY_PUSH_FIRST, path, optionsBuilder, true);
+  }
+
+  public MutateInTemplate arrayAppend(String path) {
+    return arrayAppend(path, new SubdocOptionsBuilder());
+  }
+
+  public MutateInTemplate arrayAppend(String path, SubdocOptionsBuilder optionsBuilder) {
+    return add(SubdocCommandType.ARRAY_PUSH_LAST, path, optionsBuilder, false);
+  }
+
+  public MutateInTemplate arrayAppendAll(String path) {
+    return arrayAppendAll(path, new SubdocOptionsBuilder());
+  }
+
+  public MutateInTemplate arrayAppendAll(String path, SubdocOptionsBuilder optionsBuilder) {
+    return add(SubdocCommandType.ARRAY_PUSH_LAST, path, optionsBuilder, true);
+  }
+
+  public MutateInTemplate arrayInsert(String path) {
+    return arrayInsert(path, new SubdocOptionsBuilder());
+  }
+
+  public MutateInTemplate arrayInsert(String path, SubdocOptionsBuilder optionsBuilder) {
+    return add(SubdocCommandType.ARRAY_INSERT, path, optionsBuilder, false);
+  }
+
+  public MutateInTemplate arrayInsertAll(String path) {
+    return arrayInsertAll(path, new SubdocOptionsBuilder());
+  }
+
+  public MutateInTemplate arrayInsertAll(String path, SubdocOptionsBuilder optionsBuilder) {
+    return add(SubdocCommandType.ARRAY_INSERT, path, optionsBuilder, true);
+  }
+
+  public MutateInTemplate arrayAddUnique(String path) {
+    return arrayAddUnique(path, new SubdocOptionsBuilder());
+  }
+
+  public MutateInTemplate arrayAddUnique(String path, SubdocOptionsBuilder optionsBuilder) {
+    return add(SubdocCommandType.ARRAY_ADD_UNIQUE, path, optionsBuilder, false);
+  }
+
+  private MutateInTemplate add(SubdocCommandType type, String path, SubdocOptionsBuilder optionsBuilder,
+                               boolean multiValue) {
+    SubdocMutation mutation = new SubdocMutation(type, path, optionsBuilder, multiValue);
+    mutations.add(mutation);
+    if (mutation.hasValue()) {
+      values++;
+    }
+    return this;
+  }
+
+  /**
+   * Returns the specs of the mutation, with the given values.
+   */
+  List<MutateInSpec> bind(Object... values) {
+    if (values.length != this.values) {
+      throw new IllegalArgumentException("Expected " + this.values + " values, got " + values.length);
+    }
+    MutateInSpec[] specs = new MutateInSpec[mutations.size()];
+    int value = 0;
+    for (int i = 0; i < specs.length; i++) {
+      SubdocMutation mutation = mutations.get(i);
+      specs[i] = mutation.bind(mutation.hasValue() ? values[value++] : null);
+    }
+    return Arrays.asList(specs);
+  }
+
+  /**
+   * Applies the mutation to the given document, with the given values.
+   */
+  public MutateInResult execute(String documentId, Object... values) {
+    return execute(documentId, options, bind(values));
+  }
+
+  /**
+   * Applies the mutation to the given document, with the given values, if its CAS is the given one.
+   */
+  public MutateInResult executeWithCas(String documentId, long cas, Object... values) {
+    return execute(documentId, options(cas), bind(values));
+  }
+
+  private MutateInResult execute(String documentId, MutateInOptions options, List<MutateInSpec> specs) {
+    if (SubdocSplitter.isSplit(specs)) {
+      return AsyncUtils.block(SubdocSplitter.mutateIn(collection.async(), documentId, specs, options));
+    }
+    return collection.mutateIn(documentId, specs, options);
+  }
+
+  /**
+   * Same as {@link #execute(String, Object...)}, through SDK 3's {@link com.couchbase.client.java.AsyncCollection}.
+   */
+  public CompletableFuture<MutateInResult> executeAsync(String documentId, Object... values) {
+    return executeAsync(documentId, options, bind(values));
+  }
+
+  /**
+   * Same as {@link #executeWithCas(String, long, Object...)}, through SDK 3's
+   * {@link com.couchbase.client.java.AsyncCollection}.
+   */
+  public CompletableFuture<MutateInResult> executeWithCasAsync(String documentId, long cas, Object... values) {
+    return executeAsync(documentId, options(cas), bind(values));
+  }
+
+  private CompletableFuture<MutateInResult> executeAsync(String documentId, MutateInOptions options,
+                                                         List<MutateInSpec> specs) {
+    if (SubdocSplitter.isSplit(specs)) {
+      return SubdocSplitter.mutateIn(collection.async(), documentId, specs, options);
+    }
+    return collection.async().mutateIn(documentId, specs, options);
+  }
+
+  /**
+   * Same as {@link #execute(String, Object...)}, through SDK 3's {@link com.couchbase.client.java.ReactiveCollection}:
+   * the mutation is sent when the returned {@link Mono} is subscribed.
+   */
+  public Mono<MutateInResult> executeReactive(String documentId, Object... values) {
+    return executeReactive(documentId, options, bind(values));
+  }
+
+  /**
+   * Same as {@link #executeWithCas(String, long, Object...)}, through SDK 3's
+   * {@link com.couchbase.client.java.ReactiveCollection}.
+   */
+  public Mono<MutateInResult> executeWithCasReactive(String documentId, long cas, Object... values) {
+    return executeReactive(documentId, options(cas), bind(values));
+  }
+
+  private Mono<MutateInResult> executeReactive(String documentId, MutateInOptions options,
+                                               List<MutateInSpec> specs) {
+    if (SubdocSplitter.isSplit(specs)) {
+      return Mono.defer(() -> Mono.fromFuture(SubdocSplitter.mutateIn(collection.async(), documentId, specs, options)));
+    }
+    return collection.reactive().mutateIn(documentId, specs, options);
+  }
+
+  /**
+   * Returns new options, configured like the shared ones, with the given CAS.
+   */
+  private MutateInOptions options(long cas) {
+    MutateInOptions options = MutateInOptions.mutateInOptions();
+    configurators.forEach(configurator -> configurator.accept(options));
+    return options.cas(cas);
+  }
+
+  @Override
+  public String toString() {
+    return "mutateIn" + mutations;
+  }
+}
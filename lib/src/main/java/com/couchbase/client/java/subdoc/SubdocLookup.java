@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.subdoc;
+
+import com.couchbase.client.core.msg.kv.SubdocCommandType;
+import com.couchbase.client.core.msg.kv.SubdocGetRequest;
+import com.couchbase.client.java.kv.LookupInSpec;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A lookup of a {@link LookupInBuilder} or a {@link LookupInTemplate}. Unlike the specs of SDK 3,
+ * it exposes its path, and it keeps the command it was last exported to, so a lookup sent again
+ * at the same index does not allocate a new one.
+ */
+final class SubdocLookup extends LookupInSpec {
+  final SubdocCommandType type;
+  final String path;
+  final boolean xattr;
+  private final SubdocCommandType commandType;
+  private volatile SubdocGetRequest.Command command;
+
+  SubdocLookup(SubdocCommandType type, String path, boolean xattr) {
+    if (type != SubdocCommandType.GET && type != SubdocCommandType.EXISTS && type != SubdocCommandType.COUNT) {
+      throw new IllegalArgumentException("Not a lookup: " + type);
+    }
+    this.type = type;
+    this.path = requireNonNull(path);
+    this.xattr = xattr;
+    this.commandType = type == SubdocCommandType.GET && path.isEmpty() ? SubdocCommandType.GET_DOC : type;
+  }
+
+  /**
+   * Returns the type of the command sent to the server, where getting the empty path gets the document.
+   */
+  SubdocCommandType commandType() {
+    return commandType;
+  }
+
+  @Override
+  public SubdocGetRequest.Command export(int originalIndex) {
+    SubdocGetRequest.Command exported = command;
+    if (exported == null || exported.originalIndex() != originalIndex) {
+      exported = new SubdocGetRequest.Command(commandType, path, xattr, originalIndex);
+      command = exported;
+    }
+    return exported;
+  }
+
+  @Override
+  public String toString() {
+    return type + "(" + path + (xattr ? ", xattr" : "") + ")";
+  }
+}
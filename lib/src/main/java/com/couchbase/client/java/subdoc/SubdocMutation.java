@@ -0,0 +1,196 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.subdoc;
+
+import com.couchbase.client.core.msg.kv.SubdocCommandType;
+import com.couchbase.client.core.msg.kv.SubdocMutateRequest;
+import com.couchbase.client.java.codec.JsonSerializer;
+import com.couchbase.client.java.kv.MutateInMacro;
+import com.couchbase.client.java.kv.MutateInSpec;
+
+import java.util.Collection;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The shape of a mutation: its type, path and options, without its value.
+ * <p>
+ * {@link #bind(Object)} returns a spec encoding the given value the way the specs of SDK 3 do,
+ * while sharing the path and options of the shape.
+ */
+final class SubdocMutation {
+  private static final byte[] EMPTY = new byte[0];
+
+  final SubdocCommandType type;
+  final String path;
+  final boolean createPath;
+  final boolean xattr;
+  final boolean expandMacros;
+  /**
+   * Whether the value of an array mutation is a collection of values, rather than a single value.
+   */
+  final boolean multiValue;
+  private final Bound constant;
+
+  /**
+   * @deprecated Bridges the options of the deprecated builders, which are the only callers.
+   */
+  @Deprecated
+  SubdocMutation(SubdocCommandType type, String path, SubdocOptionsBuilder options, boolean multiValue) {
+    this(type, path, options.createPath(), options.xattr(), options.expandMacros(), multiValue);
+  }
+
+  SubdocMutation(SubdocCommandType type, String path, boolean createPath, boolean xattr, boolean expandMacros,
+                 boolean multiValue) {
+    this.type = requireNonNull(type);
+    this.path = requireNonNull(path);
+    this.createPath = createPath && type != SubdocCommandType.DELETE;
+    this.xattr = xattr;
+    this.expandMacros = expandMacros;
+    this.multiValue = multiValue;
+    this.constant = hasValue() ? null : new Bound(this, null);
+  }
+
+  /**
+   * Returns false if the mutation takes no value, like a removal.
+   */
+  boolean hasValue() {
+    return type != SubdocCommandType.DELETE;
+  }
+
+  /**
+   * Returns a spec of this mutation with the given value.
+   */
+  MutateInSpec bind(Object value) {
+    if (constant != null) {
+      return constant;
+    }
+    if (multiValue && !(value instanceof Collection)) {
+      throw new IllegalArgumentException("Expected a collection of values for " + this + ", got " + value);
+    }
+    if (type == SubdocCommandType.COUNTER && !(value instanceof Number)) {
+      throw new IllegalArgumentException("Expected a number for " + this + ", got " + value);
+    }
+    return new Bound(this, value);
+  }
+
+  private MutateInMacro macro(Object value) {
+    switch (type) {
+      case DICT_ADD:
+      case DICT_UPSERT:
+      case REPLACE:
+      case ARRAY_ADD_UNIQUE:
+        break;
+      default:
+        return null;
+    }
+    if (value instanceof MutateInMacro) {
+      return (MutateInMacro) value;
+    }
+    if (expandMacros && value instanceof String) {
+      for (MutateInMacro macro : MutateInMacro.values()) {
+        if (macro.value().equals(value)) {
+          return macro;
+        }
+      }
+    }
+    return null;
+  }
+
+  private byte[] encode(Object value, MutateInMacro macro, JsonSerializer serializer) {
+    switch (type) {
+      case DELETE:
+        return EMPTY;
+      case COUNTER:
+        return serializer.serialize(((Number) value).longValue());
+      default:
+        if (macro != null) {
+          return serializer.serialize(macro.value());
+        }
+        return multiValue ? encodeAll((Collection<?>) value, serializer) : serializer.serialize(value);
+    }
+  }
+
+  /**
+   * Encodes the values of an array mutation, separated by commas.
+   */
+  private static byte[] encodeAll(Collection<?> values, JsonSerializer serializer) {
+    if (values.size() == 1) {
+      return serializer.serialize(values.iterator().next());
+    }
+    byte[][] encoded = new byte[values.size()][];
+    int length = Math.max(values.size() - 1, 0);
+    int i = 0;
+    for (Object value : values) {
+      encoded[i] = serializer.serialize(value);
+      length += encoded[i++].length;
+    }
+    byte[] joined = new byte[length];
+    int offset = 0;
+    for (byte[] value : encoded) {
+      if (offset > 0) {
+        joined[offset++] = ',';
+      }
+      System.arraycopy(value, 0, joined, offset, value.length);
+      offset += value.length;
+    }
+    return joined;
+  }
+
+  @Override
+  public String toString() {
+    return type + "(" + path
+        + (createPath ? ", createPath" : "")
+        + (xattr ? ", xattr" : "")
+        + (expandMacros ? ", expandMacros" : "")
+        + ")";
+  }
+
+  /**
+   * A mutation along with its value.
+   */
+  static final class Bound extends MutateInSpec {
+    final SubdocMutation mutation;
+    final Object value;
+
+    private Bound(SubdocMutation mutation, Object value) {
+      this.mutation = mutation;
+      this.value = value;
+    }
+
+    @Override
+    public SubdocMutateRequest.Command encode(JsonSerializer serializer, int originalIndex) {
+      MutateInMacro macro = mutation.macro(value);
+      SubdocCommandType type = mutation.type;
+      if (mutation.path.isEmpty()) {
+        // like SDK 3's specs, the empty path is the whole document
+        if (type == SubdocCommandType.DELETE) {
+          type = SubdocCommandType.DELETE_DOC;
+        } else if (type == SubdocCommandType.REPLACE) {
+          type = SubdocCommandType.SET_DOC;
+        }
+      }
+      return new SubdocMutateRequest.Command(type, mutation.path, mutation.encode(value, macro, serializer),
+          mutation.createPath, mutation.xattr || macro != null, macro != null, originalIndex);
+    }
+
+    @Override
+    public String toString() {
+      return mutation.hasValue() ? mutation + "=" + value : mutation.toString();
+    }
+  }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.subdoc;
+
+import com.couchbase.client.core.msg.kv.SubDocumentField;
+import com.couchbase.client.core.msg.kv.SubdocCommandType;
+import com.couchbase.client.java.codec.JsonSerializer;
+import com.couchbase.client.java.kv.LookupInResult;
+import com.couchbase.client.java.kv.MutateInResult;
+import com.couchbase.client.java.kv.MutateInSpec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Merges redundant specs of a sub-document request, see {@link LookupInBuilder#optimize(boolean)}
+ * and {@link MutateInBuilder#optimize(boolean)}.
+ * <p>
+ * A plan holds the specs to send, and where the field of each original spec comes from, so the
+ * result of the request is turned back into a result with a field per original spec.
+ */
+final class SubdocOptimizer {
+
+  private SubdocOptimizer() {
+  }
+
+  /**
+   * Returns the plan of the given lookups, or null if none of them is redundant.
+   * <p>
+   * A lookup whose path is the path of a get, or is within it, is answered from the fragment of
+   * the outermost such get. Other lookups repeating a previous one are answered by it.
+   */
+  static LookupPlan planLookups(List<SubdocLookup> lookups) {
+    int size = lookups.size();
+    List<List<Object>> paths = new ArrayList<>(size);
+    for (SubdocLookup lookup : lookups) {
+      paths.add(parse(lookup.path));
+    }
+
+    int[] source = new int[size];
+    boolean redundant = false;
+    for (int i = 0; i < size; i++) {
+      source[i] = i;
+      SubdocLookup lookup = lookups.get(i);
+      List<Object> path = paths.get(i);
+      if (path == null) {
+        continue;
+      }
+      for (int j = 0; j < size; j++) {
+        SubdocLookup candidate = lookups.get(j);
+        List<Object> candidatePath = paths.get(j);
+        if (j == i || candidate.type != SubdocCommandType.GET || candidate.xattr != lookup.xattr
+            || candidatePath == null || !isPrefix(candidatePath, path)) {
+          continue;
+        }
+        if (candidatePath.size() == path.size() && lookup.type == SubdocCommandType.GET && j > i) {
+          // of two identical gets, the first one is sent
+          continue;
+        }
+        int best = source[i];
+        if (best == i || candidatePath.size() < paths.get(best).size()
+            || (candidatePath.size() == paths.get(best).size() && j < best)) {
+          source[i] = j;
+        }
+      }
+      if (source[i] == i && lookup.type != SubdocCommandType.GET) {
+        for (int j = 0; j < i; j++) {
+          SubdocLookup previous = lookups.get(j);
+          if (source[j] == j && previous.type == lookup.type && previous.xattr == lookup.xattr
+              && path.equals(paths.get(j))) {
+            source[i] = j;
+            break;
+          }
+        }
+      }
+      redundant |= source[i] != i;
+    }
+    if (!redundant) {
+      return null;
+    }
+
+    List<SubdocLookup> sent = new ArrayList<>();
+    int[] sentIndex = new int[size];
+    for (int i = 0; i < size; i++) {
+      if (source[i] == i) {
+        sentIndex[i] = sent.size();
+        sent.add(lookups.get(i));
+      }
+    }
+    List<List<Object>> relative = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      int s = source[i];
+      sentIndex[i] = sentIndex[s];
+      SubdocLookup lookup = lookups.get(i);
+      boolean copied = s == i
+          || lookups.get(s).type != SubdocCommandType.GET
+          || (lookup.type == SubdocCommandType.GET && paths.get(s).size() == paths.get(i).size());
+      relative.add(copied ? null : paths.get(i).subList(paths.get(s).size(), paths.get(i).size()));
+    }
+    return new LookupPlan(lookups, sent, sentIndex, relative);
+  }
+
+  /**
+   * Returns the plan of the given mutations, or null if none of them can be merged.
+   * <p>
+   * Consecutive appends to the same array are sent as a single append of all their values.
+   */
+  static MutationPlan planMutations(List<MutateInSpec> specs) {
+    for (MutateInSpec spec : specs) {
+      if (!(spec instanceof SubdocMutation.Bound)) {
+        return null;
+      }
+    }
+
+    int size = specs.size();
+    List<MutateInSpec> sent = new ArrayList<>();
+    int[] sentIndex = new int[size];
+    boolean merged = false;
+    int i = 0;
+    while (i < size) {
+      SubdocMutation.Bound spec = (SubdocMutation.Bound) specs.get(i);
+      int end = i + 1;
+      while (end < size && isAppendTo(spec.mutation, (SubdocMutation.Bound) specs.get(end))) {
+        end++;
+      }
+      if (end - i == 1) {
+        sentIndex[i] = sent.size();
+        sent.add(spec);
+      } else {
+        List<Object> values = new ArrayList<>();
+        for (int k = i; k < end; k++) {
+          SubdocMutation.Bound append = (SubdocMutation.Bound) specs.get(k);
+          if (append.mutation.multiValue) {
+            values.addAll((Collection<?>) append.value);
+          } else {
+            values.add(append.value);
+          }
+          sentIndex[k] = sent.size();
+        }
+        SubdocMutation mutation = spec.mutation;
+        sent.add(new SubdocMutation(SubdocCommandType.ARRAY_PUSH_LAST, mutation.path, mutation.createPath,
+            mutation.xattr, false, true).bind(values));
+        merged = true;
+      }
+      i = end;
+    }
+    if (!merged) {
+      return null;
+    }
+    return new MutationPlan(sent, sentIndex);
+  }
+
+  private static boolean isAppendTo(SubdocMutation first, SubdocMutation.Bound next) {
+    return first.type == SubdocCommandType.ARRAY_PUSH_LAST
+        && next.mutation.type == SubdocCommandType.ARRAY_PUSH_LAST
+        && next.mutation.path.equals(first.path)
+        && next.mutation.createPath == first.createPath
+        && next.mutation.xattr == first.xattr;
+  }
+
+  private static List<Object> parse(String path) {
+    try {
+      return SubdocPath.parse(path);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static boolean isPrefix(List<Object> prefix, List<Object> path) {
+    return prefix.size() <= path.size() && prefix.equals(path.subList(0, prefix.size()));
+  }
+
+  /**
+   * The lookups to send, and how to answer the original ones from their result.
+   */
+  static final class LookupPlan {
+    private final List<SubdocLookup> lookups;
+    final List<SubdocLookup> sent;
+    private final int[] sentIndex;
+    /**
+     * For each original lookup, its path relative to the get answering it, or null if its field
+     * is the field of a sent lookup, as is.
+     */
+    private final List<List<Object>> relative;
+
+    private LookupPlan(List<SubdocLookup> lookups, List<SubdocLookup> sent, int[] sentIndex,
+                       List<List<Object>> relative) {
+      this.lookups = lookups;
+      this.sent = sent;
+      this.sentIndex = sentIndex;
+      this.relative = relative;
+    }
+
+    /**
+     * Returns the result of the original lookups, given the result of the sent ones.
+     */
+    LookupInResult apply(LookupInResult result, JsonSerializer serializer) {
+      SubDocumentField[] fields = new SubDocumentField[lookups.size()];
+      SubdocPath.Node[] fragments = new SubdocPath.Node[sent.size()];
+      boolean[] decoded = new boolean[sent.size()];
+      for (int i = 0; i < fields.length; i++) {
+        int s = sentIndex[i];
+        SubdocLookup lookup = lookups.get(i);
+        if (relative.get(i) == null) {
+          fields[i] = SubdocSplitter.field(result, s, lookup);
+        } else if (!result.exists(s)) {
+          fields[i] = failure(SubdocSplitter.field(result, s, sent.get(s)), lookup, i);
+        } else {
+          if (!decoded[s]) {
+            fragments[s] = SubdocPath.decode(result.contentAsBytes(s));
+            decoded[s] = true;
+          }
+          fields[i] = SubdocPath.lookup(fragments[s], relative.get(i), lookup, i);
+        }
+      }
+      return SubdocResults.lookupInResult(fields, result.cas(), serializer, result.isDeleted());
+    }
+
+    /**
+     * Returns the field of a lookup within a get which failed.
+     */
+    private static SubDocumentField failure(SubDocumentField parent, SubdocLookup lookup, int index) {
+      switch (parent.status()) {
+        case PATH_NOT_FOUND:
+        case PATH_MISMATCH:
+        case PATH_INVALID:
+          return SubdocPath.failure(parent.status(), lookup, index);
+        default:
+          return new SubDocumentField(parent.status(), parent.error(), new byte[0], lookup.path,
+              lookup.commandType());
+      }
+    }
+  }
+
+  /**
+   * The mutations to send, and which of them each original mutation was merged into.
+   */
+  static final class MutationPlan {
+    final List<MutateInSpec> sent;
+    /**
+     * For each original mutation, the index of the mutation it was merged into.
+     */
+    private final int[] sentIndex;
+
+    private MutationPlan(List<MutateInSpec> sent, int[] sentIndex) {
+      this.sent = sent;
+      this.sentIndex = sentIndex;
+    }
+
+    /**
+     * Returns the result of the original mutations, given the result of the sent ones.
+     */
+    MutateInResult apply(MutateInResult result, JsonSerializer serializer) {
+      SubDocumentField[] fields = new SubDocumentField[sentIndex.length];
+      for (int i = 0; i < fields.length; i++) {
+        fields[i] = SubdocSplitter.field(result, sentIndex[i]);
+      }
+      return SubdocResults.mutateInResult(fields, result.cas(), result.mutationToken(), serializer);
+    }
+  }
+}
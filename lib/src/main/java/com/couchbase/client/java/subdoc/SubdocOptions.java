@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.subdoc;
+
+import com.couchbase.client.java.CommonOptions;
+import com.couchbase.client.java.kv.Expiry;
+import com.couchbase.client.java.kv.LookupInOptions;
+import com.couchbase.client.java.kv.MutateInOptions;
+import com.couchbase.client.java.kv.PersistTo;
+import com.couchbase.client.java.kv.ReplicateTo;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+
+/**
+ * Copies SDK 3 options, which have no copy method of their own, so a request keeps the options it
+ * was issued with while the builder it came from is still being changed.
+ */
+final class SubdocOptions {
+  private static final long RELATIVE_EXPIRY_CUTOFF_SECONDS = DAYS.toSeconds(30);
+
+  private SubdocOptions() {
+  }
+
+  static LookupInOptions copy(LookupInOptions options) {
+    LookupInOptions.Built built = options.build();
+    LookupInOptions copy = LookupInOptions.lookupInOptions().accessDeleted(built.accessDeleted());
+    copyCommon(built, copy);
+    if (built.serializer() != null) {
+      copy.serializer(built.serializer());
+    }
+    return copy;
+  }
+
+  static MutateInOptions copy(MutateInOptions options) {
+    MutateInOptions.Built built = options.build();
+    MutateInOptions copy = MutateInOptions.mutateInOptions()
+        .cas(built.cas())
+        .storeSemantics(built.storeSemantics())
+        .preserveExpiry(built.preserveExpiry())
+        .accessDeleted(built.accessDeleted())
+        .createAsDeleted(built.createAsDeleted());
+    copyCommon(built, copy);
+    if (built.serializer() != null) {
+      copy.serializer(built.serializer());
+    }
+    setExpiry(copy, built.expiry());
+    if (built.durabilityLevel().isPresent()) {
+      copy.durability(built.durabilityLevel().get());
+    } else if (built.persistTo() != PersistTo.NONE || built.replicateTo() != ReplicateTo.NONE) {
+      copy.durability(built.persistTo(), built.replicateTo());
+    }
+    return copy;
+  }
+
+  /**
+   * Copies the options every request has.
+   */
+  static void copyCommon(CommonOptions<?>.BuiltCommonOptions built, CommonOptions<?> copy) {
+    built.timeout().ifPresent(copy::timeout);
+    built.retryStrategy().ifPresent(copy::retryStrategy);
+    built.parentSpan().ifPresent(copy::parentSpan);
+    if (built.clientContext() != null) {
+      copy.clientContext(built.clientContext());
+    }
+  }
+
+  /**
+   * Sets an expiry read from built options, which only expose its encoded form.
+   */
+  static void setExpiry(MutateInOptions options, Expiry expiry) {
+    long encoded = expiry.encode();
+    if (encoded == 0) {
+      return;
+    }
+    if (encoded <= RELATIVE_EXPIRY_CUTOFF_SECONDS) {
+      options.expiry(Duration.ofSeconds(encoded));
+    } else {
+      options.expiry(Instant.ofEpochSecond(encoded));
+    }
+  }
+}
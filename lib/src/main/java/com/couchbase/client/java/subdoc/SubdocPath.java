@@ -0,0 +1,303 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.subdoc;
+
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonFactory;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonParser;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonToken;
+import com.couchbase.client.core.error.CouchbaseException;
+import com.couchbase.client.core.error.DecodingFailureException;
+import com.couchbase.client.core.error.context.KeyValueErrorContext;
+import com.couchbase.client.core.error.context.SubDocumentErrorContext;
+import com.couchbase.client.core.error.subdoc.PathInvalidException;
+import com.couchbase.client.core.error.subdoc.PathMismatchException;
+import com.couchbase.client.core.error.subdoc.PathNotFoundException;
+import com.couchbase.client.core.msg.ResponseStatus;
+import com.couchbase.client.core.msg.kv.SubDocumentField;
+import com.couchbase.client.core.msg.kv.SubDocumentOpResponseStatus;
+import com.couchbase.client.java.codec.DefaultJsonSerializer;
+import com.couchbase.client.java.codec.JsonSerializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Answers sub-document lookups from a whole document, the way the server would.
+ * <p>
+ * The document is only parsed to find the values: their JSON text is copied from the document as
+ * it is, like the server does, so numbers keep their exact text and precision.
+ * <p>
+ * A path is made of field names separated by dots, and of array indexes in brackets, a negative
+ * index counting from the end of the array: {@code a.b[0][-1].c}. Field names containing special
+ * characters are escaped with backquotes, a backquote itself being doubled: {@code `a.b`.c}.
+ */
+final class SubdocPath {
+  private static final byte[] EMPTY = new byte[0];
+  private static final JsonSerializer ENCODER = DefaultJsonSerializer.create();
+  private static final JsonFactory FACTORY = new JsonFactory();
+  private static final KeyValueErrorContext LOOKUP_FAILURE = new LookupFailure();
+
+  private SubdocPath() {
+  }
+
+  /**
+   * Parses a document fetched whole or a fragment of it.
+   *
+   * @throws DecodingFailureException if it is not a single JSON value.
+   */
+  static Node decode(byte[] json) {
+    try (JsonParser parser = FACTORY.createParser(json)) {
+      if (parser.nextToken() == null) {
+        throw new DecodingFailureException("Empty JSON document");
+      }
+      Node node = node(parser, json);
+      if (parser.nextToken() != null) {
+        throw new DecodingFailureException("Unexpected content after the JSON document");
+      }
+      return node;
+    } catch (IOException e) {
+      throw new DecodingFailureException("Malformed JSON document", e);
+    }
+  }
+
+  /**
+   * Reads the value starting at the current token of the given parser, along with its children.
+   */
+  private static Node node(JsonParser parser, byte[] json) throws IOException {
+    int start = (int) parser.getTokenLocation().getByteOffset();
+    Object children = null;
+    switch (parser.currentToken()) {
+      case START_OBJECT:
+        Map<String, Node> fields = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String name = parser.getCurrentName();
+          parser.nextToken();
+          fields.put(name, node(parser, json));
+        }
+        children = fields;
+        break;
+      case START_ARRAY:
+        List<Node> elements = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          elements.add(node(parser, json));
+        }
+        children = elements;
+        break;
+      default:
+        // strings are only read up to their end when asked for
+        parser.finishToken();
+        break;
+    }
+    return new Node(json, start, (int) parser.getCurrentLocation().getByteOffset(), children);
+  }
+
+  /**
+   * Returns the components of the given path: field names as strings, and array indexes as integers.
+   *
+   * @throws IllegalArgumentException if the path is malformed.
+   */
+  static List<Object> parse(String path) {
+    List<Object> components = new ArrayList<>();
+    int i = 0;
+    int length = path.length();
+    boolean expectName = true;
+    while (i < length) {
+      char c = path.charAt(i);
+      if (c == '[') {
+        int end = path.indexOf(']', i);
+        if (end < 0 || (expectName && !components.isEmpty())) {
+          throw new IllegalArgumentException("Malformed path: " + path);
+        }
+        try {
+          components.add(Integer.parseInt(path.substring(i + 1, end)));
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Malformed array index in path: " + path);
+        }
+        i = end + 1;
+        expectName = false;
+      } else if (c == '.' && !expectName) {
+        i++;
+        expectName = true;
+      } else if (c == '`' && expectName) {
+        StringBuilder name = new StringBuilder();
+        i++;
+        while (true) {
+          if (i >= length) {
+            throw new IllegalArgumentException("Unterminated backquote in path: " + path);
+          }
+          char n = path.charAt(i++);
+          if (n == '`') {
+            if (i < length && path.charAt(i) == '`') {
+              i++;
+            } else {
+              break;
+            }
+          }
+          name.append(n);
+        }
+        components.add(name.toString());
+        expectName = false;
+      } else if (expectName && c != '.' && c != ']') {
+        int end = i;
+        while (end < length && path.charAt(end) != '.' && path.charAt(end) != '[' && path.charAt(end) != ']') {
+          end++;
+        }
+        components.add(path.substring(i, end));
+        i = end;
+        expectName = false;
+      } else {
+        throw new IllegalArgumentException("Malformed path: " + path);
+      }
+    }
+    if (expectName && !components.isEmpty()) {
+      throw new IllegalArgumentException("Path ends with a dot: " + path);
+    }
+    return components;
+  }
+
+  /**
+   * Answers the given lookup from the given document, as the field of a result at the given index.
+   */
+  static SubDocumentField lookup(Node document, SubdocLookup lookup, int index) {
+    List<Object> components;
+    try {
+      components = parse(lookup.path);
+    } catch (IllegalArgumentException e) {
+      return failure(SubDocumentOpResponseStatus.PATH_INVALID, lookup, index);
+    }
+    return lookup(document, components, lookup, index);
+  }
+
+  /**
+   * Answers the given lookup from the given node, the given components being its path relative
+   * to the node, as the field of a result at the given index.
+   */
+  static SubDocumentField lookup(Node node, List<Object> components, SubdocLookup lookup, int index) {
+    for (Object component : components) {
+      if (component instanceof String && node.children instanceof Map) {
+        Node field = node.fields().get(component);
+        if (field == null) {
+          return failure(SubDocumentOpResponseStatus.PATH_NOT_FOUND, lookup, index);
+        }
+        node = field;
+      } else if (component instanceof Integer && node.children instanceof List) {
+        List<Node> elements = node.elements();
+        int position = (Integer) component;
+        if (position < 0) {
+          position += elements.size();
+        }
+        if (position < 0 || position >= elements.size()) {
+          return failure(SubDocumentOpResponseStatus.PATH_NOT_FOUND, lookup, index);
+        }
+        node = elements.get(position);
+      } else {
+        return failure(SubDocumentOpResponseStatus.PATH_MISMATCH, lookup, index);
+      }
+    }
+
+    switch (lookup.type) {
+      case EXISTS:
+        return success(EMPTY, lookup);
+      case COUNT:
+        if (node.children instanceof Map) {
+          return success(ENCODER.serialize(node.fields().size()), lookup);
+        }
+        if (node.children instanceof List) {
+          return success(ENCODER.serialize(node.elements().size()), lookup);
+        }
+        return failure(SubDocumentOpResponseStatus.PATH_MISMATCH, lookup, index);
+      default:
+        return success(node.json(), lookup);
+    }
+  }
+
+  private static SubDocumentField success(byte[] value, SubdocLookup lookup) {
+    return new SubDocumentField(SubDocumentOpResponseStatus.SUCCESS, Optional.empty(), value, lookup.path,
+        lookup.commandType());
+  }
+
+  /**
+   * Returns the field of a lookup which failed with the given status, at the given index of a result.
+   */
+  static SubDocumentField failure(SubDocumentOpResponseStatus status, SubdocLookup lookup, int index) {
+    SubDocumentErrorContext context = new SubDocumentErrorContext(LOOKUP_FAILURE, index, lookup.path, status);
+    CouchbaseException error;
+    switch (status) {
+      case PATH_NOT_FOUND:
+        error = new PathNotFoundException(context);
+        break;
+      case PATH_MISMATCH:
+        error = new PathMismatchException(context);
+        break;
+      default:
+        error = new PathInvalidException("Malformed path", context);
+        break;
+    }
+    return new SubDocumentField(status, Optional.of(error), EMPTY, lookup.path, lookup.commandType());
+  }
+
+  /**
+   * A value of a parsed document, with the range of its text in the document.
+   */
+  static final class Node {
+    private final byte[] document;
+    private final int start;
+    private final int end;
+    /**
+     * The fields of an object by name, the elements of an array, or null for other values.
+     */
+    private final Object children;
+
+    private Node(byte[] document, int start, int end, Object children) {
+      this.document = document;
+      this.start = start;
+      this.end = end;
+      this.children = children;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Node> fields() {
+      return (Map<String, Node>) children;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Node> elements() {
+      return (List<Node>) children;
+    }
+
+    /**
+     * Returns a copy of the JSON text of this value, as it is in the document.
+     */
+    byte[] json() {
+      return Arrays.copyOfRange(document, start, end);
+    }
+  }
+
+  /**
+   * The context of the errors of lookups answered locally, which have no request of their own.
+   */
+  private static final class LookupFailure extends KeyValueErrorContext {
+    LookupFailure() {
+      super(null, ResponseStatus.SUBDOC_FAILURE, null);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.java.subdoc;
+
+import com.couchbase.client.core.error.context.KeyValueErrorContext;
+import com.couchbase.client.core.msg.kv.MutationToken;
+import com.couchbase.client.core.msg.kv.SubDocumentField;
+import com.couchbase.client.java.codec.JsonSerializer;
+import com.couchbase.client.java.kv.LookupInResult;
+import com.couchbase.client.java.kv.MutateInResult;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Optional;
+
+/**
+ * Creates the results of sub-document operations which did not come from a single request, like
+ * the lookups and mutations the sub-document bridge splits into several requests.
+ * <p>
+ * The constructors of {@link LookupInResult} and {@link MutateInResult} are not public, so they
+ * are looked up once by reflection, with their signatures in the SDK versions this library is built
+ * against. If they cannot be found or opened, for instance because the SDK changed them or runs as
+ * a named module, creating a result fails with an {@link UnsupportedOperationException} instead of
+ * a linkage error in the middle of an operation.
+ */
+final class SubdocResults {
+
+  /**
+   * The SDK versions whose result constructors have the signatures looked up here.
+   */
+  static final String SUPPORTED_SDK = "3.3";
+
+  private static final Constructor<LookupInResult> LOOKUP_IN_RESULT;
+  private static final Constructor<MutateInResult> MUTATE_IN_RESULT;
+  private static final RuntimeException FAILURE;
+
+  static {
+    Constructor<LookupInResult> lookupInResult = null;
+    Constructor<MutateInResult> mutateInResult = null;
+    RuntimeException failure = null;
+    try {
+      lookupInResult = LookupInResult.class.getDeclaredConstructor(SubDocumentField[].class, long.class,
+          JsonSerializer.class, KeyValueErrorContext.class, boolean.class);
+      mutateInResult = MutateInResult.class.getDeclaredConstructor(SubDocumentField[].class, long.class,
+          Optional.class, JsonSerializer.class);
+      lookupInResult.setAccessible(true);
+      mutateInResult.setAccessible(true);
+    } catch (NoSuchMethodException | RuntimeException e) {
+      failure = new UnsupportedOperationException("Sub-document results cannot be created with this version"
+          + " of the Couchbase Java SDK: the constructors of LookupInResult and MutateInResult differ from the"
+          + " ones of SDK " + SUPPORTED_SDK + ", or are not accessible", e);
+    }
+    LOOKUP_IN_RESULT = failure == null ? lookupInResult : null;
+    MUTATE_IN_RESULT = failure == null ? mutateInResult : null;
+    FAILURE = failure;
+  }
+
+  private SubdocResults() {
+  }
+
+  static LookupInResult lookupInResult(SubDocumentField[] fields, long cas, JsonSerializer serializer,
+                                       boolean isDeleted) {
+    return create(LOOKUP_IN_RESULT, fields, cas, serializer, null, isDeleted);
+  }
+
+  static MutateInResult mutateInResult(SubDocumentField[] fields, long cas, Optional<MutationToken> mutationToken,
+                                       JsonSerializer serializer) {
+    return create(MUTATE_IN_RESULT, fields, cas, mutationToken, serializer);
+  }
+
+  private static <T> T create(Constructor<T> constructor, Object... arguments) {
+    if (FAILURE != null) {
+      throw FAILURE;
+    }
+    try {
+      return constructor.newInstance(arguments);
+    } catch (InvocationTargetException e) {
+      Throwable cause = e.getCause();
+      throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
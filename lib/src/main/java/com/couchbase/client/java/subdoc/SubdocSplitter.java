@@ -0,0 +1,318 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.subdoc;
+
+import com.couchbase.client.core.error.CouchbaseException;
+import com.couchbase.client.core.error.subdoc.PathInvalidException;
+import com.couchbase.client.core.error.subdoc.PathMismatchException;
+import com.couchbase.client.core.error.subdoc.PathNotFoundException;
+import com.couchbase.client.core.msg.kv.SubDocumentField;
+import com.couchbase.client.core.msg.kv.SubDocumentOpResponseStatus;
+import com.couchbase.client.core.msg.kv.SubdocCommandType;
+import com.couchbase.client.java.AsyncCollection;
+import com.couchbase.client.java.codec.DefaultJsonSerializer;
+import com.couchbase.client.java.codec.JsonSerializer;
+import com.couchbase.client.java.kv.LookupInOptions;
+import com.couchbase.client.java.kv.LookupInResult;
+import com.couchbase.client.java.kv.LookupInSpec;
+import com.couchbase.client.java.kv.MutateInOptions;
+import com.couchbase.client.java.kv.MutateInResult;
+import com.couchbase.client.java.kv.MutateInSpec;
+import com.couchbase.client.java.kv.PersistTo;
+import com.couchbase.client.java.kv.ReplicateTo;
+import com.couchbase.client.java.kv.StoreSemantics;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Runs sub-document requests with more specs than the server accepts in a single request.
+ * <p>
+ * A lookup is split into chunks sent concurrently, whose fields are put back in the order of
+ * the specs. If the document changed between the chunks, the lookup runs again, so all the
+ * fields come from the same revision. When it reads many paths and no extended attributes, the
+ * whole document is fetched instead, and the paths are read from it.
+ * <p>
+ * A mutation is split into chunks sent one after the other, each one conditioned on the CAS
+ * returned by the previous one, so they are applied to the document in order and fail if it is
+ * changed in between. Unlike a single request, such a mutation is not atomic: if a chunk fails,
+ * the previous ones remain applied.
+ */
+final class SubdocSplitter {
+  /**
+   * The maximum number of specs of a sub-document request.
+   */
+  static final int MAX_SPECS = 16;
+
+  private static final int MAX_LOOKUP_ATTEMPTS = 3;
+  private static final List<LookupInSpec> WHOLE_DOCUMENT =
+      singletonList(new SubdocLookup(SubdocCommandType.GET, "", false));
+
+  /**
+   * Reads the raw content of the fields of a result, since it passes byte arrays through.
+   */
+  private static final JsonSerializer RAW = DefaultJsonSerializer.create();
+
+  private SubdocSplitter() {
+  }
+
+  /**
+   * Sends a single lookup request, like {@link AsyncCollection#lookupIn(String, List, LookupInOptions)}.
+   */
+  @FunctionalInterface
+  interface LookupIn {
+    CompletableFuture<LookupInResult> apply(String documentId, List<LookupInSpec> specs, LookupInOptions options);
+  }
+
+  /**
+   * Sends a single mutation request, like {@link AsyncCollection#mutateIn(String, List, MutateInOptions)}.
+   */
+  @FunctionalInterface
+  interface MutateIn {
+    CompletableFuture<MutateInResult> apply(String documentId, List<MutateInSpec> specs, MutateInOptions options);
+  }
+
+  /**
+   * Returns true if the given lookups cannot be sent as a single request as they are.
+   */
+  static boolean isSplit(List<SubdocLookup> lookups, int fullDocumentThreshold) {
+    return lookups.size() > MAX_SPECS || isFullDocument(lookups, fullDocumentThreshold);
+  }
+
+  /**
+   * Returns true if the given mutations cannot be sent as a single request.
+   */
+  static boolean isSplit(List<MutateInSpec> specs) {
+    return specs.size() > MAX_SPECS;
+  }
+
+  private static boolean isFullDocument(List<SubdocLookup> lookups, int fullDocumentThreshold) {
+    return lookups.size() > fullDocumentThreshold && readsDocumentOnly(lookups);
+  }
+
+  private static boolean readsDocumentOnly(List<SubdocLookup> lookups) {
+    for (SubdocLookup lookup : lookups) {
+      if (lookup.xattr) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the given list cut into consecutive chunks of at most {@link #MAX_SPECS} elements.
+   */
+  static <T> List<List<T>> chunks(List<T> list) {
+    List<List<T>> chunks = new ArrayList<>((list.size() + MAX_SPECS - 1) / MAX_SPECS);
+    for (int from = 0; from < list.size(); from += MAX_SPECS) {
+      chunks.add(list.subList(from, Math.min(from + MAX_SPECS, list.size())));
+    }
+    return chunks;
+  }
+
+  static CompletableFuture<LookupInResult> lookupIn(AsyncCollection collection, String documentId,
+                                                    List<SubdocLookup> lookups, LookupInOptions options,
+                                                    int fullDocumentThreshold) {
+    return lookupIn(collection::lookupIn, serializer(collection, options), documentId, lookups, options,
+        fullDocumentThreshold);
+  }
+
+  static CompletableFuture<LookupInResult> lookupIn(LookupIn collection, JsonSerializer serializer,
+                                                    String documentId, List<SubdocLookup> lookups,
+                                                    LookupInOptions options, int fullDocumentThreshold) {
+    if (isFullDocument(lookups, fullDocumentThreshold)) {
+      return lookupInDocument(collection, serializer, documentId, lookups, options);
+    }
+    return lookupInChunks(collection, serializer, documentId, lookups, options, MAX_LOOKUP_ATTEMPTS);
+  }
+
+  private static CompletableFuture<LookupInResult> lookupInDocument(LookupIn collection, JsonSerializer serializer,
+                                                                    String documentId, List<SubdocLookup> lookups,
+                                                                    LookupInOptions options) {
+    return collection.apply(documentId, WHOLE_DOCUMENT, options)
+        .thenApply(result -> {
+          SubdocPath.Node document = SubdocPath.decode(result.contentAsBytes(0));
+          SubDocumentField[] fields = new SubDocumentField[lookups.size()];
+          for (int i = 0; i < fields.length; i++) {
+            fields[i] = SubdocPath.lookup(document, lookups.get(i), i);
+          }
+          return SubdocResults.lookupInResult(fields, result.cas(), serializer, result.isDeleted());
+        });
+  }
+
+  private static CompletableFuture<LookupInResult> lookupInChunks(LookupIn collection, JsonSerializer serializer,
+                                                                  String documentId, List<SubdocLookup> lookups,
+                                                                  LookupInOptions options, int attempts) {
+    List<List<SubdocLookup>> chunks = chunks(lookups);
+    List<CompletableFuture<LookupInResult>> futures = new ArrayList<>(chunks.size());
+    for (List<SubdocLookup> chunk : chunks) {
+      futures.add(collection.apply(documentId, new ArrayList<LookupInSpec>(chunk), options));
+    }
+
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenCompose(done -> {
+      long cas = futures.get(0).join().cas();
+      for (CompletableFuture<LookupInResult> future : futures) {
+        if (future.join().cas() != cas) {
+          // the document changed between the chunks
+          if (readsDocumentOnly(lookups)) {
+            return lookupInDocument(collection, serializer, documentId, lookups, options);
+          }
+          if (attempts > 1) {
+            return lookupInChunks(collection, serializer, documentId, lookups, options, attempts - 1);
+          }
+          CompletableFuture<LookupInResult> failed = new CompletableFuture<>();
+          failed.completeExceptionally(new ConcurrentModificationException("Document " + documentId
+              + " kept changing while its lookup ran in " + chunks.size() + " requests"));
+          return failed;
+        }
+      }
+
+      SubDocumentField[] fields = new SubDocumentField[lookups.size()];
+      for (int i = 0; i < fields.length; i++) {
+        LookupInResult result = futures.get(i / MAX_SPECS).join();
+        fields[i] = field(result, i % MAX_SPECS, lookups.get(i));
+      }
+      LookupInResult first = futures.get(0).join();
+      return CompletableFuture.completedFuture(
+          SubdocResults.lookupInResult(fields, cas, serializer, first.isDeleted()));
+    });
+  }
+
+  /**
+   * Rebuilds the field at the given index of a result, from what the result exposes.
+   */
+  static SubDocumentField field(LookupInResult result, int index, SubdocLookup lookup) {
+    if (result.exists(index)) {
+      return new SubDocumentField(SubDocumentOpResponseStatus.SUCCESS, Optional.empty(),
+          result.contentAsBytes(index), lookup.path, lookup.commandType());
+    }
+    try {
+      return new SubDocumentField(SubDocumentOpResponseStatus.PATH_NOT_FOUND, Optional.empty(),
+          result.contentAsBytes(index), lookup.path, lookup.commandType());
+    } catch (CouchbaseException e) {
+      return new SubDocumentField(status(e), Optional.of(e), new byte[0], lookup.path, lookup.commandType());
+    }
+  }
+
+  static SubDocumentOpResponseStatus status(CouchbaseException e) {
+    if (e instanceof PathNotFoundException) {
+      return SubDocumentOpResponseStatus.PATH_NOT_FOUND;
+    }
+    if (e instanceof PathMismatchException) {
+      return SubDocumentOpResponseStatus.PATH_MISMATCH;
+    }
+    if (e instanceof PathInvalidException) {
+      return SubDocumentOpResponseStatus.PATH_INVALID;
+    }
+    return SubDocumentOpResponseStatus.UNKNOWN;
+  }
+
+  static CompletableFuture<MutateInResult> mutateIn(AsyncCollection collection, String documentId,
+                                                    List<MutateInSpec> specs, MutateInOptions options) {
+    return mutateIn(collection::mutateIn, serializer(collection, options), documentId, specs, options);
+  }
+
+  static CompletableFuture<MutateInResult> mutateIn(MutateIn collection, JsonSerializer serializer,
+                                                    String documentId, List<MutateInSpec> specs,
+                                                    MutateInOptions options) {
+    MutateInOptions.Built built = options.build();
+    List<List<MutateInSpec>> chunks = chunks(specs);
+    SubDocumentField[] fields = new SubDocumentField[specs.size()];
+
+    CompletableFuture<MutateInResult> chain =
+        collection.apply(documentId, chunks.get(0), chunkOptions(built, 0, chunks.size(), built.cas()));
+    for (int i = 1; i < chunks.size(); i++) {
+      int chunk = i;
+      chain = chain.thenCompose(previous -> {
+        copyFields(previous, chunks.get(chunk - 1).size(), fields, (chunk - 1) * MAX_SPECS);
+        return collection.apply(documentId, chunks.get(chunk),
+            chunkOptions(built, chunk, chunks.size(), previous.cas()));
+      });
+    }
+    return chain.thenApply(last -> {
+      int from = (chunks.size() - 1) * MAX_SPECS;
+      copyFields(last, specs.size() - from, fields, from);
+      return SubdocResults.mutateInResult(fields, last.cas(), last.mutationToken(), serializer);
+    });
+  }
+
+  private static void copyFields(MutateInResult result, int count, SubDocumentField[] fields, int offset) {
+    for (int i = 0; i < count; i++) {
+      fields[offset + i] = field(result, i);
+    }
+  }
+
+  /**
+   * Rebuilds the field at the given index of a result, or returns null if there is none, like for
+   * most mutations except counters.
+   */
+  static SubDocumentField field(MutateInResult result, int index) {
+    try {
+      byte[] value = result.contentAs(index, byte[].class, RAW);
+      return new SubDocumentField(SubDocumentOpResponseStatus.SUCCESS, Optional.empty(), value, "", null);
+    } catch (NoSuchElementException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the options of a chunk of a mutation. The first chunk has the CAS and store semantics
+   * of the mutation, the next ones replace the document the previous one returned. Durability
+   * requirements are only applied to the last chunk, which implies the previous ones.
+   */
+  private static MutateInOptions chunkOptions(MutateInOptions.Built built, int chunk, int chunks, long cas) {
+    MutateInOptions options = MutateInOptions.mutateInOptions()
+        .cas(cas)
+        .preserveExpiry(built.preserveExpiry())
+        .accessDeleted(built.accessDeleted() || (chunk > 0 && built.createAsDeleted()));
+    SubdocOptions.copyCommon(built, options);
+    if (built.serializer() != null) {
+      options.serializer(built.serializer());
+    }
+    SubdocOptions.setExpiry(options, built.expiry());
+
+    if (chunk == 0) {
+      options.storeSemantics(built.storeSemantics()).createAsDeleted(built.createAsDeleted());
+    } else {
+      options.storeSemantics(StoreSemantics.REPLACE);
+    }
+    if (chunk == chunks - 1) {
+      if (built.durabilityLevel().isPresent()) {
+        options.durability(built.durabilityLevel().get());
+      } else if (built.persistTo() != PersistTo.NONE || built.replicateTo() != ReplicateTo.NONE) {
+        options.durability(built.persistTo(), built.replicateTo());
+      }
+    }
+    return options;
+  }
+
+  static JsonSerializer serializer(AsyncCollection collection, LookupInOptions options) {
+    JsonSerializer serializer = options.build().serializer();
+    return serializer != null ? serializer : collection.environment().jsonSerializer();
+  }
+
+  static JsonSerializer serializer(AsyncCollection collection, MutateInOptions options) {
+    JsonSerializer serializer = options.build().serializer();
+    return serializer != null ? serializer : collection.environment().jsonSerializer();
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.query.dsl.path.InsertValuesPath;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BulkInsertTest {
+
+  private static Map.Entry<String, JsonObject> row(int n) {
+    return new AbstractMap.SimpleImmutableEntry<>("k" + n, JsonObject.create().put("n", n));
+  }
+
+  private static List<Map.Entry<String, JsonObject>> rows(int count) {
+    List<Map.Entry<String, JsonObject>> rows = new ArrayList<>();
+    for (int n = 0; n < count; n++) {
+      rows.add(row(n));
+    }
+    return rows;
+  }
+
+  @Test
+  public void shouldRenderLikeChainedValues() {
+    InsertValuesPath chained = Insert.insertInto("b").values("k0", row(0).getValue());
+    for (int n = 1; n < 5; n++) {
+      chained = chained.values("k" + n, row(n).getValue());
+    }
+
+    List<Statement> statements = BulkInsert.insertInto("b").statements(rows(5)).collect(Collectors.toList());
+
+    assertEquals(1, statements.size());
+    assertEquals(chained.toString(), statements.get(0).toString());
+  }
+
+  @Test
+  public void shouldRenderKeysAndContentLikeInsert() {
+    JsonObject content = JsonObject.create()
+        .put("name", "a \"quoted\" \\ name")
+        .put("tags", JsonArray.from("x", 1, true))
+        .put("nested", JsonObject.create().put("n", 1.5).putNull("none"));
+    String key = "user::\"42\"";
+
+    List<Statement> statements = BulkInsert.upsertInto("b")
+        .statements(Collections.singletonList(new AbstractMap.SimpleImmutableEntry<>(key, content)))
+        .collect(Collectors.toList());
+
+    assertEquals(Upsert.upsertInto("b").values(key, content).toString(), statements.get(0).toString());
+  }
+
+  @Test
+  public void shouldSplitByRowCount() {
+    List<String> statements = BulkInsert.upsertInto("b").maxRows(2)
+        .statements(rows(5))
+        .map(Statement::toString)
+        .collect(Collectors.toList());
+
+    assertEquals(3, statements.size());
+    assertEquals("UPSERT INTO `b` VALUES (\"k0\", {\"n\":0}) , (\"k1\", {\"n\":1})", statements.get(0));
+    assertEquals("UPSERT INTO `b` VALUES (\"k2\", {\"n\":2}) , (\"k3\", {\"n\":3})", statements.get(1));
+    assertEquals("UPSERT INTO `b` VALUES (\"k4\", {\"n\":4})", statements.get(2));
+  }
+
+  @Test
+  public void shouldSplitBySize() {
+    int maxBytes = 100;
+    List<String> statements = BulkInsert.insertInto("b").maxBytes(maxBytes)
+        .statements(rows(20).stream())
+        .map(Statement::toString)
+        .collect(Collectors.toList());
+
+    int rows = 0;
+    for (String statement : statements) {
+      assertTrue(statement, statement.getBytes(StandardCharsets.UTF_8).length <= maxBytes);
+      rows += statement.split("\\) , \\(").length;
+    }
+    assertEquals(20, rows);
+    assertTrue(statements.size() > 1);
+    assertTrue(statements.get(statements.size() - 1).endsWith("(\"k19\", {\"n\":19})"));
+  }
+
+  @Test
+  public void shouldRenderOversizedRowAlone() {
+    JsonObject big = JsonObject.create().put("text", "\u00E9t\u00E9 " + String.join("", Collections.nCopies(50, "x")));
+    List<String> statements = BulkInsert.insertInto("b").maxBytes(60)
+        .statements(Stream.of(row(0), new AbstractMap.SimpleImmutableEntry<>("big", big), row(1)))
+        .map(Statement::toString)
+        .collect(Collectors.toList());
+
+    assertEquals(3, statements.size());
+    assertTrue(statements.get(1).startsWith("INSERT INTO `b` VALUES (\"big\", "));
+  }
+
+  @Test
+  public void shouldStreamManyRows() {
+    long count = BulkInsert.insertInto("b")
+        .statements(IntStream.range(0, 50_000).mapToObj(BulkInsertTest::row))
+        .count();
+
+    assertEquals(50, count);
+  }
+}
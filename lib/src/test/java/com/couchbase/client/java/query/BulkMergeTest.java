@@ -0,0 +1,141 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.query.dsl.path.MergeUpdatePath;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.couchbase.client.java.query.dsl.Expression.s;
+import static com.couchbase.client.java.query.dsl.Expression.x;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BulkMergeTest {
+
+  private static final Function<MergeUpdatePath, Statement> UPSERT = merge -> merge
+      .whenMatchedThenUpdate().set("name", x("src.doc.name")).set("source", s("sync"))
+      .whenNotMatchedThenInsert(x("src.doc"));
+
+  private static Map<String, JsonObject> documents(int count) {
+    Map<String, JsonObject> documents = new LinkedHashMap<>();
+    for (int n = 0; n < count; n++) {
+      documents.put("k" + n, JsonObject.create().put("name", "n" + n));
+    }
+    return documents;
+  }
+
+  @Test
+  public void shouldRenderUsingArray() {
+    List<String> statements = BulkMerge.mergeInto("b", UPSERT)
+        .statements(documents(2))
+        .map(Statement::toString)
+        .collect(Collectors.toList());
+
+    assertEquals(1, statements.size());
+    assertEquals("MERGE INTO `b` USING [{\"id\":\"k0\",\"doc\":{\"name\":\"n0\"}}, {\"id\":\"k1\",\"doc\":{\"name\":\"n1\"}}]"
+        + " AS src ON KEY src.id WHEN MATCHED THEN UPDATE SET name = src.doc.name , source = \"sync\""
+        + " WHEN NOT MATCHED THEN INSERT src.doc", statements.get(0));
+  }
+
+  @Test
+  public void shouldEscapeIds() {
+    Map<String, JsonObject> documents = new LinkedHashMap<>();
+    documents.put("a\"b", JsonObject.create());
+
+    String statement = BulkMerge.mergeInto("b", UPSERT).as("d").statements(documents).findFirst().get().toString();
+
+    assertTrue(statement, statement.startsWith("MERGE INTO `b` USING [{\"id\":\"a\\\"b\",\"doc\":{}}] AS d ON KEY d.id "));
+  }
+
+  @Test
+  public void shouldSplitByRowsAndSize() {
+    assertEquals(4, BulkMerge.mergeInto("b", UPSERT).maxRows(3).statements(documents(10)).count());
+
+    int maxBytes = 300;
+    List<String> statements = BulkMerge.mergeInto("b", UPSERT).maxBytes(maxBytes)
+        .statements(documents(20).entrySet().stream())
+        .map(Statement::toString)
+        .collect(Collectors.toList());
+
+    int rows = 0;
+    for (String statement : statements) {
+      assertTrue(statement, statement.getBytes(StandardCharsets.UTF_8).length <= maxBytes);
+      rows += statement.split("\\{\"id\"").length - 1;
+    }
+    assertEquals(20, rows);
+    assertTrue(statements.size() > 1);
+  }
+
+  @Test
+  public void shouldBindArrayAsParameter() {
+    List<ParameterizedStatement> statements = BulkMerge.mergeInto("b", UPSERT).maxRows(2)
+        .parameterizedStatements(documents(3))
+        .collect(Collectors.toList());
+
+    assertEquals(2, statements.size());
+    assertEquals("MERGE INTO `b` USING $1 AS src ON KEY src.id WHEN MATCHED THEN UPDATE SET name = src.doc.name ,"
+        + " source = $2 WHEN NOT MATCHED THEN INSERT src.doc", statements.get(0).statement());
+    assertEquals(statements.get(0).statement(), statements.get(1).statement());
+    assertEquals(JsonArray.from(
+        JsonArray.from(JsonObject.create().put("id", "k2").put("doc", JsonObject.create().put("name", "n2"))), "sync"),
+        statements.get(1).positionalParameters());
+  }
+
+  @Test
+  public void shouldOnlyPlaceRowsAtUsing() {
+    Function<MergeUpdatePath, Statement> actions = merge -> merge
+        .whenMatchedThenUpdate().set("note", s("rows")).set("tag", x(JsonArray.create()));
+
+    assertEquals("MERGE INTO `b` USING [{\"id\":\"k0\",\"doc\":{\"name\":\"n0\"}}] AS src ON KEY src.id"
+            + " WHEN MATCHED THEN UPDATE SET note = \"rows\" , tag = []",
+        BulkMerge.mergeInto("b", actions).statements(documents(1)).findFirst().get().toString());
+
+    ParameterizedStatement parameterized = BulkMerge.mergeInto("b", actions)
+        .parameterizedStatements(documents(1)).findFirst().get();
+    assertEquals(3, parameterized.positionalParameters().size());
+    assertEquals("rows", parameterized.positionalParameters().get(1));
+    assertEquals(JsonArray.create(), parameterized.positionalParameters().get(2));
+  }
+
+  @Test
+  public void shouldPlaceRowsInActionsRenderedBefore() {
+    Function<MergeUpdatePath, Statement> actions = merge -> {
+      Statement statement = UPSERT.apply(merge);
+      statement.toString();
+      return statement;
+    };
+
+    assertEquals(BulkMerge.mergeInto("b", UPSERT).statements(documents(2)).findFirst().get().toString(),
+        BulkMerge.mergeInto("b", actions).statements(documents(2)).findFirst().get().toString());
+    assertEquals(BulkMerge.mergeInto("b", UPSERT).parameterizedStatements(documents(2)).findFirst().get().statement(),
+        BulkMerge.mergeInto("b", actions).parameterizedStatements(documents(2)).findFirst().get().statement());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectActionsNotContinuingThePath() {
+    BulkMerge.mergeInto("b", merge -> Select.select("*").from("b")).statements(documents(1)).count();
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.java.query.dsl.Expression;
+import com.couchbase.client.java.query.dsl.element.N1qlUtf8Writer;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
+import org.junit.Test;
+
+import static com.couchbase.client.java.query.Select.select;
+import static com.couchbase.client.java.query.dsl.Expression.i;
+import static com.couchbase.client.java.query.dsl.Expression.s;
+import static com.couchbase.client.java.query.dsl.Expression.sub;
+import static com.couchbase.client.java.query.dsl.Expression.x;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompiledStatementTest {
+
+  private static final Statement NESTED = select("*").fromCurrentBucket()
+      .where(x("id").in(sub(select("RAW ref").fromCurrentBucket().where(x("type").eq(x("\"ref\""))))));
+
+  @Test
+  public void shouldRecordPlaceholderPositions() {
+    N1qlWriter out = new N1qlWriter();
+    out.append(NESTED);
+
+    String rendered = out.toString();
+    assertEquals("SELECT * FROM #CURRENT_BUCKET# WHERE id IN (SELECT RAW ref FROM #CURRENT_BUCKET# WHERE type = \"ref\")",
+        rendered);
+    assertArrayEquals(new int[] {rendered.indexOf('#'), rendered.lastIndexOf("#CURRENT")}, out.currentBucketPositions());
+  }
+
+  @Test
+  public void shouldMovePositionsWhenTrimmed() {
+    N1qlWriter out = new N1qlWriter();
+    out.append("  ").appendCurrentBucket().append(' ');
+    out.trim(0);
+    assertArrayEquals(new int[] {0}, out.currentBucketPositions());
+    out.truncate(0);
+    assertArrayEquals(new int[0], out.currentBucketPositions());
+
+    N1qlUtf8Writer bytes = new N1qlUtf8Writer();
+    bytes.append("\u00E9 ").append("  ").appendCurrentBucket();
+    bytes.trim(3);
+    assertArrayEquals(new int[] {3}, bytes.currentBucketPositions());
+  }
+
+  @Test
+  public void shouldBindKeyspace() {
+    CompiledStatement statement = CompiledStatement.compile(NESTED);
+
+    assertTrue(statement.hasCurrentBucket());
+    assertEquals("SELECT * FROM `b`.`s`.`c` WHERE id IN (SELECT RAW ref FROM `b`.`s`.`c` WHERE type = \"ref\")",
+        statement.bind(CompiledStatement.keyspace("b", "s", "c")));
+    assertEquals("SELECT * FROM `travel-sample` WHERE id IN (SELECT RAW ref FROM `travel-sample` WHERE type = \"ref\")",
+        statement.bindBucket("travel-sample"));
+  }
+
+  @Test
+  public void shouldCacheBoundStatements() {
+    CompiledStatement statement = CompiledStatement.compile(Delete.deleteFromCurrentBucket().where(x("a").eq(1)), 1);
+
+    String first = statement.bindBucket("a");
+    assertSame(first, statement.bindBucket("a"));
+    String second = statement.bindBucket("b");
+    assertEquals("DELETE FROM `b` WHERE a = 1", second);
+    assertSame(second, statement.bindBucket("b"));
+    assertEquals(first, statement.bindBucket("a"));
+    assertSame(statement, CompiledStatement.compile(statement));
+  }
+
+  @Test
+  public void shouldFindPlaceholdersInRawText() {
+    CompiledStatement statement = CompiledStatement.compile(select("*").from(i("a")).where(x("#CURRENT_BUCKET#.x = 1")));
+
+    assertEquals("SELECT * FROM `a` WHERE `b`.x = 1", statement.bindBucket("b"));
+  }
+
+  @Test
+  public void shouldRecordPlaceholdersOfRawStatementsAndKeyspaces() {
+    Statement raw = new Statement() {
+      @Override
+      public String toString() {
+        return "SELECT RAW id FROM #CURRENT_BUCKET#";
+      }
+    };
+    Statement statement = select("*").from("#CURRENT_BUCKET# d")
+        .where(x("id").in(sub(raw)).and(x("name").eq(s("#CURRENT_BUCKET#"))));
+    N1qlWriter out = new N1qlWriter();
+    out.append(statement);
+
+    String rendered = out.toString();
+    assertArrayEquals(new int[] {rendered.indexOf('#'), rendered.indexOf("#CURRENT", 31)}, out.currentBucketPositions());
+    assertEquals("SELECT * FROM `b` d WHERE id IN (SELECT RAW id FROM `b`) AND name = \"#CURRENT_BUCKET#\"",
+        CompiledStatement.compile(statement).bindBucket("b"));
+  }
+
+  @Test
+  public void shouldBindPlaceholdersOfPartsRenderedBefore() {
+    Expression field = x(Statement.CURRENT_BUCKET_IDENTIFIER).get("x");
+    Statement sub = select("RAW id").fromCurrentBucket();
+    assertEquals("#CURRENT_BUCKET#.x", field.toString());
+    assertEquals("SELECT RAW id FROM #CURRENT_BUCKET#", sub.toString());
+
+    CompiledStatement statement = CompiledStatement.compile(select(field).fromCurrentBucket().where(x("id").in(sub(sub))));
+    assertEquals("SELECT `b`.x FROM `b` WHERE id IN (SELECT RAW id FROM `b`)", statement.bindBucket("b"));
+
+    CompiledStatement raw = CompiledStatement.compile(select(x("#CURRENT_BUCKET#.x")).fromCurrentBucket());
+    assertEquals("SELECT `b`.x FROM `b`", raw.bindBucket("b"));
+  }
+
+  @Test
+  public void shouldNotBindWithoutPlaceholder() {
+    CompiledStatement statement = CompiledStatement.compile(select("*").from("a"));
+
+    assertFalse(statement.hasCurrentBucket());
+    assertSame(statement.toString(), statement.bindBucket("b"));
+  }
+}
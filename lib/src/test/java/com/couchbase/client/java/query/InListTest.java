@@ -0,0 +1,124 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.java.codec.DefaultJsonSerializer;
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.query.dsl.Expression;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.couchbase.client.java.query.Select.select;
+import static com.couchbase.client.java.query.dsl.Expression.s;
+import static com.couchbase.client.java.query.dsl.Expression.x;
+import static org.junit.Assert.assertEquals;
+
+public class InListTest {
+
+  private static final Function<Expression, Statement> BY_ID =
+      list -> select("*").from("users").where(x("type").eq(s("user")).and(x("id").in(list)));
+
+  private static InList ids(int count) {
+    return InList.of(IntStream.range(0, count).mapToObj(i -> "u" + i).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void shouldBindWholeListAsOneParameter() {
+    List<ParameterizedStatement> statements = ids(5000).statements(InList.Strategy.ARRAY_PARAMETER, BY_ID);
+
+    assertEquals(1, statements.size());
+    assertEquals("SELECT * FROM users WHERE type = $1 AND id IN $2", statements.get(0).statement());
+    assertEquals(5000, statements.get(0).positionalParameters().getArray(1).size());
+  }
+
+  @Test
+  public void shouldPadToPowerOfTwo() {
+    ParameterizedStatement five = ids(5).statements(InList.Strategy.BUCKETED, BY_ID).get(0);
+    ParameterizedStatement seven = ids(7).statements(InList.Strategy.BUCKETED, BY_ID).get(0);
+    ParameterizedStatement eight = ids(8).statements(InList.Strategy.BUCKETED, BY_ID).get(0);
+    ParameterizedStatement nine = ids(9).statements(InList.Strategy.BUCKETED, BY_ID).get(0);
+
+    assertEquals("SELECT * FROM users WHERE type = $1 AND id IN $2", five.statement());
+    assertEquals(2, five.positionalParameters().size());
+    assertEquals(JsonArray.from("u0", "u1", "u2", "u3", "u4", "u4", "u4", "u4"),
+        five.positionalParameters().getArray(1));
+    assertEquals(8, seven.positionalParameters().getArray(1).size());
+    assertEquals(8, eight.positionalParameters().getArray(1).size());
+    assertEquals(16, nine.positionalParameters().getArray(1).size());
+  }
+
+  @Test
+  public void shouldAcceptAllJsonNumbers() {
+    assertEquals("3", InList.literal((short) 3).toString());
+    assertEquals("4", InList.literal((byte) 4).toString());
+    assertEquals("1.50", InList.literal(new BigDecimal("1.50")).toString());
+    assertEquals("2.5", InList.literal(2.5f).toString());
+  }
+
+  @Test
+  public void shouldSplitIntoChunks() {
+    List<ParameterizedStatement> statements = ids(2500).chunkSize(1000)
+        .statements(InList.Strategy.FAN_OUT, BY_ID);
+
+    assertEquals(3, statements.size());
+    for (ParameterizedStatement statement : statements) {
+      assertEquals("SELECT * FROM users WHERE type = $1 AND id IN $2", statement.statement());
+    }
+    assertEquals(1000, statements.get(1).positionalParameters().getArray(1).size());
+    assertEquals("u1000", statements.get(1).positionalParameters().getArray(1).get(0));
+    assertEquals(500, statements.get(2).positionalParameters().getArray(1).size());
+  }
+
+  @Test
+  public void shouldRemoveDuplicates() {
+    InList list = InList.of(JsonArray.from(1, 2, 2, 3, 1));
+
+    assertEquals(Arrays.<Object>asList(1, 2, 3), list.values());
+    assertEquals(0, InList.of(JsonArray.create()).statements(InList.Strategy.FAN_OUT, BY_ID).size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectEmptyChunks() {
+    ids(1).chunkSize(0);
+  }
+
+  @Test
+  public void shouldBindCurrentBucketOfScope() {
+    List<String> executed = new ArrayList<>();
+    List<JsonObject> rows = ids(3).chunkSize(2).query((statement, options) -> {
+      executed.add(statement);
+      return Mono.just(
+          new QueryResult(null, Collections.emptyList(), null, DefaultJsonSerializer.create()));
+    }, "travel-sample", InList.Strategy.FAN_OUT,
+        list -> select("*").fromCurrentBucket().where(x("id").in(list)), JsonObject.class, options -> {
+        });
+
+    assertEquals(0, rows.size());
+    assertEquals(Arrays.asList("SELECT * FROM `travel-sample`.`_default`.`_default` WHERE id IN $1",
+        "SELECT * FROM `travel-sample`.`_default`.`_default` WHERE id IN $1"), executed);
+  }
+}
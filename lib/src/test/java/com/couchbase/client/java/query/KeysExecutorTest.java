@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.java.codec.DefaultJsonSerializer;
+import com.couchbase.client.java.json.JsonArray;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.couchbase.client.java.query.Select.select;
+import static com.couchbase.client.java.query.dsl.Expression.s;
+import static com.couchbase.client.java.query.dsl.Expression.x;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class KeysExecutorTest {
+
+  private final List<String> executed = new ArrayList<>();
+  private final BiFunction<String, QueryOptions, Mono<QueryResult>> query = (statement, options) -> {
+    executed.add(statement);
+    return Mono.just(
+        new QueryResult(null, Collections.emptyList(), null, DefaultJsonSerializer.create()));
+  };
+
+  private static List<String> keys(int count) {
+    return IntStream.range(0, count).mapToObj(i -> "key::" + i).collect(Collectors.toList());
+  }
+
+  @Test
+  public void shouldSplitByNumberOfKeys() {
+    List<ParameterizedStatement> statements = KeysExecutor.of(keys -> Delete.deleteFrom("b").useKeys(keys))
+        .maxKeys(400)
+        .statements(keys(1000))
+        .collect(Collectors.toList());
+
+    assertEquals(3, statements.size());
+    for (ParameterizedStatement statement : statements) {
+      assertEquals("DELETE FROM `b` USE KEYS $1", statement.statement());
+    }
+    assertEquals(400, statements.get(0).positionalParameters().getArray(0).size());
+    assertEquals("key::400", statements.get(1).positionalParameters().getArray(0).get(0));
+    assertEquals(200, statements.get(2).positionalParameters().getArray(0).size());
+  }
+
+  @Test
+  public void shouldSplitBySize() {
+    int maxBytes = 64;
+    List<ParameterizedStatement> statements = KeysExecutor.of(keys -> select("*").from("b").useKeys(keys))
+        .maxBytes(maxBytes)
+        .statements(keys(50))
+        .collect(Collectors.toList());
+
+    int count = 0;
+    for (ParameterizedStatement statement : statements) {
+      JsonArray chunk = statement.positionalParameters().getArray(0);
+      assertTrue(chunk.toString(), chunk.toString().length() <= maxBytes);
+      count += chunk.size();
+    }
+    assertEquals(50, count);
+    assertEquals("key::49", statements.get(statements.size() - 1).positionalParameters().getArray(0).get(
+        statements.get(statements.size() - 1).positionalParameters().getArray(0).size() - 1));
+  }
+
+  @Test
+  public void shouldSendOversizedKeyAlone() {
+    List<ParameterizedStatement> statements = KeysExecutor.of(keys -> Delete.deleteFrom("b").useKeys(keys))
+        .maxBytes(10)
+        .statements(Arrays.asList("a", "a very long key", "b"))
+        .collect(Collectors.toList());
+
+    assertEquals(3, statements.size());
+    assertEquals(JsonArray.from("a very long key"), statements.get(1).positionalParameters().getArray(0));
+  }
+
+  @Test
+  public void shouldKeepOtherLiteralsAsParameters() {
+    ParameterizedStatement statement = KeysExecutor.of(keys -> Update.update("b").useKeys(keys)
+        .set(x("status"), s("archived")))
+        .statements(keys(3))
+        .findFirst()
+        .get();
+
+    assertEquals("UPDATE `b` USE KEYS $1 SET status = $2", statement.statement());
+    assertEquals(JsonArray.from(JsonArray.from("key::0", "key::1", "key::2"), "archived"),
+        statement.positionalParameters());
+  }
+
+  @Test
+  public void shouldBindCurrentBucketOfScope() {
+    long count = KeysExecutor.of(keys -> select("*").fromCurrentBucket().useKeys(keys))
+        .maxKeys(2)
+        .results(query, "travel-sample", keys(3))
+        .count();
+
+    assertEquals(2, count);
+    assertEquals(Arrays.asList("SELECT * FROM `travel-sample`.`_default`.`_default` USE KEYS $1",
+        "SELECT * FROM `travel-sample`.`_default`.`_default` USE KEYS $1"), executed);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldRejectCurrentBucketWithoutScope() {
+    KeysExecutor.of(keys -> select("*").fromCurrentBucket().useKeys(keys))
+        .results(query, null, keys(3))
+        .count();
+  }
+}
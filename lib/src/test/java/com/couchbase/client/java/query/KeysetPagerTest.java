@@ -0,0 +1,174 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.core.msg.query.QueryChunkRow;
+import com.couchbase.client.java.codec.DefaultJsonSerializer;
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.query.dsl.Sort;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.couchbase.client.java.query.Select.select;
+import static com.couchbase.client.java.query.dsl.Expression.s;
+import static com.couchbase.client.java.query.dsl.Expression.x;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class KeysetPagerTest {
+
+  private static KeysetPager pager() {
+    return KeysetPager.of(seek -> select("name", "age", "META().id AS id").from("users")
+        .where(x("type").eq(s("user")).and(seek)));
+  }
+
+  private static JsonObject row(Object age, String id) {
+    return JsonObject.create().put("age", age).put("id", id);
+  }
+
+  private static QueryResult result(JsonObject... rows) {
+    List<QueryChunkRow> chunks = Arrays.stream(rows)
+        .map(row -> new QueryChunkRow(row.toString().getBytes(StandardCharsets.UTF_8)))
+        .collect(Collectors.toList());
+    return new QueryResult(null, chunks, null, DefaultJsonSerializer.create());
+  }
+
+  @Test
+  public void shouldQueryFirstPageWithoutSeek() {
+    ParameterizedStatement statement = pager().key(Sort.asc("name"), "name").pageSize(10).statement(null);
+
+    assertEquals("SELECT name, age, META().id AS id FROM users WHERE type = $1 AND TRUE ORDER BY name ASC LIMIT 10",
+        statement.statement());
+    assertEquals(JsonArray.from("user"), statement.positionalParameters());
+  }
+
+  @Test
+  public void shouldSeekPastSingleKey() {
+    ParameterizedStatement statement = pager().key(Sort.desc("age"), "age").statement(JsonArray.from(42));
+
+    assertEquals("SELECT name, age, META().id AS id FROM users WHERE type = $1 AND age < $2 ORDER BY age DESC LIMIT 100",
+        statement.statement());
+    assertEquals(JsonArray.from("user", 42), statement.positionalParameters());
+  }
+
+  @Test
+  public void shouldExpandSeekIntoSargablePredicates() {
+    KeysetPager pager = pager()
+        .key(Sort.desc("age"), "age")
+        .key(Sort.asc("name"), "name")
+        .key(Sort.def("META().id"), "id");
+
+    assertEquals("age <= 42 AND ( age < 42 OR ( age = 42 AND name > \"bob\" ) OR"
+            + " ( age = 42 AND name = \"bob\" AND META().id > \"u1\" ) )",
+        pager.seek(JsonArray.from(42, "bob", "u1")).toString());
+    assertEquals(JsonArray.from("user", 42, 42, 42, "bob", 42, "bob", "u1"),
+        pager.statement(JsonArray.from(42, "bob", "u1")).positionalParameters());
+  }
+
+  @Test
+  public void shouldReadKeysFromRow() {
+    KeysetPager pager = pager().key(Sort.asc("name"), "name").key(Sort.asc("META().id"), "id");
+
+    assertEquals(JsonArray.from("bob", "u1"),
+        pager.keys(JsonObject.create().put("id", "u1").put("age", 42).put("name", "bob")));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldRejectMissingKey() {
+    pager().key(Sort.asc("name"), "name").keys(JsonObject.create().put("id", "u1"));
+  }
+
+  @Test
+  public void shouldRejectKeysOfAnotherTypeOnLaterPages() {
+    KeysetPager pager = pager().key(Sort.asc("age"), "age").key(Sort.asc("META().id"), "id");
+    int[] ranks = new int[2];
+    pager.checkKeys(Arrays.asList(row(1, "u1"), row(2.5, "u2")), ranks);
+
+    try {
+      pager.checkKeys(Collections.singletonList(row("unknown", "u3")), ranks);
+      fail();
+    } catch (IllegalStateException expected) {
+      assertTrue(expected.getMessage(), expected.getMessage().startsWith("Sort key age is a String"));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldRejectNullKeyInAnyRow() {
+    KeysetPager pager = pager().key(Sort.desc("age"), "age").key(Sort.asc("META().id"), "id");
+    pager.checkKeys(Arrays.asList(row(3, "u1"), JsonObject.create().putNull("age").put("id", "u2"), row(1, "u3")),
+        new int[2]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectWrongNumberOfKeys() {
+    pager().key(Sort.asc("name"), "name").statement(JsonArray.from("bob", "u1"));
+  }
+
+  @Test
+  public void shouldBindCurrentBucketOfScope() {
+    List<String> executed = new ArrayList<>();
+    List<QueryResult> results = Arrays.asList(result(row(1, "u1"), row(2, "u2")), result(row(3, "u3")));
+    long count = KeysetPager.of(seek -> select("*").fromCurrentBucket().where(seek))
+        .key(Sort.asc("META().id"), "id")
+        .pageSize(2)
+        .pages((statement, options) -> {
+          executed.add(statement);
+          return Mono.just(results.get(executed.size() - 1));
+        }, "travel-sample")
+        .count();
+
+    assertEquals(2, count);
+    assertEquals(Arrays.asList(
+        "SELECT * FROM `travel-sample`.`_default`.`_default` WHERE TRUE ORDER BY META().id ASC LIMIT 2",
+        "SELECT * FROM `travel-sample`.`_default`.`_default` WHERE META().id > $1 ORDER BY META().id ASC LIMIT 2"),
+        executed);
+  }
+
+  @Test
+  public void shouldCancelPrefetchedPageWhenClosed() {
+    List<String> executed = new ArrayList<>();
+    AtomicBoolean cancelled = new AtomicBoolean();
+    KeysetPager pager = pager().key(Sort.asc("META().id"), "id").pageSize(2).prefetch(true);
+
+    try (Stream<JsonObject> rows = pager.pages((statement, options) -> {
+      executed.add(statement);
+      if (executed.size() == 1) {
+        return Mono.just(result(row(1, "u1"), row(2, "u2")));
+      }
+      return Mono.<QueryResult>never().doOnCancel(() -> cancelled.set(true));
+    }, null).flatMap(List::stream)) {
+      assertEquals(row(1, "u1"), rows.findFirst().get());
+      assertEquals(2, executed.size());
+      assertFalse(cancelled.get());
+    }
+
+    assertTrue(cancelled.get());
+    assertEquals(2, executed.size());
+  }
+}
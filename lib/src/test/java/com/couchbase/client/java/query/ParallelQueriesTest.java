@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static com.couchbase.client.java.query.Select.select;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelQueriesTest {
+
+  private final List<MonoSink<QueryResult>> started = new ArrayList<>();
+  private final List<MonoSink<QueryResult>> cancelled = new ArrayList<>();
+  private final BiFunction<String, QueryOptions, Mono<QueryResult>> query = (statement, options) -> Mono.create(sink -> {
+    started.add(sink);
+    sink.onCancel(() -> cancelled.add(sink));
+  });
+
+  private static Iterator<ParameterizedStatement> statements(int count) {
+    List<ParameterizedStatement> statements = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      statements.add(ParameterizedStatement.positional(select("*").from("default").limit(i)));
+    }
+    return statements.iterator();
+  }
+
+  @Test
+  public void shouldCancelRunningStatementsWhenClosed() {
+    ParallelQueries.Results results = ParallelQueries.results(query, null, statements(5), 2, options -> {
+    });
+    assertTrue(results.hasNext());
+    assertEquals(2, started.size());
+
+    results.close();
+    assertEquals(started, cancelled);
+    assertFalse(results.hasNext());
+    assertEquals(2, started.size());
+  }
+
+  @Test
+  public void shouldCancelRunningStatementsWhenOneFails() {
+    ParallelQueries.Results results = ParallelQueries.results(query, null, statements(5), 3, options -> {
+    });
+    assertTrue(results.hasNext());
+    started.get(0).error(new IllegalStateException("boom"));
+    try {
+      results.next();
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals("boom", e.getMessage());
+    }
+    assertEquals(4, started.size());
+    assertEquals(started.subList(1, 4), cancelled);
+    assertFalse(results.hasNext());
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import org.junit.Test;
+
+import static com.couchbase.client.java.query.Select.select;
+import static com.couchbase.client.java.query.dsl.Expression.i;
+import static com.couchbase.client.java.query.dsl.Expression.s;
+import static com.couchbase.client.java.query.dsl.Expression.sub;
+import static com.couchbase.client.java.query.dsl.Expression.x;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ParameterizedStatementTest {
+
+  @Test
+  public void shouldLiftLiteralsIntoPositionalParameters() {
+    Statement statement = select("*").from(i("default"))
+        .where(x("type").eq(s("user")).and(x("age").gt(21)).and(x("active").eq(true)));
+
+    ParameterizedStatement parameterized = ParameterizedStatement.positional(statement);
+
+    assertEquals("SELECT * FROM `default` WHERE type = $1 AND age > $2 AND active = TRUE",
+        parameterized.statement());
+    assertEquals(JsonArray.from("user", 21), parameterized.positionalParameters());
+    assertNull(parameterized.namedParameters());
+  }
+
+  @Test
+  public void shouldShareTextBetweenStatementsOfSameShape() {
+    String first = ParameterizedStatement.positional(select("*").from("b").where(x("id").eq(s("u1")))).statement();
+    String second = ParameterizedStatement.positional(select("*").from("b").where(x("id").eq(s("u2")))).statement();
+
+    assertEquals(first, second);
+  }
+
+  @Test
+  public void shouldLiftLiteralsIntoNamedParameters() {
+    Statement statement = Insert.insertInto("b")
+        .values("k1", JsonObject.create().put("a", 1))
+        .values("k2", 2.5);
+
+    ParameterizedStatement parameterized = ParameterizedStatement.named(statement);
+
+    assertEquals("INSERT INTO `b` VALUES ($p1, $p2) , ($p3, $p4)", parameterized.statement());
+    assertEquals(JsonObject.create().put("p1", "k1").put("p2", JsonObject.create().put("a", 1))
+        .put("p3", "k2").put("p4", 2.5), parameterized.namedParameters());
+    assertNull(parameterized.positionalParameters());
+  }
+
+  @Test
+  public void shouldNumberParametersOfSubqueriesInOrder() {
+    Statement statement = select("*").from("b")
+        .where(x("a").eq(s("x")).and(x("id").in(sub(select("id").from("c").where(x("z").eq(3))))).and(x("y").eq(4)));
+
+    ParameterizedStatement parameterized = ParameterizedStatement.positional(statement);
+
+    assertEquals("SELECT * FROM b WHERE a = $1 AND id IN (SELECT id FROM c WHERE z = $2) AND y = $3",
+        parameterized.statement());
+    assertEquals(JsonArray.from("x", 3, 4), parameterized.positionalParameters());
+  }
+
+  @Test
+  public void shouldLiftLiteralsOfAlreadyRenderedStatements() {
+    Statement statement = select("*").from("b").where(x("id").eq(s("u1")));
+
+    assertEquals("SELECT * FROM b WHERE id = \"u1\"", statement.toString());
+    assertEquals("SELECT * FROM b WHERE id = $1", ParameterizedStatement.positional(statement).statement());
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.core.msg.query.QueryChunkRow;
+import com.couchbase.client.java.codec.DefaultJsonSerializer;
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.query.dsl.Expression;
+import com.couchbase.client.java.query.dsl.Sort;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.couchbase.client.java.query.Select.select;
+import static com.couchbase.client.java.query.dsl.Expression.x;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PartitionedScanTest {
+
+  private static PartitionedScan scan() {
+    return PartitionedScan.of(partition -> select("*").from("b").where(x("type").eq(x("\"order\"")).and(partition)));
+  }
+
+  private static JsonObject row(Object... fields) {
+    JsonObject row = JsonObject.create();
+    for (int i = 0; i < fields.length; i += 2) {
+      row.put((String) fields[i], fields[i + 1]);
+    }
+    return row;
+  }
+
+  @Test
+  public void shouldPartitionByRanges() {
+    List<String> partitions = scan().ranges("h", "p").partitions().stream()
+        .map(Expression::toString)
+        .collect(Collectors.toList());
+
+    assertEquals(Arrays.asList("META().id < \"h\"", "META().id >= \"h\" AND META().id < \"p\"", "META().id >= \"p\""),
+        partitions);
+
+    ParameterizedStatement statement = scan().ranges("h", "p").statements().get(1);
+    assertEquals("SELECT * FROM b WHERE type = \"order\" AND META().id >= $1 AND META().id < $2", statement.statement());
+    assertEquals(JsonArray.from("h", "p"), statement.positionalParameters());
+  }
+
+  @Test
+  public void shouldPartitionBySuffixBuckets() {
+    List<String> partitions = scan().alias("o").suffixBuckets(3).partitions().stream()
+        .map(Expression::toString)
+        .collect(Collectors.toList());
+
+    assertEquals(3, partitions.size());
+    assertTrue(partitions.get(0), partitions.get(0).startsWith("LOWER(SUBSTR(META(`o`).id, -1, 1)) IN [\"0\",\"3\",\"6\""));
+    assertTrue(partitions.get(1), partitions.get(1).startsWith("LOWER(SUBSTR(META(`o`).id, -1, 1)) IN [\"1\",\"4\""));
+    assertTrue(partitions.get(2), partitions.get(2).startsWith("LOWER(SUBSTR(META(`o`).id, -1, 1)) NOT IN [\"0\",\"3\""));
+    assertEquals(1, scan().suffixBuckets(1).statements().size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectUnorderedRanges() {
+    scan().ranges("p", "h");
+  }
+
+  @Test
+  public void shouldMergePartialAggregates() {
+    PartitionedScan scan = scan().suffixBuckets(2)
+        .groupBy("country")
+        .count("n").sum("total").min("lo").max("hi").avg("avg", "s", "c")
+        .orderBy(Sort.desc("total"), "total");
+
+    List<JsonObject> rows = scan.merge(Arrays.asList(
+        Arrays.asList(
+            row("country", "fr", "n", 2, "total", 10, "lo", 3, "hi", 7, "s", 10, "c", 2),
+            row("country", "uk", "n", 1, "total", 4.5, "lo", 4.5, "hi", 4.5, "s", 4.5, "c", 1)),
+        Arrays.asList(
+            row("country", "uk", "n", 3, "total", 30, "lo", 2, "hi", 20, "s", 30, "c", 3),
+            row("country", "de", "n", 1, "total", 1, "lo", null, "hi", null, "s", 1, "c", 0))));
+
+    assertEquals(3, rows.size());
+    assertEquals(row("country", "uk", "n", 4L, "total", 34.5, "lo", 2, "hi", 20, "s", 34.5, "c", 4L, "avg", 8.625),
+        rows.get(0));
+    assertEquals(row("country", "fr", "n", 2, "total", 10, "lo", 3, "hi", 7, "s", 10, "c", 2, "avg", 5.0),
+        rows.get(1));
+    assertEquals(null, rows.get(2).get("avg"));
+  }
+
+  @Test
+  public void shouldIgnorePartialSumsWhichAreNotNumbers() {
+    PartitionedScan scan = scan().suffixBuckets(3)
+        .groupBy("country")
+        .sum("total").count("n");
+
+    List<JsonObject> rows = scan.merge(Arrays.asList(
+        Arrays.asList(row("country", "fr", "total", "n/a", "n", null), row("country", "uk", "total", "n/a")),
+        Arrays.asList(row("country", "fr", "total", 2, "n", 1)),
+        Arrays.asList(row("country", "fr", "total", null, "n", true))));
+
+    assertEquals(Arrays.asList(row("country", "fr", "total", 2, "n", 1), row("country", "uk", "total", null)), rows);
+  }
+
+  @Test
+  public void shouldMergeSortedPartitionsUpToLimit() {
+    PartitionedScan scan = scan().ranges("m")
+        .orderBy(Sort.asc("name"), "name")
+        .orderBy(Sort.desc("age"), "age")
+        .limit(4);
+
+    List<JsonObject> rows = scan.merge(Arrays.asList(
+        Arrays.asList(row("name", "ann", "age", 30), row("name", "bob", "age", 20), row("name", "eve", "age", 1)),
+        Arrays.asList(row("name", "ann", "age", 40), row("name", "carl", "age", 5))));
+
+    assertEquals(Arrays.asList(row("name", "ann", "age", 40), row("name", "ann", "age", 30),
+        row("name", "bob", "age", 20), row("name", "carl", "age", 5)), rows);
+  }
+
+  @Test
+  public void shouldCollateLikeN1ql() {
+    List<Object> values = Arrays.asList(JsonObject.create(), JsonArray.from(1), "a", 2.5, 2, true, false, null);
+    List<Object> sorted = values.stream().sorted(PartitionedScan::collate).collect(Collectors.toList());
+
+    assertEquals(Arrays.asList(null, false, true, 2, 2.5, "a", JsonArray.from(1), JsonObject.create()), sorted);
+  }
+
+  @Test
+  public void shouldCollateObjectsFieldByField() {
+    List<Object> values = Arrays.asList(
+        row("b", 1, "a", 1),
+        row("a", 2, "b", 0),
+        row("a", 1, "c", 0),
+        row("a", 10),
+        row("a", 1, "b", 1));
+    List<Object> sorted = values.stream().sorted(PartitionedScan::collate).collect(Collectors.toList());
+
+    assertEquals(Arrays.asList(row("a", 10), row("a", 1, "b", 1), row("a", 1, "b", 1), row("a", 2, "b", 0),
+        row("a", 1, "c", 0)), sorted);
+  }
+
+  @Test
+  public void shouldBindCurrentBucketOfScope() {
+    List<String> executed = new ArrayList<>();
+    List<JsonObject> rows = PartitionedScan.of(partition -> select("*").fromCurrentBucket().where(partition))
+        .ranges("m")
+        .rows((statement, options) -> {
+          executed.add(statement);
+          QueryChunkRow row = new QueryChunkRow(("{\"n\":" + executed.size() + "}").getBytes(StandardCharsets.UTF_8));
+          return Mono.just(
+              new QueryResult(null, Collections.singletonList(row), null, DefaultJsonSerializer.create()));
+        }, "travel-sample");
+
+    assertEquals(Arrays.asList(row("n", 1), row("n", 2)), rows);
+    assertEquals(Arrays.asList("SELECT * FROM `travel-sample`.`_default`.`_default` WHERE META().id < $1",
+        "SELECT * FROM `travel-sample`.`_default`.`_default` WHERE META().id >= $1"), executed);
+  }
+}
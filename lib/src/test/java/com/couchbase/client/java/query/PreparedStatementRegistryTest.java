@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import org.junit.Test;
+
+import static com.couchbase.client.java.query.Select.select;
+import static com.couchbase.client.java.query.dsl.Expression.s;
+import static com.couchbase.client.java.query.dsl.Expression.x;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PreparedStatementRegistryTest {
+
+  private static Statement byId(String id) {
+    return select("*").from("users").where(x("id").eq(s(id)));
+  }
+
+  private static Statement byName(String name) {
+    return select("*").from("users").where(x("name").eq(s(name)));
+  }
+
+  private static void run(PreparedStatementRegistry registry, Statement statement) {
+    registry.queryOptions(ParameterizedStatement.positional(statement), options -> {
+    });
+  }
+
+  @Test
+  public void shouldBindCurrentBucketLikeScopeExecution() {
+    ParameterizedStatement parameterized = ParameterizedStatement.positional(
+        select("*").fromCurrentBucket().where(x("id").eq(s("u1"))));
+
+    assertEquals("SELECT * FROM `b`.`_default`.`_default` WHERE id = $1",
+        PreparedStatementRegistry.render(parameterized, "b"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldRejectCurrentBucketOnCluster() {
+    PreparedStatementRegistry.render(ParameterizedStatement.positional(select("*").fromCurrentBucket()), null);
+  }
+
+  @Test
+  public void shouldTrackRunsPerShape() {
+    PreparedStatementRegistry registry = new PreparedStatementRegistry(10, 2);
+
+    run(registry, byId("u1"));
+    assertFalse(registry.isHot(byId("u1")));
+
+    run(registry, byId("u2"));
+    assertTrue(registry.isHot(byId("u3")));
+    assertEquals(2, registry.runs(byId("u4")));
+    assertEquals(0, registry.runs(byName("n1")));
+
+    assertEquals(1, registry.size());
+    assertEquals(1, registry.hitCount());
+    assertEquals(1, registry.missCount());
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedShapes() {
+    PreparedStatementRegistry registry = new PreparedStatementRegistry(2, 2);
+    Statement other = select("*").from("users").where(x("age").gt(18));
+
+    run(registry, byId("u1"));
+    run(registry, byName("n1"));
+    run(registry, byId("u2"));
+    run(registry, other);
+
+    assertEquals(2, registry.size());
+    assertEquals(1, registry.evictionCount());
+    assertEquals(0, registry.runs(byName("n2")));
+    assertEquals(2, registry.runs(byId("u3")));
+    assertEquals(1, registry.runs(other));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectEmptyCapacity() {
+    new PreparedStatementRegistry(0, 1);
+  }
+}
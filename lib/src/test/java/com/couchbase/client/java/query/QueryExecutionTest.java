@@ -0,0 +1,202 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query;
+
+import com.couchbase.client.core.msg.ResponseStatus;
+import com.couchbase.client.core.msg.query.QueryChunkHeader;
+import com.couchbase.client.core.msg.query.QueryChunkRow;
+import com.couchbase.client.core.msg.query.QueryChunkTrailer;
+import com.couchbase.client.core.msg.query.QueryResponse;
+import com.couchbase.client.java.codec.DefaultJsonSerializer;
+import com.couchbase.client.java.codec.JsonSerializer;
+import com.couchbase.client.java.json.JsonObject;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.couchbase.client.java.query.Select.select;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class QueryExecutionTest {
+
+  private static final Statement CURRENT_BUCKET = select("*").fromCurrentBucket().where("a = 1");
+
+  @Test
+  public void shouldReplaceCurrentBucket() {
+    assertEquals("SELECT * FROM `travel-sample`.`_default`.`_default` WHERE a = 1", QueryExecution.render(CURRENT_BUCKET, "travel-sample"));
+    assertEquals("SELECT * FROM b", QueryExecution.render(select("*").from("b"), null));
+  }
+
+  @Test
+  public void shouldReuseTheTextCachedByStatements() {
+    Statement statement = select("*").from("b").where("b = 2");
+    assertSame(statement.toString(), QueryExecution.render(statement, "b"));
+
+    Statement current = select("*").fromCurrentBucket().where("b = 2");
+    assertSame(current.toString(), CompiledStatement.compile(current).toString());
+    assertEquals(QueryExecution.render(current, "b"), QueryExecution.render(current, "b"));
+  }
+
+  @Test
+  public void shouldReuseBoundStatementsOfCompiledStatements() {
+    CompiledStatement statement = CompiledStatement.compile(select("*").fromCurrentBucket().where("b = 2"));
+    assertSame(QueryExecution.render(statement, "b"), QueryExecution.render(statement, "b"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldRejectCurrentBucketWithoutScope() {
+    QueryExecution.render(CURRENT_BUCKET, null);
+  }
+
+  @Test
+  public void shouldFailFutureWhenCurrentBucketIsMissing() throws InterruptedException {
+    CompletableFuture<QueryResult> result = QueryExecution.execute((statement, options) -> {
+      throw new AssertionError("should not run");
+    }, CURRENT_BUCKET, null, QueryOptions.queryOptions());
+
+    try {
+      result.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  @Test
+  public void shouldRenderReactiveStatementOnSubscription() {
+    AtomicReference<String> executed = new AtomicReference<>();
+    Mono<ReactiveQueryResult> result = QueryExecution.executeReactive((statement, options) -> {
+      executed.set(statement);
+      return Mono.empty();
+    }, CURRENT_BUCKET, "b", QueryOptions.queryOptions());
+
+    assertEquals(null, executed.get());
+    result.block();
+    assertEquals("SELECT * FROM `b`.`_default`.`_default` WHERE a = 1", executed.get());
+  }
+
+  @Test
+  public void shouldDecodeRowsOffTheCallingThread() {
+    List<String> threads = new ArrayList<>();
+    QueryOptions options = QueryOptions.queryOptions().serializer(new JsonSerializer() {
+      private final JsonSerializer delegate = DefaultJsonSerializer.create();
+
+      @Override
+      public byte[] serialize(Object input) {
+        return delegate.serialize(input);
+      }
+
+      @Override
+      public <T> T deserialize(Class<T> target, byte[] input) {
+        if (target != byte[].class) {
+          synchronized (threads) {
+            threads.add(Thread.currentThread().getName());
+          }
+        }
+        return delegate.deserialize(target, input);
+      }
+    });
+
+    List<JsonObject> rows = QueryExecution.rowsReactive((statement, queryOptions) -> {
+      JsonSerializer serializer = queryOptions.build().serializer();
+      return Mono.just(new ReactiveQueryResult(new QueryResponse(ResponseStatus.SUCCESS, null,
+          Flux.just(row("{\"n\":1}"), row("{\"n\":2}")), Mono.empty()), serializer));
+    }, select("*").from("b"), null, null, options, JsonObject.class).collectList().block();
+
+    assertEquals(Arrays.asList(JsonObject.create().put("n", 1), JsonObject.create().put("n", 2)), rows);
+    assertEquals(2, threads.size());
+    for (String thread : threads) {
+      assertNotEquals(Thread.currentThread().getName(), thread);
+      assertTrue(thread, thread.startsWith("parallel"));
+    }
+  }
+
+  @Test
+  public void shouldNotChangeTheOptions() {
+    JsonSerializer serializer = DefaultJsonSerializer.create();
+    QueryOptions options = QueryOptions.queryOptions().serializer(serializer);
+    AtomicReference<QueryOptions> used = new AtomicReference<>();
+
+    for (int i = 0; i < 2; i++) {
+      QueryExecution.rowsReactive((statement, queryOptions) -> {
+        used.set(queryOptions);
+        return Mono.<ReactiveQueryResult>empty();
+      }, select("*").from("b"), null, null, options, JsonObject.class).blockLast();
+
+      assertSame(options, used.get());
+      assertSame(serializer, options.build().serializer());
+    }
+  }
+
+  @Test
+  public void shouldBufferReactiveRowsAndMetaData() {
+    QueryChunkHeader header = new QueryChunkHeader("r1", Optional.empty(), Optional.empty(), Optional.empty());
+    QueryChunkTrailer trailer = new QueryChunkTrailer("success",
+        Optional.of("{\"mutationCount\":2}".getBytes(StandardCharsets.UTF_8)), Optional.empty(), Optional.empty(),
+        Optional.empty());
+    JsonSerializer serializer = DefaultJsonSerializer.create();
+
+    QueryResult result = QueryExecution.buffered((statement, options) -> Mono.just(new ReactiveQueryResult(
+        new QueryResponse(ResponseStatus.SUCCESS, header, Flux.just(row("{\"n\":1}"), row("{\"n\":2}")),
+            Mono.just(trailer)), serializer)), null)
+        .apply("SELECT 1", QueryOptions.queryOptions().serializer(serializer))
+        .block();
+
+    assertEquals(Arrays.asList(JsonObject.create().put("n", 1), JsonObject.create().put("n", 2)), result.rowsAsObject());
+    assertEquals("r1", result.metaData().requestId());
+    assertEquals(2L, KeysExecutor.mutationCount(result));
+  }
+
+  @Test
+  public void shouldCancelBufferedRequestAndRowsWhenDisposed() {
+    AtomicBoolean requestCancelled = new AtomicBoolean();
+    QueryOptions options = QueryOptions.queryOptions().serializer(DefaultJsonSerializer.create());
+    QueryExecution.buffered((statement, queryOptions) -> Mono.<ReactiveQueryResult>never()
+        .doOnCancel(() -> requestCancelled.set(true)), null)
+        .apply("SELECT 1", options)
+        .subscribe()
+        .dispose();
+    assertTrue(requestCancelled.get());
+
+    AtomicBoolean rowsCancelled = new AtomicBoolean();
+    QueryExecution.buffered((statement, queryOptions) -> Mono.just(new ReactiveQueryResult(
+        new QueryResponse(ResponseStatus.SUCCESS, null, Flux.<QueryChunkRow>never()
+            .doOnCancel(() -> rowsCancelled.set(true)), Mono.never()), queryOptions.build().serializer())), null)
+        .apply("SELECT 1", options)
+        .subscribe()
+        .dispose();
+    assertTrue(rowsCancelled.get());
+  }
+
+  private static QueryChunkRow row(String json) {
+    return new QueryChunkRow(json.getBytes(StandardCharsets.UTF_8));
+  }
+}
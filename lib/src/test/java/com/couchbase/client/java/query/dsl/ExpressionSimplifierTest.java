@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query.dsl;
+
+import com.couchbase.client.java.json.JsonArray;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.couchbase.client.java.query.dsl.Expression.FALSE;
+import static com.couchbase.client.java.query.dsl.Expression.TRUE;
+import static com.couchbase.client.java.query.dsl.Expression.par;
+import static com.couchbase.client.java.query.dsl.Expression.s;
+import static com.couchbase.client.java.query.dsl.Expression.x;
+import static com.couchbase.client.java.query.dsl.functions.StringFunctions.lower;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ExpressionSimplifierTest {
+
+    @Test
+    public void shouldRemoveNeutralTerms() {
+        assertEquals("a = 1", TRUE().and(x("a").eq(1)).simplify().toString());
+        assertEquals("a = 1", x("a").eq(1).or(FALSE()).simplify().toString());
+        assertEquals("a = 1 AND b = 2", Expression.and(TRUE(), x("a").eq(1), TRUE(), x("b").eq(2)).simplify().toString());
+        assertEquals("TRUE", TRUE().and(TRUE()).simplify().toString());
+    }
+
+    @Test
+    public void shouldKeepNeutralTermsConvertingOperandsToBooleans() {
+        // "TRUE AND price" is a boolean, "price" alone is a number
+        assertEquals("TRUE AND price", TRUE().and(x("price")).and(TRUE()).simplify().toString());
+        assertEquals("FALSE OR LOWER(name)", FALSE().or(lower(x("name"))).simplify().toString());
+        assertEquals("TRUE AND a", x("a").and(x("a")).simplify().toString());
+        assertEquals("a IS VALUED", TRUE().and(x("a").isValued()).simplify().toString());
+        assertEquals("( a OR b )", TRUE().and(par(x("a").or(x("b")))).simplify().toString());
+    }
+
+    @Test
+    public void shouldApplyAbsorbingTerms() {
+        assertEquals("FALSE", x("a").eq(1).and(FALSE()).and(x("b")).simplify().toString());
+        assertEquals("TRUE", Expression.or(x("a"), TRUE()).simplify().toString());
+    }
+
+    @Test
+    public void shouldRemoveDuplicateTerms() {
+        Expression filter = x("a").eq(1).and(x("b").eq(2)).and(x("a").eq(1))
+            .and(Expression.and(Arrays.asList(x("b").eq(2), x("c").eq(3))));
+
+        assertEquals("a = 1 AND b = 2 AND c = 3", filter.simplify().toString());
+    }
+
+    @Test
+    public void shouldRemoveRedundantParenthesis() {
+        assertEquals("( a OR b )", par(par(x("a").or(x("b")))).simplify().toString());
+        assertEquals("name", par(x("name")).simplify().toString());
+        assertEquals("a = 1 AND ( b OR c )", par(x("a").eq(1)).and(par(par(x("b").or(x("c"))))).simplify().toString());
+        assertEquals("LOWER(name) = \"x\"", par(lower(x("name"))).eq(s("x")).simplify().toString());
+        assertEquals("x AND ( a = b OR c )", x("x").and(par(x("a").eq(x("b")).or(x("c")))).simplify().toString());
+    }
+
+    @Test
+    public void shouldRemoveDoubleNegation() {
+        assertEquals("( a = 1 )", par(x("a").eq(1)).not().not().simplify().toString());
+        assertEquals("a AND ( b > 1 )", x("a").and(par(par(x("b").gt(1)).not()).not()).simplify().toString());
+        // "NOT NOT active" is a boolean, "active" alone may not be
+        assertEquals("NOT NOT active", x("active").not().not().simplify().toString());
+        assertEquals("FALSE", TRUE().not().simplify().toString());
+        assertEquals("NOT NOT a = 1", x("a").eq(1).not().not().simplify().toString());
+    }
+
+    @Test
+    public void shouldTurnSingleElementInIntoEquality() {
+        assertEquals("type = \"hotel\"", x("type").in(JsonArray.from("hotel")).simplify().toString());
+        assertEquals("id != 42", x("id").notIn(JsonArray.from(42)).simplify().toString());
+        assertEquals("type IN [\"a\",\"b\"]", x("type").in(JsonArray.from("a", "b")).simplify().toString());
+        assertEquals("s IN [\"a\\\"b\"]", x("s").in(JsonArray.from("a\"b")).simplify().toString());
+    }
+
+    @Test
+    public void shouldFoldArithmetic() {
+        assertEquals("age > 60", x("age").gt(x(18).add(x(42))).simplify().toString());
+        assertEquals("ratio = 3.5", x("ratio").eq(x(7).divide(x(2))).simplify().toString());
+        assertEquals("ratio = 2", x("ratio").eq(x(8).divide(x(4))).simplify().toString());
+        assertEquals("ratio = 1 / 0", x("ratio").eq(x(1).divide(x(0))).simplify().toString());
+        // "1 + 2 * a" is "1 + (2 * a)", folding "1 + 2" would change it
+        assertEquals("1 + 2 * a", x(1).add(x(2)).multiply(x("a")).simplify().toString());
+    }
+
+    @Test
+    public void shouldLeaveMixedPrecedenceUntouched() {
+        Expression mixed = x("a").or(TRUE()).and(x("b"));
+
+        assertSame(mixed, mixed.simplify());
+        assertEquals("NOT TRUE AND b", TRUE().and(x("b")).not().simplify().toString());
+    }
+
+    @Test
+    public void shouldReturnSameInstanceWhenNothingChanges() {
+        Expression filter = x("a").eq(1).and(x("b").eq(s("x"))).and(par(x("c").or(x("d"))));
+
+        assertSame(filter, filter.simplify());
+    }
+
+    @Test
+    public void shouldSimplifyLongChains() {
+        Expression filter = TRUE();
+        for (int i = 0; i < 10_000; i++) {
+            filter = filter.and(x("f" + (i % 10)).eq(i % 10));
+        }
+
+        assertEquals(Expression.and(Arrays.asList(x("f0").eq(0), x("f1").eq(1), x("f2").eq(2), x("f3").eq(3),
+            x("f4").eq(4), x("f5").eq(5), x("f6").eq(6), x("f7").eq(7), x("f8").eq(8), x("f9").eq(9))),
+            filter.simplify());
+    }
+}
@@ -21,12 +21,21 @@ import com.couchbase.client.java.query.Select;
 import com.couchbase.client.java.query.Statement;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
 import static com.couchbase.client.java.query.dsl.Expression.i;
 import static com.couchbase.client.java.query.dsl.Expression.par;
+import static com.couchbase.client.java.query.dsl.Expression.path;
 import static com.couchbase.client.java.query.dsl.Expression.s;
 import static com.couchbase.client.java.query.dsl.Expression.x;
 import static com.couchbase.client.java.query.dsl.functions.MetaFunctions.meta;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 
 public class ExpressionTest {
 
@@ -216,4 +225,79 @@ public class ExpressionTest {
         assertEquals("foo.bar", expGetter.toString());
         assertEquals("META(foo).bar", metGetter.toString());
     }
+
+    @Test
+    public void shouldRenderDeepChainsWithoutRecursion() {
+        Expression chain = x("a0");
+        StringBuilder expected = new StringBuilder("a0");
+        for (int i = 1; i < 100000; i++) {
+            chain = chain.and(x("a" + i));
+            expected.append(" AND a").append(i);
+        }
+
+        assertEquals(expected.toString(), chain.toString());
+    }
+
+    @Test
+    public void shouldShareSubExpressionsBetweenTrees() {
+        Expression shared = x("foo").eq(s("bar"));
+        Expression left = shared.and(x("baz").isNotNull());
+        Expression right = Expression.function("NOT_NULL", shared).or(x(false));
+
+        assertEquals("foo = \"bar\" AND baz IS NOT NULL", left.toString());
+        assertEquals("NOT_NULL(foo = \"bar\") OR FALSE", right.toString());
+        assertEquals("foo = \"bar\"", shared.toString());
+    }
+
+    @Test
+    public void shouldJoinExpressions() {
+        Expression joined = Expression.join(" ", x("DISTINCT"), i("name"));
+
+        assertEquals("DISTINCT `name`", joined.toString());
+        assertEquals("", Expression.join(", ").toString());
+    }
+
+    @Test
+    public void shouldCombineManyExpressionsAtOnce() {
+        List<Expression> terms = Arrays.asList(x("a = 1"), x("b = 2"), x("c = 3 OR d = 4"));
+
+        assertEquals("a = 1 AND b = 2 AND c = 3 OR d = 4", Expression.and(terms).toString());
+        assertEquals("a = 1 OR b = 2", Expression.or(x("a = 1"), x("b = 2")).toString());
+        assertEquals("( a = 1 ) AND ( b = 2 ) AND ( c = 3 OR d = 4 )", Expression.and(terms, true).toString());
+        assertEquals("a = 1", Expression.or(Collections.singletonList(x("a = 1"))).toString());
+        assertEquals("TRUE", Expression.and(new ArrayList<Expression>()).toString());
+        assertEquals("FALSE", Expression.or().toString());
+    }
+
+    @Test
+    public void shouldCollectExpressionsFromStream() {
+        Expression and = Stream.of("a", "b", "c").map(f -> x(f).isNotNull()).collect(Expression.toAnd());
+        Expression or = Stream.of("a", "b").map(f -> x(f).eq(1)).collect(Expression.toOr(true));
+
+        assertEquals("a IS NOT NULL AND b IS NOT NULL AND c IS NOT NULL", and.toString());
+        assertEquals("( a = 1 ) OR ( b = 1 )", or.toString());
+    }
+
+    @Test
+    public void shouldCompareByRenderedText() {
+        Expression built = x("a").eq(1).and(path("b", "c").like(s("x%")));
+        Expression raw = x("a = 1 AND b.c LIKE \"x%\"");
+
+        assertEquals(raw, built);
+        assertEquals(raw.hashCode(), built.hashCode());
+        assertEquals(x("\"a\""), s("a"));
+        assertNotEquals(x("a"), i("a"));
+        assertNotEquals(x("a").eq(1), x("a =1"));
+    }
+
+    @Test
+    public void shouldCacheRenderedText() {
+        Expression expr = x("a").eq(x(JsonObject.create().put("b", 1)));
+
+        String first = expr.toString();
+        assertSame(first, expr.toString());
+        assertEquals(first.length(), expr.length());
+        assertEquals(x("a").eq(x(JsonObject.create().put("b", 1))), expr);
+        assertEquals(first.hashCode(), expr.hashCode());
+    }
 }
@@ -17,6 +17,9 @@ package com.couchbase.client.java.query.dsl;
 
 import com.couchbase.client.java.json.JsonArray;
 import com.couchbase.client.java.query.Statement;
+import com.couchbase.client.java.query.dsl.element.N1qlWriter;
+import com.couchbase.client.java.query.dsl.element.WhereElement;
+import com.couchbase.client.java.query.dsl.path.AbstractPath;
 import com.couchbase.client.java.query.dsl.path.DefaultFromPath;
 import com.couchbase.client.java.query.dsl.path.DefaultGroupByPath;
 import com.couchbase.client.java.query.dsl.path.DefaultHintPath;
@@ -26,12 +29,19 @@ import com.couchbase.client.java.query.dsl.path.DefaultOffsetPath;
 import com.couchbase.client.java.query.dsl.path.DefaultOrderByPath;
 import com.couchbase.client.java.query.dsl.path.DefaultSelectPath;
 import com.couchbase.client.java.query.dsl.path.DefaultWherePath;
+import com.couchbase.client.java.query.dsl.path.GroupByPath;
 import com.couchbase.client.java.query.dsl.path.Path;
 import com.couchbase.client.java.query.dsl.path.SelectResultPath;
 import com.couchbase.client.java.query.dsl.path.index.IndexReference;
 import com.couchbase.client.java.query.dsl.path.index.IndexType;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import static com.couchbase.client.java.query.Select.select;
 import static com.couchbase.client.java.query.Select.selectDistinct;
 import static com.couchbase.client.java.query.dsl.Alias.alias;
@@ -40,6 +50,7 @@ import static com.couchbase.client.java.query.dsl.Expression.path;
 import static com.couchbase.client.java.query.dsl.Expression.s;
 import static com.couchbase.client.java.query.dsl.Expression.x;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 /**
  * General tests of the query DSL.
@@ -719,4 +730,73 @@ public class SelectDslTest {
 
     }
 
+    @Test
+    public void testSharedPrefixCanBeBranched() {
+        GroupByPath prefix = select("name", "age").from(i("default")).where(x("type").eq(s("user")));
+
+        Statement byName = prefix.orderBy(Sort.asc("name"));
+        Statement byAge = prefix.groupBy(x("age"));
+
+        assertEquals("SELECT name, age FROM `default` WHERE type = \"user\" ORDER BY name ASC", byName.toString());
+        assertEquals("SELECT name, age FROM `default` WHERE type = \"user\" GROUP BY age", byAge.toString());
+        assertEquals("SELECT name, age FROM `default` WHERE type = \"user\"", prefix.toString());
+    }
+
+    @Test
+    public void testSharedPrefixCanBeBranchedConcurrently() {
+        final GroupByPath prefix = select("*").from(i("default")).where(x("type").eq(s("user")));
+
+        List<String> statements = IntStream.range(0, 1000).parallel()
+            .mapToObj(n -> prefix.limit(n).toString())
+            .collect(Collectors.toList());
+
+        for (int n = 0; n < statements.size(); n++) {
+            assertEquals("SELECT * FROM `default` WHERE type = \"user\" LIMIT " + n, statements.get(n));
+        }
+    }
+
+    @Test
+    public void testStatementsCanBeUsedAsKeys() {
+        Map<Statement, Integer> counts = new HashMap<Statement, Integer>();
+        for (int n = 0; n < 3; n++) {
+            Statement statement = select("*").from(i("default")).where(x("type").eq(s("user")));
+            Integer count = counts.get(statement);
+            counts.put(statement, count == null ? 1 : count + 1);
+        }
+
+        assertEquals(1, counts.size());
+        assertEquals(Integer.valueOf(3), counts.values().iterator().next());
+    }
+
+    @Test
+    public void testRenderIntoSharedWriter() {
+        Statement sub = select("name").from("default").where(x("age").gt(18));
+        SelectResultPath statement = select("name").from("archive").union(select("*").from("default")
+            .where(x("name").in(x(sub))));
+
+        N1qlWriter out = new N1qlWriter();
+        out.append("EXPLAIN ");
+        ((AbstractPath) statement).render(out);
+
+        assertEquals("EXPLAIN " + statement.toString(), out.toString());
+        assertEquals("SELECT name FROM archive UNION SELECT * FROM default WHERE name IN "
+            + "SELECT name FROM default WHERE age > 18", statement.toString());
+    }
+
+    @Test
+    public void testEqualityByRenderedText() {
+        Statement built = select(x("name")).from(i("default")).where(x("age").gt(18));
+        Statement raw = select("name").from("`default`").where("age > 18");
+
+        assertEquals(raw, built);
+        assertEquals(raw.hashCode(), built.hashCode());
+        assertNotEquals(select("name").from("default"), built);
+        assertNotEquals(x(built.toString()), built);
+    }
+
+    @Test
+    public void testElementExportCompatibility() {
+        assertEquals("WHERE a = b", new WhereElement(x("a").eq(x("b"))).export());
+    }
+
 }
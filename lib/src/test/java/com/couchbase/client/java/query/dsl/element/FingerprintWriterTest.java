@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query.dsl.element;
+
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.query.Insert;
+import com.couchbase.client.java.query.Statement;
+import com.couchbase.client.java.query.dsl.Expression;
+import org.junit.Test;
+
+import static com.couchbase.client.java.query.Select.select;
+import static com.couchbase.client.java.query.dsl.Expression.par;
+import static com.couchbase.client.java.query.dsl.Expression.s;
+import static com.couchbase.client.java.query.dsl.Expression.x;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class FingerprintWriterTest {
+
+    private static Statement byCity(String city, int limit) {
+        return select("name").from("hotels").where(x("city").eq(s(city)).and(x("stars").gte(3))).limit(limit);
+    }
+
+    @Test
+    public void shouldIgnoreLiterals() {
+        assertEquals(byCity("Paris", 10).fingerprint(), byCity("Nice", 10).fingerprint());
+        assertNotEquals(byCity("Paris", 10).fingerprint(),
+            select("city").from("hotels").where(x("city").eq(s("Paris")).and(x("stars").gte(3))).limit(10).fingerprint());
+    }
+
+    @Test
+    public void shouldIgnoreLiteralsOfAlreadyRenderedStatements() {
+        Statement statement = byCity("Paris", 10);
+        long before = statement.fingerprint();
+        statement.toString();
+
+        assertEquals(before, statement.fingerprint());
+        assertEquals(before, byCity("Lyon", 10).fingerprint());
+    }
+
+    @Test
+    public void shouldIgnoreWhitespace() {
+        assertEquals(x("a = 1").fingerprint(), x("a=1").fingerprint());
+        assertEquals(x(" a   =   1 ").fingerprint(), x("a = 1").fingerprint());
+        assertNotEquals(x("NOT EXISTS").fingerprint(), x("NOTEXISTS").fingerprint());
+    }
+
+    @Test
+    public void shouldNormalizeCommutativeOperandsOnDemand() {
+        Expression first = x("a").eq(1).and(x("b").eq(2)).and(x("c").eq(3));
+        Expression second = x("c").eq(4).and(x("a").eq(5)).and(x("b").eq(6));
+
+        assertNotEquals(first.fingerprint(), second.fingerprint());
+        assertEquals(first.fingerprint(true), second.fingerprint(true));
+        assertEquals(Expression.or(x("a"), par(x("b").and(x("c")))).fingerprint(true),
+            Expression.or(par(x("c").and(x("b"))), x("a")).fingerprint(true));
+    }
+
+    @Test
+    public void shouldKeepOrderOfMixedChains() {
+        // "a OR b AND c" is "a OR (b AND c)": swapping operands across operators changes the meaning
+        assertNotEquals(x("a").or(x("b")).and(x("c")).fingerprint(true),
+            x("c").or(x("b")).and(x("a")).fingerprint(true));
+    }
+
+    @Test
+    public void shouldFingerprintAllLiteralKinds() {
+        Statement first = Insert.insertInto("b").values("k1", JsonObject.create().put("a", 1));
+        Statement second = Insert.insertInto("b").values("k2", JsonObject.create().put("b", true));
+
+        assertEquals(first.fingerprint(), second.fingerprint());
+    }
+
+    @Test
+    public void shouldRenderNormalizedText() {
+        N1qlWriter out = new N1qlWriter(N1qlWriter.LiteralMode.NORMALIZED);
+        out.append(byCity("Paris", 10));
+
+        assertEquals("SELECT name FROM hotels WHERE city = ? AND stars >= ? LIMIT 10", out.toString());
+        assertEquals(16, new FingerprintWriter().toString().length());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.query.dsl.element;
+
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.query.Insert;
+import com.couchbase.client.java.query.Statement;
+import com.couchbase.client.java.query.dsl.Sort;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static com.couchbase.client.java.query.Select.select;
+import static com.couchbase.client.java.query.dsl.Expression.i;
+import static com.couchbase.client.java.query.dsl.Expression.s;
+import static com.couchbase.client.java.query.dsl.Expression.x;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class N1qlUtf8WriterTest {
+
+    private static byte[] json(String text) {
+        return JsonStringEncoder.getInstance().quoteAsUTF8(text);
+    }
+
+    @Test
+    public void shouldRenderSameTextAsStrings() {
+        Statement statement = select("name", "city").from(i("travel-sample")).useKeys("airline_10")
+            .where(x("city").eq(s("Z\u00FCrich")).and(x("name").like(s("\u20AC \uD834\uDD1E%"))))
+            .orderBy(Sort.asc("name")).limit(10);
+
+        N1qlUtf8Writer out = N1qlUtf8Writer.render(statement);
+
+        assertEquals(statement.toString(), out.toString());
+        assertArrayEquals(statement.toString().getBytes(StandardCharsets.UTF_8), out.toUtf8Bytes());
+        assertEquals(out.toUtf8Bytes().length, out.utf8Length(0));
+    }
+
+    @Test
+    public void shouldEscapeForJson() throws IOException {
+        Statement statement = Insert.insertInto("b")
+            .values("k1", JsonObject.create().put("quote", "a \"b\" \\ c\td\u0001"));
+        byte[] expected = json(statement.toString());
+
+        N1qlUtf8Writer out = N1qlUtf8Writer.render(statement);
+
+        assertArrayEquals(expected, out.toJsonBytes());
+        assertEquals(expected.length, out.jsonLength());
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        out.writeJsonTo(stream);
+        assertArrayEquals(expected, stream.toByteArray());
+
+        ByteBuffer buffer = ByteBuffer.allocate(expected.length + 4);
+        buffer.put((byte) '"');
+        out.writeJsonTo(buffer);
+        assertEquals(expected.length + 1, buffer.position());
+    }
+
+    @Test
+    public void shouldTrimAndTruncateOnByteOffsets() {
+        N1qlUtf8Writer out = new N1qlUtf8Writer(4);
+        out.append(Keyword.SELECT);
+        int start = out.length();
+        out.append("  \u00E9 \n");
+        out.trim(start);
+        assertEquals("SELECT \u00E9", out.toString());
+
+        start = out.length();
+        out.append(", ").append(42L);
+        assertEquals(4, out.utf8Length(start));
+        out.truncate(start);
+        assertEquals("SELECT \u00E9", out.toString());
+    }
+
+    @Test
+    public void shouldWriteParameters() {
+        N1qlUtf8Writer out = new N1qlUtf8Writer(N1qlWriter.LiteralMode.POSITIONAL);
+        out.append(select("*").from("b").where(x("id").eq(s("\u00FC1"))));
+
+        assertEquals("SELECT * FROM b WHERE id = $1", out.toString());
+        assertEquals("\u00FC1", out.parameters().get(0));
+    }
+}
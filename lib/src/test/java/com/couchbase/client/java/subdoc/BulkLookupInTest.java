@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.subdoc;
+
+import com.couchbase.client.core.error.DocumentNotFoundException;
+import com.couchbase.client.core.msg.kv.SubDocumentField;
+import com.couchbase.client.java.codec.DefaultJsonSerializer;
+import com.couchbase.client.java.kv.LookupInResult;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BulkLookupInTest {
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  /**
+   * Answers a lookup with a CAS made of the number ending the ID, later for lower numbers, and
+   * fails for IDs starting with "missing".
+   */
+  private final Function<String, Mono<LookupInResult>> lookupIn = id -> Mono.defer(() -> {
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    if (id.startsWith("missing")) {
+      return Mono.<LookupInResult>error(new DocumentNotFoundException(null));
+    }
+    long cas = Long.parseLong(id.substring(id.indexOf(':') + 1));
+    return Mono.delay(Duration.ofMillis(20 - cas % 20))
+        .map(tick -> SubdocResults.lookupInResult(new SubDocumentField[0], cas, DefaultJsonSerializer.create(), false));
+  }).doOnTerminate(inFlight::decrementAndGet);
+
+  private BulkLookupIn bulk() {
+    return new BulkLookupIn(null, lookupIn);
+  }
+
+  @Test
+  public void shouldIsolateFailures() {
+    Map<String, BulkLookupIn.Result> results = bulk().executeToMap(Arrays.asList("doc:1", "missing:2", "doc:3"));
+
+    assertEquals(Arrays.asList("doc:1", "missing:2", "doc:3"), results.keySet().stream().collect(Collectors.toList()));
+    assertTrue(results.get("doc:1").isSuccess());
+    assertEquals(3, results.get("doc:3").result().cas());
+    BulkLookupIn.Result missing = results.get("missing:2");
+    assertFalse(missing.isSuccess());
+    assertNull(missing.result());
+    assertTrue(missing.error() instanceof DocumentNotFoundException);
+  }
+
+  @Test
+  public void shouldKeepTheOrderOfTheIds() {
+    List<String> ids = IntStream.range(0, 40).mapToObj(i -> "doc:" + i).collect(Collectors.toList());
+
+    List<String> results = bulk().concurrency(8).execute(ids)
+        .map(BulkLookupIn.Result::id)
+        .collect(Collectors.toList());
+
+    assertEquals(ids, results);
+  }
+
+  @Test
+  public void shouldCapTheLookupsInFlight() {
+    List<String> ids = IntStream.range(0, 40).mapToObj(i -> "doc:" + i).collect(Collectors.toList());
+
+    assertEquals(40, bulk().concurrency(4).executeReactive(Flux.fromIterable(ids))
+        .count()
+        .block()
+        .intValue());
+    assertTrue(maxInFlight.get() > 1);
+    assertTrue(String.valueOf(maxInFlight.get()), maxInFlight.get() <= 4);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectNonPositiveConcurrency() {
+    bulk().concurrency(0);
+  }
+}
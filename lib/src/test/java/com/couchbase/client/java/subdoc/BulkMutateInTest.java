@@ -0,0 +1,118 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.subdoc;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BulkMutateInTest {
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private final Map<String, List<Integer>> applied = new ConcurrentHashMap<>();
+
+  /**
+   * Jobs are made of a document ID and a sequence number, like "doc-3:7". Earlier jobs take
+   * longer, so they would complete last if they were not queued.
+   */
+  private final Function<String, Mono<String>> run = job -> Mono.defer(() -> {
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    int sequence = sequence(job);
+    return Mono.delay(Duration.ofMillis(Math.max(1, 12 - sequence)))
+        .map(tick -> {
+          applied.computeIfAbsent(documentId(job), id -> Collections.synchronizedList(new ArrayList<>()))
+              .add(sequence);
+          return job;
+        });
+  }).doOnTerminate(inFlight::decrementAndGet);
+
+  private static String documentId(String job) {
+    return job.substring(0, job.indexOf(':'));
+  }
+
+  private static int sequence(String job) {
+    return Integer.parseInt(job.substring(job.indexOf(':') + 1));
+  }
+
+  private static List<String> jobs(int documents, int perDocument) {
+    List<String> jobs = new ArrayList<>();
+    for (int sequence = 0; sequence < perDocument; sequence++) {
+      for (int document = 0; document < documents; document++) {
+        jobs.add("doc-" + document + ":" + sequence);
+      }
+    }
+    return jobs;
+  }
+
+  @Test
+  public void shouldApplyTheJobsOfADocumentInOrder() {
+    List<String> jobs = jobs(10, 6);
+
+    List<String> results = BulkMutateIn.executeQueued(Flux.fromIterable(jobs), BulkMutateInTest::documentId, run, 4)
+        .collectList()
+        .block();
+
+    assertEquals(jobs.size(), results.size());
+    assertEquals(10, applied.size());
+    for (List<Integer> sequences : applied.values()) {
+      assertEquals(sequences.stream().sorted().collect(Collectors.toList()), sequences);
+      assertEquals(6, sequences.size());
+    }
+    for (int document = 0; document < 10; document++) {
+      String id = "doc-" + document;
+      List<Integer> completed = results.stream()
+          .filter(job -> documentId(job).equals(id))
+          .map(BulkMutateInTest::sequence)
+          .collect(Collectors.toList());
+      assertEquals(applied.get(id), completed);
+    }
+  }
+
+  @Test
+  public void shouldCapTheJobsInFlight() {
+    BulkMutateIn.executeQueued(Flux.fromIterable(jobs(20, 3)), BulkMutateInTest::documentId, run, 4)
+        .blockLast();
+
+    assertTrue(maxInFlight.get() > 1);
+    assertTrue(String.valueOf(maxInFlight.get()), maxInFlight.get() <= 4);
+  }
+
+  @Test
+  public void shouldSpreadDocumentsOverQueues() {
+    int[] counts = new int[8];
+    for (int i = 0; i < 8000; i++) {
+      counts[BulkMutateIn.queue("doc::" + i, 8)]++;
+    }
+    for (int count : counts) {
+      assertTrue(String.valueOf(count), count > 800 && count < 1200);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.subdoc;
+
+import com.couchbase.client.core.deps.io.netty.buffer.ByteBuf;
+import com.couchbase.client.core.deps.io.netty.buffer.ByteBufUtil;
+import com.couchbase.client.core.deps.io.netty.buffer.UnpooledByteBufAllocator;
+import com.couchbase.client.core.msg.kv.SubdocCommandType;
+import com.couchbase.client.java.codec.DefaultJsonSerializer;
+import com.couchbase.client.java.codec.JsonSerializer;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.kv.LookupInSpec;
+import com.couchbase.client.java.kv.MutateInMacro;
+import com.couchbase.client.java.kv.MutateInSpec;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+
+public class SubdocMutationTest {
+
+  private static final JsonSerializer SERIALIZER = DefaultJsonSerializer.create();
+
+  @Test
+  public void shouldEncodeLikeSdkSpecs() {
+    SubdocOptionsBuilder createPath = new SubdocOptionsBuilder().createPath(true);
+    SubdocOptionsBuilder xattr = new SubdocOptionsBuilder().xattr(true);
+
+    assertEncodedLike(MutateInSpec.upsert("a.b", JsonObject.create().put("c", 1)).createPath(),
+        mutation(SubdocCommandType.DICT_UPSERT, "a.b", createPath, false).bind(JsonObject.create().put("c", 1)));
+    assertEncodedLike(MutateInSpec.insert("a", "x").xattr(),
+        mutation(SubdocCommandType.DICT_ADD, "a", xattr, false).bind("x"));
+    assertEncodedLike(MutateInSpec.upsert("cas", MutateInMacro.CAS),
+        mutation(SubdocCommandType.DICT_UPSERT, "cas", new SubdocOptionsBuilder().expandMacros(true), false)
+            .bind("${Mutation.CAS}"));
+    assertEncodedLike(MutateInSpec.increment("n", 5).createPath(),
+        mutation(SubdocCommandType.COUNTER, "n", createPath, false).bind(5));
+    assertEncodedLike(MutateInSpec.remove(""),
+        mutation(SubdocCommandType.DELETE, "", new SubdocOptionsBuilder(), false).bind(null));
+    assertEncodedLike(MutateInSpec.replace("", JsonObject.create().put("a", 1)),
+        mutation(SubdocCommandType.REPLACE, "", new SubdocOptionsBuilder(), false).bind(JsonObject.create().put("a", 1)));
+    assertEncodedLike(MutateInSpec.replace("a", 1),
+        mutation(SubdocCommandType.REPLACE, "a", new SubdocOptionsBuilder(), false).bind(1));
+    assertEncodedLike(MutateInSpec.arrayAppend("list", Arrays.asList(1, "two", 3)),
+        mutation(SubdocCommandType.ARRAY_PUSH_LAST, "list", new SubdocOptionsBuilder(), true)
+            .bind(Arrays.asList(1, "two", 3)));
+    assertEncodedLike(MutateInSpec.arrayPrepend("list", singletonList(Arrays.asList(1, 2))),
+        mutation(SubdocCommandType.ARRAY_PUSH_FIRST, "list", new SubdocOptionsBuilder(), false)
+            .bind(Arrays.asList(1, 2)));
+  }
+
+  @Test
+  public void shouldShareConstantSpecs() {
+    SubdocMutation remove = mutation(SubdocCommandType.DELETE, "a", new SubdocOptionsBuilder(), false);
+    assertSame(remove.bind(null), remove.bind(null));
+  }
+
+  @Test
+  public void shouldExportLookupsLikeSdkSpecs() {
+    SubdocLookup document = new SubdocLookup(SubdocCommandType.GET, "", false);
+    assertArrayEquals(bytes(LookupInSpec.get("").export(3).encode(UnpooledByteBufAllocator.DEFAULT)),
+        bytes(document.export(3).encode(UnpooledByteBufAllocator.DEFAULT)));
+    assertArrayEquals(bytes(LookupInSpec.count("a[0]").xattr().export(0).encode(UnpooledByteBufAllocator.DEFAULT)),
+        bytes(new SubdocLookup(SubdocCommandType.COUNT, "a[0]", true).export(0).encode(UnpooledByteBufAllocator.DEFAULT)));
+    assertSame(document.export(3), document.export(3));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectSingleValueOfMultiValueMutation() {
+    mutation(SubdocCommandType.ARRAY_INSERT, "a[0]", new SubdocOptionsBuilder(), true).bind("x");
+  }
+
+  private static SubdocMutation mutation(SubdocCommandType type, String path, SubdocOptionsBuilder options,
+                                         boolean multiValue) {
+    return new SubdocMutation(type, path, options, multiValue);
+  }
+
+  private static void assertEncodedLike(MutateInSpec expected, MutateInSpec actual) {
+    assertArrayEquals(
+        bytes(expected.encode(SERIALIZER, 2).encode(UnpooledByteBufAllocator.DEFAULT)),
+        bytes(actual.encode(SERIALIZER, 2).encode(UnpooledByteBufAllocator.DEFAULT)));
+  }
+
+  private static byte[] bytes(ByteBuf buffer) {
+    try {
+      return ByteBufUtil.getBytes(buffer);
+    } finally {
+      buffer.release();
+    }
+  }
+}
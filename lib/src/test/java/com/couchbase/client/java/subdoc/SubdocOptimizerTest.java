@@ -0,0 +1,149 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.subdoc;
+
+import com.couchbase.client.core.msg.kv.SubDocumentField;
+import com.couchbase.client.core.msg.kv.SubDocumentOpResponseStatus;
+import com.couchbase.client.core.msg.kv.SubdocCommandType;
+import com.couchbase.client.java.codec.DefaultJsonSerializer;
+import com.couchbase.client.java.codec.JsonSerializer;
+import com.couchbase.client.java.kv.LookupInResult;
+import com.couchbase.client.java.kv.MutateInResult;
+import com.couchbase.client.java.kv.MutateInSpec;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SubdocOptimizerTest {
+  private static final JsonSerializer SERIALIZER = DefaultJsonSerializer.create();
+  private static final SubdocOptionsBuilder DEFAULT = new SubdocOptionsBuilder();
+
+  @Test
+  public void shouldAnswerLookupsWithinGetsFromTheirFragment() {
+    SubdocLookup getA = new SubdocLookup(SubdocCommandType.GET, "a", false);
+    SubdocLookup existsX = new SubdocLookup(SubdocCommandType.EXISTS, "x", false);
+    List<SubdocLookup> lookups = Arrays.asList(
+        getA,
+        new SubdocLookup(SubdocCommandType.GET, "a.b", false),
+        new SubdocLookup(SubdocCommandType.EXISTS, "a.c", false),
+        existsX,
+        new SubdocLookup(SubdocCommandType.EXISTS, "x", false),
+        new SubdocLookup(SubdocCommandType.COUNT, "a.d", false),
+        new SubdocLookup(SubdocCommandType.GET, "a", false),
+        new SubdocLookup(SubdocCommandType.GET, "a.b", true));
+
+    SubdocOptimizer.LookupPlan plan = SubdocOptimizer.planLookups(lookups);
+    assertEquals(Arrays.asList(getA, existsX, lookups.get(7)), plan.sent);
+
+    LookupInResult result = plan.apply(SubdocResults.lookupInResult(new SubDocumentField[] {
+        success("{\"b\":1,\"d\":[1,2]}", getA),
+        success("", existsX),
+        success("\"meta\"", lookups.get(7)),
+    }, 42, SERIALIZER, false), SERIALIZER);
+
+    assertEquals(42, result.cas());
+    assertEquals(1, (int) result.contentAs(1, Integer.class));
+    assertFalse(result.exists(2));
+    assertTrue(result.exists(3));
+    assertTrue(result.exists(4));
+    assertEquals(2, (int) result.contentAs(5, Integer.class));
+    assertEquals(2, result.contentAsObject(6).size());
+    assertEquals("meta", result.contentAs(7, String.class));
+  }
+
+  @Test
+  public void shouldNotPlanLookupsWithoutRedundancy() {
+    assertNull(SubdocOptimizer.planLookups(Arrays.asList(
+        new SubdocLookup(SubdocCommandType.GET, "a.b", false),
+        new SubdocLookup(SubdocCommandType.GET, "a", true),
+        new SubdocLookup(SubdocCommandType.EXISTS, "a.c", false))));
+  }
+
+  @Test
+  public void shouldFoldConsecutiveAppends() {
+    List<MutateInSpec> specs = Arrays.asList(
+        mutation(SubdocCommandType.ARRAY_PUSH_LAST, "list", false).bind(1),
+        mutation(SubdocCommandType.ARRAY_PUSH_LAST, "list", false).bind(2),
+        mutation(SubdocCommandType.ARRAY_PUSH_LAST, "list", true).bind(new ArrayList<>(Arrays.asList(3, 4))),
+        mutation(SubdocCommandType.DICT_UPSERT, "tmp", false).bind("x"),
+        mutation(SubdocCommandType.DELETE, "tmp", false).bind(null),
+        mutation(SubdocCommandType.COUNTER, "n", false).bind(1L));
+
+    SubdocOptimizer.MutationPlan plan = SubdocOptimizer.planMutations(specs);
+    assertEquals(4, plan.sent.size());
+    SubdocMutation.Bound append = (SubdocMutation.Bound) plan.sent.get(0);
+    assertTrue(append.mutation.multiValue);
+    assertEquals(Arrays.asList(1, 2, 3, 4), append.value);
+    // removing a field just upserted is not the same as not upserting it, if the field existed
+    assertSame(specs.get(3), plan.sent.get(1));
+    assertSame(specs.get(4), plan.sent.get(2));
+    assertSame(specs.get(5), plan.sent.get(3));
+
+    MutateInResult result = plan.apply(SubdocResults.mutateInResult(new SubDocumentField[] {
+        null,
+        null,
+        null,
+        success("7", SubdocCommandType.COUNTER, "n"),
+    }, 42, Optional.empty(), SERIALIZER), SERIALIZER);
+
+    assertEquals(42, result.cas());
+    assertEquals(7, (int) result.contentAs(5, Integer.class));
+    try {
+      result.contentAs(2, Integer.class);
+      fail();
+    } catch (NoSuchElementException expected) {
+    }
+  }
+
+  @Test
+  public void shouldKeepMutationsWhichCannotBeMerged() {
+    assertNull(SubdocOptimizer.planMutations(Arrays.asList(
+        mutation(SubdocCommandType.ARRAY_PUSH_LAST, "a", false).bind(1),
+        mutation(SubdocCommandType.ARRAY_PUSH_LAST, "b", false).bind(2),
+        mutation(SubdocCommandType.DICT_UPSERT, "c.d", false).bind(3),
+        mutation(SubdocCommandType.DELETE, "c.d", false).bind(null),
+        mutation(SubdocCommandType.DICT_UPSERT, "e", false).bind(4),
+        mutation(SubdocCommandType.DELETE, "f", false).bind(null),
+        mutation(SubdocCommandType.DICT_UPSERT, "g", false).bind(5),
+        mutation(SubdocCommandType.DELETE, "g", false).bind(null))));
+  }
+
+  private static SubdocMutation mutation(SubdocCommandType type, String path, boolean multiValue) {
+    return new SubdocMutation(type, path, DEFAULT, multiValue);
+  }
+
+  private static SubDocumentField success(String json, SubdocLookup lookup) {
+    return success(json, lookup.commandType(), lookup.path);
+  }
+
+  private static SubDocumentField success(String json, SubdocCommandType type, String path) {
+    return new SubDocumentField(SubDocumentOpResponseStatus.SUCCESS, Optional.empty(),
+        json.getBytes(StandardCharsets.UTF_8), path, type);
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.subdoc;
+
+import com.couchbase.client.core.msg.kv.DurabilityLevel;
+import com.couchbase.client.core.retry.FailFastRetryStrategy;
+import com.couchbase.client.java.codec.DefaultJsonSerializer;
+import com.couchbase.client.java.codec.JsonSerializer;
+import com.couchbase.client.java.kv.LookupInOptions;
+import com.couchbase.client.java.kv.MutateInOptions;
+import com.couchbase.client.java.kv.PersistTo;
+import com.couchbase.client.java.kv.ReplicateTo;
+import com.couchbase.client.java.kv.StoreSemantics;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SubdocOptionsTest {
+
+  private static final JsonSerializer SERIALIZER = DefaultJsonSerializer.create();
+
+  @Test
+  public void shouldCopyMutationOptions() {
+    MutateInOptions options = MutateInOptions.mutateInOptions()
+        .cas(42)
+        .storeSemantics(StoreSemantics.INSERT)
+        .expiry(Duration.ofHours(1))
+        .accessDeleted(true)
+        .createAsDeleted(true)
+        .durability(DurabilityLevel.MAJORITY)
+        .timeout(Duration.ofSeconds(3))
+        .retryStrategy(FailFastRetryStrategy.INSTANCE)
+        .clientContext(Collections.singletonMap("k", "v"))
+        .serializer(SERIALIZER);
+
+    MutateInOptions.Built copy = SubdocOptions.copy(options).build();
+    assertEquals(42, copy.cas());
+    assertEquals(StoreSemantics.INSERT, copy.storeSemantics());
+    assertEquals(3600, copy.expiry().encode());
+    assertTrue(copy.accessDeleted());
+    assertTrue(copy.createAsDeleted());
+    assertEquals(Optional.of(DurabilityLevel.MAJORITY), copy.durabilityLevel());
+    assertEquals(Optional.of(Duration.ofSeconds(3)), copy.timeout());
+    assertEquals(Optional.of(FailFastRetryStrategy.INSTANCE), copy.retryStrategy());
+    assertEquals(Collections.singletonMap("k", "v"), copy.clientContext());
+    assertSame(SERIALIZER, copy.serializer());
+  }
+
+  @Test
+  public void shouldCopyAbsoluteExpiryAndLegacyDurability() {
+    Instant expiry = Instant.ofEpochSecond(2_000_000_000L);
+    MutateInOptions options = MutateInOptions.mutateInOptions()
+        .expiry(expiry)
+        .durability(PersistTo.ACTIVE, ReplicateTo.ONE);
+
+    MutateInOptions.Built copy = SubdocOptions.copy(options).build();
+    assertEquals(expiry.getEpochSecond(), copy.expiry().encode());
+    assertEquals(PersistTo.ACTIVE, copy.persistTo());
+    assertEquals(ReplicateTo.ONE, copy.replicateTo());
+    assertFalse(copy.durabilityLevel().isPresent());
+  }
+
+  @Test
+  public void shouldNotFollowChangesOfTheOriginal() {
+    MutateInOptions options = MutateInOptions.mutateInOptions().cas(1);
+    MutateInOptions copy = SubdocOptions.copy(options);
+    options.cas(2).durability(DurabilityLevel.MAJORITY).timeout(Duration.ofSeconds(1));
+
+    assertEquals(1, copy.build().cas());
+    assertFalse(copy.build().durabilityLevel().isPresent());
+    assertFalse(copy.build().timeout().isPresent());
+
+    LookupInOptions lookupOptions = LookupInOptions.lookupInOptions().timeout(Duration.ofSeconds(1));
+    LookupInOptions lookupCopy = SubdocOptions.copy(lookupOptions);
+    lookupOptions.timeout(Duration.ofSeconds(2)).accessDeleted(true);
+
+    assertEquals(Optional.of(Duration.ofSeconds(1)), lookupCopy.build().timeout());
+    assertFalse(lookupCopy.build().accessDeleted());
+  }
+}
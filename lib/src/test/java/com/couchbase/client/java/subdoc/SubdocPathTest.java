@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.subdoc;
+
+import com.couchbase.client.core.error.DecodingFailureException;
+import com.couchbase.client.core.error.subdoc.PathMismatchException;
+import com.couchbase.client.core.error.subdoc.PathNotFoundException;
+import com.couchbase.client.core.msg.kv.SubDocumentField;
+import com.couchbase.client.core.msg.kv.SubdocCommandType;
+import com.couchbase.client.java.codec.DefaultJsonSerializer;
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.kv.LookupInResult;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SubdocPathTest {
+
+  private static final SubdocPath.Node DOCUMENT = SubdocPath.decode(
+      "{\"a\":{\"b\":[1,{\"c\":\"x\"},3]},\"d.e\":true,\"n\":null}".getBytes(StandardCharsets.UTF_8));
+
+  @Test
+  public void shouldParsePaths() {
+    assertEquals(emptyList(), SubdocPath.parse(""));
+    assertEquals(Arrays.asList("a", "b", 1, "c"), SubdocPath.parse("a.b[1].c"));
+    assertEquals(Arrays.asList(0, -1), SubdocPath.parse("[0][-1]"));
+    assertEquals(Arrays.asList("d.e", "f`g"), SubdocPath.parse("`d.e`.`f``g`"));
+  }
+
+  @Test
+  public void shouldRejectMalformedPaths() {
+    for (String path : Arrays.asList("a.", "a..b", ".a", "a.[0]", "a[x]", "a[0", "`a", "`a`b", "a]")) {
+      try {
+        SubdocPath.parse(path);
+        fail("Accepted " + path);
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void shouldAnswerLookups() {
+    LookupInResult result = lookup(
+        new SubdocLookup(SubdocCommandType.GET, "a.b[1].c", false),
+        new SubdocLookup(SubdocCommandType.GET, "a.b[-1]", false),
+        new SubdocLookup(SubdocCommandType.COUNT, "a.b", false),
+        new SubdocLookup(SubdocCommandType.EXISTS, "`d.e`", false),
+        new SubdocLookup(SubdocCommandType.EXISTS, "a.z", false),
+        new SubdocLookup(SubdocCommandType.GET, "a.b.c", false),
+        new SubdocLookup(SubdocCommandType.GET, "n", false),
+        new SubdocLookup(SubdocCommandType.GET, "", false));
+
+    assertEquals("x", result.contentAs(0, String.class));
+    assertEquals(3, (int) result.contentAs(1, Integer.class));
+    assertEquals(3, (int) result.contentAs(2, Integer.class));
+    assertTrue(result.exists(3));
+    assertFalse(result.exists(4));
+    assertFalse(result.exists(5));
+    assertTrue(result.exists(6));
+    assertEquals(JsonArray.from(1, JsonObject.create().put("c", "x"), 3),
+        result.contentAsObject(7).getObject("a").getArray("b"));
+
+    try {
+      result.contentAs(4, Boolean.class);
+      fail();
+    } catch (PathNotFoundException expected) {
+      assertEquals(4, expected.context().index());
+    }
+    try {
+      result.contentAs(5, String.class);
+      fail();
+    } catch (PathMismatchException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void shouldCopyValuesAsTheyAreInTheDocument() {
+    SubdocPath.Node document = SubdocPath.decode(("{ \"pi\" : 3.14159265358979323846264338327950288,"
+        + "\"a\":[1E2, 1.50 ,{\"s\":\"\\u00e9\"} ] }").getBytes(StandardCharsets.UTF_8));
+
+    assertEquals("3.14159265358979323846264338327950288", get(document, "pi"));
+    assertEquals("1E2", get(document, "a[0]"));
+    assertEquals("1.50", get(document, "a[1]"));
+    assertEquals("\"\\u00e9\"", get(document, "a[2].s"));
+    assertEquals("{\"s\":\"\\u00e9\"}", get(document, "a[-1]"));
+    assertEquals("[1E2, 1.50 ,{\"s\":\"\\u00e9\"} ]", get(document, "a"));
+
+    LookupInResult result = SubdocResults.lookupInResult(new SubDocumentField[] {
+        SubdocPath.lookup(document, new SubdocLookup(SubdocCommandType.GET, "pi", false), 0)
+    }, 1, DefaultJsonSerializer.create(), false);
+    assertEquals(new BigDecimal("3.14159265358979323846264338327950288"), result.contentAs(0, BigDecimal.class));
+  }
+
+  @Test
+  public void shouldRejectMalformedDocuments() {
+    for (String json : Arrays.asList("", "{\"a\":", "{} {}", "[1,]")) {
+      try {
+        SubdocPath.decode(json.getBytes(StandardCharsets.UTF_8));
+        fail("Accepted " + json);
+      } catch (DecodingFailureException expected) {
+        // expected
+      }
+    }
+  }
+
+  private static String get(SubdocPath.Node document, String path) {
+    SubDocumentField field = SubdocPath.lookup(document, new SubdocLookup(SubdocCommandType.GET, path, false), 0);
+    return new String(field.value(), StandardCharsets.UTF_8);
+  }
+
+  private static LookupInResult lookup(SubdocLookup... lookups) {
+    SubDocumentField[] fields = new SubDocumentField[lookups.length];
+    for (int i = 0; i < lookups.length; i++) {
+      fields[i] = SubdocPath.lookup(DOCUMENT, lookups[i], i);
+    }
+    return SubdocResults.lookupInResult(fields, 1, DefaultJsonSerializer.create(), false);
+  }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2022 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.subdoc;
+
+import com.couchbase.client.core.msg.kv.DurabilityLevel;
+import com.couchbase.client.core.msg.kv.SubDocumentField;
+import com.couchbase.client.core.msg.kv.SubDocumentOpResponseStatus;
+import com.couchbase.client.core.msg.kv.SubdocCommandType;
+import com.couchbase.client.java.codec.DefaultJsonSerializer;
+import com.couchbase.client.java.codec.JsonSerializer;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.kv.LookupInOptions;
+import com.couchbase.client.java.kv.LookupInResult;
+import com.couchbase.client.java.kv.LookupInSpec;
+import com.couchbase.client.java.kv.MutateInOptions;
+import com.couchbase.client.java.kv.MutateInResult;
+import com.couchbase.client.java.kv.MutateInSpec;
+import com.couchbase.client.java.kv.StoreSemantics;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static java.util.Collections.nCopies;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SubdocSplitterTest {
+
+  private static final JsonSerializer SERIALIZER = DefaultJsonSerializer.create();
+  private static final JsonObject DOCUMENT = JsonObject.create();
+
+  static {
+    for (int i = 0; i < 40; i++) {
+      DOCUMENT.put("f" + i, i);
+    }
+  }
+
+  private final List<List<LookupInSpec>> lookupRequests = new ArrayList<>();
+  private final List<MutateInOptions.Built> mutateRequests = new ArrayList<>();
+
+  /**
+   * Answers lookups from {@link #DOCUMENT}, the n-th request returning the n-th given CAS, or the
+   * last one once they are exhausted.
+   */
+  private SubdocSplitter.LookupIn lookupIn(long... cas) {
+    SubdocPath.Node document = SubdocPath.decode(DOCUMENT.toBytes());
+    return (documentId, specs, options) -> {
+      SubDocumentField[] fields = new SubDocumentField[specs.size()];
+      for (int i = 0; i < fields.length; i++) {
+        fields[i] = SubdocPath.lookup(document, (SubdocLookup) specs.get(i), i);
+      }
+      lookupRequests.add(specs);
+      long revision = cas[Math.min(lookupRequests.size(), cas.length) - 1];
+      return CompletableFuture.completedFuture(SubdocResults.lookupInResult(fields, revision, SERIALIZER, false));
+    };
+  }
+
+  /**
+   * Answers mutations with a CAS made of the number of the request, and a first field holding it.
+   */
+  private SubdocSplitter.MutateIn mutateIn() {
+    return (documentId, specs, options) -> {
+      mutateRequests.add(options.build());
+      int request = mutateRequests.size();
+      SubDocumentField[] fields = new SubDocumentField[specs.size()];
+      fields[0] = new SubDocumentField(SubDocumentOpResponseStatus.SUCCESS, Optional.empty(),
+          SERIALIZER.serialize(request), "", SubdocCommandType.COUNTER);
+      return CompletableFuture.completedFuture(
+          SubdocResults.mutateInResult(fields, 100 + request, Optional.empty(), SERIALIZER));
+    };
+  }
+
+  private static List<SubdocLookup> gets(int count) {
+    List<SubdocLookup> lookups = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      lookups.add(new SubdocLookup(SubdocCommandType.GET, "f" + i, false));
+    }
+    return lookups;
+  }
+
+  @Test
+  public void shouldCutIntoChunksOfMaxSpecs() {
+    List<Integer> specs = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      specs.add(i);
+    }
+    List<List<Integer>> chunks = SubdocSplitter.chunks(specs);
+    assertEquals(3, chunks.size());
+    assertEquals(specs.subList(0, 16), chunks.get(0));
+    assertEquals(specs.subList(32, 40), chunks.get(2));
+    assertEquals(1, SubdocSplitter.chunks(specs.subList(0, 16)).size());
+  }
+
+  @Test
+  public void shouldSplitLargeLookups() {
+    SubdocLookup get = new SubdocLookup(SubdocCommandType.GET, "a", false);
+    SubdocLookup xattr = new SubdocLookup(SubdocCommandType.GET, "meta", true);
+
+    assertFalse(SubdocSplitter.isSplit(nCopies(16, get), 64));
+    assertTrue(SubdocSplitter.isSplit(nCopies(17, get), 64));
+    // fetches the whole document instead
+    assertTrue(SubdocSplitter.isSplit(nCopies(3, get), 2));
+
+    List<SubdocLookup> withXattr = new ArrayList<>(nCopies(3, get));
+    withXattr.add(xattr);
+    assertFalse(SubdocSplitter.isSplit(withXattr, 2));
+  }
+
+  @Test
+  public void shouldStitchChunksInOrder() {
+    List<SubdocLookup> lookups = gets(40);
+    lookups.set(20, new SubdocLookup(SubdocCommandType.GET, "missing", false));
+
+    LookupInResult result = SubdocSplitter.lookupIn(lookupIn(7), SERIALIZER, "id", lookups,
+        LookupInOptions.lookupInOptions(), 64).join();
+
+    assertEquals(3, lookupRequests.size());
+    assertEquals(8, lookupRequests.get(2).size());
+    assertEquals(7, result.cas());
+    for (int i = 0; i < 40; i++) {
+      if (i == 20) {
+        assertFalse(result.exists(i));
+      } else {
+        assertEquals(Integer.valueOf(i), result.contentAs(i, Integer.class));
+      }
+    }
+  }
+
+  @Test
+  public void shouldFetchTheDocumentWhenItChangedBetweenChunks() {
+    LookupInResult result = SubdocSplitter.lookupIn(lookupIn(1, 2, 2), SERIALIZER, "id", gets(20),
+        LookupInOptions.lookupInOptions(), 64).join();
+
+    assertEquals(3, lookupRequests.size());
+    assertEquals(1, lookupRequests.get(2).size());
+    assertEquals("", ((SubdocLookup) lookupRequests.get(2).get(0)).path);
+    assertEquals(2, result.cas());
+    assertEquals(Integer.valueOf(19), result.contentAs(19, Integer.class));
+  }
+
+  @Test
+  public void shouldRetryChunksWithExtendedAttributesWhenTheDocumentChanged() {
+    List<SubdocLookup> lookups = gets(20);
+    lookups.add(new SubdocLookup(SubdocCommandType.GET, "meta", true));
+
+    LookupInResult result = SubdocSplitter.lookupIn(lookupIn(1, 2, 3), SERIALIZER, "id", lookups,
+        LookupInOptions.lookupInOptions(), 64).join();
+
+    assertEquals(4, lookupRequests.size());
+    assertEquals(16, lookupRequests.get(2).size());
+    assertEquals(3, result.cas());
+    assertEquals(Integer.valueOf(19), result.contentAs(19, Integer.class));
+  }
+
+  @Test
+  public void shouldFailWhenTheDocumentKeepsChanging() {
+    List<SubdocLookup> lookups = gets(20);
+    lookups.add(new SubdocLookup(SubdocCommandType.GET, "meta", true));
+
+    try {
+      SubdocSplitter.lookupIn(lookupIn(1, 2, 3, 4, 5, 6), SERIALIZER, "id", lookups,
+          LookupInOptions.lookupInOptions(), 64).join();
+      fail();
+    } catch (CompletionException e) {
+      assertTrue(e.getCause() instanceof ConcurrentModificationException);
+    }
+    assertEquals(6, lookupRequests.size());
+  }
+
+  @Test
+  public void shouldChainMutationChunksOnTheirCas() {
+    List<MutateInSpec> specs = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      specs.add(MutateInSpec.upsert("f" + i, i));
+    }
+    MutateInOptions options = MutateInOptions.mutateInOptions()
+        .cas(7)
+        .storeSemantics(StoreSemantics.UPSERT)
+        .durability(DurabilityLevel.MAJORITY);
+
+    MutateInResult result = SubdocSplitter.mutateIn(mutateIn(), SERIALIZER, "id", specs, options).join();
+
+    assertEquals(2, mutateRequests.size());
+    MutateInOptions.Built first = mutateRequests.get(0);
+    assertEquals(7, first.cas());
+    assertEquals(StoreSemantics.UPSERT, first.storeSemantics());
+    assertFalse(first.durabilityLevel().isPresent());
+    MutateInOptions.Built last = mutateRequests.get(1);
+    assertEquals(101, last.cas());
+    assertEquals(StoreSemantics.REPLACE, last.storeSemantics());
+    assertEquals(Optional.of(DurabilityLevel.MAJORITY), last.durabilityLevel());
+
+    assertEquals(102, result.cas());
+    assertEquals(Integer.valueOf(1), result.contentAs(0, Integer.class));
+    assertEquals(Integer.valueOf(2), result.contentAs(16, Integer.class));
+    try {
+      result.contentAs(1, Integer.class);
+      fail();
+    } catch (NoSuchElementException expected) {
+      // expected
+    }
+  }
+}
@@ -8,4 +8,4 @@
  */
 
 rootProject.name = "couchbase-java-sdk2-query-dsl"
-include("lib")
+include("lib", "benchmarks")